@@ -0,0 +1,230 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ------------------------------------------------------------------------
+ *
+ */
+package org.knime.core.benchmarks;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+import javax.json.Json;
+import javax.json.JsonArray;
+import javax.json.JsonNumber;
+import javax.json.JsonObject;
+import javax.json.JsonReader;
+import javax.json.JsonString;
+import javax.json.JsonValue;
+
+/**
+ * Compares two JMH result files written with <code>-rf json</code>, a baseline and a current run, and reports the
+ * relative change of the score and (if run with <code>-prof gc</code>) of the normalized allocation rate of each
+ * benchmark. Changes beyond a threshold are flagged and make the program exit with status 1, so that it can be used in
+ * scripts.
+ *
+ * <pre>
+ * java -cp benchmarks.jar org.knime.core.benchmarks.BaselineComparison baseline.json current.json [threshold %]
+ * </pre>
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+public final class BaselineComparison {
+
+    private static final double DEFAULT_THRESHOLD_PERCENT = 5;
+
+    private static final String ALLOCATION_METRIC = "gc.alloc.rate.norm";
+
+    private BaselineComparison() {
+    }
+
+    /** Score and allocation of one benchmark with one set of parameters. */
+    static final class Result {
+
+        private final String m_mode;
+
+        private final double m_score;
+
+        private final String m_unit;
+
+        private final double m_allocation;
+
+        Result(final String mode, final double score, final String unit, final double allocation) {
+            m_mode = mode;
+            m_score = score;
+            m_unit = unit;
+            m_allocation = allocation;
+        }
+
+        /** @return whether a higher score is better, true for throughput */
+        boolean isHigherBetter() {
+            return "thrpt".equals(m_mode);
+        }
+    }
+
+    /**
+     * Reads a JMH result file.
+     *
+     * @param in the JSON content
+     * @return the results by benchmark name and parameters, sorted by name
+     */
+    static Map<String, Result> read(final InputStream in) {
+        Map<String, Result> results = new TreeMap<>();
+        try (JsonReader reader = Json.createReader(in)) {
+            JsonArray array = reader.readArray();
+            for (JsonObject o : array.getValuesAs(JsonObject.class)) {
+                StringBuilder name = new StringBuilder(o.getString("benchmark"));
+                JsonObject params = o.getJsonObject("params");
+                if (params != null) {
+                    Map<String, String> sorted = new TreeMap<>();
+                    params.forEach((k, v) -> sorted.put(k, ((JsonString)v).getString()));
+                    name.append(sorted.toString());
+                }
+                JsonObject primary = o.getJsonObject("primaryMetric");
+                double allocation = Double.NaN;
+                JsonObject secondary = o.getJsonObject("secondaryMetrics");
+                if (secondary != null) {
+                    for (Map.Entry<String, JsonValue> e : secondary.entrySet()) {
+                        if (e.getKey().endsWith(ALLOCATION_METRIC)) {
+                            allocation = ((JsonObject)e.getValue()).getJsonNumber("score").doubleValue();
+                        }
+                    }
+                }
+                JsonNumber score = primary.getJsonNumber("score");
+                results.put(name.toString(), new Result(o.getString("mode"), score.doubleValue(),
+                    primary.getString("scoreUnit"), allocation));
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Writes the comparison report.
+     *
+     * @param baseline the baseline results
+     * @param current the current results
+     * @param thresholdPercent relative change in percent above which a change is flagged as regression or improvement
+     * @param out the stream to write the report to
+     * @return the number of regressions
+     */
+    static int compare(final Map<String, Result> baseline, final Map<String, Result> current,
+        final double thresholdPercent, final PrintStream out) {
+        int regressions = 0;
+        Map<String, String> missing = new LinkedHashMap<>();
+        for (Map.Entry<String, Result> e : current.entrySet()) {
+            Result cur = e.getValue();
+            Result base = baseline.get(e.getKey());
+            if (base == null) {
+                missing.put(e.getKey(), "not in baseline");
+                continue;
+            }
+            double scoreChange = change(base.m_score, cur.m_score);
+            double allocationChange = change(base.m_allocation, cur.m_allocation);
+            boolean slower = cur.isHigherBetter() ? scoreChange < -thresholdPercent : scoreChange > thresholdPercent;
+            boolean faster = cur.isHigherBetter() ? scoreChange > thresholdPercent : scoreChange < -thresholdPercent;
+            boolean moreAllocation = allocationChange > thresholdPercent;
+            String verdict;
+            if (slower || moreAllocation) {
+                verdict = "REGRESSION";
+                regressions++;
+            } else if (faster || allocationChange < -thresholdPercent) {
+                verdict = "improved";
+            } else {
+                verdict = "";
+            }
+            out.println(String.format("%-10s %s%n  score %.3f -> %.3f %s (%+.1f%%), alloc %s -> %s B/op (%s)",
+                verdict, e.getKey(), base.m_score, cur.m_score, cur.m_unit, scoreChange,
+                formatAllocation(base.m_allocation), formatAllocation(cur.m_allocation),
+                Double.isNaN(allocationChange) ? "n/a" : String.format("%+.1f%%", allocationChange)));
+        }
+        for (String name : baseline.keySet()) {
+            if (!current.containsKey(name)) {
+                missing.put(name, "not in current run");
+            }
+        }
+        missing.forEach((name, reason) -> out.println(String.format("%-10s %s (%s)", "skipped", name, reason)));
+        out.println(String.format("%d regression(s) beyond %.1f%%", regressions, thresholdPercent));
+        return regressions;
+    }
+
+    private static double change(final double base, final double current) {
+        if (Double.isNaN(base) || Double.isNaN(current) || base == 0) {
+            return Double.NaN;
+        }
+        return (current - base) / base * 100;
+    }
+
+    private static String formatAllocation(final double allocation) {
+        return Double.isNaN(allocation) ? "n/a" : String.format("%.0f", allocation);
+    }
+
+    /**
+     * Compares two result files.
+     *
+     * @param args baseline file, current file, optional threshold in percent (default 5)
+     * @throws IOException if the files can't be read
+     */
+    public static void main(final String[] args) throws IOException {
+        if (args.length < 2 || args.length > 3) {
+            System.err.println("Usage: BaselineComparison <baseline.json> <current.json> [threshold %]");
+            System.exit(2);
+        }
+        double threshold = args.length == 3 ? Double.parseDouble(args[2]) : DEFAULT_THRESHOLD_PERCENT;
+        Map<String, Result> baseline;
+        Map<String, Result> current;
+        try (InputStream in = Files.newInputStream(Paths.get(args[0]))) {
+            baseline = read(in);
+        }
+        try (InputStream in = Files.newInputStream(Paths.get(args[1]))) {
+            current = read(in);
+        }
+        if (compare(baseline, current, threshold, System.out) > 0) {
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,264 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ------------------------------------------------------------------------
+ *
+ */
+package org.knime.core.benchmarks;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.knime.core.data.DataCell;
+import org.knime.core.data.DataColumnSpec;
+import org.knime.core.data.DataColumnSpecCreator;
+import org.knime.core.data.DataRow;
+import org.knime.core.data.DataTableSpec;
+import org.knime.core.data.DataType;
+import org.knime.core.data.RowKey;
+import org.knime.core.data.def.DefaultRow;
+import org.knime.core.data.def.DoubleCell;
+import org.knime.core.data.def.IntCell;
+import org.knime.core.data.def.LongCell;
+import org.knime.core.data.def.StringCell;
+import org.knime.core.data.filestore.internal.NotInWorkflowDataRepository;
+import org.knime.core.data.xml.XMLCell;
+import org.knime.core.data.xml.XMLCellFactory;
+import org.knime.core.node.BufferedDataContainer;
+import org.knime.core.node.BufferedDataTable;
+import org.knime.core.node.DefaultNodeProgressMonitor;
+import org.knime.core.node.ExecutionContext;
+import org.knime.core.node.Node;
+import org.knime.core.node.NodeFactory;
+import org.knime.core.node.NodeModel;
+import org.knime.core.node.port.PortType;
+import org.knime.core.node.workflow.SingleNodeContainer.MemoryPolicy;
+import org.knime.core.node.workflow.virtual.parchunk.VirtualParallelizedChunkPortObjectInNodeFactory;
+
+/**
+ * Reproducible synthetic tables for the benchmarks. The content of a table only depends on its {@link Shape}, row
+ * count and seed. Each shape starts with an integer column {@value #KEY_COLUMN} holding uniformly distributed values
+ * in [0, row count), to be used as sort, join or grouping column.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+public final class SyntheticTables {
+
+    /** Name of the integer column each shape starts with. */
+    public static final String KEY_COLUMN = "key";
+
+    /** Seed used by the benchmarks so that runs can be compared against each other. */
+    public static final long SEED = 20200917L;
+
+    /** The kinds of tables that can be generated. */
+    public enum Shape {
+        /** A few int, long and double columns, 10% of the doubles missing. */
+        NUMERIC {
+            @Override
+            DataType[] columnTypes() {
+                return new DataType[]{LongCell.TYPE, DoubleCell.TYPE, DoubleCell.TYPE, DoubleCell.TYPE};
+            }
+
+            @Override
+            DataCell createCell(final int column, final Random random) {
+                if (column == 0) {
+                    return new LongCell(random.nextLong());
+                }
+                return random.nextInt(10) == 0 ? DataType.getMissingCell() : new DoubleCell(random.nextGaussian());
+            }
+        },
+        /** String columns of low (100), medium (10000) and unbounded cardinality. */
+        STRING {
+            @Override
+            DataType[] columnTypes() {
+                return new DataType[]{StringCell.TYPE, StringCell.TYPE, StringCell.TYPE};
+            }
+
+            @Override
+            DataCell createCell(final int column, final Random random) {
+                switch (column) {
+                    case 0:
+                        return new StringCell("Category " + random.nextInt(100));
+                    case 1:
+                        return new StringCell("Value " + random.nextInt(10000));
+                    default:
+                        return new StringCell(randomString(random, 8 + random.nextInt(24)));
+                }
+            }
+        },
+        /** 500 double columns. */
+        WIDE {
+            @Override
+            DataType[] columnTypes() {
+                DataType[] types = new DataType[WIDE_COLUMNS];
+                Arrays.fill(types, DoubleCell.TYPE);
+                return types;
+            }
+
+            @Override
+            DataCell createCell(final int column, final Random random) {
+                return new DoubleCell(random.nextDouble());
+            }
+        },
+        /** One XML column whose cells are large enough (about 9kB) to be stored as blobs. */
+        BLOB {
+            @Override
+            DataType[] columnTypes() {
+                return new DataType[]{XMLCell.TYPE};
+            }
+
+            @Override
+            DataCell createCell(final int column, final Random random) {
+                StringBuilder b = new StringBuilder(XMLCellFactory.DEF_MIN_BLOB_SIZE_IN_BYTES + 1024);
+                b.append("<values>");
+                while (b.length() < XMLCellFactory.DEF_MIN_BLOB_SIZE_IN_BYTES) {
+                    b.append("<v>").append(randomString(random, 16)).append("</v>");
+                }
+                b.append("</values>");
+                try {
+                    return XMLCellFactory.create(b.toString());
+                } catch (Exception e) {
+                    throw new IllegalStateException("Unable to create XML cell: " + e.getMessage(), e);
+                }
+            }
+        };
+
+        /** @return the types of the columns following the key column */
+        abstract DataType[] columnTypes();
+
+        /** Creates the cell of one of the columns following the key column. */
+        abstract DataCell createCell(int column, Random random);
+
+        /** @return the spec of tables of this shape */
+        public DataTableSpec getSpec() {
+            DataType[] types = columnTypes();
+            DataColumnSpec[] colSpecs = new DataColumnSpec[types.length + 1];
+            colSpecs[0] = new DataColumnSpecCreator(KEY_COLUMN, IntCell.TYPE).createSpec();
+            for (int i = 0; i < types.length; i++) {
+                colSpecs[i + 1] = new DataColumnSpecCreator(name().toLowerCase() + "-" + i, types[i]).createSpec();
+            }
+            return new DataTableSpec(colSpecs);
+        }
+    }
+
+    private static final int WIDE_COLUMNS = 500;
+
+    private SyntheticTables() {
+    }
+
+    private static String randomString(final Random random, final int length) {
+        char[] chars = new char[length];
+        for (int i = 0; i < length; i++) {
+            chars[i] = (char)('a' + random.nextInt(26));
+        }
+        return new String(chars);
+    }
+
+    /**
+     * Creates the rows of a table.
+     *
+     * @param shape the shape of the table
+     * @param rowCount the number of rows
+     * @param seed the seed of the random values
+     * @return the rows, with row keys "Row0", "Row1", ...
+     */
+    public static DataRow[] createRows(final Shape shape, final int rowCount, final long seed) {
+        final Random random = new Random(seed);
+        final int nrColumns = shape.columnTypes().length;
+        DataRow[] rows = new DataRow[rowCount];
+        DataCell[] cells = new DataCell[nrColumns + 1];
+        for (int r = 0; r < rowCount; r++) {
+            cells[0] = new IntCell(random.nextInt(rowCount));
+            for (int c = 0; c < nrColumns; c++) {
+                cells[c + 1] = shape.createCell(c, random);
+            }
+            rows[r] = new DefaultRow(RowKey.createRowKey((long)r), cells);
+        }
+        return rows;
+    }
+
+    /**
+     * Creates an execution context that is not part of a workflow, so that {@link BufferedDataTable}s can be created
+     * without a running workbench.
+     *
+     * @return a new execution context
+     */
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    public static ExecutionContext createExecutionContext() {
+        return new ExecutionContext(new DefaultNodeProgressMonitor(),
+            new Node((NodeFactory<NodeModel>)(NodeFactory)new VirtualParallelizedChunkPortObjectInNodeFactory(
+                new PortType[0])),
+            MemoryPolicy.CacheSmallInMemory, NotInWorkflowDataRepository.newInstance());
+    }
+
+    /**
+     * Writes rows into a new table.
+     *
+     * @param exec the context creating the table
+     * @param spec the spec of the rows
+     * @param rows the rows
+     * @return the table
+     */
+    public static BufferedDataTable createTable(final ExecutionContext exec, final DataTableSpec spec,
+        final DataRow[] rows) {
+        BufferedDataContainer container = exec.createDataContainer(spec);
+        for (DataRow row : rows) {
+            container.addRowToTable(row);
+        }
+        container.close();
+        return container.getTable();
+    }
+
+    /**
+     * Creates a new table.
+     *
+     * @param exec the context creating the table
+     * @param shape the shape of the table
+     * @param rowCount the number of rows
+     * @param seed the seed of the random values
+     * @return the table
+     */
+    public static BufferedDataTable createTable(final ExecutionContext exec, final Shape shape, final int rowCount,
+        final long seed) {
+        return createTable(exec, shape.getSpec(), createRows(shape, rowCount, seed));
+    }
+}
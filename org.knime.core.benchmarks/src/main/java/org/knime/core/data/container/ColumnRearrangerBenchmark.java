@@ -0,0 +1,141 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ------------------------------------------------------------------------
+ *
+ */
+package org.knime.core.data.container;
+
+import java.util.concurrent.TimeUnit;
+
+import org.knime.core.benchmarks.SyntheticTables;
+import org.knime.core.benchmarks.SyntheticTables.Shape;
+import org.knime.core.data.DataCell;
+import org.knime.core.data.DataColumnSpecCreator;
+import org.knime.core.data.DataRow;
+import org.knime.core.data.DataTableSpec;
+import org.knime.core.data.DoubleValue;
+import org.knime.core.data.def.DoubleCell;
+import org.knime.core.node.BufferedDataTable;
+import org.knime.core.node.CanceledExecutionException;
+import org.knime.core.node.ExecutionContext;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures rows per second of a {@link ColumnRearranger} that filters the last column, moves the key column to the
+ * end and appends a computed column, as done by many nodes.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ColumnRearrangerBenchmark {
+
+    private static final int ROWS = 10000;
+
+    /** The kind of input table. */
+    @Param({"NUMERIC", "STRING", "WIDE"})
+    public Shape m_shape;
+
+    private ExecutionContext m_exec;
+
+    private BufferedDataTable m_table;
+
+    /** Creates the input table. */
+    @Setup(Level.Trial)
+    public void setup() {
+        m_exec = SyntheticTables.createExecutionContext();
+        m_table = SyntheticTables.createTable(m_exec, m_shape, ROWS, SyntheticTables.SEED);
+    }
+
+    /** Clears the input table. */
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        m_exec.clearTable(m_table);
+    }
+
+    /**
+     * Creates and clears the rearranged table.
+     *
+     * @throws CanceledExecutionException not expected
+     */
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void rearrange() throws CanceledExecutionException {
+        DataTableSpec spec = m_table.getDataTableSpec();
+        ColumnRearranger rearranger = new ColumnRearranger(spec);
+        rearranger.remove(spec.getNumColumns() - 1);
+        rearranger.move(SyntheticTables.KEY_COLUMN, rearranger.getColumnCount());
+        rearranger.append(new SingleCellFactory(new DataColumnSpecCreator("computed", DoubleCell.TYPE).createSpec()) {
+            @Override
+            public DataCell getCell(final DataRow row) {
+                double sum = 0;
+                for (DataCell cell : row) {
+                    if (cell instanceof DoubleValue) {
+                        sum += ((DoubleValue)cell).getDoubleValue();
+                    } else if (!cell.isMissing()) {
+                        sum += cell.hashCode();
+                    }
+                }
+                return new DoubleCell(sum);
+            }
+        });
+        m_exec.clearTable(m_exec.createColumnRearrangeTable(m_table, rearranger, m_exec));
+    }
+}
@@ -0,0 +1,147 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ------------------------------------------------------------------------
+ *
+ */
+package org.knime.core.data.container;
+
+import java.util.concurrent.TimeUnit;
+
+import org.knime.core.benchmarks.SyntheticTables;
+import org.knime.core.benchmarks.SyntheticTables.Shape;
+import org.knime.core.data.DataCell;
+import org.knime.core.data.DataRow;
+import org.knime.core.data.DataTableSpec;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures rows per second when adding rows to a {@link DataContainer} (and hence a {@link Buffer}) and when iterating
+ * the resulting table, for tables kept in memory and tables written to disc.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DataContainerBenchmark {
+
+    private static final int ROWS = 10000;
+
+    /** The kind of table written and read. */
+    @Param({"NUMERIC", "STRING", "WIDE", "BLOB"})
+    public Shape m_shape;
+
+    /** Whether the table is kept in memory or written to disc. */
+    @Param({"true", "false"})
+    public boolean m_inMemory;
+
+    private DataTableSpec m_spec;
+
+    private DataRow[] m_rows;
+
+    private ContainerTable m_table;
+
+    /** Creates the rows and the table read by {@link #iterate(Blackhole)}. */
+    @Setup(Level.Trial)
+    public void setup() {
+        m_spec = m_shape.getSpec();
+        m_rows = SyntheticTables.createRows(m_shape, ROWS, SyntheticTables.SEED);
+        m_table = writeTable();
+    }
+
+    /** Clears the table. */
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        m_table.clear();
+    }
+
+    private ContainerTable writeTable() {
+        DataContainer cont = new DataContainer(m_spec, true, m_inMemory ? Integer.MAX_VALUE : 0);
+        for (DataRow row : m_rows) {
+            cont.addRowToTable(row);
+        }
+        cont.close();
+        return (ContainerTable)cont.getTable();
+    }
+
+    /** Writes all rows to a new table, including the domain computation. */
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void write() {
+        writeTable().clear();
+    }
+
+    /**
+     * Iterates all rows of the table.
+     *
+     * @param bh the blackhole consuming the cells
+     */
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void iterate(final Blackhole bh) {
+        try (CloseableRowIterator it = m_table.iterator()) {
+            while (it.hasNext()) {
+                for (DataCell cell : it.next()) {
+                    bh.consume(cell);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,144 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ------------------------------------------------------------------------
+ *
+ */
+package org.knime.core.data.join;
+
+import java.util.concurrent.TimeUnit;
+
+import org.knime.core.benchmarks.SyntheticTables;
+import org.knime.core.benchmarks.SyntheticTables.Shape;
+import org.knime.core.data.join.JoinSpecification.InputTable;
+import org.knime.core.data.join.JoinTableSettings.JoinColumn;
+import org.knime.core.data.join.results.JoinResult;
+import org.knime.core.data.join.results.JoinResult.OutputCombined;
+import org.knime.core.node.BufferedDataTable;
+import org.knime.core.node.CanceledExecutionException;
+import org.knime.core.node.ExecutionContext;
+import org.knime.core.node.InvalidSettingsException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures probe rows per second of a {@link BlockHashJoin}, which indexes the smaller table in a {@link HashIndex}
+ * and probes it with the rows of the larger table. Both tables are joined on their key column.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class HashJoinBenchmark {
+
+    private static final int ROWS = 10000;
+
+    /** The kind of the joined tables. */
+    @Param({"NUMERIC", "STRING"})
+    public Shape m_shape;
+
+    /** Whether unmatched rows of both tables are included in the output. */
+    @Param({"false", "true"})
+    public boolean m_outer;
+
+    private ExecutionContext m_exec;
+
+    private BufferedDataTable m_left;
+
+    private BufferedDataTable m_right;
+
+    private JoinSpecification m_joinSpec;
+
+    /**
+     * Creates the tables to join, the right one being a tenth of the left one.
+     *
+     * @throws InvalidSettingsException not expected
+     */
+    @Setup(Level.Trial)
+    public void setup() throws InvalidSettingsException {
+        m_exec = SyntheticTables.createExecutionContext();
+        m_left = SyntheticTables.createTable(m_exec, m_shape, ROWS, SyntheticTables.SEED);
+        m_right = SyntheticTables.createTable(m_exec, m_shape, ROWS / 10, SyntheticTables.SEED + 1);
+        JoinColumn[] joinColumns = new JoinColumn[]{new JoinColumn(SyntheticTables.KEY_COLUMN)};
+        JoinTableSettings left = new JoinTableSettings(m_outer, joinColumns,
+            m_left.getDataTableSpec().getColumnNames(), InputTable.LEFT, m_left);
+        JoinTableSettings right = new JoinTableSettings(m_outer, joinColumns,
+            m_right.getDataTableSpec().getColumnNames(), InputTable.RIGHT, m_right);
+        m_joinSpec = new JoinSpecification.Builder(left, right).build();
+    }
+
+    /** Clears the tables. */
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        m_exec.clearTable(m_left);
+        m_exec.clearTable(m_right);
+    }
+
+    /**
+     * Joins the tables and clears the result.
+     *
+     * @throws CanceledExecutionException not expected
+     * @throws InvalidSettingsException not expected
+     */
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void join() throws CanceledExecutionException, InvalidSettingsException {
+        JoinResult<OutputCombined> result = new BlockHashJoin(m_joinSpec, m_exec).joinOutputCombined();
+        m_exec.clearTable(result.getResults().getTable());
+    }
+}
@@ -0,0 +1,173 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ------------------------------------------------------------------------
+ *
+ */
+package org.knime.core.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Compares the per-element {@link MultiThreadWorker} with the {@link BatchedMultiThreadWorker} for different costs of
+ * the per-element computation.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MultiThreadWorkerBenchmark {
+
+    private static final int THREADS = Runtime.getRuntime().availableProcessors();
+
+    /** Number of busy-loop iterations per element, 0 being a trivial computation. */
+    @Param({"0", "100", "10000"})
+    public int m_cost;
+
+    /** Number of elements per batch of the {@link BatchedMultiThreadWorker}. */
+    @Param({"256"})
+    public int m_batchSize;
+
+    private List<Long> m_input;
+
+    private ExecutorService m_executor;
+
+    /** Creates input and executor. */
+    @Setup(Level.Trial)
+    public void setup() {
+        m_input = new ArrayList<>(100000);
+        for (long i = 0; i < 100000; i++) {
+            m_input.add(i);
+        }
+        m_executor = Executors.newFixedThreadPool(THREADS);
+    }
+
+    /** Shuts down the executor. */
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        m_executor.shutdownNow();
+    }
+
+    /**
+     * Processes the input with one task per element.
+     *
+     * @param bh the blackhole consuming the output
+     * @throws Exception if the worker fails
+     */
+    @Benchmark
+    public void perElement(final Blackhole bh) throws Exception {
+        final int cost = m_cost;
+        MultiThreadWorker<Long, Long> worker = new MultiThreadWorker<Long, Long>(4 * THREADS, THREADS) {
+            @Override
+            protected Long compute(final Long in, final long index) throws Exception {
+                return work(in, cost);
+            }
+
+            @Override
+            protected void processFinished(final ComputationTask task)
+                throws ExecutionException, CancellationException, InterruptedException {
+                bh.consume(task.get());
+            }
+        };
+        worker.setExecutor(m_executor);
+        worker.run(m_input);
+    }
+
+    /**
+     * Processes the input in batches.
+     *
+     * @param bh the blackhole consuming the output
+     * @throws Exception if the worker fails
+     */
+    @Benchmark
+    public void batched(final Blackhole bh) throws Exception {
+        final int cost = m_cost;
+        BatchedMultiThreadWorker<Long, Long> worker =
+            new BatchedMultiThreadWorker<Long, Long>(m_batchSize, 4 * THREADS, THREADS) {
+                @Override
+                protected Long compute(final Long in, final long index) throws Exception {
+                    return work(in, cost);
+                }
+
+                @Override
+                protected void processFinished(final Long in, final Long out, final long index) {
+                    bh.consume(out);
+                }
+            };
+        worker.setExecutor(m_executor);
+        worker.run(m_input);
+    }
+
+    /** Synthetic per-element computation whose cost scales linearly with the argument. */
+    private static Long work(final Long in, final int cost) {
+        long v = in;
+        for (int i = 0; i < cost; i++) {
+            v = v * 6364136223846793005L + 1442695040888963407L;
+        }
+        return v;
+    }
+}
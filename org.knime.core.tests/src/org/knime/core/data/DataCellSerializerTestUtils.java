@@ -0,0 +1,125 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ------------------------------------------------------------------------
+ *
+package org.knime.core.data;
+
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Provides utility methods for testing implementations of {@link DataCellSerializer} that don't write nested cells.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+public final class DataCellSerializerTestUtils {
+
+    private DataCellSerializerTestUtils() {
+        // static utility class
+    }
+
+    /**
+     * Serializes the cell with the given serializer and reads it back. Fails if the serializer doesn't consume all
+     * written bytes.
+     *
+     * @param <T> the cell type
+     * @param cell the cell to write
+     * @param serializer the serializer for the cell
+     * @return the deserialized copy
+     * @throws IOException if writing or reading fails
+     */
+    public static <T extends DataCell> T roundTrip(final T cell, final DataCellSerializer<T> serializer)
+        throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (CellDataOutput out = new CellDataOutput(bytes)) {
+            serializer.serialize(cell, out);
+        }
+        try (CellDataInput in = new CellDataInput(new ByteArrayInputStream(bytes.toByteArray()))) {
+            T copy = serializer.deserialize(in);
+            assertThat("Trailing bytes", in.read(), is(-1));
+            return copy;
+        }
+    }
+
+    /**
+     * Creates an input reading the given bytes, e.g. to feed corrupt data into a serializer.
+     *
+     * @param bytes the serialized data
+     * @return a new input
+     */
+    public static DataCellDataInput createInput(final byte[] bytes) {
+        return new CellDataInput(new ByteArrayInputStream(bytes));
+    }
+
+    /** {@link DataCellDataOutput} for serializers that don't write nested cells. */
+    private static final class CellDataOutput extends DataOutputStream implements DataCellDataOutput {
+        CellDataOutput(final OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void writeDataCell(final DataCell cell) throws IOException {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    /** {@link DataCellDataInput} for serializers that don't read nested cells. */
+    private static final class CellDataInput extends DataInputStream implements DataCellDataInput {
+        CellDataInput(final InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public DataCell readDataCell() throws IOException {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
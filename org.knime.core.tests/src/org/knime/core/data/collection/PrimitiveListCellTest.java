@@ -0,0 +1,257 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ------------------------------------------------------------------------
+ *
+ */
+package org.knime.core.data.collection;
+
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsInstanceOf.instanceOf;
+import static org.junit.Assert.assertThat;
+import static org.knime.core.data.DataCellSerializerTestUtils.roundTrip;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.PrimitiveIterator;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.knime.core.data.DataCell;
+import org.knime.core.data.DataCellSerializerTestUtils;
+import org.knime.core.data.DataType;
+import org.knime.core.data.def.DoubleCell;
+import org.knime.core.data.def.IntCell;
+import org.knime.core.data.def.LongCell;
+import org.knime.core.data.def.StringCell;
+
+/**
+ * Testcase for the primitive array based list cells {@link DoubleListCell}, {@link IntListCell} and
+ * {@link LongListCell}.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+public class PrimitiveListCellTest {
+
+    private boolean m_oldUsePrimitiveListCells;
+
+    /** Enables the creation of primitive list cells from cell collections. */
+    @Before
+    public void enablePrimitiveListCells() {
+        m_oldUsePrimitiveListCells = CollectionCellFactory.setUsePrimitiveListCells(true);
+    }
+
+    /** Restores the previous setting. */
+    @After
+    public void restorePrimitiveListCells() {
+        CollectionCellFactory.setUsePrimitiveListCells(m_oldUsePrimitiveListCells);
+    }
+
+    private static List<DataCell> doubleCells(final double... values) {
+        List<DataCell> cells = new ArrayList<>();
+        for (double d : values) {
+            cells.add(new DoubleCell(d));
+        }
+        return cells;
+    }
+
+    private static List<DataCell> intCells(final int... values) {
+        List<DataCell> cells = new ArrayList<>();
+        for (int i : values) {
+            cells.add(new IntCell(i));
+        }
+        return cells;
+    }
+
+    private static List<DataCell> longCells(final long... values) {
+        List<DataCell> cells = new ArrayList<>();
+        for (long l : values) {
+            cells.add(new LongCell(l));
+        }
+        return cells;
+    }
+
+    /** Checks that the factory picks the primitive cells only if all elements have the same primitive cell class. */
+    @Test
+    public void testFactorySelection() {
+        assertThat(CollectionCellFactory.createListCell(doubleCells(1, 2, Double.NaN)),
+            instanceOf(DoubleListCell.class));
+        assertThat(CollectionCellFactory.createListCell(intCells(1, 2)), instanceOf(IntListCell.class));
+        assertThat(CollectionCellFactory.createListCell(longCells(1, 2)), instanceOf(LongListCell.class));
+
+        ListCell mixed = CollectionCellFactory.createListCell(Arrays.asList(new DoubleCell(1), new IntCell(2)));
+        assertThat(mixed.getClass() == ListCell.class, is(true));
+        ListCell withMissing =
+            CollectionCellFactory.createListCell(Arrays.asList(new DoubleCell(1), DataType.getMissingCell()));
+        assertThat(withMissing.getClass() == ListCell.class, is(true));
+        ListCell strings = CollectionCellFactory.createListCell(Arrays.asList(new StringCell("a")));
+        assertThat(strings.getClass() == ListCell.class, is(true));
+        ListCell empty = CollectionCellFactory.createListCell(new ArrayList<DataCell>());
+        assertThat(empty.getClass() == ListCell.class, is(true));
+    }
+
+    /** Checks that cell collections become ordinary list cells unless the primitive cells are enabled. */
+    @Test
+    public void testFactorySelectionDisabled() {
+        CollectionCellFactory.setUsePrimitiveListCells(false);
+        assertThat(CollectionCellFactory.createListCell(doubleCells(1, 2)).getClass() == ListCell.class, is(true));
+        assertThat(CollectionCellFactory.createListCell(intCells(1, 2)).getClass() == ListCell.class, is(true));
+        assertThat(CollectionCellFactory.createListCell(longCells(1, 2)).getClass() == ListCell.class, is(true));
+        // explicit primitive arrays always give the primitive variants
+        assertThat(CollectionCellFactory.createListCell(new double[]{1, 2}), instanceOf(DoubleListCell.class));
+        assertThat(CollectionCellFactory.createListCell(new int[]{1, 2}), instanceOf(IntListCell.class));
+        assertThat(CollectionCellFactory.createListCell(new long[]{1, 2}), instanceOf(LongListCell.class));
+    }
+
+    /** Checks that primitive and ordinary list cells with the same content are equal and have the same hash code. */
+    @Test
+    public void testEqualsAndHashCode() {
+        List<DataCell> cells = doubleCells(1.5, -0.0, Double.NaN, 1e300);
+        ListCell primitive = CollectionCellFactory.createListCell(cells);
+        assertThat(primitive, instanceOf(DoubleListCell.class));
+        assertSameAsListCell(primitive, cells);
+
+        ListCell other = CollectionCellFactory.createListCell(doubleCells(1.5, 0.0, Double.NaN, 1e300));
+        assertThat(primitive.equals(other), is(false));
+        assertThat(primitive.equals(new ListCell(BlobSupportDataCellList.create(doubleCells(1.5, 0.0, Double.NaN,
+            1e300)))), is(false));
+        assertThat(primitive.equals(CollectionCellFactory.createListCell(doubleCells(1.5, -0.0, Double.NaN))),
+            is(false));
+
+        List<DataCell> ints = intCells(3, -7, Integer.MAX_VALUE);
+        ListCell primitiveInts = CollectionCellFactory.createListCell(ints);
+        assertThat(primitiveInts, instanceOf(IntListCell.class));
+        assertSameAsListCell(primitiveInts, ints);
+
+        List<DataCell> longs = longCells(Long.MIN_VALUE, 42, Long.MAX_VALUE);
+        ListCell primitiveLongs = CollectionCellFactory.createListCell(longs);
+        assertThat(primitiveLongs, instanceOf(LongListCell.class));
+        assertSameAsListCell(primitiveLongs, longs);
+
+        // same numbers but different element types
+        assertThat(CollectionCellFactory.createListCell(intCells(1, 2))
+            .equals(CollectionCellFactory.createListCell(longCells(1, 2))), is(false));
+        assertThat(CollectionCellFactory.createListCell(longCells(1, 2))
+            .equals(new ListCell(BlobSupportDataCellList.create(intCells(1, 2)))), is(false));
+    }
+
+    /** Compares a primitive list cell with an ordinary list cell holding the given cells. */
+    private static void assertSameAsListCell(final ListCell primitive, final List<DataCell> cells) {
+        ListCell ordinary = new ListCell(BlobSupportDataCellList.create(cells));
+        assertThat(primitive.equals(ordinary), is(true));
+        assertThat(ordinary.equals(primitive), is(true));
+        assertThat(primitive.hashCode(), is(ordinary.hashCode()));
+        assertThat(primitive.toString(), is(ordinary.toString()));
+        assertThat(primitive.getElementType(), is(ordinary.getElementType()));
+        assertThat(primitive.size(), is(ordinary.size()));
+        assertThat(primitive.containsBlobWrapperCells(), is(false));
+        Iterator<DataCell> it = primitive.iterator();
+        for (int i = 0; i < cells.size(); i++) {
+            assertThat(primitive.get(i), is(cells.get(i)));
+            assertThat(it.hasNext(), is(true));
+            assertThat(it.next(), is(cells.get(i)));
+        }
+        assertThat(it.hasNext(), is(false));
+        assertThat(primitive.getList().equals(ordinary.getList()), is(true));
+    }
+
+    /** Checks the primitive accessors. */
+    @Test
+    public void testPrimitiveAccess() {
+        double[] values = {3, 1, 4, 1, 5};
+        DoubleListCell cell = CollectionCellFactory.createListCell(values);
+        values[0] = 0;
+        assertThat("Input array not copied", cell.getDouble(0), is(3.0));
+        assertThat(cell.size(), is(5));
+        assertThat(cell.get(2), is((DataCell)new DoubleCell(4)));
+        PrimitiveIterator.OfDouble it = cell.doubleIterator();
+        double sum = 0;
+        while (it.hasNext()) {
+            sum += it.nextDouble();
+        }
+        assertThat(sum, is(14.0));
+        double[] copy = cell.getDoubleArray();
+        copy[1] = 100;
+        assertThat("Internal array exposed", cell.getDouble(1), is(1.0));
+
+        IntListCell ints = CollectionCellFactory.createListCell(new int[]{7, 8});
+        assertThat(ints.getInt(1), is(8));
+        assertThat(ints.intIterator().nextInt(), is(7));
+        LongListCell longs = CollectionCellFactory.createListCell(new long[]{Long.MAX_VALUE});
+        assertThat(longs.getLong(0), is(Long.MAX_VALUE));
+        assertThat(longs.longIterator().nextLong(), is(Long.MAX_VALUE));
+    }
+
+    /** Writes and reads the primitive list cells with their serializers. */
+    @Test
+    public void testSerializationRoundTrip() throws IOException {
+        DoubleListCell doubles = CollectionCellFactory.createListCell(
+            new double[]{0, -0.0, Double.NaN, Double.NEGATIVE_INFINITY, Double.MIN_VALUE, 1e300});
+        assertThat(roundTrip(doubles, new DoubleListCell.DoubleListCellSerializer()), is(doubles));
+        IntListCell ints = CollectionCellFactory.createListCell(new int[]{Integer.MIN_VALUE, 0, Integer.MAX_VALUE});
+        assertThat(roundTrip(ints, new IntListCell.IntListCellSerializer()), is(ints));
+        LongListCell longs = CollectionCellFactory.createListCell(new long[]{Long.MIN_VALUE, 0, Long.MAX_VALUE});
+        assertThat(roundTrip(longs, new LongListCell.LongListCellSerializer()), is(longs));
+
+        DoubleListCell empty = CollectionCellFactory.createListCell(new double[0]);
+        DoubleListCell emptyCopy = roundTrip(empty, new DoubleListCell.DoubleListCellSerializer());
+        assertThat(emptyCopy.size(), is(0));
+        assertThat(emptyCopy, is(empty));
+    }
+
+    /** Checks that a corrupt (negative) size is rejected instead of allocating an array. */
+    @Test(expected = IOException.class)
+    public void testDeserializeNegativeSize() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(-1);
+        }
+        new IntListCell.IntListCellSerializer()
+            .deserialize(DataCellSerializerTestUtils.createInput(bytes.toByteArray()));
+    }
+}
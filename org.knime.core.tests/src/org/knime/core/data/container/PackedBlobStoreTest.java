@@ -0,0 +1,233 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ------------------------------------------------------------------------
+ *
+ */
+package org.knime.core.data.container;
+
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertThat;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Testcase for {@link PackedBlobStore}.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+public class PackedBlobStoreTest {
+
+    /** Folder for the blob directory. */
+    @Rule
+    public TemporaryFolder m_tempFolder = new TemporaryFolder();
+
+    private static byte[] createBlob(final int column, final int index) {
+        final byte[] bytes = new byte[(index * 37) % 1000 + column];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte)(31 * i + 7 * index + column);
+        }
+        return bytes;
+    }
+
+    private static void write(final PackedBlobStore store, final int column, final int index, final byte[] bytes)
+        throws IOException {
+        try (OutputStream out = store.openOutputStream(column, index)) {
+            out.write(bytes);
+        }
+    }
+
+    private static byte[] read(final PackedBlobStore store, final int column, final int index) throws IOException {
+        try (InputStream in = store.openInputStream(column, index)) {
+            return IOUtils.toByteArray(in);
+        }
+    }
+
+    /**
+     * Writes blobs of several columns, reads them back with the same store and, after flushing, with a new store.
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    @Test
+    public void testWriteAndRead() throws IOException {
+        final File dir = m_tempFolder.newFolder();
+        try (PackedBlobStore store = new PackedBlobStore(dir)) {
+            for (int i = 0; i < 500; i++) {
+                for (int c = 0; c < 3; c++) {
+                    write(store, c, i, createBlob(c, i));
+                }
+            }
+            assertThat("Blob at index 123 in column 1", read(store, 1, 123), is(createBlob(1, 123)));
+            store.flush();
+        }
+        assertThat("Directory not recognized as packed", PackedBlobStore.isPackedBlobDir(dir), is(true));
+        assertThat("Unexpected number of files", dir.list().length, is(2));
+        try (PackedBlobStore store = new PackedBlobStore(dir)) {
+            for (int i = 0; i < 500; i++) {
+                for (int c = 0; c < 3; c++) {
+                    assertThat("Blob at index " + i + " in column " + c, read(store, c, i), is(createBlob(c, i)));
+                }
+            }
+        }
+    }
+
+    /**
+     * Checks that reading a blob that has not been written fails.
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    @Test(expected = IOException.class)
+    public void testReadMissingBlob() throws IOException {
+        try (PackedBlobStore store = new PackedBlobStore(m_tempFolder.newFolder())) {
+            write(store, 0, 0, createBlob(0, 0));
+            write(store, 0, 2, createBlob(0, 2));
+            read(store, 0, 1);
+        }
+    }
+
+    /**
+     * Checks that blobs written more than once are compacted on flush.
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    @Test
+    public void testCompaction() throws IOException {
+        final File dir = m_tempFolder.newFolder();
+        try (PackedBlobStore store = new PackedBlobStore(dir)) {
+            write(store, 0, 0, new byte[1000]);
+            write(store, 0, 1, createBlob(0, 1));
+            write(store, 0, 0, createBlob(0, 0));
+            store.flush();
+            final File segment = new File(dir, "blobs_0.seg");
+            assertThat("Segment not compacted", segment.length(),
+                is((long)(createBlob(0, 0).length + createBlob(0, 1).length)));
+            assertThat("Blob at index 0 after compaction", read(store, 0, 0), is(createBlob(0, 0)));
+            assertThat("Blob at index 1 after compaction", read(store, 0, 1), is(createBlob(0, 1)));
+        }
+    }
+
+    /**
+     * Checks that segment channels are only open while blobs are read or appended.
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    @Test
+    public void testChannelsReleased() throws IOException {
+        try (PackedBlobStore store = new PackedBlobStore(m_tempFolder.newFolder())) {
+            write(store, 0, 0, createBlob(0, 0));
+            write(store, 0, 1, createBlob(0, 1));
+            assertThat("Open channels while appending", store.getOpenChannelCount(), is(1));
+            store.flush();
+            assertThat("Open channels after flush", store.getOpenChannelCount(), is(0));
+            try (InputStream in = store.openInputStream(0, 1)) {
+                assertThat("Open channels while reading", store.getOpenChannelCount(), is(1));
+                assertThat("Blob at index 1", IOUtils.toByteArray(in), is(createBlob(0, 1)));
+            }
+            assertThat("Open channels after reading", store.getOpenChannelCount(), is(0));
+        }
+    }
+
+    /**
+     * Checks that compaction is deferred while a blob is read and done with the next flush.
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    @Test
+    public void testCompactionDeferredWhileReading() throws IOException {
+        final File dir = m_tempFolder.newFolder();
+        final File segment = new File(dir, "blobs_0.seg");
+        try (PackedBlobStore store = new PackedBlobStore(dir)) {
+            write(store, 0, 0, new byte[1000]);
+            write(store, 0, 1, createBlob(0, 1));
+            write(store, 0, 0, createBlob(0, 0));
+            try (InputStream in = store.openInputStream(0, 1)) {
+                store.flush();
+                assertThat("Segment compacted while reading", segment.length(),
+                    is((long)(1000 + createBlob(0, 0).length + createBlob(0, 1).length)));
+                assertThat("Blob read during flush", IOUtils.toByteArray(in), is(createBlob(0, 1)));
+            }
+            store.flush();
+            assertThat("Segment not compacted", segment.length(),
+                is((long)(createBlob(0, 0).length + createBlob(0, 1).length)));
+            assertThat("Blob at index 0 after compaction", read(store, 0, 0), is(createBlob(0, 0)));
+        }
+    }
+
+    /**
+     * Checks that blobs written at the same time are streamed into different segments.
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    @Test
+    public void testConcurrentOutputStreams() throws IOException {
+        final File dir = m_tempFolder.newFolder();
+        final byte[] first = new byte[3 << 20];
+        final byte[] second = createBlob(1, 42);
+        for (int i = 0; i < first.length; i++) {
+            first[i] = (byte)i;
+        }
+        try (PackedBlobStore store = new PackedBlobStore(dir)) {
+            try (OutputStream out1 = store.openOutputStream(0, 0); OutputStream out2 = store.openOutputStream(1, 0)) {
+                for (int offset = 0; offset < first.length; offset += 8192) {
+                    out1.write(first, offset, 8192);
+                    if (offset == 8192) {
+                        out2.write(second);
+                    }
+                }
+            }
+            write(store, 0, 1, createBlob(0, 1));
+            store.flush();
+            assertThat("Unexpected number of files", dir.list().length, is(3));
+            assertThat("Blob in column 0", read(store, 0, 0), is(first));
+            assertThat("Blob in column 1", read(store, 1, 0), is(second));
+            assertThat("Blob appended after concurrent write", read(store, 0, 1), is(createBlob(0, 1)));
+        }
+    }
+}
@@ -0,0 +1,151 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ------------------------------------------------------------------------
+ *
+ */
+package org.knime.core.data.filestore.internal;
+
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertThat;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.UUID;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.knime.core.data.filestore.FileStore;
+
+/**
+ * Testcase for the leaf folder handling of {@link WriteFileStoreHandler}.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+public class WriteFileStoreHandlerTest {
+
+    /** Folder for the base directories of the handler. */
+    @Rule
+    public TemporaryFolder m_tempFolder = new TemporaryFolder();
+
+    private WriteFileStoreHandler m_handler;
+
+    /** Creates and opens the handler. */
+    @Before
+    public void setUp() {
+        m_handler = new WriteFileStoreHandler("Test Node 0:1", UUID.randomUUID());
+        m_handler.open();
+    }
+
+    /** Closes and disposes the handler. */
+    @After
+    public void tearDown() {
+        m_handler.close();
+        m_handler.clearAndDispose();
+    }
+
+    /** The leaf folder as computed before it was cached, e.g. &lt;base&gt;/000/001/234 for index 1234567. */
+    private static File expectedParentDir(final File baseDir, final int index) {
+        final int folderIndex = index / WriteFileStoreHandler.FILES_PER_FOLDER;
+        return new File(new File(baseDir, String.format("%03d", folderIndex / 1000)),
+            String.format("%03d", folderIndex % 1000));
+    }
+
+    /**
+     * Tests that the (cached) leaf folders follow the documented folder layout.
+     *
+     * @throws IOException if the base directory can't be created
+     */
+    @Test
+    public void testParentDirLayout() throws IOException {
+        final File baseDir = m_tempFolder.newFolder();
+        m_handler.setBaseDir(baseDir);
+        for (int index : new int[]{0, 999, 1000, 1001, 123456, 999999, 1000000, 1234567, 999999999, 5, 1234000}) {
+            final File expected = expectedParentDir(baseDir, index);
+            assertThat("Leaf folder of index " + index, m_handler.getParentDir(index, false), is(expected));
+            assertThat("Cached leaf folder of index " + index, m_handler.getParentDir(index, false), is(expected));
+        }
+    }
+
+    /**
+     * Creates file stores spanning several leaf folders and checks that each leaf folder exists, although only the
+     * first file store of a folder creates it.
+     *
+     * @throws IOException if a file store can't be created
+     */
+    @Test
+    public void testLeafFoldersCreated() throws IOException {
+        final File baseDir = m_tempFolder.newFolder();
+        m_handler.setBaseDir(baseDir);
+        final int count = 2 * WriteFileStoreHandler.FILES_PER_FOLDER + 1;
+        for (int i = 0; i < count; i++) {
+            final FileStore fs = m_handler.createFileStore("file-" + i);
+            final File parentDir = fs.getFile().getParentFile();
+            assertThat("Leaf folder of file store " + i, parentDir, is(expectedParentDir(baseDir, i)));
+            assertThat("Leaf folder of file store " + i + " exists", parentDir.isDirectory(), is(true));
+        }
+        assertThat("Number of leaf folders", new File(baseDir, "000").list().length, is(3));
+        assertThat("Number of file stores", m_handler.getNextIndex(), is(count));
+    }
+
+    /**
+     * Tests that changing the base directory creates the leaf folder in the new directory, even if the next file store
+     * belongs to the same leaf folder as the previous one.
+     *
+     * @throws IOException if a file store can't be created
+     */
+    @Test
+    public void testLeafFolderCreatedInNewBaseDir() throws IOException {
+        final File firstBaseDir = m_tempFolder.newFolder();
+        m_handler.setBaseDir(firstBaseDir);
+        m_handler.createFileStore("first");
+
+        final File secondBaseDir = m_tempFolder.newFolder();
+        m_handler.setBaseDir(secondBaseDir);
+        final File parentDir = m_handler.createFileStore("second").getFile().getParentFile();
+        assertThat("Leaf folder in new base directory", parentDir, is(expectedParentDir(secondBaseDir, 1)));
+        assertThat("Leaf folder in new base directory exists", parentDir.isDirectory(), is(true));
+    }
+}
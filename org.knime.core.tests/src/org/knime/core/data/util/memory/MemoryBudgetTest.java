@@ -0,0 +1,128 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ------------------------------------------------------------------------
+ *
+ */
+package org.knime.core.data.util.memory;
+
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsNull.notNullValue;
+import static org.hamcrest.core.IsNull.nullValue;
+import static org.junit.Assert.assertThat;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Test;
+
+/**
+ * Testcase for {@link MemoryBudget}.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+public class MemoryBudgetTest {
+
+    /** Checks that reservations are only granted while they fit into the budget. */
+    @Test
+    public void testTryReserve() {
+        MemoryBudget budget = new MemoryBudget(100, null);
+        MemoryBudget.Reservation r1 = budget.tryReserve(60);
+        assertThat(r1, is(notNullValue()));
+        assertThat("Reservation exceeding the budget granted", budget.tryReserve(50), is(nullValue()));
+        MemoryBudget.Reservation r2 = budget.tryReserve(40);
+        assertThat(r2, is(notNullValue()));
+        assertThat(budget.getReserved(), is(100L));
+        assertThat(budget.getActiveReservations(), is(2));
+
+        r1.close();
+        r1.close(); // no effect
+        assertThat(budget.getReserved(), is(40L));
+        r2.close();
+        assertThat(budget.getReserved(), is(0L));
+        assertThat(budget.getPeakReserved(), is(100L));
+
+        MemoryBudget.Reservation huge = budget.tryReserve(1000);
+        assertThat("Single reservation larger than budget not granted", huge, is(notNullValue()));
+        huge.close();
+    }
+
+    /** Checks that a budget of 0 disables the admission control. */
+    @Test
+    public void testDisabled() {
+        MemoryBudget budget = new MemoryBudget(0, null);
+        assertThat(budget.tryReserve(1000), is(notNullValue()));
+        assertThat(budget.tryReserve(1000), is(notNullValue()));
+    }
+
+    /**
+     * Checks that a blocking reservation waits until enough memory has been released.
+     *
+     * @throws Exception if an error occurs
+     */
+    @Test(timeout = 10000)
+    public void testReserveWaits() throws Exception {
+        final MemoryBudget budget = new MemoryBudget(100, null);
+        MemoryBudget.Reservation r1 = budget.reserve(80, null);
+        final CountDownLatch started = new CountDownLatch(1);
+        final AtomicReference<MemoryBudget.Reservation> r2 = new AtomicReference<>();
+        Thread t = new Thread(() -> {
+            started.countDown();
+            try {
+                r2.set(budget.reserve(50, null));
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        });
+        t.start();
+        started.await();
+        while (budget.getWaitingReservations() == 0) {
+            Thread.sleep(10);
+        }
+        assertThat("Reservation granted although it doesn't fit", r2.get(), is(nullValue()));
+        r1.close();
+        t.join();
+        assertThat(r2.get(), is(notNullValue()));
+        assertThat(budget.getReserved(), is(50L));
+        assertThat(budget.getGrantedReservations(), is(2L));
+    }
+}
@@ -45,11 +45,16 @@
 package org.knime.core.data.vector.bitvector;
 
 import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Random;
 
 import junit.framework.Assert;
 
 import org.junit.Test;
+import org.knime.core.data.DataCell;
+import org.knime.core.data.DataType;
 import org.knime.core.util.Pair;
 
 public class BitVectorUtilTest {
@@ -194,6 +199,109 @@ public void testBitVectorUtilAndThrowsNullpointer2() {
         BitVectorUtil.and(EMPTY_VECTOR, null);
     }
 
+    @Test
+    public void testCardinalityOfUnion() {
+        Assert.assertEquals(0, BitVectorUtil.cardinalityOfUnion(EMPTY_VECTOR, EMPTY_VECTOR));
+
+        assertCardinalityOfUnionAndSimilarities(DENSE_VECTOR_FACTORY);
+        assertCardinalityOfUnionAndSimilarities(SPARSE_VECTOR_FACTORY);
+        assertCardinalityOfUnionAndSimilarities(MIXED_VECTOR_FACTORY);
+    }
+
+    @Test
+    public void testRawKernels() {
+        for (int i = 1; i < 1000; i++) {
+            DenseBitVector a = new DenseBitVector(new BigInteger(RANDOM.nextInt(800), RANDOM).toString(16));
+            DenseBitVector b =
+                new DenseBitVector(new BigInteger(RANDOM.nextInt(i % 5 == 0 ? i * 5 : 150), RANDOM).toString(16));
+            long[] aBits = a.getAllBits();
+            long[] bBits = b.getAllBits();
+            long[] scratch = new long[Math.max(aBits.length, bBits.length) + 3];
+            Arrays.fill(scratch, -1L);
+
+            Assert.assertEquals(a.cardinality(), BitVectorUtil.cardinality(aBits));
+            Assert.assertEquals(a.and(b).cardinality(), BitVectorUtil.cardinalityOfIntersection(aBits, bBits));
+            Assert.assertEquals(a.or(b).cardinality(), BitVectorUtil.cardinalityOfUnion(aBits, bBits));
+
+            BitVectorUtil.and(aBits, bBits, scratch);
+            assertWords(a.and(b).getAllBits(), scratch);
+            BitVectorUtil.or(aBits, bBits, scratch);
+            assertWords(a.or(b).getAllBits(), scratch);
+            BitVectorUtil.xor(aBits, bBits, scratch);
+            assertWords(a.xor(b).getAllBits(), scratch);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRawKernelTargetTooShort() {
+        BitVectorUtil.and(new long[3], new long[4], new long[3]);
+    }
+
+    @Test
+    public void testSimilaritySearch() throws InterruptedException {
+        List<DataCell> cells = new ArrayList<>();
+        for (int i = 0; i < 10000; i++) {
+            if (i % 1000 == 7) {
+                cells.add(DataType.getMissingCell());
+            } else {
+                cells.add(new DenseBitVectorCellFactory(new BigInteger(RANDOM.nextInt(1024), RANDOM).toString(16))
+                    .createDataCell());
+            }
+        }
+        cells.set(42, new DenseBitVectorCellFactory("ff00ff").createDataCell());
+        DenseBitVectorSimilaritySearch search = new DenseBitVectorSimilaritySearch(cells);
+        Assert.assertEquals(cells.size(), search.size());
+
+        BitVectorValue query = (BitVectorValue)cells.get(42);
+        double[] tanimoto = search.computeSimilarities(query, DenseBitVectorSimilaritySearch.Measure.TANIMOTO);
+        double[] dice = search.computeSimilarities(query, DenseBitVectorSimilaritySearch.Measure.DICE);
+        for (int i = 0; i < cells.size(); i++) {
+            DataCell c = cells.get(i);
+            if (c.isMissing()) {
+                Assert.assertTrue(Double.isNaN(tanimoto[i]));
+                Assert.assertTrue(Double.isNaN(dice[i]));
+            } else {
+                Assert.assertEquals(BitVectorUtil.tanimotoSimilarity((BitVectorValue)c, query), tanimoto[i], 0.0);
+                Assert.assertEquals(BitVectorUtil.diceSimilarity((BitVectorValue)c, query), dice[i], 0.0);
+            }
+        }
+        int[] hits = search.findSimilar(query, DenseBitVectorSimilaritySearch.Measure.TANIMOTO, 1.0);
+        Assert.assertTrue(hits.length >= 1);
+        Assert.assertTrue(Arrays.binarySearch(hits, 42) >= 0);
+    }
+
+    private static void assertCardinalityOfUnionAndSimilarities(final TestVectorFactory vectorFactory) {
+        for (int i = 1; i < 1000; i++) {
+            String first = new BigInteger(RANDOM.nextInt(800), RANDOM).toString(16);
+
+            String second = new BigInteger(RANDOM.nextInt(i % 5 == 0 ? i * 5 : 150), RANDOM).toString(16);
+            Pair<BitVectorValue, BitVectorValue> createVectorPair = vectorFactory.createVectorPair(first, second);
+
+            BitVectorValue a = createVectorPair.getFirst();
+
+            BitVectorValue b = createVectorPair.getSecond();
+
+            long union = BitVectorUtil.or(a, b).cardinality();
+            long intersection = BitVectorUtil.and(a, b).cardinality();
+            Assert.assertEquals("Broken union: " + a.toHexString() + "|" + b.toHexString(), union,
+                BitVectorUtil.cardinalityOfUnion(a, b));
+
+            double expectedTanimoto = union == 0 ? 0 : intersection / (double)union;
+            Assert.assertEquals(expectedTanimoto, BitVectorUtil.tanimotoSimilarity(a, b), 1e-12);
+            Assert.assertEquals(expectedTanimoto, BitVectorUtil.tanimotoSimilarity(b, a), 1e-12);
+
+            long sum = a.cardinality() + b.cardinality();
+            double expectedDice = sum == 0 ? 0 : 2.0 * intersection / sum;
+            Assert.assertEquals(expectedDice, BitVectorUtil.diceSimilarity(a, b), 1e-12);
+        }
+    }
+
+    private static void assertWords(final long[] expected, final long[] actual) {
+        for (int i = 0; i < expected.length; i++) {
+            Assert.assertEquals("Wrong word at index " + i, expected[i], actual[i]);
+        }
+    }
+
     private static void assertCardinalityOfAnd(final TestVectorFactory vectorFactory) {
         for (int i = 1; i < 1000; i++) {
             String first = new BigInteger(RANDOM.nextInt(800), RANDOM).toString(16);
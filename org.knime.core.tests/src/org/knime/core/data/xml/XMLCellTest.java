@@ -51,9 +51,18 @@
 import static org.hamcrest.core.Is.is;
 import static org.junit.Assert.assertThat;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
 import javax.xml.parsers.DocumentBuilderFactory;
 
 import org.junit.Test;
+import org.knime.core.data.DataCellSerializerTestUtils;
+import org.knime.core.data.util.LockedSupplier;
 import org.w3c.dom.Document;
 import org.w3c.dom.Element;
 
@@ -122,4 +131,104 @@ public void testEqualsAndHashcodeEqual() throws Exception {
         assertThat("equals and hashcode are not compatible", eq && hc || !eq , is(true));
     }
 
+    private static String createXML(final int items) {
+        StringBuilder b = new StringBuilder("<root>");
+        for (int i = 0; i < items; i++) {
+            b.append("<item id=\"").append(i).append("\">value ").append(i).append("</item>");
+        }
+        return b.append("</root>").toString();
+    }
+
+    /**
+     * Checks that contents in compact storage are equal to (and have the same hashcode as) contents with the same XML
+     * kept as string.
+     *
+     * @throws Exception if an error occurs
+     */
+    @Test
+    public void testCompactEquality() throws Exception {
+        String xml = createXML(200);
+        boolean old = XMLCellContent.setCompactStorage(true);
+        XMLCellContent compact;
+        try {
+            compact = new XMLCellContent(xml, true);
+        } finally {
+            XMLCellContent.setCompactStorage(old);
+        }
+        XMLCellContent plain = new XMLCellContent(xml, true);
+        assertThat("Content not kept compressed", compact.isCompact(), is(true));
+        assertThat("Content kept compressed", plain.isCompact(), is(false));
+        assertThat("Different strings", compact.getStringValue(), is(plain.getStringValue()));
+        assertThat("Compact content not equal", compact.equals(plain), is(true));
+        assertThat("Compact content not equal", plain.equals(compact), is(true));
+        assertThat("Different hashcodes", compact.hashCode(), is(plain.hashCode()));
+
+        boolean oldSmall = XMLCellContent.setCompactStorage(true);
+        try {
+            assertThat("Small content kept compressed", new XMLCellContent(createXML(1), true).isCompact(), is(false));
+        } finally {
+            XMLCellContent.setCompactStorage(oldSmall);
+        }
+    }
+
+    /**
+     * Checks that a cell in compact storage is serialized and deserialized to an equal cell.
+     *
+     * @throws Exception if an error occurs
+     */
+    @Test
+    public void testCompactSerialization() throws Exception {
+        String xml = createXML(200);
+        boolean old = XMLCellContent.setCompactStorage(true);
+        try {
+            XMLCell cell = new XMLCell(new XMLCellContent(xml, true));
+            XMLCell copy = DataCellSerializerTestUtils.roundTrip(cell, new XMLCell.XMLSerializer());
+            assertThat("Different string after deserialization", copy.getStringValue(), is(cell.getStringValue()));
+            assertThat("Deserialized cell not equal", copy.equals(cell), is(true));
+            assertThat("Different hashcode after deserialization", copy.hashCode(), is(cell.hashCode()));
+        } finally {
+            XMLCellContent.setCompactStorage(old);
+        }
+    }
+
+    /**
+     * Checks that concurrent access to a content in compact storage, whose document needs to be parsed first, hands
+     * out the same document to all threads.
+     *
+     * @throws Exception if an error occurs
+     */
+    @Test(timeout = 60000)
+    public void testCompactConcurrentAccess() throws Exception {
+        String xml = createXML(2000);
+        boolean old = XMLCellContent.setCompactStorage(true);
+        final XMLCellContent content;
+        try {
+            content = new XMLCellContent(xml, false);
+        } finally {
+            XMLCellContent.setCompactStorage(old);
+        }
+        XMLDocumentCache.getInstance().clear();
+        final int threadCount = 8;
+        final CyclicBarrier barrier = new CyclicBarrier(threadCount);
+        ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+        try {
+            List<Future<Document>> futures = new ArrayList<>();
+            for (int i = 0; i < threadCount; i++) {
+                futures.add(executor.submit(() -> {
+                    barrier.await();
+                    try (LockedSupplier<Document> supplier = content.getDocumentSupplier()) {
+                        Document doc = supplier.get();
+                        assertThat("Wrong number of items", doc.getElementsByTagName("item").getLength(), is(2000));
+                        return doc;
+                    }
+                }));
+            }
+            Document first = futures.get(0).get();
+            for (Future<Document> future : futures) {
+                assertThat("Document parsed more than once", future.get() == first, is(true));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
 }
@@ -54,8 +54,12 @@
 import static org.hamcrest.Matchers.greaterThanOrEqualTo;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.hamcrest.Matchers.nullValue;
 import static org.junit.Assert.assertThat;
 
+import java.util.concurrent.BrokenBarrierException;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Function;
 
 import org.apache.commons.lang3.mutable.MutableLong;
@@ -166,6 +170,103 @@ private void internalTestManyMessageEvents(final NodeProgressMonitor toMonitor,
         }
     }
 
+    /** Progress values outside [0, 1] are ignored, a message passed along is still set. */
+    @Test
+    public void testOutOfRangeProgressIgnored() {
+        DefaultNodeProgressMonitor m = new DefaultNodeProgressMonitor();
+        m.setProgress(0.5);
+        m.setProgress(1.5);
+        assertThat(m.getProgress(), is(equalTo(0.5)));
+        m.setProgress(-1.0, "message");
+        assertThat(m.getProgress(), is(equalTo(0.5)));
+        assertThat(m.getMessage(), is(equalTo("message")));
+    }
+
+    /** Setting only the progress keeps the message and vice versa; reset clears both and the cancel flag. */
+    @Test
+    public void testPartialUpdatesAndReset() {
+        DefaultNodeProgressMonitor m = new DefaultNodeProgressMonitor();
+        m.setProgress(0.25, "first");
+        m.setProgress(0.75);
+        assertThat(m.getMessage(), is(equalTo("first")));
+        m.setMessage(() -> "second");
+        assertThat(m.getProgress(), is(equalTo(0.75)));
+        assertThat(m.getMessage(), is(equalTo("second")));
+
+        m.setExecuteCanceled();
+        assertThat(m.isCanceled(), is(true));
+        m.reset();
+        assertThat(m.getProgress(), is(nullValue()));
+        assertThat(m.getMessage(), is(nullValue()));
+        assertThat(m.isCanceled(), is(false));
+    }
+
+    /**
+     * One thread only sets the progress, another one only the message. As the monitor doesn't lock, this checks that
+     * neither overwrites the other's value with a stale one.
+     */
+    @Test(timeout = 10000L)
+    public void testConcurrentProgressAndMessageUpdates() throws Exception {
+        final DefaultNodeProgressMonitor m = new DefaultNodeProgressMonitor();
+        final int parts = 1000000;
+        final CyclicBarrier barrier = new CyclicBarrier(2);
+        Thread progressThread = new Thread(() -> {
+            await(barrier);
+            for (int i = 1; i <= parts; i++) {
+                m.setProgress(i / (double)parts);
+            }
+        });
+        Thread messageThread = new Thread(() -> {
+            await(barrier);
+            for (int i = 1; i <= parts; i++) {
+                final int index = i;
+                m.setMessage(() -> "Message " + index);
+            }
+        });
+        progressThread.start();
+        messageThread.start();
+        progressThread.join();
+        messageThread.join();
+        assertThat("Progress update lost", m.getProgress(), is(equalTo(1.0)));
+        assertThat("Message update lost", m.getMessage(), is(equalTo("Message " + parts)));
+    }
+
+    private static void await(final CyclicBarrier barrier) {
+        try {
+            barrier.await();
+        } catch (InterruptedException | BrokenBarrierException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /** Setting the same progress value again doesn't cause another event. */
+    @Test(timeout = 5000L)
+    public void testUnchangedProgressNotFired() throws Exception {
+        DefaultNodeProgressMonitor m = new DefaultNodeProgressMonitor();
+        final Pointer<NodeProgress> progressPointer = new Pointer<>();
+        final Function<NodeProgress, Boolean> isHalfFunction = p -> p.getProgress() >= 0.5;
+        final AtomicInteger eventCount = new AtomicInteger();
+        NodeProgressListener counter = pe -> eventCount.incrementAndGet();
+        NodeProgressListener l = createListener(progressPointer, isHalfFunction);
+        m.addProgressListener(l);
+        try {
+            synchronized (isHalfFunction) {
+                m.setProgress(0.5);
+                isHalfFunction.wait(2000);
+            }
+            assertThat(progressPointer.get().getProgress(), is(closeTo(0.5, PROG_EPSILON)));
+            m.addProgressListener(counter);
+            for (int i = 0; i < 1000; i++) {
+                m.setProgress(0.5);
+            }
+            Thread.sleep(3 * KNIMEConstants.MIN_GUI_REFRESH_INTERVAL);
+            assertThat("Event fired for unchanged progress", eventCount.get(), is(0));
+        } finally {
+            m.removeProgressListener(l);
+            m.removeProgressListener(counter);
+        }
+    }
+
     private static NodeProgressListener createListener(final Pointer<NodeProgress> progressPointer,
         final Function<NodeProgress, Boolean> notificationFunction) {
         return new NodeProgressListener() {
@@ -52,6 +52,8 @@
 import static org.hamcrest.core.IsNull.nullValue;
 import static org.junit.Assert.assertThat;
 
+import java.util.Arrays;
+
 import org.apache.xmlbeans.SchemaType;
 import org.apache.xmlbeans.XmlException;
 import org.apache.xmlbeans.XmlObject;
@@ -155,6 +157,51 @@ public void testUnsupportedNamespace() throws Exception {
         parser.parseDescription(XSD_v28_unsupportedNamespace.class);
     }
 
+    /**
+     * Checks that lazily parsed node descriptions provide name, icon, type and port names without parsing the full
+     * description and delegate all other fields.
+     *
+     * @throws Exception if something goes wrong
+     */
+    @Test
+    public void testLazyDescription() throws Exception {
+        NodeDescriptionParser parser = new NodeDescriptionParser();
+        for (Class<? extends NodeFactory<?>> factoryClass : Arrays.<Class<? extends NodeFactory<?>>> asList(
+            XSD_v27.class, XSD_v28.class, XSD_v28_deprecated.class, DTD_v27.class, DTD_v13.class)) {
+            NodeDescription expected = parser.parseDescription(factoryClass);
+            NodeDescription description = parser.parseDescriptionLazily(factoryClass);
+            assertThat("Unexpected description class", description, instanceOf(LazyNodeDescription.class));
+
+            assertThat("Wrong node name", description.getNodeName(), is(expected.getNodeName()));
+            assertThat("Wrong icon path", description.getIconPath(), is(expected.getIconPath()));
+            assertThat("Wrong node type", description.getType(), is(expected.getType()));
+            assertThat("Wrong deprecation flag", description.isDeprecated(), is(expected.isDeprecated()));
+            for (int i = 0; i < 8; i++) {
+                assertThat("Wrong inport name at " + i, description.getInportName(i), is(expected.getInportName(i)));
+                assertThat("Wrong outport name at " + i, description.getOutportName(i),
+                    is(expected.getOutportName(i)));
+            }
+            boolean hasSummary = !factoryClass.getSimpleName().startsWith("DTD");
+            assertThat("Unexpected parsing of full description for " + factoryClass.getSimpleName(),
+                ((LazyNodeDescription)description).isParsed(), is(!hasSummary));
+
+            assertThat("Wrong inport description", description.getInportDescription(0),
+                is(expected.getInportDescription(0)));
+            assertThat("Wrong view count", description.getViewCount(), is(expected.getViewCount()));
+            assertThat("Full description not parsed", ((LazyNodeDescription)description).isParsed(), is(true));
+        }
+
+        // deprecation set programmatically (e.g. by the node factory) is reflected in the name of the summary
+        NodeDescription expected = parser.parseDescription(XSD_v28.class);
+        expected.setIsDeprecated(true);
+        NodeDescription description = parser.parseDescriptionLazily(XSD_v28.class);
+        description.setIsDeprecated(true);
+        assertThat("Wrong deprecation flag", description.isDeprecated(), is(true));
+        assertThat("Wrong name of deprecated node", description.getNodeName(), is(expected.getNodeName()));
+        assertThat("Missing deprecation suffix", description.getNodeName().endsWith(" (deprecated)"), is(true));
+        assertThat("Unexpected parsing of full description", ((LazyNodeDescription)description).isParsed(),
+            is(false));
+    }
 
     /**
      * Checks if test <tt>strpXmlFragment</tt> methods works as expected.
@@ -58,6 +58,7 @@
 import java.io.StringReader;
 import java.io.StringWriter;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.Set;
 
 import org.junit.After;
@@ -76,6 +77,7 @@
 import org.knime.core.data.def.IntCell;
 import org.knime.core.data.def.StringCell;
 import org.knime.core.node.config.Config;
+import org.knime.core.node.config.ConfigBinaryFormat;
 import org.knime.core.node.config.base.JSONConfig;
 import org.knime.core.node.config.base.JSONConfig.WriterConfig;
 
@@ -101,6 +103,7 @@ public void tearDown() throws Exception {
         testFile();
         testXML();
         testJSON();
+        testBinary();
     }
 
 //    /**
@@ -839,6 +842,64 @@ public void testJSON() throws Exception {
         assertTrue(copySettings.equals(m_settings));
     }
 
+    public void testBinary() throws IOException {
+        ByteArrayOutputStream os = new ByteArrayOutputStream();
+        ConfigBinaryFormat.save(m_settings, os);
+        InputStream is = new ByteArrayInputStream(os.toByteArray());
+        NodeSettings settings = ConfigBinaryFormat.load(is, NodeSettings::new);
+        assertTrue(settings.equals(m_settings));
+
+        // same content as when stored as XML (e.g. no transient strings)
+        ByteArrayOutputStream xmlOs = new ByteArrayOutputStream();
+        m_settings.saveToXML(xmlOs);
+        NodeSettingsRO xmlSettings = NodeSettings.loadFromXML(new ByteArrayInputStream(xmlOs.toByteArray()));
+        assertTrue(settings.equals(xmlSettings));
+    }
+
+    /**
+     * Checks that transient strings are not stored in the binary format, same as in XML.
+     *
+     * @throws Exception if an error occurs
+     */
+    @Test
+    public void testBinaryTransientString() throws Exception {
+        NodeSettings settings = new NodeSettings("transient-test");
+        settings.addString("key-string", "persisted");
+        settings.addTransientString("key-transient", "transient-string-value");
+        ByteArrayOutputStream os = new ByteArrayOutputStream();
+        ConfigBinaryFormat.save(settings, os);
+        NodeSettings binarySettings = ConfigBinaryFormat.load(new ByteArrayInputStream(os.toByteArray()),
+            NodeSettings::new);
+        assertFalse(binarySettings.containsKey("key-transient"));
+        assertTrue(binarySettings.getString("key-string").equals("persisted"));
+
+        ByteArrayOutputStream xmlOs = new ByteArrayOutputStream();
+        settings.saveToXML(xmlOs);
+        NodeSettingsRO xmlSettings = NodeSettings.loadFromXML(new ByteArrayInputStream(xmlOs.toByteArray()));
+        assertTrue(binarySettings.equals(xmlSettings));
+    }
+
+    /**
+     * Checks that sub-configs can be skipped when reading the binary format.
+     *
+     * @throws Exception if an error occurs
+     */
+    @Test
+    public void testBinarySkipSubConfigs() throws Exception {
+        m_settings.addString("version", "4.3.0");
+        NodeSettingsWO nodes = m_settings.addNodeSettings("nodes");
+        nodes.addNodeSettings("node_1").addInt("id", 1);
+        nodes.addString("large", new String(new char[100000]).replace('\0', 'x'));
+        m_settings.addNodeSettings("other").addBoolean("flag", true);
+        ByteArrayOutputStream os = new ByteArrayOutputStream();
+        ConfigBinaryFormat.save(m_settings, os);
+        NodeSettings settings = ConfigBinaryFormat.load(new ByteArrayInputStream(os.toByteArray()),
+            NodeSettings::new, Collections.singleton("nodes"));
+        assertFalse(settings.containsKey("nodes"));
+        assertTrue(settings.getString("version").equals("4.3.0"));
+        assertTrue(settings.getNodeSettings("other").getBoolean("flag"));
+    }
+
     /**
      * Checks whether the add/getPassword methods work as expected.
      *
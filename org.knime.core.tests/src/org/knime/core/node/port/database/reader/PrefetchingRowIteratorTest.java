@@ -0,0 +1,189 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ------------------------------------------------------------------------
+ *
+ */
+package org.knime.core.node.port.database.reader;
+
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.Test;
+import org.knime.core.data.DataRow;
+import org.knime.core.data.RowIterator;
+import org.knime.core.data.RowKey;
+import org.knime.core.data.def.DefaultRow;
+import org.knime.core.data.def.IntCell;
+
+/**
+ * Testcase for {@link PrefetchingRowIterator}.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+public class PrefetchingRowIteratorTest {
+
+    /** Iterator over a fixed number of rows that optionally fails at a given row. */
+    private static final class CountingIterator extends RowIterator {
+        private final int m_count;
+
+        private final int m_failAt;
+
+        private volatile int m_next;
+
+        CountingIterator(final int count, final int failAt) {
+            m_count = count;
+            m_failAt = failAt;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return m_next < m_count;
+        }
+
+        @Override
+        public DataRow next() {
+            if (m_next == m_failAt) {
+                throw new IllegalStateException("Expected failure");
+            }
+            final int i = m_next++;
+            return new DefaultRow(RowKey.createRowKey((long)i), new IntCell(i));
+        }
+    }
+
+    /**
+     * Checks that all rows are returned in order for batch sizes that do and do not divide the row count.
+     */
+    @Test
+    public void testOrdering() {
+        for (int batchSize : new int[]{1, 7, 100, 5000}) {
+            PrefetchingRowIterator it = new PrefetchingRowIterator(new CountingIterator(1000, -1), batchSize);
+            int i = 0;
+            while (it.hasNext()) {
+                assertThat("Wrong row for batch size " + batchSize, it.next().getKey(),
+                    is(RowKey.createRowKey((long)i)));
+                i++;
+            }
+            assertThat("Wrong number of rows for batch size " + batchSize, i, is(1000));
+            assertThat("Iterator not exhausted", it.hasNext(), is(false));
+            it.close();
+        }
+    }
+
+    /**
+     * Checks that an exception of the underlying iterator is thrown in the consuming thread.
+     */
+    @Test
+    public void testFailure() {
+        PrefetchingRowIterator it = new PrefetchingRowIterator(new CountingIterator(1000, 500), 64);
+        int i = 0;
+        try {
+            while (it.hasNext()) {
+                it.next();
+                i++;
+            }
+            fail("Expected exception not thrown");
+        } catch (IllegalStateException e) {
+            assertThat("Unexpected exception", e.getMessage(), is("Expected failure"));
+        }
+        assertThat("Rows before failure not returned", i, is(448));
+    }
+
+    /**
+     * Checks that closing the iterator before the end stops reading from the underlying iterator.
+     *
+     * @throws InterruptedException if interrupted while waiting
+     */
+    @Test(timeout = 10000)
+    public void testClose() throws InterruptedException {
+        CountingIterator source = new CountingIterator(Integer.MAX_VALUE, -1);
+        PrefetchingRowIterator it = new PrefetchingRowIterator(source, 10);
+        assertThat(it.hasNext(), is(true));
+        it.close();
+        int read = source.m_next;
+        Thread.sleep(50);
+        assertThat("Iterator still reading after close", source.m_next, is(read));
+        assertThat("Closed iterator has rows", it.hasNext(), is(false));
+    }
+
+    /**
+     * Checks that closing the iterator while the reader is blocked in the underlying iterator (e.g. waiting for the
+     * database) only returns once the reader no longer accesses it.
+     *
+     * @throws InterruptedException if interrupted while waiting
+     */
+    @Test(timeout = 10000)
+    public void testCloseWhileReaderBlocked() throws InterruptedException {
+        final CountDownLatch blocked = new CountDownLatch(1);
+        final AtomicBoolean inNext = new AtomicBoolean();
+        RowIterator source = new RowIterator() {
+            @Override
+            public boolean hasNext() {
+                return true;
+            }
+
+            @Override
+            public DataRow next() {
+                inNext.set(true);
+                try {
+                    blocked.countDown();
+                    // a driver waiting for the next fetch batch, which doesn't check the closed flag
+                    Thread.sleep(Long.MAX_VALUE);
+                    return null;
+                } catch (InterruptedException e) {
+                    throw new IllegalStateException("Interrupted", e);
+                } finally {
+                    inNext.set(false);
+                }
+            }
+        };
+        PrefetchingRowIterator it = new PrefetchingRowIterator(source, 10);
+        blocked.await();
+        it.close();
+        assertThat("Reader still accesses iterator after close", inNext.get(), is(false));
+        assertThat("Closed iterator has rows", it.hasNext(), is(false));
+    }
+}
@@ -0,0 +1,249 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ------------------------------------------------------------------------
+ *
+ */
+package org.knime.core.node.port.database.writer;
+
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsNull.nullValue;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Test;
+import org.knime.core.data.DataColumnSpecCreator;
+import org.knime.core.data.DataRow;
+import org.knime.core.data.DataTableSpec;
+import org.knime.core.data.RowKey;
+import org.knime.core.data.def.DefaultRow;
+import org.knime.core.data.def.IntCell;
+import org.knime.core.node.CanceledExecutionException;
+import org.knime.core.node.DefaultNodeProgressMonitor;
+import org.knime.core.node.ExecutionMonitor;
+import org.knime.core.node.streamable.RowInput;
+
+/**
+ * Testcase for {@link ParallelBatchInserter}, writing into a database simulated by mocked connections.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+public class ParallelBatchInserterTest {
+
+    private static final int BATCH_SIZE = 4;
+
+    /** Committed rows of all connections. */
+    private final Collection<String> m_database = Collections.synchronizedList(new ArrayList<>());
+
+    /** Rows that fail to be inserted. */
+    private final Set<String> m_failingRows = new HashSet<>();
+
+    private final List<Connection> m_connections = Collections.synchronizedList(new ArrayList<>());
+
+    /** Input of a fixed number of rows that cancels the execution when a given row is polled. */
+    private static final class TestRowInput extends RowInput {
+        private final int m_count;
+
+        private final int m_cancelAt;
+
+        private final DefaultNodeProgressMonitor m_progress;
+
+        private int m_next;
+
+        TestRowInput(final int count, final int cancelAt, final DefaultNodeProgressMonitor progress) {
+            m_count = count;
+            m_cancelAt = cancelAt;
+            m_progress = progress;
+        }
+
+        @Override
+        public DataTableSpec getDataTableSpec() {
+            return new DataTableSpec(new DataColumnSpecCreator("Int", IntCell.TYPE).createSpec());
+        }
+
+        @Override
+        public DataRow poll() {
+            if (m_next == m_cancelAt) {
+                m_progress.setExecuteCanceled();
+            }
+            if (m_next == m_count) {
+                return null;
+            }
+            final int i = m_next++;
+            return new DefaultRow(RowKey.createRowKey((long)i), new IntCell(i));
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    /** Opens a mocked connection whose statement fails batches containing a row of {@link #m_failingRows}. */
+    private Connection openConnection() throws SQLException {
+        final List<String> current = new ArrayList<>(1);
+        final List<String> batch = new ArrayList<>();
+        final List<String> uncommitted = new ArrayList<>();
+        final PreparedStatement stmt = mock(PreparedStatement.class);
+        doAnswer(inv -> {
+            current.clear();
+            current.add(inv.getArgument(1));
+            return null;
+        }).when(stmt).setString(anyInt(), anyString());
+        doAnswer(inv -> {
+            batch.add(current.get(0));
+            return null;
+        }).when(stmt).addBatch();
+        doAnswer(inv -> {
+            batch.clear();
+            return null;
+        }).when(stmt).clearBatch();
+        when(stmt.executeBatch()).thenAnswer(inv -> {
+            for (String row : batch) {
+                if (m_failingRows.contains(row)) {
+                    throw new SQLException("Row " + row + " rejected");
+                }
+            }
+            uncommitted.addAll(batch);
+            return new int[batch.size()];
+        });
+
+        final Connection conn = mock(Connection.class);
+        when(conn.prepareStatement(anyString())).thenReturn(stmt);
+        doAnswer(inv -> {
+            m_database.addAll(uncommitted);
+            uncommitted.clear();
+            return null;
+        }).when(conn).commit();
+        doAnswer(inv -> {
+            uncommitted.clear();
+            return null;
+        }).when(conn).rollback();
+        m_connections.add(conn);
+        return conn;
+    }
+
+    private String write(final int rowCount, final int cancelAt, final DefaultNodeProgressMonitor progress)
+        throws Exception {
+        final ParallelBatchInserter inserter = new ParallelBatchInserter(this::openConnection, "INSERT", 3,
+            BATCH_SIZE, (stmt, row) -> stmt.setString(1, row.getKey().getString()));
+        return inserter.write(new TestRowInput(rowCount, cancelAt, progress), rowCount,
+            new ExecutionMonitor(progress));
+    }
+
+    private static String[] rowKeys(final int rowCount, final String... excluded) {
+        final List<String> keys = new ArrayList<>();
+        for (int i = 0; i < rowCount; i++) {
+            keys.add(RowKey.createRowKey((long)i).getString());
+        }
+        keys.removeAll(Arrays.asList(excluded));
+        return keys.toArray(new String[0]);
+    }
+
+    /**
+     * Checks that all rows are written and all connections are closed.
+     *
+     * @throws Exception if an error occurs
+     */
+    @Test
+    public void testWriteAll() throws Exception {
+        assertThat("Error message", write(1000, -1, new DefaultNodeProgressMonitor()), is(nullValue()));
+        assertThat("Written rows", m_database, containsInAnyOrder(rowKeys(1000)));
+        assertThat("Number of connections", m_connections.size(), is(3));
+        for (Connection conn : m_connections) {
+            verify(conn).close();
+        }
+    }
+
+    /**
+     * Checks that only failing rows are skipped and each of them is counted as an error.
+     *
+     * @throws Exception if an error occurs
+     */
+    @Test
+    public void testFailingRowsSkipped() throws Exception {
+        final String[] failing = {"Row17", "Row18", "Row503"};
+        m_failingRows.addAll(Arrays.asList(failing));
+        assertThat("Error message", write(1000, -1, new DefaultNodeProgressMonitor()),
+            is("Errors \"3\" writing 1000 rows."));
+        assertThat("Written rows", m_database, containsInAnyOrder(rowKeys(1000, failing)));
+    }
+
+    /**
+     * Checks that canceling rolls back uncommitted batches, so that only complete groups of batches are written.
+     *
+     * @throws Exception if an error occurs
+     */
+    @Test
+    public void testCancelRollsBack() throws Exception {
+        final int groupSize = BATCH_SIZE * ParallelBatchInserter.COMMIT_INTERVAL;
+        try {
+            write(1000, 2 * groupSize + 10, new DefaultNodeProgressMonitor());
+            fail("Execution not canceled");
+        } catch (CanceledExecutionException e) {
+            // expected
+        }
+        assertThat("Written rows", m_database.size(), is(lessThan(2 * groupSize + 10)));
+        assertThat("Partially written group", m_database.size() % groupSize, is(0));
+        for (Connection conn : m_connections) {
+            verify(conn).close();
+        }
+    }
+}
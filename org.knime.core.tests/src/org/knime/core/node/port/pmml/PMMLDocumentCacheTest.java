@@ -0,0 +1,138 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ------------------------------------------------------------------------
+ *
+ */
+package org.knime.core.node.port.pmml;
+
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsNot.not;
+import static org.hamcrest.core.IsNull.notNullValue;
+import static org.hamcrest.core.IsNull.nullValue;
+import static org.junit.Assert.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+
+import org.junit.Test;
+import org.knime.core.data.DataColumnSpecCreator;
+import org.knime.core.data.DataTableSpec;
+import org.knime.core.data.def.DoubleCell;
+import org.knime.core.data.def.StringCell;
+
+/**
+ * Testcase for {@link PMMLDocumentCache} as used by {@link PMMLPortObject#loadFrom(PMMLPortObjectSpec,
+ * java.io.InputStream)}.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+public class PMMLDocumentCacheTest {
+
+    private static final DataTableSpec SPEC = new DataTableSpec(
+        new DataColumnSpecCreator("number", DoubleCell.TYPE).createSpec(),
+        new DataColumnSpecCreator("name", StringCell.TYPE).createSpec());
+
+    /** Saves a new port object with a data dictionary of the given spec and an additional column. */
+    private static byte[] createContent(final String additionalColumn) throws Exception {
+        DataTableSpec spec = new DataTableSpec(SPEC,
+            new DataTableSpec(new DataColumnSpecCreator(additionalColumn, DoubleCell.TYPE).createSpec()));
+        PMMLPortObject port = new PMMLPortObject(new PMMLPortObjectSpecCreator(spec).createSpec(), (PMMLPortObject)null, spec);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        port.save(out);
+        return out.toByteArray();
+    }
+
+    private static PMMLPortObject load(final byte[] content) throws Exception {
+        PMMLPortObject port = new PMMLPortObject();
+        port.loadFrom(new PMMLPortObjectSpecCreator(SPEC).createSpec(), new ByteArrayInputStream(content));
+        return port;
+    }
+
+    /**
+     * Checks that the first load of a content is a miss that puts the document into the cache, and a subsequent
+     * load is served from the cache with an equal document.
+     *
+     * @throws Exception if an error occurs
+     */
+    @Test
+    public void testHitAndMiss() throws Exception {
+        byte[] content = createContent("hitAndMiss");
+        String key = PMMLDocumentCache.createKey(content);
+        assertThat("Cache disabled", key, is(notNullValue()));
+        assertThat("Content cached before loading", PMMLDocumentCache.getDocument(key), is(nullValue()));
+
+        PMMLPortObject first = load(content);
+        assertThat("Wrong content key", first.getContentKey(), is(key));
+        assertThat("Document not cached after miss", PMMLDocumentCache.getDocument(key), is(notNullValue()));
+
+        PMMLPortObject second = load(content);
+        assertThat("Wrong content key", second.getContentKey(), is(key));
+        assertThat("Cached document differs from parsed one", second, is(first));
+
+        PMMLPortObject other = load(createContent("other"));
+        assertThat("Different content has same key", other.getContentKey(), not(is(key)));
+        assertThat("Different content loaded from cache", other, not(is(first)));
+    }
+
+    /**
+     * Checks that the cached translator results are used for unmodified documents only.
+     *
+     * @throws Exception if an error occurs
+     */
+    @Test
+    public void testModificationDropsKey() throws Exception {
+        byte[] content = createContent("modification");
+        PMMLPortObject port = load(content);
+        PMMLDataDictionaryTranslator cached = new PMMLDataDictionaryTranslator();
+        port.initializeModelTranslator(cached);
+        assertThat("Wrong data dictionary", cached.getDataTableSpec().getNumColumns(), is(3));
+
+        PMMLPortObject copy = new PMMLPortObject(port.getSpec(), port);
+        assertThat("Copy lost content key", copy.getContentKey(), is(port.getContentKey()));
+
+        // derived fields are live objects of the document, which the caller may change
+        port.getDerivedFields();
+        assertThat("Content key kept although document may be changed", port.getContentKey(), is(nullValue()));
+        assertThat("Copy affected", copy.getContentKey(), is(notNullValue()));
+    }
+}
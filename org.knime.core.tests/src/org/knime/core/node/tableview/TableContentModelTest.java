@@ -49,15 +49,20 @@
 import static org.awaitility.Awaitility.await;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.core.Is.is;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.atLeastOnce;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 import java.util.HashSet;
+import java.util.List;
 import java.util.Random;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
 import java.util.function.BiConsumer;
@@ -69,6 +74,7 @@
 import javax.swing.event.TableModelEvent;
 import javax.swing.event.TableModelListener;
 
+import org.knime.core.data.DataColumnSpecCreator;
 import org.knime.core.data.DataRow;
 import org.knime.core.data.DataTable;
 import org.knime.core.data.DataTableSpec;
@@ -76,11 +82,17 @@
 import org.knime.core.data.DoubleValue;
 import org.knime.core.data.RowIterator;
 import org.knime.core.data.RowKey;
+import org.knime.core.data.container.CloseableRowIterator;
+import org.knime.core.data.container.ContainerTable;
+import org.knime.core.data.container.DataContainer;
+import org.knime.core.data.container.filter.FilterDelegateRowIterator;
 import org.knime.core.data.def.DefaultRow;
 import org.knime.core.data.def.DefaultRowIterator;
 import org.knime.core.data.def.DefaultTable;
 import org.knime.core.data.def.DoubleCell;
+import org.knime.core.data.def.IntCell;
 import org.knime.core.data.def.StringCell;
+import org.knime.core.data.property.ColorAttr;
 import org.knime.core.node.NodeLogger;
 import org.knime.core.node.property.hilite.HiLiteHandler;
 import org.knime.core.node.property.hilite.KeyEvent;
@@ -850,6 +862,166 @@ public boolean matches(final TableModelEvent e) {
         });
     }
 
+    /**
+     * Tests random access (backwards and far forward) on a table supporting row range access, whose rows are read
+     * from the requested position and prefetched in the background.
+     *
+     * @throws InterruptedException if interrupted while waiting for rows
+     */
+    public void testRangeAccess() throws InterruptedException {
+        final int rowCount = 10000;
+        final TableContentModel model = new TableContentModel(createIntTable(rowCount));
+        assertTrue("Final row count", model.isRowCountFinal());
+        assertEquals("Row Count", rowCount, model.getRowCount());
+        final int[] rows = new int[]{9999, 9000, 8999, 8500, 8000, 0, 5000, 4999, 4000, 3999, 1, 9998};
+        for (int row : rows) {
+            DataRow r = getLoadedRow(model, row);
+            assertEquals("Wrong row key", RowKey.createRowKey((long)row), r.getKey());
+            assertEquals("Wrong cell", new IntCell(row), r.getCell(0));
+        }
+        // scroll up row by row, partially served from prefetched rows
+        for (int row = 3000; row >= 0; row--) {
+            assertEquals("Wrong row key", RowKey.createRowKey((long)row), getLoadedRow(model, row).getKey());
+        }
+        for (int row = 0; row < rowCount; row++) {
+            assertEquals("Wrong cell", new IntCell(row), getLoadedRow(model, row).getCell(0));
+        }
+    }
+
+    /**
+     * Tests that a jump to a row far away from the cached rows returns a placeholder immediately and fires an update
+     * event once the row has been loaded in the background.
+     *
+     * @throws InterruptedException if interrupted while waiting for rows
+     */
+    public void testRangeAccessJump() throws InterruptedException {
+        final TableContentModel model = new TableContentModel(createIntTable(10000));
+        final TableModelListener tableModelListener = mock(TableModelListener.class);
+        model.addTableModelListener(tableModelListener);
+        assertThat("'loading' row key expected", model.getRowKey(9000).getString(), is("Loading ... (9000)"));
+        assertFalse("Placeholder must not be hilit", model.isHiLit(9000));
+        assertThat("Default color expected", model.getColorAttr(9000), is(ColorAttr.DEFAULT));
+
+        assertEquals("Wrong row key", RowKey.createRowKey(9000L), getLoadedRow(model, 9000).getKey());
+        assertEquals("Wrong cell", new IntCell(9001), model.getValueAt(9001, 0));
+        await().atMost(5, TimeUnit.SECONDS).untilAsserted(() -> verify(tableModelListener, atLeastOnce())
+            .tableChanged(argThat(e -> e.getType() == TableModelEvent.UPDATE && e.getFirstRow() <= 9000
+                && e.getLastRow() >= 9000)));
+    }
+
+    /**
+     * Tests that a background load is cancelled while it's still skipping the rows preceding the requested ones, when
+     * jumping to a different row or when the table is replaced.
+     */
+    public void testRangeAccessCancel() {
+        final long size = 1000000;
+        final List<SlowRowIterator> iterators = new CopyOnWriteArrayList<>();
+        final ContainerTable table = mock(ContainerTable.class);
+        when(table.size()).thenReturn(size);
+        when(table.getDataTableSpec()).thenReturn(
+            new DataTableSpec(new DataColumnSpecCreator("int", IntCell.TYPE).createSpec()));
+        when(table.iterator()).thenAnswer(i -> new SlowRowIterator(size));
+        when(table.iteratorWithFilter(any(), any())).thenAnswer(i -> {
+            SlowRowIterator it = new SlowRowIterator(size);
+            iterators.add(it);
+            return new FilterDelegateRowIterator(it, i.getArgument(0), size, i.getArgument(1));
+        });
+        final TableContentModel model = new TableContentModel(table);
+
+        assertThat("'loading' row key expected", model.getRowKey(900000).getString(), is("Loading ... (900000)"));
+        await().atMost(5, TimeUnit.SECONDS).until(() -> iterators.size() == 1 && iterators.get(0).m_index > 0);
+        assertThat("'loading' row key expected", model.getRowKey(600000).getString(), is("Loading ... (600000)"));
+        await().atMost(5, TimeUnit.SECONDS).until(() -> iterators.get(0).m_closed);
+        assertThat("First load not cancelled while skipping rows", iterators.get(0).m_index < 850000, is(true));
+
+        await().atMost(5, TimeUnit.SECONDS).until(() -> iterators.size() == 2);
+        model.setDataTable(null);
+        await().atMost(5, TimeUnit.SECONDS).until(() -> iterators.get(1).m_closed);
+        assertThat("Second load not cancelled while skipping rows", iterators.get(1).m_index < 550000, is(true));
+    }
+
+    /**
+     * Tests that a failed background load fires an update event, shows the error in place of the rows and is not
+     * retried when the rows are requested again.
+     */
+    public void testRangeAccessFailure() {
+        final long size = 1000000;
+        final ContainerTable table = mock(ContainerTable.class);
+        when(table.size()).thenReturn(size);
+        when(table.getDataTableSpec()).thenReturn(
+            new DataTableSpec(new DataColumnSpecCreator("int", IntCell.TYPE).createSpec()));
+        when(table.iterator()).thenAnswer(i -> new SlowRowIterator(size));
+        when(table.iteratorWithFilter(any(), any())).thenThrow(new IllegalStateException("broken"));
+        final TableContentModel model = new TableContentModel(table);
+        final TableModelListener tableModelListener = mock(TableModelListener.class);
+        model.addTableModelListener(tableModelListener);
+
+        assertThat("'loading' row key expected", model.getRowKey(900000).getString(), is("Loading ... (900000)"));
+        await().atMost(5, TimeUnit.SECONDS).untilAsserted(() -> verify(tableModelListener, atLeastOnce())
+            .tableChanged(argThat(e -> e.getType() == TableModelEvent.UPDATE && e.getFirstRow() <= 900000
+                && e.getLastRow() >= 900000)));
+        for (int i = 0; i < 3; i++) {
+            assertThat("Error expected in row key", model.getRowKey(900000).getString().startsWith("FAILED LOADING"),
+                is(true));
+        }
+        verify(table, times(1)).iteratorWithFilter(any(), any());
+    }
+
+    private static DataTable createIntTable(final int rowCount) {
+        DataContainer cont = new DataContainer(new DataTableSpec(new DataColumnSpecCreator("int", IntCell.TYPE)
+            .createSpec()));
+        for (int i = 0; i < rowCount; i++) {
+            cont.addRowToTable(new DefaultRow(RowKey.createRowKey((long)i), new IntCell(i)));
+        }
+        cont.close();
+        return cont.getTable();
+    }
+
+    /** Gets a row from the model, waiting while it's loaded in the background. */
+    private static DataRow getLoadedRow(final TableContentModel model, final int row) throws InterruptedException {
+        final long timeout = System.currentTimeMillis() + 5000;
+        DataRow r;
+        while ((r = model.getRow(row)) instanceof AsyncDataRow) {
+            assertTrue("Row " + row + " not loaded in time", System.currentTimeMillis() < timeout);
+            Thread.sleep(10);
+        }
+        return r;
+    }
+
+    /** Iterator over an integer column taking some time for each row, which it doesn't abort when interrupted. */
+    private static final class SlowRowIterator extends CloseableRowIterator {
+
+        private final long m_size;
+
+        private volatile long m_index;
+
+        private volatile boolean m_closed;
+
+        SlowRowIterator(final long size) {
+            m_size = size;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !m_closed && m_index < m_size;
+        }
+
+        @Override
+        public DataRow next() {
+            final long end = System.nanoTime() + TimeUnit.MICROSECONDS.toNanos(20);
+            while (System.nanoTime() < end) {
+                // busy wait
+            }
+            final long index = m_index++;
+            return new DefaultRow(RowKey.createRowKey(index), new IntCell((int)index));
+        }
+
+        @Override
+        public void close() {
+            m_closed = true;
+        }
+    }
+
     /**
      * Iterator that throws exception when <code>next()</code> method is called
      * at an inappropriate time.
@@ -0,0 +1,176 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ------------------------------------------------------------------------
+ *
+ */
+package org.knime.core.node.workflow;
+
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsSame.sameInstance;
+import static org.junit.Assert.assertThat;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+import org.knime.core.node.workflow.FlowVariable.Scope;
+import org.knime.core.node.workflow.VariableType.IntType;
+import org.knime.core.node.workflow.VariableType.StringType;
+
+/**
+ * Testcase for {@link FlowObjectStack}, in particular for the sharing of content among stacks and the cached views.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+public class FlowObjectStackTest {
+
+    private static final NodeID ID1 = new NodeID(1);
+
+    private static final NodeID ID2 = new NodeID(2);
+
+    private static final NodeID ID3 = new NodeID(3);
+
+    private static List<FlowObject> toList(final FlowObjectStack stack) {
+        List<FlowObject> result = new ArrayList<>();
+        for (Iterator<FlowObject> it = stack.iterator(); it.hasNext();) {
+            result.add(it.next());
+        }
+        return result;
+    }
+
+    /** Checks that modifications of a derived stack don't affect the stack it was derived from and vice versa. */
+    @Test
+    public void testDerivedStacksAreIndependent() {
+        FlowObjectStack first = new FlowObjectStack(ID1);
+        first.push(new FlowVariable("a", 1));
+        FlowObjectStack second = new FlowObjectStack(ID2, first);
+        FlowObjectStack third = new FlowObjectStack(ID3, first);
+        int size = first.size();
+
+        second.push(new FlowVariable("b", 2));
+        third.push(new FlowVariable("c", 3));
+        first.push(new FlowVariable("d", 4));
+
+        assertThat("Wrong size of first stack", first.size(), is(size + 1));
+        assertThat("Wrong top of first stack", first.peek(FlowVariable.class).getName(), is("d"));
+        assertThat("Wrong top of second stack", second.peek(FlowVariable.class).getName(), is("b"));
+        assertThat("Wrong top of third stack", third.peek(FlowVariable.class).getName(), is("c"));
+        assertThat("Unexpected variable in second stack",
+            second.peekFlowVariable("c", IntType.INSTANCE).isPresent(), is(false));
+
+        second.pop(FlowVariable.class);
+        second.push(new FlowVariable("e", 5));
+        assertThat("Wrong top of second stack after pop/push", second.peek(FlowVariable.class).getName(), is("e"));
+        assertThat("Wrong top of third stack after pop/push of second", third.peek(FlowVariable.class).getName(),
+            is("c"));
+    }
+
+    /**
+     * Checks that the map of available variables is cached until the stack is modified and that previously returned
+     * maps are not affected by modifications.
+     */
+    @Test
+    public void testAvailableVariablesCached() {
+        FlowObjectStack stack = new FlowObjectStack(ID1);
+        stack.push(new FlowVariable("a", 1));
+        Map<String, FlowVariable> map = stack.getAvailableFlowVariables(IntType.INSTANCE);
+        assertThat("Map not cached", stack.getAvailableFlowVariables(IntType.INSTANCE), is(sameInstance(map)));
+
+        stack.push(new FlowVariable("a", 2));
+        Map<String, FlowVariable> newMap = stack.getAvailableFlowVariables(IntType.INSTANCE);
+        assertThat("Old map modified", map.get("a").getIntValue(), is(1));
+        assertThat("Wrong top-most variable", newMap.get("a").getIntValue(), is(2));
+    }
+
+    /** Checks that the variable lookup by name respects the type. */
+    @Test
+    public void testPeekFlowVariableByType() {
+        FlowObjectStack stack = new FlowObjectStack(ID1);
+        stack.push(new FlowVariable("x", 1));
+        stack.push(new FlowVariable("x", "foo"));
+        assertThat("Wrong int variable", stack.peekFlowVariable("x", IntType.INSTANCE).get().getIntValue(), is(1));
+        assertThat("Wrong string variable",
+            stack.peekFlowVariable("x", StringType.INSTANCE).get().getStringValue(), is("foo"));
+        assertThat("Wrong available variable",
+            stack.getAvailableFlowVariables(IntType.INSTANCE, StringType.INSTANCE).get("x").getStringValue(),
+            is("foo"));
+    }
+
+    /** Checks that local variables are not passed on to successors. */
+    @Test
+    public void testLocalVariablesRemoved() {
+        FlowObjectStack stack = new FlowObjectStack(ID1);
+        stack.push(new FlowVariable("global", 1));
+        stack.push(new FlowVariable("local", 2, Scope.Local));
+        FlowObjectStack successor = new FlowObjectStack(ID2, new FlowObjectStack[]{stack});
+        assertThat("Local variable passed on", successor.peekFlowVariable("local", IntType.INSTANCE).isPresent(),
+            is(false));
+        assertThat("Variable not passed on", successor.peekFlowVariable("global", IntType.INSTANCE).isPresent(),
+            is(true));
+    }
+
+    /** Checks that merging a stack with itself gives the same result as a single input. */
+    @Test
+    public void testMergeIdenticalInputs() {
+        FlowObjectStack first = new FlowObjectStack(ID1);
+        first.push(new FlowVariable("a", 1));
+        FlowObjectStack second = new FlowObjectStack(ID2);
+        second.push(new FlowVariable("a", 2));
+        second.push(new FlowVariable("b", 3));
+
+        FlowObjectStack single = new FlowObjectStack(ID3, new FlowObjectStack[]{first});
+        FlowObjectStack twice = new FlowObjectStack(ID3, new FlowObjectStack[]{first, first});
+        assertThat("Wrong merge of identical inputs", toList(twice), is(toList(single)));
+
+        FlowObjectStack merged = new FlowObjectStack(ID3, new FlowObjectStack[]{first, second});
+        FlowObjectStack mergedWithDuplicates = new FlowObjectStack(ID3, new FlowObjectStack[]{first, second, first});
+        assertThat("Wrong variable after merge", merged.peekFlowVariable("a", IntType.INSTANCE).get().getIntValue(),
+            is(1));
+        assertThat("Wrong merge with duplicate inputs", toList(mergedWithDuplicates),
+            is(toList(new FlowObjectStack(ID3, new FlowObjectStack[]{first, second, first, second, first}))));
+        assertThat("Wrong merge repeated", toList(new FlowObjectStack(ID3, new FlowObjectStack[]{first, second})),
+            is(toList(merged)));
+    }
+}
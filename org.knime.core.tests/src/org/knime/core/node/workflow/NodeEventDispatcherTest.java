@@ -0,0 +1,137 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ------------------------------------------------------------------------
+ *
+ */
+package org.knime.core.node.workflow;
+
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertThat;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+/**
+ * Testcase for {@link NodeEventDispatcher}.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+public class NodeEventDispatcherTest {
+
+    /**
+     * Checks that pending events of the same key are coalesced into the latest one, that events are never delivered by
+     * the caller (even if many keys are pending), and the resulting delivery order.
+     *
+     * @throws InterruptedException if interrupted while waiting
+     */
+    @Test(timeout = 10000)
+    public void testCoalescing() throws InterruptedException {
+        final NodeEventDispatcher dispatcher = new NodeEventDispatcher();
+        final List<String> delivered = Collections.synchronizedList(new ArrayList<>());
+        final Set<Thread> deliveringThreads = Collections.synchronizedSet(new HashSet<>());
+        final CountDownLatch blockingStarted = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final int otherKeys = 10000;
+        final CountDownLatch allDelivered = new CountDownLatch(2 + otherKeys);
+        dispatcher.dispatch("a", () -> {
+            blockingStarted.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        blockingStarted.await();
+
+        // the dispatcher thread is blocked, these events are pending
+        dispatcher.dispatch("a", () -> delivered.add("a2"));
+        dispatcher.dispatch("a", () -> {
+            delivered.add("a3");
+            allDelivered.countDown();
+        });
+        dispatcher.dispatch("b", () -> {
+            delivered.add("b");
+            allDelivered.countDown();
+        });
+        final List<String> expected = new ArrayList<>(Arrays.asList("a3", "b"));
+        for (int i = 0; i < otherKeys; i++) {
+            final String key = "k" + i;
+            expected.add(key);
+            dispatcher.dispatch(key, () -> {
+                delivered.add(key);
+                deliveringThreads.add(Thread.currentThread());
+                allDelivered.countDown();
+            });
+        }
+        assertThat("Event delivered while dispatcher is blocked", delivered.isEmpty(), is(true));
+
+        release.countDown();
+        assertThat("Events not delivered", allDelivered.await(5, TimeUnit.SECONDS), is(true));
+        assertThat("Wrong events or order", delivered, is(expected));
+        assertThat("Events delivered by caller", deliveringThreads.contains(Thread.currentThread()), is(false));
+    }
+
+    /**
+     * Checks that an exception thrown by a listener doesn't stop the dispatcher.
+     *
+     * @throws InterruptedException if interrupted while waiting
+     */
+    @Test(timeout = 10000)
+    public void testFailingDelivery() throws InterruptedException {
+        final NodeEventDispatcher dispatcher = new NodeEventDispatcher();
+        final CountDownLatch delivered = new CountDownLatch(1);
+        dispatcher.dispatch("a", () -> {
+            throw new IllegalStateException("Expected failure");
+        });
+        dispatcher.dispatch("b", delivered::countDown);
+        assertThat("Event after failure not delivered", delivered.await(5, TimeUnit.SECONDS), is(true));
+    }
+}
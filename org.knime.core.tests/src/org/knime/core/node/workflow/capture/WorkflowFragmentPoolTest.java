@@ -0,0 +1,176 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ------------------------------------------------------------------------
+ *
+ */
+package org.knime.core.node.workflow.capture;
+
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsNot.not;
+import static org.hamcrest.core.IsSame.sameInstance;
+import static org.junit.Assert.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import org.junit.After;
+import org.junit.Test;
+import org.knime.core.node.workflow.WorkflowCreationHelper;
+import org.knime.core.node.workflow.WorkflowManager;
+
+/**
+ * Testcase for {@link WorkflowFragmentPool}.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+public class WorkflowFragmentPoolTest {
+
+    private static final String KEY = "fragment";
+
+    private final List<WorkflowManager> m_loaded = new ArrayList<>();
+
+    /** Loads a new (empty) workflow and remembers it for cleanup. */
+    private final Supplier<WorkflowManager> m_loader = () -> {
+        WorkflowManager wfm = WorkflowManager.EXTRACTED_WORKFLOW_ROOT
+            .createAndAddProject("Fragment " + m_loaded.size(), new WorkflowCreationHelper());
+        m_loaded.add(wfm);
+        return wfm;
+    };
+
+    /** Removes all workflows loaded by a test that haven't been disposed by the pool. */
+    @After
+    public void disposeLoaded() {
+        for (WorkflowManager wfm : m_loaded) {
+            if (isLoaded(wfm)) {
+                WorkflowManager.EXTRACTED_WORKFLOW_ROOT.removeNode(wfm.getID());
+            }
+        }
+    }
+
+    private static boolean isLoaded(final WorkflowManager wfm) {
+        return WorkflowManager.EXTRACTED_WORKFLOW_ROOT.containsNodeContainer(wfm.getID());
+    }
+
+    /**
+     * Checks that a returned instance is handed out again instead of loading a new one and that concurrent borrowers
+     * get distinct instances.
+     */
+    @Test
+    public void testBorrowReturnReuse() {
+        WorkflowFragmentPool pool = new WorkflowFragmentPool(2);
+        WorkflowManager first = pool.borrow(KEY, m_loader);
+        WorkflowManager second = pool.borrow(KEY, m_loader);
+        assertThat("Concurrent borrowers share an instance", second, not(sameInstance(first)));
+        assertThat("Unexpected number of loaded instances", m_loaded.size(), is(2));
+
+        pool.giveBack(KEY, first);
+        assertThat("Returned instance not idle", pool.getIdleCount(KEY), is(1));
+        assertThat("Returned instance not reused", pool.borrow(KEY, m_loader), is(sameInstance(first)));
+        assertThat("Instance loaded although an idle one was available", m_loaded.size(), is(2));
+        assertThat("Borrowed instance still idle", pool.getIdleCount(KEY), is(0));
+
+        assertThat("Instance of other fragment reused", pool.borrow("other", m_loader), not(sameInstance(first)));
+        assertThat("Unexpected number of loaded instances", m_loaded.size(), is(3));
+    }
+
+    /**
+     * Checks that no more than the configured number of instances are kept per fragment, the others are disposed.
+     */
+    @Test
+    public void testSizeLimit() {
+        WorkflowFragmentPool pool = new WorkflowFragmentPool(2);
+        List<WorkflowManager> borrowed = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            borrowed.add(pool.borrow(KEY, m_loader));
+        }
+        for (WorkflowManager wfm : borrowed) {
+            pool.giveBack(KEY, wfm);
+        }
+        assertThat("Wrong number of idle instances", pool.getIdleCount(KEY), is(2));
+        assertThat("Instance exceeding the limit not disposed", isLoaded(borrowed.get(2)), is(false));
+        assertThat("Idle instance disposed", isLoaded(borrowed.get(0)), is(true));
+        assertThat("Idle instance disposed", isLoaded(borrowed.get(1)), is(true));
+    }
+
+    /**
+     * Checks that a pool of size 0 always loads new instances and disposes returned ones.
+     */
+    @Test
+    public void testDisabledPool() {
+        WorkflowFragmentPool pool = new WorkflowFragmentPool(0);
+        String key = pool.createKey(new byte[]{1, 2, 3});
+        assertThat("Disabled pool creates keys", key == null, is(true));
+        WorkflowManager first = pool.borrow(key, m_loader);
+        pool.giveBack(key, first);
+        assertThat("Returned instance not disposed", isLoaded(first), is(false));
+        assertThat("Returned instance reused", pool.borrow(key, m_loader), not(sameInstance(first)));
+        assertThat("Unexpected number of loaded instances", m_loaded.size(), is(2));
+        assertThat("Eviction scheduled for disabled pool", pool.isEvictionScheduled(), is(false));
+    }
+
+    /**
+     * Checks that expired idle instances are disposed and that the periodic eviction is stopped once no idle
+     * instances are left.
+     */
+    @Test
+    public void testIdleEviction() {
+        WorkflowFragmentPool pool = new WorkflowFragmentPool(2);
+        WorkflowManager wfm = pool.borrow(KEY, m_loader);
+        pool.giveBack(KEY, wfm);
+        assertThat("Eviction not scheduled", pool.isEvictionScheduled(), is(true));
+
+        pool.evictIdle(System.currentTimeMillis());
+        assertThat("Instance evicted before timeout", isLoaded(wfm), is(true));
+        assertThat("Eviction stopped while instances are idle", pool.isEvictionScheduled(), is(true));
+
+        pool.evictIdle(System.currentTimeMillis() + WorkflowFragmentPool.IDLE_TIMEOUT + 1);
+        assertThat("Expired instance not disposed", isLoaded(wfm), is(false));
+        assertThat("Expired instance still idle", pool.getIdleCount(KEY), is(0));
+        assertThat("Eviction not stopped", pool.isEvictionScheduled(), is(false));
+
+        pool.giveBack(KEY, pool.borrow(KEY, m_loader));
+        assertThat("Eviction not rescheduled", pool.isEvictionScheduled(), is(true));
+        pool.evictIdle(System.currentTimeMillis() + WorkflowFragmentPool.IDLE_TIMEOUT + 1);
+    }
+}
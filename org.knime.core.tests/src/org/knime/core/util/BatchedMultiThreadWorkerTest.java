@@ -0,0 +1,258 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ------------------------------------------------------------------------
+ *
+ */
+package org.knime.core.util;
+
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Testcase for {@link BatchedMultiThreadWorker}.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+public class BatchedMultiThreadWorkerTest {
+
+    private ExecutorService m_executor;
+
+    /** Creates the executor used by the workers. */
+    @Before
+    public void createExecutor() {
+        m_executor = Executors.newFixedThreadPool(4);
+    }
+
+    /**
+     * Shuts down the executor.
+     *
+     * @throws InterruptedException if interrupted while waiting for termination
+     */
+    @After
+    public void shutdownExecutor() throws InterruptedException {
+        m_executor.shutdownNow();
+        m_executor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    private static List<Integer> createInput(final int count) {
+        List<Integer> input = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            input.add(i);
+        }
+        return input;
+    }
+
+    /**
+     * Checks that all elements are processed in input order for different batch sizes, including a last batch that
+     * is only partially filled.
+     *
+     * @throws Exception if an error occurs
+     */
+    @Test
+    public void testOrdering() throws Exception {
+        for (int batchSize : new int[]{1, 7, 64, 20000}) {
+            final List<Integer> output = new ArrayList<>();
+            BatchedMultiThreadWorker<Integer, Integer> worker = new BatchedMultiThreadWorker<Integer, Integer>(
+                    batchSize, 8, 4) {
+                @Override
+                protected Integer compute(final Integer in, final long index) throws Exception {
+                    assertThat("Wrong index for element", index, is((long)in.intValue()));
+                    return 2 * in;
+                }
+
+                @Override
+                protected void processFinished(final Integer in, final Integer out, final long index) {
+                    assertThat("Unexpected output order", index, is((long)output.size()));
+                    output.add(out);
+                }
+            };
+            worker.setExecutor(m_executor);
+            worker.run(createInput(10007));
+            assertThat("Wrong number of outputs for batch size " + batchSize, output.size(), is(10007));
+            assertThat("Wrong finished count", worker.getFinishedCount(), is(10007L));
+            for (int i = 0; i < output.size(); i++) {
+                assertThat("Wrong output at index " + i, output.get(i), is(2 * i));
+            }
+        }
+    }
+
+    /**
+     * Checks that an exception in a computation aborts the execution.
+     *
+     * @throws Exception if an error occurs
+     */
+    @Test
+    public void testExceptionInCompute() throws Exception {
+        BatchedMultiThreadWorker<Integer, Integer> worker = new BatchedMultiThreadWorker<Integer, Integer>(10, 8, 4) {
+            @Override
+            protected Integer compute(final Integer in, final long index) throws Exception {
+                if (index == 555) {
+                    throw new IllegalStateException("Expected failure");
+                }
+                return in;
+            }
+
+            @Override
+            protected void processFinished(final Integer in, final Integer out, final long index) {
+                // nothing to do
+            }
+        };
+        worker.setExecutor(m_executor);
+        try {
+            worker.run(createInput(10000));
+            fail("Expected exception not thrown");
+        } catch (ExecutionException e) {
+            Throwable cause = e;
+            while (cause.getCause() != null && !(cause instanceof IllegalStateException)) {
+                cause = cause.getCause();
+            }
+            assertThat("Unexpected cause", cause.getMessage(), is("Expected failure"));
+        }
+        assertThat("Processed elements after failing one", worker.getFinishedCount() <= 550, is(true));
+    }
+
+    /**
+     * Checks that throwing a {@link CancellationException} in the final processing cancels the execution.
+     *
+     * @throws Exception if an error occurs
+     */
+    @Test(expected = CancellationException.class)
+    public void testCancelInProcessFinished() throws Exception {
+        BatchedMultiThreadWorker<Integer, Integer> worker = new BatchedMultiThreadWorker<Integer, Integer>(10, 8, 4) {
+            @Override
+            protected Integer compute(final Integer in, final long index) throws Exception {
+                return in;
+            }
+
+            @Override
+            protected void processFinished(final Integer in, final Integer out, final long index) {
+                if (index == 100) {
+                    throw new CancellationException();
+                }
+            }
+        };
+        worker.setExecutor(m_executor);
+        worker.run(createInput(10000));
+    }
+
+    /**
+     * Checks that canceling doesn't release batches (and their buffers) that are still computed by a worker thread,
+     * which ignores the interrupt here.
+     *
+     * @throws Exception if an error occurs
+     */
+    @Test
+    public void testCancelWhileComputing() throws Exception {
+        final CountDownLatch computeStarted = new CountDownLatch(1);
+        final CountDownLatch computeMayFinish = new CountDownLatch(1);
+        final BatchedMultiThreadWorker<Integer, Integer> worker =
+            new BatchedMultiThreadWorker<Integer, Integer>(10, 8, 4) {
+                @Override
+                protected Integer compute(final Integer in, final long index) throws Exception {
+                    if (index == 0) {
+                        computeStarted.countDown();
+                        awaitUninterruptibly(computeMayFinish);
+                    }
+                    return in;
+                }
+
+                @Override
+                protected void processFinished(final Integer in, final Integer out, final long index) {
+                    // nothing to do
+                }
+            };
+        worker.setExecutor(m_executor);
+        final AtomicReference<Throwable> runResult = new AtomicReference<>();
+        Thread mainThread = new Thread(() -> {
+            try {
+                worker.run(createInput(10000));
+            } catch (Throwable t) {
+                runResult.set(t);
+            }
+        });
+        mainThread.start();
+        assertThat("Computation not started", computeStarted.await(10, TimeUnit.SECONDS), is(true));
+        worker.cancel(true);
+        mainThread.join(10000);
+        assertThat("Run method did not return", mainThread.isAlive(), is(false));
+        assertThat("Unexpected run result", runResult.get() instanceof CancellationException, is(true));
+        assertThat("Batch released while still being computed", worker.getActiveCount() >= 1, is(true));
+
+        computeMayFinish.countDown();
+        long timeout = System.currentTimeMillis() + 10000;
+        while (worker.getActiveCount() > 0 && System.currentTimeMillis() < timeout) {
+            Thread.sleep(10);
+        }
+        assertThat("Batch not released after computation returned", worker.getActiveCount(), is(0));
+    }
+
+    private static void awaitUninterruptibly(final CountDownLatch latch) {
+        boolean interrupted = false;
+        while (true) {
+            try {
+                latch.await();
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
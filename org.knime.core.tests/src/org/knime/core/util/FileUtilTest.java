@@ -52,15 +52,30 @@
 import static org.hamcrest.core.Is.is;
 import static org.hamcrest.core.IsNull.nullValue;
 import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
 import static org.junit.Assume.assumeThat;
 
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.net.URL;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+import java.util.zip.ZipInputStream;
 
 import org.eclipse.core.runtime.Platform;
 import org.junit.Test;
+import org.knime.core.node.ExecutionMonitor;
 
 /**
  * Testcases for {@link FileUtil}.
@@ -230,4 +245,108 @@ public void testFileResolvedFromUncUrlContainsTheProtocolHostAndPathInItsAbsolut
         File resolvedFile = FileUtil.getFileFromURL(new URL("file://HOST/path"));
         assertThat("Resolved file does not have a correct UNC path", resolvedFile.getAbsolutePath(), is("\\\\HOST\\path"));
     }
+
+    /**
+     * Checks that a directory with plain and already compressed files of different sizes (including multiple deflate
+     * chunks) survives zipping and unzipping, and that compressed files are not deflated again.
+     *
+     * @throws Exception if an error occurs
+     */
+    @Test
+    public void testZipUnzipRoundtrip() throws Exception {
+        File tempDir = FileUtil.createTempDir("zip-test");
+        try {
+            File rootDir = new File(tempDir, "root");
+            File subDir = new File(rootDir, "sub");
+            assertThat("Failed to create directory", subDir.mkdirs(), is(true));
+            Random rand = new Random(42);
+            int[] sizes = {0, 1, 1000, ParallelZipWriter.CHUNK_SIZE, 3 * ParallelZipWriter.CHUNK_SIZE + 17};
+            for (int i = 0; i < sizes.length; i++) {
+                byte[] content = new byte[sizes[i]];
+                for (int j = 0; j < content.length; j++) {
+                    content[j] = (byte)('a' + rand.nextInt(4));
+                }
+                Files.write(new File(i % 2 == 0 ? rootDir : subDir, "file" + i + ".txt").toPath(), content);
+            }
+            try (OutputStream out = new GZIPOutputStream(new FileOutputStream(new File(subDir, "data.bin")))) {
+                out.write(new byte[100000]);
+            }
+
+            File zipFile = new File(tempDir, "archive.zip");
+            assertThat("Archive incomplete", FileUtil.zipDir(zipFile, Arrays.asList(rootDir), 9,
+                FileUtil.ZIP_INCLUDEALL_FILTER, new ExecutionMonitor()), is(true));
+
+            try (ZipInputStream in = new ZipInputStream(new FileInputStream(zipFile))) {
+                ZipEntry e;
+                while ((e = in.getNextEntry()) != null) {
+                    if (e.getName().endsWith("data.bin")) {
+                        assertThat("Compressed file deflated again", e.getMethod(), is(ZipEntry.STORED));
+                    }
+                }
+            }
+
+            File destDir = new File(tempDir, "dest");
+            assertThat("Failed to create directory", destDir.mkdir(), is(true));
+            FileUtil.unzip(zipFile, destDir);
+            assertSameContent(rootDir, new File(destDir, "root"));
+        } finally {
+            FileUtil.deleteRecursively(tempDir);
+        }
+    }
+
+    /**
+     * Checks that files with the same name in the root of the archive are rejected, as done by
+     * {@link java.util.zip.ZipOutputStream}.
+     *
+     * @throws Exception if an error occurs
+     */
+    @Test
+    public void testZipDuplicateEntry() throws Exception {
+        File tempDir = FileUtil.createTempDir("zip-test");
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            File file1 = new File(new File(tempDir, "a"), "file.txt");
+            File file2 = new File(new File(tempDir, "b"), "file.txt");
+            for (File f : Arrays.asList(file1, file2)) {
+                assertThat("Failed to create directory", f.getParentFile().mkdir(), is(true));
+                Files.write(f.toPath(), new byte[100]);
+            }
+
+            try {
+                FileUtil.zipDir(new File(tempDir, "archive.zip"), Arrays.asList(file1, file2), 9,
+                    FileUtil.ZIP_INCLUDEALL_FILTER, new ExecutionMonitor());
+                fail("Expected exception for duplicate entry");
+            } catch (ZipException e) {
+                assertThat("Unexpected exception message", e.getMessage(), is("duplicate entry: file.txt"));
+            }
+
+            // same with the parallel writer, which is only used by zipDir on multi-core machines
+            try (ParallelZipWriter zipper = new ParallelZipWriter(new FileOutputStream(new File(tempDir, "p.zip")),
+                9, executor, 1, new ExecutionMonitor(), 200)) {
+                assertThat("File not added", zipper.addFile(file1, "file.txt"), is(true));
+                zipper.addFile(file2, "file.txt");
+                fail("Expected exception for duplicate entry");
+            } catch (ZipException e) {
+                assertThat("Unexpected exception message", e.getMessage(), is("duplicate entry: file.txt"));
+            }
+        } finally {
+            executor.shutdownNow();
+            FileUtil.deleteRecursively(tempDir);
+        }
+    }
+
+    private static void assertSameContent(final File expected, final File actual) throws IOException {
+        assertThat("Missing " + actual, actual.exists(), is(true));
+        if (expected.isDirectory()) {
+            assertThat("Not a directory: " + actual, actual.isDirectory(), is(true));
+            String[] children = expected.list();
+            assertThat("Wrong number of files in " + actual, actual.list().length, is(children.length));
+            for (String child : children) {
+                assertSameContent(new File(expected, child), new File(actual, child));
+            }
+        } else {
+            assertThat("Wrong content of " + actual,
+                Arrays.equals(Files.readAllBytes(expected.toPath()), Files.readAllBytes(actual.toPath())), is(true));
+        }
+    }
 }
@@ -0,0 +1,218 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ------------------------------------------------------------------------
+ */
+package org.knime.core.node;
+
+import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsNull.nullValue;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.knime.core.node.port.PortObject;
+import org.knime.core.node.workflow.NativeNodeContainer;
+import org.knime.core.node.workflow.NodeID;
+import org.knime.core.node.workflow.NodeMessage;
+import org.knime.core.node.workflow.WorkflowCreationHelper;
+import org.knime.core.node.workflow.WorkflowManager;
+import org.knime.core.node.workflow.WorkflowTestCase;
+import org.knime.core.node.workflow.node.adapter.AdapterNodeFactory;
+import org.knime.core.node.workflow.node.adapter.AdapterNodeModel;
+import org.knime.core.util.FileUtil;
+
+/**
+ * Executes a {@link CacheableNodeModel} with the {@link NodeExecutionCache} enabled and checks that it's only executed
+ * if its settings changed.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+public class NodeExecutionCacheTest extends WorkflowTestCase {
+
+    private File m_cacheDir;
+
+    private NodeExecutionCache m_cache;
+
+    private NodeExecutionCache m_oldCache;
+
+    private NodeID m_cached;
+
+    @Before
+    public void setUp() throws Exception {
+        m_cacheDir = FileUtil.createTempDir(getClass().getSimpleName());
+        m_cache = NodeExecutionCache.open(m_cacheDir, Long.MAX_VALUE);
+        m_oldCache = NodeExecutionCache.setInstance(m_cache);
+
+        WorkflowManager wfm =
+            WorkflowManager.ROOT.createAndAddProject(getClass().getSimpleName(), new WorkflowCreationHelper());
+        setManager(wfm);
+        NodeID source = wfm.createAndAddNode(new AdapterNodeFactory(true));
+        m_cached = wfm.createAndAddNode(new CountingNodeFactory());
+        wfm.addConnection(source, 1, m_cached, 1);
+    }
+
+    /** Checks that the second execution restores outputs and warning without executing the node. */
+    @Test
+    public void testRestoreSkipsExecution() throws Exception {
+        execute();
+        assertThat("Executions", getModel().m_executions, is(1));
+        assertThat("Cache size", m_cache.getSize() > 0, is(true));
+
+        getManager().resetAndConfigureAll();
+        execute();
+        assertThat("Executions after restore", getModel().m_executions, is(1));
+        assertThat("Rows of restored table", getOutput().size(), is(3L));
+        NodeMessage message = getManager().getNodeContainer(m_cached).getNodeMessage();
+        assertThat("Restored warning", message.getMessageType(), is(NodeMessage.Type.WARNING));
+        assertThat("Restored warning", message.getMessage(), is("Executed with a"));
+    }
+
+    /** Checks that the node is executed again after its settings changed. */
+    @Test
+    public void testChangedSettingsExecute() throws Exception {
+        execute();
+        long sizeAfterFirst = m_cache.getSize();
+
+        getManager().resetAndConfigureAll();
+        getModel().m_value = "b";
+        execute();
+        assertThat("Executions with changed settings", getModel().m_executions, is(2));
+        assertThat("Cache size with two entries", m_cache.getSize() > sizeAfterFirst, is(true));
+
+        getManager().resetAndConfigureAll();
+        getModel().m_value = "a";
+        execute();
+        assertThat("Executions with restored settings", getModel().m_executions, is(2));
+    }
+
+    /** Checks that entries exceeding the size limit are evicted. */
+    @Test
+    public void testEviction() throws Exception {
+        reopenCache(1);
+        execute();
+        assertThat("Cache size", m_cache.getSize(), is(0L));
+        assertThat("Entries in cache directory", m_cacheDir.listFiles(File::isDirectory).length, is(0));
+
+        getManager().resetAndConfigureAll();
+        execute();
+        assertThat("Executions without cache entry", getModel().m_executions, is(2));
+    }
+
+    /** Checks that the index is rebuilt from the directory and the directory can't be opened twice. */
+    @Test
+    public void testReopen() throws Exception {
+        execute();
+        long size = m_cache.getSize();
+        assertThat("Cache opened twice", NodeExecutionCache.open(m_cacheDir, Long.MAX_VALUE), is(nullValue()));
+
+        reopenCache(Long.MAX_VALUE);
+        assertThat("Cache size after reopen", m_cache.getSize(), is(size));
+        getManager().resetAndConfigureAll();
+        execute();
+        assertThat("Executions after reopen", getModel().m_executions, is(1));
+    }
+
+    private void reopenCache(final long maxSize) throws Exception {
+        m_cache.close();
+        m_cache = NodeExecutionCache.open(m_cacheDir, maxSize);
+        NodeExecutionCache.setInstance(m_cache);
+    }
+
+    private void execute() throws Exception {
+        executeAllAndWait();
+        assertTrue("Node not executed", getManager().getNodeContainer(m_cached).getNodeContainerState().isExecuted());
+    }
+
+    private CountingNodeModel getModel() {
+        return (CountingNodeModel)((NativeNodeContainer)getManager().getNodeContainer(m_cached)).getNodeModel();
+    }
+
+    private BufferedDataTable getOutput() {
+        return (BufferedDataTable)getManager().getNodeContainer(m_cached).getOutPort(1).getPortObject();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    @After
+    public void tearDown() throws Exception {
+        super.tearDown();
+        NodeExecutionCache.setInstance(m_oldCache);
+        m_cache.close();
+        FileUtil.deleteRecursively(m_cacheDir);
+    }
+
+    private static final class CountingNodeFactory extends AdapterNodeFactory {
+        @Override
+        public AdapterNodeModel createNodeModel() {
+            return new CountingNodeModel();
+        }
+    }
+
+    /** Passes on its input, counts its executions and sets a warning depending on its setting. */
+    private static final class CountingNodeModel extends AdapterNodeModel implements CacheableNodeModel {
+
+        private String m_value = "a";
+
+        private int m_executions;
+
+        CountingNodeModel() {
+            super(1, 1);
+        }
+
+        @Override
+        protected PortObject[] execute(final PortObject[] inObjects, final ExecutionContext exec) throws Exception {
+            m_executions++;
+            setWarningMessage("Executed with " + m_value);
+            return inObjects;
+        }
+
+        @Override
+        protected void saveSettingsTo(final NodeSettingsWO settings) {
+            settings.addString("value", m_value);
+        }
+    }
+}
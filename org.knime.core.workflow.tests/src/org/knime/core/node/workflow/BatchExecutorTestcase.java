@@ -54,12 +54,15 @@
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.FileReader;
+import java.io.FileWriter;
 import java.io.IOException;
+import java.io.Writer;
 import java.net.URL;
 import java.util.Collection;
 import java.util.concurrent.atomic.AtomicReference;
@@ -68,12 +71,14 @@
 
 import org.apache.commons.lang3.StringUtils;
 import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.FileLocator;
 import org.eclipse.core.runtime.Path;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.BeforeClass;
 import org.junit.Test;
+import org.knime.core.node.workflow.BatchExecutor.IllegalOptionException;
 import org.knime.core.util.FileUtil;
 import org.knime.core.util.MutableInteger;
 import org.osgi.framework.Bundle;
@@ -506,6 +511,175 @@ public void testLoadCredentials() throws Exception {
         // does not need credentials and currently there is no node besides database nodes that uses credentials.
     }
 
+    /**
+     * Test if the configurations created for -workflowList are copies of the argument configuration (keeping fields
+     * of subclasses) and if workflows listed twice are only run once.
+     *
+     * @throws Exception if an error occurs
+     */
+    @Test
+    public void testWorkflowListConfigurations() throws Exception {
+        File first = FileUtil.createTempDir("BatchExecutorTest");
+        File second = FileUtil.createTempDir("BatchExecutorTest");
+        File list = File.createTempFile("BatchExecutorTest", ".list");
+        list.deleteOnExit();
+        try (Writer out = new FileWriter(list)) {
+            out.write(first.getAbsolutePath() + "\n");
+            out.write(second.getAbsolutePath() + "\n");
+            out.write(new File(new File(first, ".."), first.getName()).getAbsolutePath() + "\n");
+        }
+
+        TestBatchExecutor executor = new TestBatchExecutor();
+        BatchExecutor.WorkflowConfiguration template = executor.parseConfigFromArguments(new String[]{
+            "-workflowList=" + list.getAbsolutePath(), "-nosave", "-extra=value", "-workflow.variable=name,value,String"});
+        assertThat("Wrong number of workflows", executor.m_workflows.size(), is(2));
+        assertThat(executor.m_workflows.get(0).inputWorkflow, is(first));
+        assertThat(executor.m_workflows.get(1).inputWorkflow, is(second));
+        for (BatchExecutor.WorkflowConfiguration config : executor.m_workflows) {
+            assertTrue("Subclass of configuration not kept", config instanceof TestConfiguration);
+            assertThat(((TestConfiguration)config).extra, is("value"));
+            assertTrue("Option not copied", config.noSave);
+            assertThat(config.flowVariables.size(), is(1));
+            assertFalse("Workflow variables not copied", config.flowVariables == template.flowVariables);
+        }
+    }
+
+    /**
+     * Test if the private copy of a workflow that is run multiple times is deleted if the workflow cannot be loaded.
+     *
+     * @throws Exception if an error occurs
+     */
+    @Test
+    public void testPrivateCopyDeletedOnLoadError() throws Exception {
+        TestBatchExecutor executor = new TestBatchExecutor();
+        BatchExecutor.WorkflowConfiguration config = executor.createNewConfiguration();
+        config.inputWorkflow = FileUtil.createTempDir("BatchExecutorTest");
+        config.privateCopy = true;
+
+        int copiesBefore = countTempDirs("BatchExecutorRun");
+        try {
+            executor.loadWorkflow(config);
+            fail("Empty directory loaded as workflow");
+        } catch (Exception ex) {
+            // expected
+        }
+        assertThat("Workflow location still set", config.workflowLocation, is(nullValue()));
+        assertThat("Private copy not deleted", countTempDirs("BatchExecutorRun"), is(copiesBefore));
+    }
+
+    /**
+     * Test if workflows with the same name listed in -workflowList are saved into different output directories.
+     *
+     * @throws Exception if an error occurs
+     */
+    @Test
+    public void testWorkflowListSameNames() throws Exception {
+        File first = new File(FileUtil.createTempDir("BatchExecutorTest"), "workflow");
+        File second = new File(FileUtil.createTempDir("BatchExecutorTest"), "workflow");
+        assertTrue("Failed to create workflow directory", first.mkdir() && second.mkdir());
+        File list = File.createTempFile("BatchExecutorTest", ".list");
+        list.deleteOnExit();
+        try (Writer out = new FileWriter(list)) {
+            out.write(first.getAbsolutePath() + "\n");
+            out.write(second.getAbsolutePath() + "\n");
+        }
+        File destDir = FileUtil.createTempDir("BatchExecutorTest");
+
+        TestBatchExecutor executor = new TestBatchExecutor();
+        executor.parseConfigFromArguments(
+            new String[]{"-workflowList=" + list.getAbsolutePath(), "-destDir=" + destDir.getAbsolutePath()});
+        assertThat("Wrong number of workflows", executor.m_workflows.size(), is(2));
+        assertThat(executor.m_workflows.get(0).outputDir, is(new File(destDir, "workflow")));
+        assertThat(executor.m_workflows.get(1).outputDir, is(new File(destDir, "workflow_2")));
+    }
+
+    /**
+     * Test if -variableSets without a workflow is reported as usage error.
+     *
+     * @throws Exception if an error occurs
+     */
+    @Test
+    public void testVariableSetsWithoutWorkflow() throws Exception {
+        File variableSets = File.createTempFile("BatchExecutorTest", ".sets");
+        variableSets.deleteOnExit();
+        try (Writer out = new FileWriter(variableSets)) {
+            out.write("maxRows,10,int\n");
+        }
+        assertEquals("Wrong return value for variable sets without workflow", BatchExecutor.EXIT_ERR_PRESTART,
+            BatchExecutor.mainRun(new String[]{"-variableSets=" + variableSets.getAbsolutePath(), "-nosave"}));
+    }
+
+    /**
+     * Test if a zipped workflow can be executed concurrently with two variable sets and if its extracted template and
+     * the private copies are deleted afterwards.
+     *
+     * @throws Exception if an error occurs
+     */
+    @Test
+    public void testParallelExecution() throws Exception {
+        File csvOut2 = File.createTempFile("BatchExecutorTest", ".csv");
+        csvOut2.delete();
+        csvOut2.deleteOnExit();
+        File variableSets = File.createTempFile("BatchExecutorTest", ".sets");
+        variableSets.deleteOnExit();
+        try (Writer out = new FileWriter(variableSets)) {
+            out.write("destinationFile," + csvOut.getAbsolutePath() + ",String\n");
+            out.write("destinationFile," + csvOut2.getAbsolutePath() + ",String\tmaxRows,100,int\n");
+        }
+        int templatesBefore = countTempDirs("BatchExecutorInput");
+        int copiesBefore = countTempDirs("BatchExecutorRun");
+
+        int ret = BatchExecutor.mainRun(new String[]{"-workflowFile=" + standardTestWorkflowZip.getAbsolutePath(),
+            "-nosave", "-reset", "-variableSets=" + variableSets.getAbsolutePath(), "-parallel=2"});
+        assertEquals("Non-zero return value", 0, ret);
+        assertEquals("Wrong number of lines in first written CSV file", 1001, countWrittenLines(csvOut));
+        assertEquals("Wrong number of lines in second written CSV file", 101, countWrittenLines(csvOut2));
+        assertThat("Extracted workflow not deleted", countTempDirs("BatchExecutorInput"), is(templatesBefore));
+        assertThat("Private copies not deleted", countTempDirs("BatchExecutorRun"), is(copiesBefore));
+    }
+
+    private static int countTempDirs(final String prefix) {
+        File[] dirs = FileUtil.getWorkflowTempDir().listFiles((d, name) -> name.startsWith(prefix));
+        return dirs == null ? 0 : dirs.length;
+    }
+
+    private static final class TestConfiguration extends BatchExecutor.WorkflowConfiguration {
+        String extra;
+
+        TestConfiguration() {
+        }
+
+        TestConfiguration(final TestConfiguration other) {
+            super(other);
+            extra = other.extra;
+        }
+    }
+
+    private static final class TestBatchExecutor extends BatchExecutor {
+        /** {@inheritDoc} */
+        @Override
+        protected WorkflowConfiguration createNewConfiguration() {
+            return new TestConfiguration();
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        protected WorkflowConfiguration copyConfiguration(final WorkflowConfiguration config) {
+            return new TestConfiguration((TestConfiguration)config);
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        protected void handleCommandlineArgument(final String[] parts, final String s,
+            final WorkflowConfiguration config) throws FileNotFoundException, CoreException, IllegalOptionException {
+            if ("-extra".equals(parts[0])) {
+                ((TestConfiguration)config).extra = parts[1];
+            } else {
+                super.handleCommandlineArgument(parts, s, config);
+            }
+        }
+    }
+
     private int countWrittenLines(final File outputFile) throws IOException {
         BufferedReader in = new BufferedReader(new FileReader(outputFile));
         int count = 0;
@@ -0,0 +1,169 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ------------------------------------------------------------------------
+ */
+package org.knime.core.node.workflow;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.hasItems;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Executes a loop with the {@link ExecutionProfiler} enabled and checks the recorded profiles and the report.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+public class ExecutionProfilerTest extends WorkflowTestCase {
+
+    private boolean m_oldEnabled;
+
+    private NodeID m_dataGen1;
+
+    private NodeID m_loopStart2;
+
+    private NodeID m_loopEnd3;
+
+    private NodeID m_joiner7;
+
+    @Before
+    public void setUp() throws Exception {
+        m_oldEnabled = ExecutionProfiler.setEnabled(true);
+        NodeID baseID = loadAndSetWorkflow(getWorkflowDirectory("simpleLoop"));
+        m_dataGen1 = new NodeID(baseID, 1);
+        m_loopStart2 = new NodeID(baseID, 2);
+        m_loopEnd3 = new NodeID(baseID, 3);
+        m_joiner7 = new NodeID(baseID, 7);
+    }
+
+    /** Checks the profile fields of single executions and of the loop nodes that are executed in each iteration. */
+    @Test
+    public void testProfilesAfterExecution() throws Exception {
+        executeAllAndWait();
+        checkState(m_loopEnd3, InternalNodeContainerState.EXECUTED);
+        WorkflowManager mgr = getManager();
+
+        ExecutionProfile dataGen = mgr.getNodeContainer(m_dataGen1).getNodeTimer().getLastExecutionProfile();
+        assertThat(dataGen.getNodeID(), is(m_dataGen1));
+        assertThat(dataGen.getNrExecutions(), is(1));
+        assertThat("Wall time", dataGen.getWallTime(), greaterThan(0L));
+        assertThat("Rows written", dataGen.getRowsWritten(), greaterThan(0L));
+        assertThat(dataGen.getNrSpills(), greaterThanOrEqualTo(0));
+        assertThat(dataGen.getLockWaitTime(), greaterThanOrEqualTo(0L));
+        // -1 if the JVM can't measure it, the profile is finished in the executing thread
+        assertTrue("CPU time: " + dataGen.getCPUTime(), dataGen.getCPUTime() >= -1);
+        assertTrue("Allocated bytes: " + dataGen.getAllocatedBytes(),
+            dataGen.getAllocatedBytes() == -1 || dataGen.getAllocatedBytes() > 0);
+
+        ExecutionProfile joiner = mgr.getNodeContainer(m_joiner7).getNodeTimer().getLastExecutionProfile();
+        assertThat("Rows read", joiner.getRowsRead(), greaterThan(0L));
+        assertThat("Rows written", joiner.getRowsWritten(), greaterThan(0L));
+
+        // loop start and end are not reset between iterations, their profiles add up
+        for (NodeID id : new NodeID[]{m_loopStart2, m_loopEnd3}) {
+            NodeTimer timer = mgr.getNodeContainer(id).getNodeTimer();
+            ExecutionProfile sum = timer.getExecutionProfileSinceReset();
+            assertThat(sum.getNrExecutions(), is(10));
+            assertThat(sum.getWallTime(), greaterThanOrEqualTo(timer.getLastExecutionProfile().getWallTime()));
+        }
+
+        List<ExecutionProfile> profiles = ExecutionProfiler.getProfiles(mgr);
+        List<NodeID> profiledIDs = profiles.stream().map(ExecutionProfile::getNodeID).collect(Collectors.toList());
+        assertThat(profiledIDs, hasItems(m_dataGen1, m_loopStart2, m_loopEnd3, m_joiner7));
+        for (int i = 1; i < profiles.size(); i++) {
+            ExecutionProfile previous = profiles.get(i - 1);
+            ExecutionProfile current = profiles.get(i);
+            assertTrue("Profiles not sorted: " + profiles, previous.getCPUTime() >= current.getCPUTime()
+                || previous.getWallTime() >= current.getWallTime());
+        }
+
+        String report = ExecutionProfiler.createReport(mgr);
+        assertThat(report, containsString(mgr.getNameWithID()));
+        for (ExecutionProfile profile : profiles) {
+            assertThat(report, containsString("\n  " + profile.getNodeName() + ": "));
+        }
+        assertThat(report.split("\n").length, is(profiles.size() + 1));
+    }
+
+    /** Checks that a reset drops the profiles. */
+    @Test
+    public void testResetClearsProfiles() throws Exception {
+        executeAllAndWait();
+        WorkflowManager mgr = getManager();
+        mgr.resetAndConfigureAll();
+        checkState(m_loopEnd3, InternalNodeContainerState.CONFIGURED);
+        assertThat(mgr.getNodeContainer(m_loopEnd3).getNodeTimer().getExecutionProfileSinceReset(), is(nullValue()));
+        assertThat(ExecutionProfiler.getProfiles(mgr).isEmpty(), is(true));
+    }
+
+    /** Checks that nothing is recorded with the profiler disabled. */
+    @Test
+    public void testDisabled() throws Exception {
+        ExecutionProfiler.setEnabled(false);
+        executeAllAndWait();
+        checkState(m_loopEnd3, InternalNodeContainerState.EXECUTED);
+        WorkflowManager mgr = getManager();
+        assertThat(mgr.getNodeContainer(m_dataGen1).getNodeTimer().getLastExecutionProfile(), is(nullValue()));
+        assertThat(ExecutionProfiler.getProfiles(mgr).isEmpty(), is(true));
+        assertThat(ExecutionProfiler.createReport(mgr), containsString("profiling disabled"));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    @After
+    public void tearDown() throws Exception {
+        ExecutionProfiler.setEnabled(m_oldEnabled);
+        super.tearDown();
+    }
+}
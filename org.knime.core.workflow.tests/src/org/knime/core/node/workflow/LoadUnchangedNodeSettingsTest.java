@@ -0,0 +1,191 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ------------------------------------------------------------------------
+ */
+package org.knime.core.node.workflow;
+
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.knime.core.node.ExecutionContext;
+import org.knime.core.node.InvalidSettingsException;
+import org.knime.core.node.Node;
+import org.knime.core.node.NodeSettings;
+import org.knime.core.node.port.PortObject;
+import org.knime.core.node.port.PortObjectSpec;
+import org.knime.core.node.workflow.node.adapter.AdapterNodeFactory;
+import org.knime.core.node.workflow.node.adapter.AdapterNodeModel;
+
+/**
+ * Loads unchanged and changed settings into an executed node and checks that only changed settings reset the node
+ * and its successors. Unchanged settings loaded into a node that failed to configure trigger another configure.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+public class LoadUnchangedNodeSettingsTest extends WorkflowTestCase {
+
+    private NodeID m_source;
+
+    private NodeID m_sink;
+
+    /** Counted down by the sink when it starts executing. */
+    private final CountDownLatch m_sinkStarted = new CountDownLatch(1);
+
+    /** Awaited by the sink before it finishes executing. */
+    private final CountDownLatch m_releaseSink = new CountDownLatch(1);
+
+    /** Whether the sink fails in configure. */
+    private volatile boolean m_failSinkConfigure;
+
+    /** Creates source -> sink. */
+    @Before
+    public void setUp() throws Exception {
+        WorkflowManager wfm =
+            WorkflowManager.ROOT.createAndAddProject(getClass().getSimpleName(), new WorkflowCreationHelper());
+        setManager(wfm);
+        m_source = wfm.createAndAddNode(new AdapterNodeFactory(true));
+        m_sink = wfm.createAndAddNode(new AdapterNodeFactory() {
+            @Override
+            public AdapterNodeModel createNodeModel() {
+                return new BlockingNodeModel();
+            }
+        });
+        wfm.addConnection(m_source, 1, m_sink, 1);
+    }
+
+    private NodeSettings getNodeSettings(final NodeID id) throws Exception {
+        NodeSettings settings = new NodeSettings("configuration");
+        getManager().saveNodeSettings(id, settings);
+        return settings;
+    }
+
+    /** Loading the current settings again (e.g. a dialog closed with OK) keeps the node and its successor executed. */
+    @Test
+    public void testUnchangedSettings() throws Exception {
+        m_releaseSink.countDown();
+        executeAllAndWait();
+        checkStateOfMany(InternalNodeContainerState.EXECUTED, m_source, m_sink);
+
+        getManager().loadNodeSettings(m_source, getNodeSettings(m_source));
+        checkStateOfMany(InternalNodeContainerState.EXECUTED, m_source, m_sink);
+    }
+
+    /** Loading changed settings resets and configures the node and its successor. */
+    @Test
+    public void testChangedSettings() throws Exception {
+        m_releaseSink.countDown();
+        executeAllAndWait();
+        checkStateOfMany(InternalNodeContainerState.EXECUTED, m_source, m_sink);
+
+        NodeSettings settings = getNodeSettings(m_source);
+        NodeSettings miscSettings = settings.getNodeSettings(Node.CFG_MISC_SETTINGS);
+        miscSettings.addString(SingleNodeContainer.CFG_MEMORY_POLICY,
+            SingleNodeContainer.MemoryPolicy.CacheOnDisc.name());
+        getManager().loadNodeSettings(m_source, settings);
+        checkStateOfMany(InternalNodeContainerState.CONFIGURED, m_source, m_sink);
+        assertThat("Memory policy of reconfigured node", ((SingleNodeContainer)getManager()
+            .getNodeContainer(m_source)).getOutDataMemoryPolicy(), is(SingleNodeContainer.MemoryPolicy.CacheOnDisc));
+    }
+
+    /** Loading unchanged settings into a node whose configure failed retries configure. */
+    @Test
+    public void testUnchangedSettingsAfterFailedConfigure() throws Exception {
+        m_failSinkConfigure = true;
+        getManager().resetAndConfigureNode(m_sink);
+        checkState(m_sink, InternalNodeContainerState.IDLE);
+        assertThat("Message type of failed node", getManager().getNodeContainer(m_sink).getNodeMessage()
+            .getMessageType(), is(NodeMessage.Type.WARNING));
+
+        m_failSinkConfigure = false;
+        getManager().loadNodeSettings(m_sink, getNodeSettings(m_sink));
+        checkState(m_sink, InternalNodeContainerState.CONFIGURED);
+        assertThat("Message type of reconfigured node", getManager().getNodeContainer(m_sink).getNodeMessage()
+            .getMessageType(), is(NodeMessage.Type.RESET));
+    }
+
+    /** Even unchanged settings can't be loaded while a successor is executing. */
+    @Test
+    public void testUnchangedSettingsWhileSuccessorExecuting() throws Exception {
+        getManager().executeAll();
+        assertThat("Sink didn't start executing", m_sinkStarted.await(10, TimeUnit.SECONDS), is(true));
+        try {
+            getManager().loadNodeSettings(m_source, getNodeSettings(m_source));
+            fail("Settings loaded although a successor is executing");
+        } catch (IllegalStateException ise) {
+            // expected
+        } finally {
+            m_releaseSink.countDown();
+        }
+        waitWhileInExecution();
+        checkStateOfMany(InternalNodeContainerState.EXECUTED, m_source, m_sink);
+    }
+
+    /** Adapter model that blocks in execute until released by the test (and fails in configure if requested). */
+    private final class BlockingNodeModel extends AdapterNodeModel {
+
+        BlockingNodeModel() {
+            super(1, 1);
+        }
+
+        @Override
+        protected PortObjectSpec[] configure(final PortObjectSpec[] inSpecs) throws InvalidSettingsException {
+            if (m_failSinkConfigure) {
+                throw new InvalidSettingsException("Configure failed as requested by the test");
+            }
+            return super.configure(inSpecs);
+        }
+
+        @Override
+        protected PortObject[] execute(final PortObject[] inObjects, final ExecutionContext exec) throws Exception {
+            m_sinkStarted.countDown();
+            m_releaseSink.await();
+            return super.execute(inObjects, exec);
+        }
+    }
+}
@@ -0,0 +1,337 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ------------------------------------------------------------------------
+ */
+package org.knime.core.node.workflow;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.everyItem;
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.knime.core.data.DataCell;
+import org.knime.core.data.DataColumnSpecCreator;
+import org.knime.core.data.DataTableSpec;
+import org.knime.core.data.RowKey;
+import org.knime.core.data.def.DefaultRow;
+import org.knime.core.data.def.IntCell;
+import org.knime.core.node.BufferedDataContainer;
+import org.knime.core.node.BufferedDataTable;
+import org.knime.core.node.ExecutionContext;
+import org.knime.core.node.InvalidSettingsException;
+import org.knime.core.node.port.PortObject;
+import org.knime.core.node.port.PortObjectSpec;
+import org.knime.core.node.workflow.node.adapter.AdapterNodeFactory;
+import org.knime.core.node.workflow.node.adapter.AdapterNodeModel;
+import org.knime.testing.node.executioncount.ExecutionCountNodeModel;
+
+/**
+ * Runs loops with {@link org.knime.core.node.KNIMEConstants#PROPERTY_KEEP_LOOP_BODY_CONFIGURED} set and checks that
+ * the loop body is kept configured only when this is safe.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+public class LoopBodyKeptConfiguredTest extends WorkflowTestCase {
+
+    private static final int NR_ITERATIONS = 6;
+
+    private boolean m_oldKeepLoopBodyConfigured;
+
+    private NodeID m_loopStart;
+
+    private NodeID m_body;
+
+    private NodeID m_loopEnd;
+
+    /** Whether the body was marked for re-execution without reset when the loop start started an iteration. */
+    private final List<Boolean> m_bodyKeptConfigured = new ArrayList<>();
+
+    /** Whether the body was flagged to refresh its flow variables when the loop start started an iteration. */
+    private final List<Boolean> m_bodyRefreshFlagged = new ArrayList<>();
+
+    @Before
+    public void setUp() throws Exception {
+        m_oldKeepLoopBodyConfigured = WorkflowManager.setKeepLoopBodyConfigured(true);
+    }
+
+    /** Checks that the simpleLoop workflow gives the same results with and without keeping the body configured. */
+    @Test
+    public void testSimpleLoop() throws Exception {
+        NodeID baseID = loadAndSetWorkflow(getWorkflowDirectory("simpleLoop"));
+        NodeID loopEnd = new NodeID(baseID, 3);
+        NodeID counterInLoop = new NodeID(baseID, 4);
+        NodeID counterOutSinkLoop = new NodeID(baseID, 9);
+
+        WorkflowManager.setKeepLoopBodyConfigured(false);
+        executeAllAndWait();
+        checkState(loopEnd, InternalNodeContainerState.EXECUTED);
+        int expectedRows = getLoopEndTable(loopEnd).getRowCount();
+        getManager().resetAndConfigureAll();
+
+        WorkflowManager.setKeepLoopBodyConfigured(true);
+        executeAllAndWait();
+        checkState(loopEnd, InternalNodeContainerState.EXECUTED);
+        assertThat("Rows in loop end table", getLoopEndTable(loopEnd).getRowCount(), is(expectedRows));
+        Map<NodeID, ExecutionCountNodeModel> counterNodes =
+            getManager().findNodes(ExecutionCountNodeModel.class, true);
+        assertThat("Executions of node in loop", counterNodes.get(counterInLoop).getCounter(), is(10));
+        assertThat("Executions of sink node in loop", counterNodes.get(counterOutSinkLoop).getCounter(), is(10));
+    }
+
+    private BufferedDataTable getLoopEndTable(final NodeID loopEnd) {
+        return (BufferedDataTable)getManager().getNodeContainer(loopEnd).getOutPort(1).getPortObject();
+    }
+
+    /** Checks that the body is kept configured once the loop start produced the same specs twice. */
+    @Test
+    public void testKeepBodyConfigured() throws Exception {
+        createLoop(true, Integer.MAX_VALUE);
+        executeLoop();
+        // not kept in the first iteration and after the first restart (no previous specs to compare with)
+        assertThat(m_bodyKeptConfigured, contains(false, false, true, true, true, true));
+        assertThat(m_bodyRefreshFlagged, contains(false, false, true, true, true, true));
+        RecordingNodeModel body = getBodyModel();
+        assertThat("Iterations seen by the loop body", body.m_iterations, contains(0, 1, 2, 3, 4, 5));
+        assertThat("Executions with a spec other than the configured one", body.m_specMismatches, is(0));
+    }
+
+    /** Checks that the body is reset and configured after all when the loop start changes its specs. */
+    @Test
+    public void testSpecChangeResetsBody() throws Exception {
+        createLoop(true, 2);
+        executeLoop();
+        // kept at the second restart, reset once the loop start has produced other specs in that iteration
+        assertThat(m_bodyKeptConfigured, contains(false, false, true, false, true, true));
+        RecordingNodeModel body = getBodyModel();
+        assertThat("Iterations seen by the loop body", body.m_iterations, contains(0, 1, 2, 3, 4, 5));
+        assertThat("Executions with a spec other than the configured one", body.m_specMismatches, is(0));
+        assertThat(body.m_configuredSpec, is(TestLoopStartNodeModel.OTHER_SPEC));
+    }
+
+    /** Checks that loop starts that don't reset their body are not affected. */
+    @Test
+    public void testLoopStartWithoutBodyReset() throws Exception {
+        createLoop(false, Integer.MAX_VALUE);
+        executeLoop();
+        assertThat(m_bodyRefreshFlagged.size(), is(NR_ITERATIONS));
+        assertThat(m_bodyRefreshFlagged, everyItem(is(false)));
+        assertThat(getBodyModel().m_iterations.size(), is(NR_ITERATIONS));
+    }
+
+    /** Checks that the body is reset in each iteration if the property is not set. */
+    @Test
+    public void testDisabled() throws Exception {
+        WorkflowManager.setKeepLoopBodyConfigured(false);
+        createLoop(true, Integer.MAX_VALUE);
+        executeLoop();
+        assertThat(m_bodyKeptConfigured.size(), is(NR_ITERATIONS));
+        assertThat(m_bodyKeptConfigured, everyItem(is(false)));
+        assertThat(m_bodyRefreshFlagged, everyItem(is(false)));
+        assertThat("Iterations seen by the loop body", getBodyModel().m_iterations, contains(0, 1, 2, 3, 4, 5));
+    }
+
+    /** Creates source -> loop start -> body -> loop end. */
+    private void createLoop(final boolean resetBody, final int specChangeIteration) {
+        WorkflowManager wfm =
+            WorkflowManager.ROOT.createAndAddProject(getClass().getSimpleName(), new WorkflowCreationHelper());
+        setManager(wfm);
+        NodeID source = wfm.createAndAddNode(new AdapterNodeFactory(true));
+        m_loopStart = wfm.createAndAddNode(new TestNodeFactory(
+            () -> new TestLoopStartNodeModel(resetBody, specChangeIteration, this::observeBody)));
+        m_body = wfm.createAndAddNode(new TestNodeFactory(RecordingNodeModel::new));
+        m_loopEnd = wfm.createAndAddNode(new TestNodeFactory(TestLoopEndNodeModel::new));
+        wfm.addConnection(source, 1, m_loopStart, 1);
+        wfm.addConnection(m_loopStart, 1, m_body, 1);
+        wfm.addConnection(m_body, 1, m_loopEnd, 1);
+    }
+
+    private void executeLoop() throws Exception {
+        executeAllAndWait();
+        checkState(m_loopEnd, InternalNodeContainerState.EXECUTED);
+        assertThat(m_bodyKeptConfigured.size(), is(NR_ITERATIONS));
+    }
+
+    private RecordingNodeModel getBodyModel() {
+        return (RecordingNodeModel)((NativeNodeContainer)getManager().getNodeContainer(m_body)).getNodeModel();
+    }
+
+    /** Called by the loop start at the beginning of each iteration, before the body can execute. */
+    private void observeBody() {
+        SingleNodeContainer body = (SingleNodeContainer)getManager().getNodeContainer(m_body);
+        m_bodyKeptConfigured.add(body.getInternalState().equals(InternalNodeContainerState.EXECUTED_MARKEDFOREXEC));
+        m_bodyRefreshFlagged.add(body.isRefreshFlowObjectStackBeforeExecution());
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    @After
+    public void tearDown() throws Exception {
+        WorkflowManager.setKeepLoopBodyConfigured(m_oldKeepLoopBodyConfigured);
+        super.tearDown();
+    }
+
+    private static final class TestNodeFactory extends AdapterNodeFactory {
+
+        private final Supplier<AdapterNodeModel> m_modelSupplier;
+
+        TestNodeFactory(final Supplier<AdapterNodeModel> modelSupplier) {
+            m_modelSupplier = modelSupplier;
+        }
+
+        @Override
+        public AdapterNodeModel createNodeModel() {
+            return m_modelSupplier.get();
+        }
+    }
+
+    /** Passes on its input or, from a given iteration on, a table with another spec. */
+    private static final class TestLoopStartNodeModel extends AdapterNodeModel implements LoopStartNodeTerminator {
+
+        static final DataTableSpec OTHER_SPEC =
+            new DataTableSpec(new DataColumnSpecCreator("Other-Column", IntCell.TYPE).createSpec());
+
+        private final boolean m_resetBody;
+
+        private final int m_specChangeIteration;
+
+        private final Runnable m_onExecute;
+
+        private int m_iteration;
+
+        TestLoopStartNodeModel(final boolean resetBody, final int specChangeIteration, final Runnable onExecute) {
+            super(1, 1);
+            m_resetBody = resetBody;
+            m_specChangeIteration = specChangeIteration;
+            m_onExecute = onExecute;
+        }
+
+        @Override
+        protected PortObjectSpec[] configure(final PortObjectSpec[] inSpecs) throws InvalidSettingsException {
+            pushFlowVariableInt("currentIteration", 0);
+            return inSpecs;
+        }
+
+        @Override
+        protected PortObject[] execute(final PortObject[] inObjects, final ExecutionContext exec) throws Exception {
+            m_onExecute.run();
+            pushFlowVariableInt("currentIteration", m_iteration);
+            PortObject result = inObjects[0];
+            if (m_iteration >= m_specChangeIteration) {
+                BufferedDataContainer cnt = exec.createDataContainer(OTHER_SPEC);
+                cnt.addRowToTable(new DefaultRow(RowKey.createRowKey(0L), new DataCell[]{new IntCell(m_iteration)}));
+                cnt.close();
+                result = cnt.getTable();
+            }
+            m_iteration++;
+            return new PortObject[]{result};
+        }
+
+        @Override
+        public boolean terminateLoop() {
+            return m_iteration >= NR_ITERATIONS;
+        }
+
+        @Override
+        protected boolean resetAndConfigureLoopBody() {
+            return m_resetBody;
+        }
+
+        @Override
+        protected void reset() {
+            m_iteration = 0;
+        }
+    }
+
+    /** Passes on its input and records the loop iterations and the specs it sees. */
+    private static final class RecordingNodeModel extends AdapterNodeModel {
+
+        private final List<Integer> m_iterations = new ArrayList<>();
+
+        private DataTableSpec m_configuredSpec;
+
+        private int m_specMismatches;
+
+        RecordingNodeModel() {
+            super(1, 1);
+        }
+
+        @Override
+        protected PortObjectSpec[] configure(final PortObjectSpec[] inSpecs) throws InvalidSettingsException {
+            m_configuredSpec = (DataTableSpec)inSpecs[0];
+            return inSpecs;
+        }
+
+        @Override
+        protected PortObject[] execute(final PortObject[] inObjects, final ExecutionContext exec) throws Exception {
+            if (!((BufferedDataTable)inObjects[0]).getDataTableSpec().equals(m_configuredSpec)) {
+                m_specMismatches++;
+            }
+            m_iterations.add(peekFlowVariableInt("currentIteration"));
+            return inObjects;
+        }
+    }
+
+    /** Continues the loop until the loop start terminates it. */
+    private static final class TestLoopEndNodeModel extends AdapterNodeModel implements LoopEndNode {
+
+        TestLoopEndNodeModel() {
+            super(1, 1);
+        }
+
+        @Override
+        protected PortObject[] execute(final PortObject[] inObjects, final ExecutionContext exec) throws Exception {
+            if (!((LoopStartNodeTerminator)getLoopStartNode()).terminateLoop()) {
+                continueLoop();
+            }
+            return inObjects;
+        }
+    }
+}
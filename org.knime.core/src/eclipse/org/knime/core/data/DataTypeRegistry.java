@@ -56,6 +56,7 @@
 import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import org.eclipse.core.runtime.CoreException;
@@ -67,6 +68,7 @@
 import org.knime.core.data.v2.ValueFactory;
 import org.knime.core.data.v2.value.DefaultRowKeyValueFactory;
 import org.knime.core.data.v2.value.VoidRowKeyFactory;
+import org.knime.core.internal.RegistrationIndex;
 import org.knime.core.internal.SerializerMethodLoader;
 import org.knime.core.node.NodeLogger;
 import org.knime.core.node.util.CheckUtils;
@@ -252,10 +254,16 @@ public Optional<Class<? extends DataCell>> getCellClass(final String className)
     public Optional<Class<? extends DataValue>> getValueClass(final String className) {
         Class<? extends DataValue> valueClass = m_valueClassMap.get(className);
 
+        if (valueClass == null) {
+            // not found => try the cell classes that implemented the value class when last scanning
+            valueClass = getValueClassFromIndex(className);
+        }
+
         if (valueClass == null) {
             // not found => scan extension point
             scanExtensionPointForAllSerializers();
             valueClass = m_valueClassMap.get(className);
+            updateIndex();
         }
 
         if (valueClass != null) {
@@ -386,6 +394,40 @@ public Optional<DataCellSerializer<DataCell>> getSerializer(final Class<? extend
         }
     }
 
+    /**
+     * Loads the serializers of the cell classes that are known from the {@link RegistrationIndex} to implement the
+     * given value class (instead of loading all serializers, which activates all plug-ins contributing data types).
+     */
+    private Class<? extends DataValue> getValueClassFromIndex(final String valueClassName) {
+        Optional<List<String>> cellClassNames = RegistrationIndex.getInstance().get(EXT_POINT_ID, valueClassName);
+        if (cellClassNames.isPresent()) {
+            for (String cellClassName : cellClassNames.get()) {
+                if (!m_cellClassMap.containsKey(cellClassName)) {
+                    scanExtensionPointForSerializer(cellClassName);
+                }
+                Class<? extends DataValue> valueClass = m_valueClassMap.get(valueClassName);
+                if (valueClass != null) {
+                    return valueClass;
+                }
+            }
+        }
+        return null;
+    }
+
+    /** Records for all known value classes the cell classes implementing them, see {@link RegistrationIndex}. */
+    private void updateIndex() {
+        final RegistrationIndex index = RegistrationIndex.getInstance();
+        for (Class<? extends DataValue> valueClass : m_valueClassMap.values()) {
+            if (valueClass != DataValue.class) {
+                List<String> cellClassNames = m_cellClassMap.entrySet().stream()
+                    .filter(e -> valueClass.isAssignableFrom(e.getValue())).map(Map.Entry::getKey)
+                    .sorted().collect(Collectors.toList());
+                index.put(EXT_POINT_ID, valueClass.getName(), cellClassNames);
+            }
+        }
+        index.save();
+    }
+
     private void scanExtensionPointForAllSerializers() {
         IExtensionRegistry registry = Platform.getExtensionRegistry();
         IExtensionPoint point = registry.getExtensionPoint(EXT_POINT_ID);
@@ -0,0 +1,182 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ------------------------------------------------------------------------
+ *
+ */
+package org.knime.core.data.collection;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+
+import org.knime.core.data.DataCell;
+import org.knime.core.data.DataValue;
+
+/**
+ * Common base of the {@link ListCell}s that keep their elements in a primitive array instead of a list of cells
+ * ({@link DoubleListCell}, {@link IntListCell} and {@link LongListCell}). Equality, hash code and string
+ * representation are the same as for an ordinary {@link ListCell} holding the corresponding cells.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ * @since 4.3
+ * @noextend This class is not intended to be subclassed by clients.
+ */
+@SuppressWarnings("serial")
+public abstract class AbstractPrimitiveListCell extends ListCell {
+
+    /** Only subclasses in this package. */
+    AbstractPrimitiveListCell() {
+        super(null);
+    }
+
+    /**
+     * @return the primitive array holding the elements, not copied
+     */
+    abstract Object getValues();
+
+    /**
+     * @param index the position of the element
+     * @return the hash code of the cell representing the element at the given position
+     */
+    abstract int elementHashCode(int index);
+
+    /**
+     * Appends the string representation of the element at the given position, as the corresponding cell would.
+     *
+     * @param b the builder to append to
+     * @param index the position of the element
+     */
+    abstract void appendElement(StringBuilder b, int index);
+
+    /** {@inheritDoc} */
+    @Override
+    public abstract DataCell get(int index);
+
+    /** {@inheritDoc} */
+    @Override
+    public abstract int size();
+
+    /** {@inheritDoc} */
+    @Override
+    public Iterator<DataCell> iterator() {
+        return new Iterator<DataCell>() {
+            private int m_index;
+
+            @Override
+            public boolean hasNext() {
+                return m_index < size();
+            }
+
+            @Override
+            public DataCell next() {
+                if (m_index >= size()) {
+                    throw new NoSuchElementException();
+                }
+                return get(m_index++);
+            }
+        };
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public boolean containsBlobWrapperCells() {
+        return false;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    protected boolean equalsDataCell(final DataCell dc) {
+        // primitive arrays are compared like the corresponding cells (e.g. bitwise for doubles)
+        return Objects.deepEquals(getValues(), ((AbstractPrimitiveListCell)dc).getValues());
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    protected boolean equalContent(final DataValue otherValue) {
+        if (otherValue.getClass() == getClass()) {
+            return equalsDataCell((DataCell)otherValue);
+        }
+        return super.equalContent(otherValue);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public int hashCode() {
+        // same as the hash code of a list of cells, see ListCell
+        int hash = 1;
+        for (int i = 0, size = size(); i < size; i++) {
+            hash = 31 * hash + elementHashCode(i);
+        }
+        return hash;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public String toString() {
+        final int size = size();
+        StringBuilder b = new StringBuilder(8 * size + 2);
+        b.append('[');
+        for (int i = 0; i < size; i++) {
+            if (i > 0) {
+                b.append(", ");
+            }
+            appendElement(b, i);
+        }
+        return b.append(']').toString();
+    }
+
+    /**
+     * Creates a list of cells from the primitive elements, only used by clients of the (protected) list accessor.
+     * {@inheritDoc}
+     */
+    @Override
+    protected BlobSupportDataCellList getList() {
+        final int size = size();
+        ArrayList<DataCell> cells = new ArrayList<DataCell>(size);
+        for (int i = 0; i < size; i++) {
+            cells.add(get(i));
+        }
+        return new BlobSupportDataCellList(cells);
+    }
+}
@@ -53,7 +53,11 @@
 import org.knime.core.data.DataTableSpec;
 import org.knime.core.data.DataType;
 import org.knime.core.data.container.BlobSupportDataRow;
+import org.knime.core.data.def.DoubleCell;
+import org.knime.core.data.def.IntCell;
+import org.knime.core.data.def.LongCell;
 import org.knime.core.node.BufferedDataTable;
+import org.knime.core.node.KNIMEConstants;
 
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -68,16 +72,36 @@
  */
 public final class CollectionCellFactory {
 
+    /** Whether lists of doubles, ints and longs are created as primitive array based cells, off by default. */
+    private static volatile boolean usePrimitiveListCells =
+        Boolean.getBoolean(KNIMEConstants.PROPERTY_PRIMITIVE_LIST_CELLS);
+
     private CollectionCellFactory() {
         // don't instantiate me
     }
 
+    /**
+     * Enables or disables the creation of primitive array based list cells from collections of cells (for tests).
+     *
+     * @param enable whether to create them
+     * @return the previous setting
+     */
+    static boolean setUsePrimitiveListCells(final boolean enable) {
+        final boolean old = usePrimitiveListCells;
+        usePrimitiveListCells = enable;
+        return old;
+    }
+
     /**
      * Factory method to create a {@link ListCell} based on a collection.
      * <p>
      * If the underlying collection stems from a {@link DataRow} (as read from a
      * any table), consider to use {@link #createListCell(DataRow, int[])} in
      * order to minimize cell access.
+     * <p>
+     * If enabled via {@link KNIMEConstants#PROPERTY_PRIMITIVE_LIST_CELLS} and all elements are {@link DoubleCell}s,
+     * {@link IntCell}s or {@link LongCell}s the returned cell is a {@link DoubleListCell}, {@link IntListCell} or
+     * {@link LongListCell}, respectively, which stores the elements in a primitive array.
      *
      * @param coll The underlying collection.
      * @return The newly created {@link ListCell}.
@@ -86,10 +110,93 @@ private CollectionCellFactory() {
      */
     public static ListCell createListCell(
             final Collection<? extends DataCell> coll) {
+        final ListCell primitiveList = createPrimitiveListCell(coll);
+        if (primitiveList != null) {
+            return primitiveList;
+        }
         final BlobSupportDataCellList l = BlobSupportDataCellList.create(coll);
         return new ListCell(l);
     }
 
+    /**
+     * Creates a new list cell of doubles.
+     *
+     * @param values the elements, will be copied
+     * @return a new {@link DoubleListCell}
+     * @throws NullPointerException if the argument is null
+     * @since 4.3
+     */
+    public static DoubleListCell createListCell(final double[] values) {
+        return new DoubleListCell(values.clone());
+    }
+
+    /**
+     * Creates a new list cell of integers.
+     *
+     * @param values the elements, will be copied
+     * @return a new {@link IntListCell}
+     * @throws NullPointerException if the argument is null
+     * @since 4.3
+     */
+    public static IntListCell createListCell(final int[] values) {
+        return new IntListCell(values.clone());
+    }
+
+    /**
+     * Creates a new list cell of longs.
+     *
+     * @param values the elements, will be copied
+     * @return a new {@link LongListCell}
+     * @throws NullPointerException if the argument is null
+     * @since 4.3
+     */
+    public static LongListCell createListCell(final long[] values) {
+        return new LongListCell(values.clone());
+    }
+
+    /**
+     * Creates a primitive array based list cell if the collection is not empty and all its elements are of exactly
+     * one of the classes {@link DoubleCell}, {@link IntCell} or {@link LongCell} (missing cells, blobs or subclasses
+     * are kept in an ordinary {@link ListCell}).
+     *
+     * @return the new cell or <code>null</code> if the elements can't be stored in a primitive array
+     */
+    private static ListCell createPrimitiveListCell(final Collection<? extends DataCell> coll) {
+        if (!usePrimitiveListCells || coll.isEmpty()) {
+            return null;
+        }
+        final Class<?> elementClass = coll.iterator().next().getClass();
+        for (DataCell c : coll) {
+            if (c == null) {
+                throw new NullPointerException("List element must not be null");
+            }
+            if (c.getClass() != elementClass) {
+                return null;
+            }
+        }
+        int i = 0;
+        if (elementClass == DoubleCell.class) {
+            final double[] values = new double[coll.size()];
+            for (DataCell c : coll) {
+                values[i++] = ((DoubleCell)c).getDoubleValue();
+            }
+            return new DoubleListCell(values);
+        } else if (elementClass == IntCell.class) {
+            final int[] values = new int[coll.size()];
+            for (DataCell c : coll) {
+                values[i++] = ((IntCell)c).getIntValue();
+            }
+            return new IntListCell(values);
+        } else if (elementClass == LongCell.class) {
+            final long[] values = new long[coll.size()];
+            for (DataCell c : coll) {
+                values[i++] = ((LongCell)c).getLongValue();
+            }
+            return new LongListCell(values);
+        }
+        return null;
+    }
+
     /**
      * Creates a new {@link ListCell} based on selected cells from a
      * {@link DataRow}. Using this method will check if the row is returned by
@@ -102,6 +209,18 @@ public static ListCell createListCell(
      * @throws IndexOutOfBoundsException If the indices are invalid.
      */
     public static ListCell createListCell(final DataRow row, final int[] cols) {
+        if (usePrimitiveListCells) {
+            final ArrayList<DataCell> coll = new ArrayList<DataCell>(cols.length);
+            for (int i = 0; i < cols.length; i++) {
+                // raw cells so that blobs are not read (they end up in an ordinary list cell anyway)
+                coll.add(row instanceof BlobSupportDataRow ? ((BlobSupportDataRow)row).getRawCell(cols[i])
+                    : row.getCell(cols[i]));
+            }
+            final ListCell primitiveList = createPrimitiveListCell(coll);
+            if (primitiveList != null) {
+                return primitiveList;
+            }
+        }
         final BlobSupportDataCellList l =
             BlobSupportDataCellList.create(row, cols);
         return new ListCell(l);
@@ -0,0 +1,183 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ------------------------------------------------------------------------
+ *
+ */
+package org.knime.core.data.collection;
+
+import java.io.IOException;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+
+import org.knime.core.data.DataCell;
+import org.knime.core.data.DataCellDataInput;
+import org.knime.core.data.DataCellDataOutput;
+import org.knime.core.data.DataCellSerializer;
+import org.knime.core.data.DataType;
+import org.knime.core.data.def.DoubleCell;
+
+/**
+ * {@link ListCell} with {@link DoubleCell} elements, which keeps its elements in a <code>double[]</code> instead of a
+ * list of cells. Instances are created by the {@link CollectionCellFactory} from primitive arrays or, if enabled,
+ * whenever all elements of a new list are (non-missing) {@link DoubleCell}s. The primitive accessors
+ * ({@link #getDouble(int)}, {@link #doubleIterator()}) don't create any cell objects.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ * @since 4.3
+ */
+@SuppressWarnings("serial")
+public final class DoubleListCell extends AbstractPrimitiveListCell {
+
+    private final double[] m_values;
+
+    /**
+     * @param values the elements, not copied
+     */
+    DoubleListCell(final double[] values) {
+        m_values = values;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public DataType getElementType() {
+        return DoubleCell.TYPE;
+    }
+
+    /**
+     * @return an iterator over the elements that doesn't create any cells
+     */
+    public PrimitiveIterator.OfDouble doubleIterator() {
+        return new PrimitiveIterator.OfDouble() {
+            private int m_index;
+
+            @Override
+            public boolean hasNext() {
+                return m_index < m_values.length;
+            }
+
+            @Override
+            public double nextDouble() {
+                if (m_index >= m_values.length) {
+                    throw new NoSuchElementException();
+                }
+                return m_values[m_index++];
+            }
+        };
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public DataCell get(final int index) {
+        return new DoubleCell(m_values[index]);
+    }
+
+    /**
+     * @param index the position of the element
+     * @return the element at the given position
+     * @throws ArrayIndexOutOfBoundsException if the index is invalid
+     */
+    public double getDouble(final int index) {
+        return m_values[index];
+    }
+
+    /**
+     * @return a copy of the elements
+     */
+    public double[] getDoubleArray() {
+        return m_values.clone();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public int size() {
+        return m_values.length;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    Object getValues() {
+        return m_values;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    int elementHashCode(final int index) {
+        return Double.hashCode(m_values[index]);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    void appendElement(final StringBuilder b, final int index) {
+        b.append(Double.toString(m_values[index]));
+    }
+
+    /**
+     * Serializer for {@link DoubleListCell}s, writes the length followed by the primitive elements.
+     *
+     * @noreference This class is not intended to be referenced by clients.
+     */
+    public static final class DoubleListCellSerializer implements DataCellSerializer<DoubleListCell> {
+        /** {@inheritDoc} */
+        @Override
+        public DoubleListCell deserialize(final DataCellDataInput input) throws IOException {
+            int size = input.readInt();
+            if (size < 0) {
+                throw new IOException("Invalid size: " + size);
+            }
+            double[] values = new double[size];
+            for (int i = 0; i < size; i++) {
+                values[i] = input.readDouble();
+            }
+            return new DoubleListCell(values);
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public void serialize(final DoubleListCell cell, final DataCellDataOutput output) throws IOException {
+            output.writeInt(cell.m_values.length);
+            for (double v : cell.m_values) {
+                output.writeDouble(v);
+            }
+        }
+    }
+}
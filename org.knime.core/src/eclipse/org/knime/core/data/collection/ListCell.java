@@ -58,6 +58,7 @@
 import org.knime.core.data.DataRow;
 import org.knime.core.data.DataType;
 import org.knime.core.data.DataTypeRegistry;
+import org.knime.core.data.DataValue;
 
 /**
  * Default implementation of a {@link CollectionDataValue}, whereby the
@@ -143,6 +144,28 @@ protected boolean equalsDataCell(final DataCell dc) {
         return m_list.equals(((ListCell)dc).m_list);
     }
 
+    /**
+     * Compares element type and elements with the other list, used when comparing list cells of different
+     * implementations (for instance a {@link ListCell} and a {@link DoubleListCell}).
+     * {@inheritDoc}
+     * @since 4.3
+     */
+    @Override
+    protected boolean equalContent(final DataValue otherValue) {
+        ListDataValue other = (ListDataValue)otherValue;
+        if (other.size() != size() || !other.getElementType().equals(getElementType())) {
+            return false;
+        }
+        Iterator<DataCell> it = iterator();
+        Iterator<DataCell> otherIt = other.iterator();
+        while (it.hasNext()) {
+            if (!it.next().equals(otherIt.next())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     /** {@inheritDoc} */
     @Override
     public int hashCode() {
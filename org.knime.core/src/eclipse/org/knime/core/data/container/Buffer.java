@@ -136,6 +136,7 @@
 import org.knime.core.node.NodeSettingsRO;
 import org.knime.core.node.NodeSettingsWO;
 import org.knime.core.node.util.CheckUtils;
+import org.knime.core.node.workflow.ExecutionProfiler;
 import org.knime.core.node.workflow.NodeContext;
 import org.knime.core.node.workflow.WorkflowContext;
 import org.knime.core.node.workflow.WorkflowManager;
@@ -310,6 +311,9 @@ public class Buffer implements KNIMEStreamConstants {
     /** Number of dirs/files per directory when blobs are saved. */
     private static final int BLOB_ENTRIES_PER_DIRECTORY = 1000;
 
+    /** Whether blobs of new tables are stored in segment files, see {@link KNIMEConstants#PROPERTY_PACKED_BLOBS}. */
+    private static final boolean USE_PACKED_BLOBS = Boolean.getBoolean(KNIMEConstants.PROPERTY_PACKED_BLOBS);
+
     /**
      * Is executing the shutdown hook? If so, no logging is done, bug fix #862.
      */
@@ -463,6 +467,12 @@ static boolean isUseCompressionForBlobs(final CellClassInfo cellClassInfo) {
     /** The directory where blob cells are stored or null if none available. */
     private File m_blobDir;
 
+    /** Whether blobs are stored in a {@link PackedBlobStore}, null if not determined yet. */
+    private Boolean m_isUsePackedBlobs;
+
+    /** The store of the blobs if they are stored in the packed layout, created lazily. */
+    private PackedBlobStore m_packedBlobStore;
+
     /** true if any row contained in this buffer contains blob cells. */
     private boolean m_containsBlobs;
 
@@ -592,6 +602,9 @@ static boolean isUseCompressionForBlobs(final CellClassInfo cellClassInfo) {
      */
     private Map<BlobAddress, BlobAddress> m_copiedBlobsMap;
 
+    /** Recorder of the node execution creating this buffer, null if not profiled. */
+    private final ExecutionProfiler.Recorder m_profileRecorder = ExecutionProfiler.currentRecorder();
+
     /** To debug AP-8469 -- leaking Buffer objects when running text processing test workflows. */
     private final String m_fullStackTraceAtConstructionTime = Arrays.stream(Thread.currentThread().getStackTrace())
         .map(s -> s.toString()).collect(Collectors.joining("\n  "));
@@ -1058,9 +1071,7 @@ private DataCell handleIncomingBlob(final DataCell cell, final int col, final in
                 if (b != null && !isToCloneForVersionHop) {
                     int indexBlobInCol = m_indicesOfBlobInColumns[col]++;
                     rewrite.setIndexOfBlobInColumn(indexBlobInCol);
-                    File source = b.getBlobFile(ad.getIndexOfBlobInColumn(), ad.getColumn(), false, ad.isUseCompression());
-                    File dest = getBlobFile(indexBlobInCol, col, true, ad.isUseCompression());
-                    FileUtil.copy(source, dest);
+                    copyBlob(b, ad, indexBlobInCol, col, ad.isUseCompression());
                     wc = new BlobWrapperDataCell(this, rewrite, cl);
                 } else {
                     BlobDataCell bc;
@@ -1115,7 +1126,6 @@ private void writeBlobDataCell(final BlobDataCell cell, final BlobAddress a) thr
         int indexInColumn = m_indicesOfBlobInColumns[column]++;
         a.setIndexOfBlobInColumn(indexInColumn);
         boolean isToCompress = Buffer.isUseCompressionForBlobs(CellClassInfo.get(cell));
-        File outFile = getBlobFile(indexInColumn, column, true, isToCompress);
         BlobAddress originalBA = cell.getBlobAddress();
         if (!Objects.equals(originalBA, a)) {
             int originalBufferIndex = originalBA.getBufferID();
@@ -1130,21 +1140,16 @@ private void writeBlobDataCell(final BlobDataCell cell, final BlobAddress a) thr
                 }
             }
             if (originalBuffer != null) {
-                int index = originalBA.getIndexOfBlobInColumn();
-                int col = originalBA.getColumn();
-                boolean compress = originalBA.isUseCompression();
-                File source = originalBuffer.getBlobFile(index, col, false, compress);
-                FileUtil.copy(source, outFile);
+                copyBlob(originalBuffer, originalBA, indexInColumn, column, isToCompress);
                 return;
             }
         }
 
-        try (final OutputStream out = new BufferedOutputStream(new FileOutputStream(outFile));
+        try (final OutputStream out = new BufferedOutputStream(openBlobOutputStream(indexInColumn, column, isToCompress));
                 final BlockableDCObjectOutputVersion2 outStream = new BlockableDCObjectOutputVersion2(
                     isToCompress ? new BufferedOutputStream(new GZIPOutputStream(out)) : out)) {
             // buffering the gzip stream brings another performance boost
             // (in one case from 5mins down to 2 mins)
-            Buffer.onFileCreated(outFile);
             if (ser != null) { // DataCell is datacell-serializable
                 outStream.writeDataCellPerKNIMESerializer(ser, cell);
             } else {
@@ -1153,6 +1158,93 @@ private void writeBlobDataCell(final BlobDataCell cell, final BlobAddress a) thr
         }
     }
 
+    /** Copies the (possibly compressed) bytes of a blob of another buffer into this buffer. */
+    private void copyBlob(final Buffer source, final BlobAddress sourceAddress, final int indexInColumn,
+        final int column, final boolean isCompressed) throws IOException {
+        try (InputStream in = source.openBlobInputStream(sourceAddress.getIndexOfBlobInColumn(),
+            sourceAddress.getColumn(), sourceAddress.isUseCompression());
+                OutputStream out = openBlobOutputStream(indexInColumn, column, isCompressed)) {
+            FileUtil.copy(in, out);
+        }
+    }
+
+    /**
+     * Opens a stream to write a blob with the given coordinates to, either to its own file (see
+     * {@link #getBlobFile(int, int, boolean, boolean)}) or into the segments of the {@link PackedBlobStore}.
+     *
+     * @param indexBlobInCol The index in the column (generally the row number).
+     * @param column The column index.
+     * @param isCompressed If the blob is compressed
+     * @return the stream, to be closed by the caller
+     * @throws IOException If the blob location can't be created
+     */
+    OutputStream openBlobOutputStream(final int indexBlobInCol, final int column, final boolean isCompressed)
+        throws IOException {
+        ensureBlobDirExists();
+        if (isUsePackedBlobs()) {
+            return getPackedBlobStore().openOutputStream(column, indexBlobInCol);
+        }
+        File outFile = getBlobFile(indexBlobInCol, column, true, isCompressed);
+        OutputStream out = new FileOutputStream(outFile);
+        Buffer.onFileCreated(outFile);
+        return out;
+    }
+
+    /**
+     * Opens a stream to read the (possibly compressed) bytes of a blob with the given coordinates.
+     *
+     * @param indexBlobInCol The index in the column (generally the row number).
+     * @param column The column index.
+     * @param isCompressed If the blob is compressed
+     * @return the stream, to be closed by the caller
+     * @throws IOException If the blob does not exist
+     */
+    InputStream openBlobInputStream(final int indexBlobInCol, final int column, final boolean isCompressed)
+        throws IOException {
+        if (m_blobDir == null) {
+            throw new IOException("No blob directory available for buffer " + m_bufferID);
+        }
+        if (isUsePackedBlobs()) {
+            return getPackedBlobStore().openInputStream(column, indexBlobInCol);
+        }
+        return new FileInputStream(getBlobFile(indexBlobInCol, column, false, isCompressed));
+    }
+
+    /**
+     * Whether blobs of this buffer are stored in the packed layout. Determined by the content of an existing blob
+     * directory (e.g. of a loaded table) or, for new tables, by {@link KNIMEConstants#PROPERTY_PACKED_BLOBS}, so that
+     * a buffer never mixes both layouts.
+     */
+    private synchronized boolean isUsePackedBlobs() {
+        if (m_isUsePackedBlobs == null) {
+            String[] content = m_blobDir == null ? null : m_blobDir.list();
+            if (content != null && content.length > 0) {
+                m_isUsePackedBlobs = PackedBlobStore.isPackedBlobDir(m_blobDir);
+            } else {
+                m_isUsePackedBlobs = USE_PACKED_BLOBS;
+            }
+        }
+        return m_isUsePackedBlobs;
+    }
+
+    private synchronized PackedBlobStore getPackedBlobStore() {
+        if (m_packedBlobStore == null) {
+            m_packedBlobStore = new PackedBlobStore(m_blobDir);
+        }
+        return m_packedBlobStore;
+    }
+
+    /** Writes the index of the packed blobs (if any) so that the blob directory can be saved. */
+    private void flushPackedBlobs() throws IOException {
+        final PackedBlobStore store;
+        synchronized (this) {
+            store = m_packedBlobStore;
+        }
+        if (store != null) {
+            store.flush();
+        }
+    }
+
     private boolean mustBeFlushedPriorSave(final DataCell cell, final boolean isWrapperCell,
         final boolean isCollectionCell) {
         if (cell instanceof FileStoreCell) {
@@ -1223,6 +1315,9 @@ void closeInternal() {
             flushBuffer();
             closeWriterAndWriteMeta();
         }
+        if (m_profileRecorder != null) {
+            m_profileRecorder.addWrite(m_size, m_flushedToDisk && m_binFile != null ? m_binFile.length() : 0);
+        }
         m_localRepository = null;
     }
 
@@ -1635,6 +1730,10 @@ final synchronized CloseableRowIterator iteratorWithFilter(final TableFilter fil
         }
 
         final List<BlobSupportDataRow> list = obtainListFromCacheOrBackIntoMemoryIterator();
+        final ExecutionProfiler.Recorder recorder = ExecutionProfiler.currentRecorder();
+        if (recorder != null) {
+            recorder.addRead(size(), list == null && m_binFile != null ? m_binFile.length() : 0);
+        }
         if (list == null) {
 
             // Case 1: We don't have have the table in memory and want to iterate it back into memory.
@@ -1849,8 +1948,10 @@ synchronized void addToZipFile(final ZipOutputStream zipOut, final ExecutionMoni
             // (otherwise its blob dir will be empty
             if (m_version < IVERSION) {
                 blobDir = copy.m_blobDir;
+                copy.flushPackedBlobs();
             } else {
                 assert copy.m_blobDir == null;
+                flushPackedBlobs();
             }
             if (blobDir != null) {
                 addToZip(ZIP_ENTRY_BLOBS, zipOut, blobDir);
@@ -1871,6 +1972,7 @@ synchronized void addToZipFile(final ZipOutputStream zipOut, final ExecutionMoni
                 FileUtil.copy(is, zipOut);
             }
             if (m_blobDir != null) {
+                flushPackedBlobs();
                 addToZip(ZIP_ENTRY_BLOBS, zipOut, m_blobDir);
             }
             if (hasOwnFileStoreCells()) {
@@ -1999,6 +2101,14 @@ synchronized void clear() {
                             // reason, we are OK with it as well, since we're clearing this buffer anyways.
                         }
                     }
+                    if (m_packedBlobStore != null) {
+                        try {
+                            m_packedBlobStore.close();
+                        } catch (IOException ioe) {
+                            // ignore, the files are deleted anyway
+                        }
+                        m_packedBlobStore = null;
+                    }
                     if (m_blobDir != null) {
                         DeleteInBackgroundThread.delete(m_binFile, m_blobDir);
                     } else {
@@ -2064,6 +2174,9 @@ private static void logDebug(final String message, final Throwable t) {
 
     /** Write all rows from list into file. Used while rows are added and if low mem condition is met. */
     synchronized void flushBuffer() {
+        if (m_listWhileAddRow != null && m_profileRecorder != null) {
+            m_profileRecorder.addSpill();
+        }
         writeList(m_listWhileAddRow);
         m_listWhileAddRow = null; // don't write to internal cache any more
     }
@@ -48,8 +48,6 @@
 package org.knime.core.data.container;
 
 import java.io.BufferedInputStream;
-import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.Arrays;
@@ -101,6 +99,9 @@ public final class BufferFromFileIteratorVersion20 extends FromFileIterator {
     /** Utility object with designated functionality to deserialize datacell. */
     private DataCellStreamReader m_dataCellStreamReader;
 
+    /** Codecs bound to the columns of the spec, null elements for columns without codec. */
+    private final ColumnCellCodec[] m_columnCodecs;
+
     /** Inits iterator, opens input stream.
      * @param tableFormatReader The associated buffer.
      * @throws IOException If stream reading fails.
@@ -120,6 +121,7 @@ public final class BufferFromFileIteratorVersion20 extends FromFileIterator {
             + BufferFromFileIteratorVersion1x.class.getSimpleName();
 
         // open the input stream
+        m_columnCodecs = ColumnCellCodec.forColumns(tableFormatReader.getTableSpec());
         m_dataCellStreamReader = new DataCellStreamReader(tableFormatReader);
         m_inStream = new BlockableDCObjectInputVersion2(getInputStream(tableFormatReader), m_dataCellStreamReader);
     }
@@ -169,7 +171,7 @@ public synchronized BlobSupportDataRow next() {
             DataCell nextCell;
             try {
                 try {
-                    nextCell = m_dataCellStreamReader.readDataCell(m_inStream);
+                    nextCell = m_dataCellStreamReader.readDataCell(m_inStream, m_columnCodecs[i]);
                 } finally {
                     m_inStream.endBlock();
                 }
@@ -272,8 +274,7 @@ static BlobDataCell readBlobDataCell(final BlobAddress blobAddress, final CellCl
         int column = blobAddress.getColumn();
         int indexInColumn = blobAddress.getIndexOfBlobInColumn();
         boolean isCompress = blobAddress.isUseCompression();
-        File inFile = buffer.getBlobFile(indexInColumn, column, false, isCompress);
-        InputStream in = new BufferedInputStream(new FileInputStream(inFile));
+        InputStream in = new BufferedInputStream(buffer.openBlobInputStream(indexInColumn, column, isCompress));
         if (isCompress) {
             in = new GZIPInputStream(in);
             // that buffering is important
@@ -319,6 +320,20 @@ public DataCellStreamReader(final AbstractTableStoreReader tableFormatReader) {
          * @throws IOException If exceptions occur.
          */
         public DataCell readDataCell(final DCObjectInputVersion2 inStream) throws IOException {
+            return readDataCell(inStream, null);
+        }
+
+        /**
+         * Reads a data cell from the argument stream, using the codec bound to the cell's column if the cell is of
+         * the codec's class. Does not exception handling, nor stream blocking.
+         *
+         * @param inStream To read from.
+         * @param codec The codec of the column or null.
+         * @return the data cell being read
+         * @throws IOException If exceptions occur.
+         */
+        DataCell readDataCell(final DCObjectInputVersion2 inStream, final ColumnCellCodec codec)
+            throws IOException {
             inStream.setCurrentClassLoader(null);
 
             byte identifier = inStream.readControlByte();
@@ -333,6 +348,9 @@ public DataCell readDataCell(final DCObjectInputVersion2 inStream) throws IOExce
 
             CellClassInfo type = m_tableFormatReader.getTypeForChar(identifier);
             Class<? extends DataCell> cellClass = type.getCellClass();
+            if (codec != null && !isJavaSerialization && cellClass == codec.getCellClass()) {
+                return inStream.readDataCellPerCodec(codec);
+            }
             boolean isBlob = BlobDataCell.class.isAssignableFrom(cellClass);
             boolean isFileStore = FileStoreCell.class.isAssignableFrom(cellClass);
             // starting with table version 11 FileStoreCells support multiple FileStores
@@ -0,0 +1,188 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ------------------------------------------------------------------------
+ *
+ */
+package org.knime.core.data.container;
+
+import java.io.IOException;
+
+import org.knime.core.data.DataCell;
+import org.knime.core.data.DataCellDataInput;
+import org.knime.core.data.DataCellDataOutput;
+import org.knime.core.data.DataTableSpec;
+import org.knime.core.data.DataType;
+import org.knime.core.data.def.BooleanCell;
+import org.knime.core.data.def.DoubleCell;
+import org.knime.core.data.def.IntCell;
+import org.knime.core.data.def.LongCell;
+import org.knime.core.data.def.StringCell;
+
+/**
+ * Hand-written codecs for the most common cell implementations, bound per column from the {@link DataTableSpec} when
+ * a table is written or read. A codec replaces the lookup of the cell's {@link CellClassInfo}, serializer and type
+ * shortcut for each single cell by a class comparison and a direct read/write of the cell's value. The bytes written
+ * are identical to the ones written by the cell's serializer, so the file format remains unchanged.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+enum ColumnCellCodec {
+
+    /** Codec for {@link IntCell}. */
+    INT(IntCell.class) {
+        @Override
+        void write(final DataCell cell, final DataCellDataOutput out) throws IOException {
+            out.writeInt(((IntCell)cell).getIntValue());
+        }
+
+        @Override
+        DataCell read(final DataCellDataInput in) throws IOException {
+            return new IntCell(in.readInt());
+        }
+    },
+
+    /** Codec for {@link LongCell}. */
+    LONG(LongCell.class) {
+        @Override
+        void write(final DataCell cell, final DataCellDataOutput out) throws IOException {
+            out.writeLong(((LongCell)cell).getLongValue());
+        }
+
+        @Override
+        DataCell read(final DataCellDataInput in) throws IOException {
+            return new LongCell(in.readLong());
+        }
+    },
+
+    /** Codec for {@link DoubleCell}. */
+    DOUBLE(DoubleCell.class) {
+        @Override
+        void write(final DataCell cell, final DataCellDataOutput out) throws IOException {
+            out.writeDouble(((DoubleCell)cell).getDoubleValue());
+        }
+
+        @Override
+        DataCell read(final DataCellDataInput in) throws IOException {
+            return new DoubleCell(in.readDouble());
+        }
+    },
+
+    /** Codec for {@link BooleanCell}. */
+    BOOLEAN(BooleanCell.class) {
+        @Override
+        void write(final DataCell cell, final DataCellDataOutput out) throws IOException {
+            out.writeBoolean(((BooleanCell)cell).getBooleanValue());
+        }
+
+        @Override
+        DataCell read(final DataCellDataInput in) throws IOException {
+            return BooleanCell.get(in.readBoolean());
+        }
+    },
+
+    /** Codec for {@link StringCell}. */
+    STRING(StringCell.class) {
+        @Override
+        void write(final DataCell cell, final DataCellDataOutput out) throws IOException {
+            out.writeUTF(((StringCell)cell).getStringValue());
+        }
+
+        @Override
+        DataCell read(final DataCellDataInput in) throws IOException {
+            return new StringCell(in.readUTF());
+        }
+    };
+
+    private final Class<? extends DataCell> m_cellClass;
+
+    ColumnCellCodec(final Class<? extends DataCell> cellClass) {
+        m_cellClass = cellClass;
+    }
+
+    /** @return the class of the cells handled by this codec (exact class, not including sub classes) */
+    Class<? extends DataCell> getCellClass() {
+        return m_cellClass;
+    }
+
+    /**
+     * Writes the value of the cell in the same way as its serializer does.
+     *
+     * @param cell the cell to write, an instance of {@link #getCellClass()}
+     * @param out to write to
+     * @throws IOException if writing fails
+     */
+    abstract void write(DataCell cell, DataCellDataOutput out) throws IOException;
+
+    /**
+     * Reads a cell as written by {@link #write(DataCell, DataCellDataOutput)} (or the cell's serializer).
+     *
+     * @param in to read from
+     * @return a new cell
+     * @throws IOException if reading fails
+     */
+    abstract DataCell read(DataCellDataInput in) throws IOException;
+
+    /**
+     * Binds a codec to each column of the argument spec whose type is one of the natively supported cell classes.
+     *
+     * @param spec the table spec
+     * @return an array containing the codec for each column, <code>null</code> for columns without one
+     */
+    static ColumnCellCodec[] forColumns(final DataTableSpec spec) {
+        ColumnCellCodec[] codecs = new ColumnCellCodec[spec.getNumColumns()];
+        for (int i = 0; i < codecs.length; i++) {
+            codecs[i] = forType(spec.getColumnSpec(i).getType());
+        }
+        return codecs;
+    }
+
+    private static ColumnCellCodec forType(final DataType type) {
+        Class<? extends DataCell> cellClass = type.getCellClass();
+        for (ColumnCellCodec codec : values()) {
+            if (codec.m_cellClass.equals(cellClass)) {
+                return codec;
+            }
+        }
+        return null;
+    }
+}
@@ -105,6 +105,15 @@ DataCell readDataCellPerKNIMESerializer(final DataCellSerializer<? extends DataC
     }
 
 
+    /** Reads a data cell using a codec bound to its column.
+     * @param codec The codec handling the cell's class.
+     * @return A new data cell instance.
+     * @throws IOException If reading fails.
+     */
+    DataCell readDataCellPerCodec(final ColumnCellCodec codec) throws IOException {
+        return codec.read(m_dataIn);
+    }
+
     /** Reads a data cell from the stream using java de-serialization.
      * @return A new data cell instance.
      * @throws IOException If reading fails (also e.g.
@@ -97,6 +97,15 @@ public void writeDataCellPerKNIMESerializer(
         serializer.serialize(cell, m_dataOut);
     }
 
+    /** Writes a cell using a codec bound to its column (no control bytes).
+     * @param codec The codec handling the cell's class.
+     * @param cell The cell to be written.
+     * @throws IOException If that fails.
+     */
+    void writeDataCellPerCodec(final ColumnCellCodec codec, final DataCell cell) throws IOException {
+        codec.write(cell, m_dataOut);
+    }
+
     /**
      * Saves an array of file store keys
      * @since 3.7
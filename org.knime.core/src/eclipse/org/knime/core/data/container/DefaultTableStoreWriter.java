@@ -75,6 +75,12 @@ final class DefaultTableStoreWriter extends AbstractTableStoreWriter implements
     /** The compression format. */
     private final CompressionFormat m_compFormat;
 
+    /** Codecs bound to the columns of the spec, null elements for columns without codec. */
+    private final ColumnCellCodec[] m_columnCodecs;
+
+    /** Type shortcut of the codec's cell class per column, null until the first cell is written by the codec. */
+    private final Byte[] m_codecShortCuts;
+
     /**
      * Constructs a writer for writing KNIME tables to disk using the given compression format.
      *
@@ -88,6 +94,8 @@ public DefaultTableStoreWriter(final DataTableSpec spec, final OutputStream outp
         final CompressionFormat compFormat) throws IOException {
         super(spec, writeRowKey);
         m_compFormat = compFormat;
+        m_columnCodecs = ColumnCellCodec.forColumns(spec);
+        m_codecShortCuts = new Byte[m_columnCodecs.length];
         m_outStream = initOutFile(new BufferedOutputStream(outputStream));
     }
 
@@ -103,12 +111,34 @@ public void writeRow(final DataRow row) throws IOException {
         for (int i = 0; i < row.getNumCells(); i++) {
             DataCell cell =
                 row instanceof BlobSupportDataRow ? ((BlobSupportDataRow)row).getRawCell(i) : row.getCell(i);
-            writeDataCell(cell, m_outStream);
+            final ColumnCellCodec codec = i < m_columnCodecs.length ? m_columnCodecs[i] : null;
+            if (codec != null && cell.getClass() == codec.getCellClass()) {
+                writeDataCellPerCodec(i, codec, cell);
+            } else {
+                writeDataCell(cell, m_outStream);
+            }
             m_outStream.endBlock();
         }
         m_outStream.endRow();
     }
 
+    /**
+     * Writes a cell using the codec bound to its column, same output as
+     * {@link #writeDataCell(DataCell, DCObjectOutputVersion2)} but without the per-cell type lookups.
+     */
+    private void writeDataCellPerCodec(final int column, final ColumnCellCodec codec, final DataCell cell)
+        throws IOException {
+        Byte shortCut = m_codecShortCuts[column];
+        if (shortCut == null) {
+            final CellClassInfo cellClass = CellClassInfo.get(cell);
+            getSerializerForDataCell(cellClass); // registers the type shortcut
+            shortCut = getTypeShortCut(cellClass);
+            m_codecShortCuts[column] = shortCut;
+        }
+        m_outStream.writeControlByte(shortCut);
+        m_outStream.writeDataCellPerCodec(codec, cell);
+    }
+
     /**
      * Writes the row key to the out stream. This method is overridden in {@link NoKeyBuffer} in order to skip the row
      * key.
@@ -0,0 +1,602 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ------------------------------------------------------------------------
+ *
+ */
+package org.knime.core.data.container;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Stores the blobs of a {@link Buffer} in a few large segment files instead of one file per blob. Blobs are appended
+ * to the current segment and located via an offset index (per column and index of the blob in the column), which is
+ * kept in memory and written to the blob directory when the buffer is saved.
+ *
+ * <p>
+ * Blobs are streamed from and to the segments with positional reads and writes on a {@link FileChannel}, so they are
+ * never held in memory as a whole and concurrent readers do not interfere with each other or with the writer. The
+ * channel of a segment is reference counted: it is open while streams on the segment are open and, for the segment
+ * that is appended to, until the next {@link #flush()}.
+ *
+ * <p>
+ * The addressing of blobs (see {@link BlobDataCell.BlobAddress}) is the same as for the file-per-blob layout, only the
+ * location of the bytes differs.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+final class PackedBlobStore implements Closeable {
+
+    /** Name of the index file in the blob directory; its presence identifies the packed layout. */
+    static final String INDEX_FILE_NAME = "blobs.idx";
+
+    private static final String SEGMENT_PREFIX = "blobs_";
+
+    private static final String SEGMENT_SUFFIX = ".seg";
+
+    /** Version 1 stored the lengths of the blobs as int. */
+    private static final int INDEX_VERSION = 2;
+
+    /** Size from which no more blobs are appended to a segment. */
+    static final long MAX_SEGMENT_SIZE = 256L << 20;
+
+    /** Location of the blobs of one column. */
+    private static final class ColumnIndex {
+        private int[] m_segments = new int[16];
+
+        private long[] m_offsets = new long[16];
+
+        private long[] m_lengths = new long[16];
+
+        private int m_size;
+
+        void set(final int index, final int segment, final long offset, final long length) {
+            if (index >= m_segments.length) {
+                final int newLength = Math.max(index + 1, 2 * m_segments.length);
+                m_segments = Arrays.copyOf(m_segments, newLength);
+                m_offsets = Arrays.copyOf(m_offsets, newLength);
+                m_lengths = Arrays.copyOf(m_lengths, newLength);
+            }
+            if (index >= m_size) {
+                // entries between the old size and the index are not (yet) written
+                Arrays.fill(m_lengths, m_size, index, -1);
+                m_size = index + 1;
+            }
+            m_segments[index] = segment;
+            m_offsets[index] = offset;
+            m_lengths[index] = length;
+        }
+
+        boolean contains(final int index) {
+            return index >= 0 && index < m_size && m_lengths[index] >= 0;
+        }
+    }
+
+    /** A segment file and its channel; guarded by the store. */
+    private static final class Segment {
+        private final File m_file;
+
+        /** The channel, <code>null</code> if the segment is not in use. */
+        private FileChannel m_channel;
+
+        /** Number of open streams on the segment, plus one if it's the {@link PackedBlobStore#m_appendSegment}. */
+        private int m_users;
+
+        /** Size of the segment, not including the blob that is currently appended. */
+        private long m_size;
+
+        /** Whether a stream is appending to the segment. */
+        private boolean m_isAppending;
+
+        Segment(final File file, final long size) {
+            m_file = file;
+            m_size = size;
+        }
+    }
+
+    private final File m_dir;
+
+    private final List<Segment> m_segments = new ArrayList<>();
+
+    /** The segment new blobs are appended to, holding a reference on its channel; <code>null</code> if none. */
+    private Segment m_appendSegment;
+
+    private ColumnIndex[] m_columns = new ColumnIndex[0];
+
+    /** Bytes in the segments that are no longer referenced (blobs written more than once or not completely). */
+    private long m_unreferencedBytes;
+
+    private boolean m_isIndexLoaded;
+
+    private boolean m_isIndexDirty;
+
+    /**
+     * @param dir the blob directory of the buffer
+     */
+    PackedBlobStore(final File dir) {
+        m_dir = dir;
+    }
+
+    /**
+     * @param dir a blob directory
+     * @return whether the directory contains blobs in the packed layout
+     */
+    static boolean isPackedBlobDir(final File dir) {
+        return new File(dir, INDEX_FILE_NAME).isFile();
+    }
+
+    /**
+     * Returns a stream to write a blob to. The bytes are written to the end of a segment, the blob is added to the
+     * store when the stream is closed. Blobs written concurrently are appended to different segments.
+     *
+     * @param column the column of the blob
+     * @param indexInColumn the index of the blob in the column
+     * @return the stream
+     * @throws IOException if the segment can't be opened
+     */
+    synchronized OutputStream openOutputStream(final int column, final int indexInColumn) throws IOException {
+        ensureIndexLoaded();
+        Segment segment = m_appendSegment;
+        if (segment == null || segment.m_isAppending || segment.m_size >= MAX_SEGMENT_SIZE) {
+            if (m_appendSegment != null) {
+                releaseAppendSegment();
+            }
+            final File segmentFile = getSegmentFile(m_segments.size());
+            segment = new Segment(segmentFile, 0);
+            m_segments.add(segment);
+            acquire(segment);
+            Buffer.onFileCreated(segmentFile);
+            m_appendSegment = segment;
+        }
+        final FileChannel channel = acquire(segment);
+        segment.m_isAppending = true;
+        return new BlobOutputStream(column, indexInColumn, segment, channel);
+    }
+
+    /**
+     * Returns a stream to read a blob from.
+     *
+     * @param column the column of the blob
+     * @param indexInColumn the index of the blob in the column
+     * @return the stream
+     * @throws IOException if the blob does not exist or can't be read
+     */
+    synchronized InputStream openInputStream(final int column, final int indexInColumn) throws IOException {
+        ensureIndexLoaded();
+        if (column >= m_columns.length || m_columns[column] == null || !m_columns[column].contains(indexInColumn)) {
+            throw new IOException("No blob at index " + indexInColumn + " in column " + column + " in \""
+                + m_dir.getAbsolutePath() + "\"");
+        }
+        final ColumnIndex index = m_columns[column];
+        final Segment segment = getSegment(index.m_segments[indexInColumn]);
+        final long offset = index.m_offsets[indexInColumn];
+        return new BlobInputStream(segment, acquire(segment), offset, offset + index.m_lengths[indexInColumn]);
+    }
+
+    /** Adds a blob written by a {@link BlobOutputStream} to the index. */
+    private synchronized void finishWrite(final BlobOutputStream out) throws IOException {
+        final Segment segment = out.m_segment;
+        segment.m_size = Math.max(segment.m_size, out.m_offset + out.m_length);
+        segment.m_isAppending = false;
+        try {
+            if (out.m_isFailed || segment.m_channel == null) {
+                // not written completely or the store has been closed
+                m_unreferencedBytes += out.m_length;
+                return;
+            }
+            final int column = out.m_column;
+            if (column >= m_columns.length) {
+                m_columns = Arrays.copyOf(m_columns, column + 1);
+            }
+            if (m_columns[column] == null) {
+                m_columns[column] = new ColumnIndex();
+            }
+            if (m_columns[column].contains(out.m_indexInColumn)) {
+                m_unreferencedBytes += m_columns[column].m_lengths[out.m_indexInColumn];
+            }
+            m_columns[column].set(out.m_indexInColumn, m_segments.indexOf(segment), out.m_offset, out.m_length);
+            m_isIndexDirty = true;
+        } finally {
+            release(segment);
+        }
+    }
+
+    /**
+     * Writes the index to the blob directory so that the directory can be copied (or zipped) and read elsewhere and
+     * closes the channel of the segment that was appended to. Segments containing unreferenced bytes are compacted
+     * before, unless blobs are being read or written at the same time.
+     *
+     * @throws IOException if writing fails
+     */
+    synchronized void flush() throws IOException {
+        ensureIndexLoaded();
+        if (m_appendSegment != null) {
+            releaseAppendSegment();
+        }
+        if (m_unreferencedBytes > 0 && m_segments.stream().allMatch(s -> s.m_users == 0)) {
+            compact();
+        }
+        if (!m_isIndexDirty) {
+            return;
+        }
+        final File indexFile = new File(m_dir, INDEX_FILE_NAME);
+        try (DataOutputStream out =
+            new DataOutputStream(new BufferedOutputStream(new FileOutputStream(indexFile)))) {
+            out.writeInt(INDEX_VERSION);
+            out.writeInt(m_segments.size());
+            out.writeInt(m_columns.length);
+            for (ColumnIndex index : m_columns) {
+                final int size = index == null ? 0 : index.m_size;
+                out.writeInt(size);
+                for (int i = 0; i < size; i++) {
+                    out.writeInt(index.m_segments[i]);
+                    out.writeLong(index.m_offsets[i]);
+                    out.writeLong(index.m_lengths[i]);
+                }
+            }
+        }
+        m_isIndexDirty = false;
+    }
+
+    /** Rewrites all referenced blobs into new segments, in column and index order. No segment must be in use. */
+    private void compact() throws IOException {
+        final List<File> newFiles = new ArrayList<>();
+        final List<Long> newSizes = new ArrayList<>();
+        final ColumnIndex[] newColumns = new ColumnIndex[m_columns.length];
+        FileChannel out = null;
+        for (Segment segment : m_segments) {
+            acquire(segment);
+        }
+        try {
+            for (int c = 0; c < m_columns.length; c++) {
+                final ColumnIndex index = m_columns[c];
+                if (index == null) {
+                    continue;
+                }
+                newColumns[c] = new ColumnIndex();
+                for (int i = 0; i < index.m_size; i++) {
+                    if (!index.contains(i)) {
+                        continue;
+                    }
+                    final long length = index.m_lengths[i];
+                    if (out == null || out.size() >= MAX_SEGMENT_SIZE) {
+                        if (out != null) {
+                            newSizes.add(out.size());
+                            out.close();
+                        }
+                        final File file = new File(m_dir, getSegmentFile(newFiles.size()).getName() + ".tmp");
+                        newFiles.add(file);
+                        out = openChannel(file);
+                    }
+                    final long offset = out.size();
+                    final FileChannel in = getSegment(index.m_segments[i]).m_channel;
+                    for (long position = index.m_offsets[i], end = position + length; position < end;) {
+                        final long transferred = in.transferTo(position, end - position, out);
+                        if (transferred <= 0) {
+                            throw new IOException("Unexpected end of blob segment in \"" + m_dir.getAbsolutePath()
+                                + "\"");
+                        }
+                        position += transferred;
+                    }
+                    newColumns[c].set(i, newFiles.size() - 1, offset, length);
+                }
+            }
+            if (out != null) {
+                newSizes.add(out.size());
+            }
+        } finally {
+            if (out != null) {
+                out.close();
+            }
+            for (Segment segment : m_segments) {
+                release(segment);
+            }
+        }
+        m_segments.clear();
+        for (int s = 0;; s++) {
+            final File old = getSegmentFile(s);
+            if (!old.exists()) {
+                break;
+            }
+            Files.delete(old.toPath());
+        }
+        for (int s = 0; s < newFiles.size(); s++) {
+            Files.move(newFiles.get(s).toPath(), getSegmentFile(s).toPath(), StandardCopyOption.REPLACE_EXISTING);
+            m_segments.add(new Segment(getSegmentFile(s), newSizes.get(s)));
+        }
+        m_columns = newColumns;
+        m_unreferencedBytes = 0;
+        m_isIndexDirty = true;
+    }
+
+    private void ensureIndexLoaded() throws IOException {
+        if (m_isIndexLoaded) {
+            return;
+        }
+        m_isIndexLoaded = true;
+        final File indexFile = new File(m_dir, INDEX_FILE_NAME);
+        if (!indexFile.isFile()) {
+            return;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(indexFile)))) {
+            final int version = in.readInt();
+            if (version != 1 && version != INDEX_VERSION) {
+                throw new IOException("Unsupported blob index version " + version + " in \""
+                    + indexFile.getAbsolutePath() + "\"");
+            }
+            final int segmentCount = in.readInt();
+            for (int s = 0; s < segmentCount; s++) {
+                final File file = getSegmentFile(s);
+                m_segments.add(new Segment(file, file.length()));
+            }
+            final ColumnIndex[] columns = new ColumnIndex[in.readInt()];
+            for (int c = 0; c < columns.length; c++) {
+                final int size = in.readInt();
+                if (size == 0) {
+                    continue;
+                }
+                columns[c] = new ColumnIndex();
+                for (int i = 0; i < size; i++) {
+                    final int segment = in.readInt();
+                    final long offset = in.readLong();
+                    final long length = version == 1 ? in.readInt() : in.readLong();
+                    columns[c].set(i, segment, offset, length);
+                }
+            }
+            m_columns = columns;
+        }
+    }
+
+    private File getSegmentFile(final int segment) {
+        return new File(m_dir, SEGMENT_PREFIX + segment + SEGMENT_SUFFIX);
+    }
+
+    private Segment getSegment(final int segment) throws IOException {
+        if (segment < 0 || segment >= m_segments.size()) {
+            throw new IOException("Invalid blob segment " + segment + " in \"" + m_dir.getAbsolutePath() + "\"");
+        }
+        return m_segments.get(segment);
+    }
+
+    /** Adds a user to the segment, opening its channel if it's not in use yet. */
+    private FileChannel acquire(final Segment segment) throws IOException {
+        if (segment.m_channel == null) {
+            segment.m_channel = openChannel(segment.m_file);
+        }
+        segment.m_users++;
+        return segment.m_channel;
+    }
+
+    /** Removes a user from the segment, closing its channel if it's no longer in use. */
+    private synchronized void release(final Segment segment) throws IOException {
+        segment.m_users--;
+        if (segment.m_users <= 0 && segment.m_channel != null) {
+            segment.m_users = 0;
+            final FileChannel channel = segment.m_channel;
+            segment.m_channel = null;
+            channel.close();
+        }
+    }
+
+    private void releaseAppendSegment() throws IOException {
+        final Segment segment = m_appendSegment;
+        m_appendSegment = null;
+        if (segment.m_channel != null) {
+            segment.m_channel.force(false);
+        }
+        release(segment);
+    }
+
+    private static FileChannel openChannel(final File file) throws IOException {
+        if (file.exists() && !file.canWrite()) {
+            // e.g. read-only workflow
+            return FileChannel.open(file.toPath(), StandardOpenOption.READ);
+        }
+        return FileChannel.open(file.toPath(), StandardOpenOption.READ, StandardOpenOption.WRITE,
+            StandardOpenOption.CREATE);
+    }
+
+    /** @return the number of segments with an open channel (for tests) */
+    synchronized int getOpenChannelCount() {
+        return (int)m_segments.stream().filter(s -> s.m_channel != null).count();
+    }
+
+    /** Closes the segment files; the store can't be used afterwards. */
+    @Override
+    public synchronized void close() throws IOException {
+        IOException failure = null;
+        for (Segment segment : m_segments) {
+            if (segment.m_channel != null) {
+                try {
+                    segment.m_channel.close();
+                } catch (IOException e) {
+                    failure = e;
+                }
+                segment.m_channel = null;
+            }
+        }
+        m_segments.clear();
+        m_appendSegment = null;
+        m_columns = new ColumnIndex[0];
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /** Reads a blob with positional reads from the channel of its segment. */
+    private final class BlobInputStream extends InputStream {
+        private final Segment m_segment;
+
+        private final FileChannel m_channel;
+
+        private final long m_end;
+
+        private long m_position;
+
+        private boolean m_isClosed;
+
+        BlobInputStream(final Segment segment, final FileChannel channel, final long offset, final long end) {
+            m_segment = segment;
+            m_channel = channel;
+            m_position = offset;
+            m_end = end;
+        }
+
+        @Override
+        public int read() throws IOException {
+            final byte[] b = new byte[1];
+            return read(b, 0, 1) < 0 ? -1 : (b[0] & 0xFF);
+        }
+
+        @Override
+        public int read(final byte[] b, final int off, final int len) throws IOException {
+            if (m_position >= m_end) {
+                return -1;
+            }
+            final int n = (int)Math.min(len, m_end - m_position);
+            if (n == 0) {
+                return 0;
+            }
+            final int read = m_channel.read(ByteBuffer.wrap(b, off, n), m_position);
+            if (read < 0) {
+                throw new IOException("Unexpected end of blob segment in \"" + m_dir.getAbsolutePath() + "\"");
+            }
+            m_position += read;
+            return read;
+        }
+
+        @Override
+        public long skip(final long n) {
+            final long skipped = Math.max(0, Math.min(n, m_end - m_position));
+            m_position += skipped;
+            return skipped;
+        }
+
+        @Override
+        public int available() {
+            return (int)Math.min(Integer.MAX_VALUE, m_end - m_position);
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (!m_isClosed) {
+                m_isClosed = true;
+                release(m_segment);
+            }
+        }
+    }
+
+    /** Appends a blob with positional writes to the channel of a segment. */
+    private final class BlobOutputStream extends OutputStream {
+        private final int m_column;
+
+        private final int m_indexInColumn;
+
+        private final Segment m_segment;
+
+        private final FileChannel m_channel;
+
+        private final long m_offset;
+
+        private long m_length;
+
+        private boolean m_isFailed;
+
+        private boolean m_isClosed;
+
+        BlobOutputStream(final int column, final int indexInColumn, final Segment segment,
+            final FileChannel channel) {
+            m_column = column;
+            m_indexInColumn = indexInColumn;
+            m_segment = segment;
+            m_channel = channel;
+            m_offset = segment.m_size;
+        }
+
+        @Override
+        public void write(final int b) throws IOException {
+            write(new byte[]{(byte)b}, 0, 1);
+        }
+
+        @Override
+        public void write(final byte[] b, final int off, final int len) throws IOException {
+            if (m_isClosed) {
+                throw new IOException("Blob stream closed");
+            }
+            final ByteBuffer buffer = ByteBuffer.wrap(b, off, len);
+            try {
+                while (buffer.hasRemaining()) {
+                    m_length += m_channel.write(buffer, m_offset + m_length);
+                }
+            } catch (IOException e) {
+                m_isFailed = true;
+                throw e;
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (!m_isClosed) {
+                m_isClosed = true;
+                finishWrite(this);
+            }
+        }
+    }
+}
@@ -91,6 +91,10 @@ public class WriteFileStoreHandler implements IWriteFileStoreHandler {
     private IDataRepository m_dataRepository;
     private LRUCache<FileStoreKey, FileStoreKey> m_createdFileStoreKeys;
     private int m_nextIndex = 0;
+    /** The leaf folder last resolved in {@link #getParentDir(int, boolean)}, read without lock from file stores. */
+    private volatile ParentDir m_lastParentDir;
+    /** The (cached) leaf folder of the last created file store, known to exist on disk, guarded by 'this'. */
+    private File m_lastCreatedParentDir;
 
 
     /**
@@ -296,7 +300,13 @@ private FileStore createFileStoreInternal(final String name,
         if (m_nextIndex > MAX_NR_FILES) {
             throw new IOException("Maximum number of files stores reached: " + MAX_NR_FILES);
         }
-        getParentDir(m_nextIndex, true);
+        // only the first file store in each leaf folder touches the file system -- loops creating a file store
+        // per row used to stat the folder for every single file store
+        final File parentDir = getParentDir(m_nextIndex, false);
+        if (!parentDir.equals(m_lastCreatedParentDir)) {
+            getParentDir(m_nextIndex, true);
+            m_lastCreatedParentDir = parentDir;
+        }
         m_nextIndex++;
         FileStore fs = FileStoreUtil.createFileStore(this, key);
         return fs;
@@ -308,16 +318,26 @@ public int getNextIndex() {
     }
 
     public File getParentDir(final int indexArg, final boolean create) {
-        int index = indexArg / FILES_PER_FOLDER; // bottom most dir also contains many files
-        File parentDir = m_baseDir;
-        String[] subFolderNames = new String[FOLDER_LEVEL];
-        for (int level = 0; level < FOLDER_LEVEL; level++) {
-            int modulo = index % FILES_PER_FOLDER;
-            subFolderNames[FOLDER_LEVEL - level - 1] = String.format("%03d", modulo);
-            index = index / FILES_PER_FOLDER;
-        }
-        for (int level = 0; level < FOLDER_LEVEL; level++) {
-            parentDir = new File(parentDir, subFolderNames[level]);
+        final int folderIndex = indexArg / FILES_PER_FOLDER; // bottom most dir also contains many files
+        final File baseDir = m_baseDir;
+        ParentDir lastParentDir = m_lastParentDir;
+        File parentDir;
+        if (lastParentDir != null && lastParentDir.m_folderIndex == folderIndex
+            && lastParentDir.m_baseDir == baseDir) {
+            parentDir = lastParentDir.m_dir;
+        } else {
+            int index = folderIndex;
+            String[] subFolderNames = new String[FOLDER_LEVEL];
+            for (int level = 0; level < FOLDER_LEVEL; level++) {
+                int modulo = index % FILES_PER_FOLDER;
+                subFolderNames[FOLDER_LEVEL - level - 1] = toFolderName(modulo);
+                index = index / FILES_PER_FOLDER;
+            }
+            parentDir = baseDir;
+            for (int level = 0; level < FOLDER_LEVEL; level++) {
+                parentDir = new File(parentDir, subFolderNames[level]);
+            }
+            m_lastParentDir = new ParentDir(baseDir, folderIndex, parentDir);
         }
         if (create && !parentDir.isDirectory()) {
             if (!parentDir.mkdirs()) {
@@ -327,6 +347,16 @@ public File getParentDir(final int indexArg, final boolean create) {
         return parentDir;
     }
 
+    /** Equivalent to <code>String.format("%03d", value)</code> for 0 &lt;= value &lt; 1000, without the formatter. */
+    private static String toFolderName(final int value) {
+        if (value < 10) {
+            return "00" + value;
+        } else if (value < 100) {
+            return "0" + value;
+        }
+        return Integer.toString(value);
+    }
+
 
     private void ensureInitBaseDirectory() throws IOException {
         assert Thread.holdsLock(this);
@@ -401,4 +431,17 @@ public static final IFileStoreHandler restore(final String name,
         return fileStoreHandler;
     }
 
+    /** Immutable leaf folder of a file store, cached as most file stores are created and read folder by folder. */
+    private static final class ParentDir {
+        private final File m_baseDir;
+        private final int m_folderIndex;
+        private final File m_dir;
+
+        ParentDir(final File baseDir, final int folderIndex, final File dir) {
+            m_baseDir = baseDir;
+            m_folderIndex = folderIndex;
+            m_dir = dir;
+        }
+    }
+
 }
@@ -0,0 +1,362 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ------------------------------------------------------------------------
+ *
+ */
+package org.knime.core.data.util.memory;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+import org.knime.core.node.CanceledExecutionException;
+import org.knime.core.node.ExecutionMonitor;
+import org.knime.core.node.KNIMEConstants;
+import org.knime.core.node.NodeLogger;
+
+/**
+ * Admission control for memory-hungry operations. Before an operation (usually the execution of a node, see
+ * {@link org.knime.core.node.WorkingMemoryEstimator}) allocates a large amount of working memory it reserves the
+ * estimated amount. If the reservation doesn't fit into the remaining budget the caller waits until enough memory has
+ * been released by other reservations. This avoids that several parallel branches of a workflow run into memory
+ * intensive operations such as sorting or joining at the same time.
+ *
+ * <p>
+ * The {@link MemoryAlertSystem} complements the reservations with the actual heap usage: while memory is low, new
+ * reservations are delayed, too. A reservation is always granted if no other reservation is active, so a single
+ * operation that estimates more than the whole budget can still run (alone). The current state is available via JMX,
+ * see {@link MemoryBudgetMXBean}.
+ *
+ * <pre>
+ * try (MemoryBudget.Reservation r = MemoryBudget.getInstance().reserve(estimate, exec)) {
+ *     // memory intensive work
+ * }
+ * </pre>
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ * @since 4.3
+ */
+public final class MemoryBudget implements MemoryBudgetMXBean {
+
+    /**
+     * A granted reservation, must be closed once the memory is not needed anymore. Closing a reservation more than
+     * once has no effect.
+     */
+    public final class Reservation implements AutoCloseable {
+        private final long m_bytes;
+
+        private boolean m_released;
+
+        private Reservation(final long bytes) {
+            m_bytes = bytes;
+        }
+
+        /**
+         * @return the reserved memory in bytes
+         */
+        public long getBytes() {
+            return m_bytes;
+        }
+
+        /** Releases the reservation. */
+        @Override
+        public void close() {
+            release(this);
+        }
+    }
+
+    private static final NodeLogger LOGGER = NodeLogger.getLogger(MemoryBudget.class);
+
+    /** How long a waiting reservation sleeps before it checks for cancellation and low memory again. */
+    private static final long WAIT_INTERVAL_MS = 500;
+
+    private static final MemoryBudget INSTANCE = createInstance();
+
+    private final ReentrantLock m_lock = new ReentrantLock();
+
+    private final Condition m_released = m_lock.newCondition();
+
+    private final MemoryAlertSystem m_memoryAlertSystem;
+
+    private long m_budget;
+
+    private long m_reserved;
+
+    private long m_peakReserved;
+
+    private int m_activeReservations;
+
+    private int m_waitingReservations;
+
+    private long m_grantedReservations;
+
+    private long m_totalWaitTime;
+
+    /**
+     * Creates a new budget. <b>Use {@link #getInstance()} instead, this constructor is only intended for tests.</b>
+     *
+     * @param budget the budget in bytes, 0 to disable admission control
+     * @param memoryAlertSystem the memory alert system used to delay reservations while memory is low, may be
+     *            <code>null</code>
+     */
+    MemoryBudget(final long budget, final MemoryAlertSystem memoryAlertSystem) {
+        m_budget = Math.max(0, budget);
+        m_memoryAlertSystem = memoryAlertSystem;
+    }
+
+    private static MemoryBudget createInstance() {
+        double fraction = MemoryAlertSystem.DEFAULT_USAGE_THRESHOLD;
+        final String property = System.getProperty(KNIMEConstants.PROPERTY_MEMORY_BUDGET_FRACTION);
+        if (property != null) {
+            try {
+                fraction = Double.parseDouble(property.trim());
+                if (fraction < 0 || fraction > 1) {
+                    throw new NumberFormatException("Fraction must be between 0 and 1: " + fraction);
+                }
+            } catch (NumberFormatException e) {
+                LOGGER.warn("Unable to parse property " + KNIMEConstants.PROPERTY_MEMORY_BUDGET_FRACTION
+                    + ", using default", e);
+                fraction = MemoryAlertSystem.DEFAULT_USAGE_THRESHOLD;
+            }
+        }
+        final MemoryBudget budget = new MemoryBudget((long)(fraction * MemoryAlertSystem.getMaximumMemory()),
+            MemoryAlertSystem.getInstance());
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(budget,
+                new ObjectName("org.knime.core:type=MemoryBudget"));
+        } catch (JMException | RuntimeException e) {
+            LOGGER.debug("Could not register memory budget in MBean server: " + e.getMessage(), e);
+        }
+        return budget;
+    }
+
+    /**
+     * Returns the global memory budget.
+     *
+     * @return the singleton instance
+     */
+    public static MemoryBudget getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Reserves the given amount of memory if it fits into the remaining budget.
+     *
+     * @param bytes the amount of memory in bytes
+     * @return the reservation or <code>null</code> if it doesn't fit
+     * @throws IllegalArgumentException if the amount is negative
+     */
+    public Reservation tryReserve(final long bytes) {
+        checkBytes(bytes);
+        m_lock.lock();
+        try {
+            return fits(bytes) ? grant(bytes) : null;
+        } finally {
+            m_lock.unlock();
+        }
+    }
+
+    /**
+     * Reserves the given amount of memory, waiting until it fits into the remaining budget.
+     *
+     * @param bytes the amount of memory in bytes
+     * @param exec used to check for cancellation while waiting, may be <code>null</code>
+     * @return the reservation
+     * @throws CanceledExecutionException if canceled while waiting
+     * @throws InterruptedException if interrupted while waiting
+     * @throws IllegalArgumentException if the amount is negative
+     */
+    public Reservation reserve(final long bytes, final ExecutionMonitor exec)
+        throws CanceledExecutionException, InterruptedException {
+        checkBytes(bytes);
+        m_lock.lockInterruptibly();
+        try {
+            if (fits(bytes)) {
+                return grant(bytes);
+            }
+            final long start = System.currentTimeMillis();
+            m_waitingReservations++;
+            try {
+                LOGGER.debug("Waiting for reservation of " + (bytes >> 20) + "MB (reserved " + (m_reserved >> 20)
+                    + "MB of " + (m_budget >> 20) + "MB)");
+                do {
+                    if (exec != null) {
+                        exec.checkCanceled();
+                    }
+                    m_released.await(WAIT_INTERVAL_MS, TimeUnit.MILLISECONDS);
+                } while (!fits(bytes));
+            } finally {
+                m_waitingReservations--;
+                m_totalWaitTime += System.currentTimeMillis() - start;
+            }
+            return grant(bytes);
+        } finally {
+            m_lock.unlock();
+        }
+    }
+
+    /** Must be called with the lock held. */
+    private boolean fits(final long bytes) {
+        if (m_budget == 0 || m_activeReservations == 0 || bytes == 0) {
+            return true;
+        }
+        if (m_reserved + bytes > m_budget) {
+            return false;
+        }
+        return m_memoryAlertSystem == null || !m_memoryAlertSystem.isMemoryLow();
+    }
+
+    /** Must be called with the lock held. */
+    private Reservation grant(final long bytes) {
+        m_reserved += bytes;
+        m_peakReserved = Math.max(m_peakReserved, m_reserved);
+        m_activeReservations++;
+        m_grantedReservations++;
+        return new Reservation(bytes);
+    }
+
+    private void release(final Reservation reservation) {
+        m_lock.lock();
+        try {
+            if (!reservation.m_released) {
+                reservation.m_released = true;
+                m_reserved -= reservation.m_bytes;
+                m_activeReservations--;
+                m_released.signalAll();
+            }
+        } finally {
+            m_lock.unlock();
+        }
+    }
+
+    private static void checkBytes(final long bytes) {
+        if (bytes < 0) {
+            throw new IllegalArgumentException("Reserved memory must not be negative: " + bytes);
+        }
+    }
+
+    @Override
+    public long getBudget() {
+        m_lock.lock();
+        try {
+            return m_budget;
+        } finally {
+            m_lock.unlock();
+        }
+    }
+
+    @Override
+    public void setBudget(final long budget) {
+        m_lock.lock();
+        try {
+            m_budget = Math.max(0, budget);
+            m_released.signalAll();
+        } finally {
+            m_lock.unlock();
+        }
+    }
+
+    @Override
+    public long getReserved() {
+        m_lock.lock();
+        try {
+            return m_reserved;
+        } finally {
+            m_lock.unlock();
+        }
+    }
+
+    @Override
+    public long getPeakReserved() {
+        m_lock.lock();
+        try {
+            return m_peakReserved;
+        } finally {
+            m_lock.unlock();
+        }
+    }
+
+    @Override
+    public int getActiveReservations() {
+        m_lock.lock();
+        try {
+            return m_activeReservations;
+        } finally {
+            m_lock.unlock();
+        }
+    }
+
+    @Override
+    public int getWaitingReservations() {
+        m_lock.lock();
+        try {
+            return m_waitingReservations;
+        } finally {
+            m_lock.unlock();
+        }
+    }
+
+    @Override
+    public long getGrantedReservations() {
+        m_lock.lock();
+        try {
+            return m_grantedReservations;
+        } finally {
+            m_lock.unlock();
+        }
+    }
+
+    @Override
+    public long getTotalWaitTime() {
+        m_lock.lock();
+        try {
+            return m_totalWaitTime;
+        } finally {
+            m_lock.unlock();
+        }
+    }
+}
@@ -47,6 +47,8 @@
  */
 package org.knime.core.data.vector.bitvector;
 
+import java.util.Arrays;
+
 import org.knime.core.node.util.CheckUtils;
 
 /**
@@ -218,6 +220,262 @@ public static long cardinalityOfRelativeComplement(final BitVectorValue bv1, fin
         return toReturn;
     }
 
+    /**
+     * Computes the cardinality of the bitwise OR of the given vectors without creating the union.
+     *
+     * @param bv1 first vector
+     * @param bv2 second vector
+     * @return cardinality of the bitwise OR operator of the given bit vectors
+     * @throws NullPointerException if any argument is <code>null</code>
+     * @since 4.3
+     */
+    public static long cardinalityOfUnion(final BitVectorValue bv1, final BitVectorValue bv2) {
+        CheckUtils.checkNotNull(bv1, NPE_MESSAGE);
+        CheckUtils.checkNotNull(bv2, NPE_MESSAGE);
+
+        if (bv1 instanceof DenseBitVectorCell && bv2 instanceof DenseBitVectorCell) {
+            return ((DenseBitVectorCell)bv1).cardinalityOfUnion((DenseBitVectorCell)bv2);
+        }
+        return bv1.cardinality() + bv2.cardinality() - cardinalityOfIntersection(bv1, bv2);
+    }
+
+    /**
+     * Computes the Tanimoto (Jaccard) similarity |bv1 AND bv2| / |bv1 OR bv2| of the given vectors without creating
+     * any intermediate vectors. The similarity of two empty vectors is 0.
+     *
+     * @param bv1 first vector
+     * @param bv2 second vector
+     * @return the Tanimoto similarity, a value between 0 and 1
+     * @throws NullPointerException if any argument is <code>null</code>
+     * @since 4.3
+     */
+    public static double tanimotoSimilarity(final BitVectorValue bv1, final BitVectorValue bv2) {
+        CheckUtils.checkNotNull(bv1, NPE_MESSAGE);
+        CheckUtils.checkNotNull(bv2, NPE_MESSAGE);
+
+        if (bv1 instanceof DenseBitVectorCell && bv2 instanceof DenseBitVectorCell) {
+            return tanimotoSimilarity(((DenseBitVectorCell)bv1).getStorage(), ((DenseBitVectorCell)bv2).getStorage());
+        }
+        return tanimotoSimilarity(bv1.cardinality(), bv2.cardinality(), cardinalityOfIntersection(bv1, bv2));
+    }
+
+    /**
+     * Computes the Dice similarity 2 * |bv1 AND bv2| / (|bv1| + |bv2|) of the given vectors without creating any
+     * intermediate vectors. The similarity of two empty vectors is 0.
+     *
+     * @param bv1 first vector
+     * @param bv2 second vector
+     * @return the Dice similarity, a value between 0 and 1
+     * @throws NullPointerException if any argument is <code>null</code>
+     * @since 4.3
+     */
+    public static double diceSimilarity(final BitVectorValue bv1, final BitVectorValue bv2) {
+        CheckUtils.checkNotNull(bv1, NPE_MESSAGE);
+        CheckUtils.checkNotNull(bv2, NPE_MESSAGE);
+
+        if (bv1 instanceof DenseBitVectorCell && bv2 instanceof DenseBitVectorCell) {
+            return diceSimilarity(((DenseBitVectorCell)bv1).getStorage(), ((DenseBitVectorCell)bv2).getStorage());
+        }
+        return diceSimilarity(bv1.cardinality(), bv2.cardinality(), cardinalityOfIntersection(bv1, bv2));
+    }
+
+    /*
+     * ----------- Kernels on the raw bits ---------------------------------------
+     * The following methods work on the 64 bit words as returned by DenseBitVector#getAllBits(). Arrays of different
+     * lengths are treated as if the shorter one was padded with zeros. The loops are kept simple so that the JIT can
+     * unroll them and use the popcnt instruction (and vector instructions, where supported).
+     */
+
+    /**
+     * Counts the set bits in the given words.
+     *
+     * @param bits the bits, see {@link DenseBitVector#getAllBits()}
+     * @return the number of set bits
+     * @since 4.3
+     */
+    public static long cardinality(final long[] bits) {
+        long result = 0;
+        for (int i = 0; i < bits.length; i++) {
+            result += Long.bitCount(bits[i]);
+        }
+        return result;
+    }
+
+    /**
+     * Counts the bits that are set in both arguments.
+     *
+     * @param bits1 the first operand, see {@link DenseBitVector#getAllBits()}
+     * @param bits2 the second operand
+     * @return the cardinality of the bitwise AND
+     * @since 4.3
+     */
+    public static long cardinalityOfIntersection(final long[] bits1, final long[] bits2) {
+        final int length = Math.min(bits1.length, bits2.length);
+        long result = 0;
+        for (int i = 0; i < length; i++) {
+            result += Long.bitCount(bits1[i] & bits2[i]);
+        }
+        return result;
+    }
+
+    /**
+     * Counts the bits that are set in at least one of the arguments.
+     *
+     * @param bits1 the first operand, see {@link DenseBitVector#getAllBits()}
+     * @param bits2 the second operand
+     * @return the cardinality of the bitwise OR
+     * @since 4.3
+     */
+    public static long cardinalityOfUnion(final long[] bits1, final long[] bits2) {
+        final int length = Math.min(bits1.length, bits2.length);
+        long result = 0;
+        for (int i = 0; i < length; i++) {
+            result += Long.bitCount(bits1[i] | bits2[i]);
+        }
+        final long[] longer = bits1.length > length ? bits1 : bits2;
+        for (int i = length; i < longer.length; i++) {
+            result += Long.bitCount(longer[i]);
+        }
+        return result;
+    }
+
+    /**
+     * Computes the Tanimoto similarity of the given bits in a single pass.
+     *
+     * @param bits1 the first operand, see {@link DenseBitVector#getAllBits()}
+     * @param bits2 the second operand
+     * @return the Tanimoto similarity, 0 if both are empty
+     * @see #tanimotoSimilarity(BitVectorValue, BitVectorValue)
+     * @since 4.3
+     */
+    public static double tanimotoSimilarity(final long[] bits1, final long[] bits2) {
+        final int length = Math.min(bits1.length, bits2.length);
+        long intersection = 0;
+        long union = 0;
+        for (int i = 0; i < length; i++) {
+            intersection += Long.bitCount(bits1[i] & bits2[i]);
+            union += Long.bitCount(bits1[i] | bits2[i]);
+        }
+        final long[] longer = bits1.length > length ? bits1 : bits2;
+        for (int i = length; i < longer.length; i++) {
+            union += Long.bitCount(longer[i]);
+        }
+        return union == 0 ? 0 : (double)intersection / union;
+    }
+
+    /**
+     * Computes the Dice similarity of the given bits.
+     *
+     * @param bits1 the first operand, see {@link DenseBitVector#getAllBits()}
+     * @param bits2 the second operand
+     * @return the Dice similarity, 0 if both are empty
+     * @see #diceSimilarity(BitVectorValue, BitVectorValue)
+     * @since 4.3
+     */
+    public static double diceSimilarity(final long[] bits1, final long[] bits2) {
+        return diceSimilarity(cardinality(bits1), cardinality(bits2), cardinalityOfIntersection(bits1, bits2));
+    }
+
+    /**
+     * Computes the Tanimoto similarity from precomputed cardinalities. Useful when comparing one vector with many
+     * others, in which case only the intersections need to be counted.
+     *
+     * @param cardinality1 the number of bits set in the first vector
+     * @param cardinality2 the number of bits set in the second vector
+     * @param cardinalityOfIntersection the number of bits set in both vectors
+     * @return the Tanimoto similarity, 0 if both vectors are empty
+     * @since 4.3
+     */
+    public static double tanimotoSimilarity(final long cardinality1, final long cardinality2,
+        final long cardinalityOfIntersection) {
+        final long union = cardinality1 + cardinality2 - cardinalityOfIntersection;
+        return union == 0 ? 0 : (double)cardinalityOfIntersection / union;
+    }
+
+    /**
+     * Computes the Dice similarity from precomputed cardinalities.
+     *
+     * @param cardinality1 the number of bits set in the first vector
+     * @param cardinality2 the number of bits set in the second vector
+     * @param cardinalityOfIntersection the number of bits set in both vectors
+     * @return the Dice similarity, 0 if both vectors are empty
+     * @see #tanimotoSimilarity(long, long, long)
+     * @since 4.3
+     */
+    public static double diceSimilarity(final long cardinality1, final long cardinality2,
+        final long cardinalityOfIntersection) {
+        final long sum = cardinality1 + cardinality2;
+        return sum == 0 ? 0 : 2.0 * cardinalityOfIntersection / sum;
+    }
+
+    /**
+     * Writes the bitwise AND of the arguments into the target array, which can be reused between calls (and can be
+     * one of the operands).
+     *
+     * @param bits1 the first operand, see {@link DenseBitVector#getAllBits()}
+     * @param bits2 the second operand
+     * @param target the array the result is written to, must be at least as long as the longer operand
+     * @throws IllegalArgumentException if the target array is too short
+     * @since 4.3
+     */
+    public static void and(final long[] bits1, final long[] bits2, final long[] target) {
+        checkTargetLength(bits1, bits2, target);
+        final int length = Math.min(bits1.length, bits2.length);
+        for (int i = 0; i < length; i++) {
+            target[i] = bits1[i] & bits2[i];
+        }
+        Arrays.fill(target, length, Math.max(bits1.length, bits2.length), 0L);
+    }
+
+    /**
+     * Writes the bitwise OR of the arguments into the target array, which can be reused between calls (and can be
+     * one of the operands).
+     *
+     * @param bits1 the first operand, see {@link DenseBitVector#getAllBits()}
+     * @param bits2 the second operand
+     * @param target the array the result is written to, must be at least as long as the longer operand
+     * @throws IllegalArgumentException if the target array is too short
+     * @since 4.3
+     */
+    public static void or(final long[] bits1, final long[] bits2, final long[] target) {
+        checkTargetLength(bits1, bits2, target);
+        final int length = Math.min(bits1.length, bits2.length);
+        for (int i = 0; i < length; i++) {
+            target[i] = bits1[i] | bits2[i];
+        }
+        final long[] longer = bits1.length > length ? bits1 : bits2;
+        if (longer != target) {
+            System.arraycopy(longer, length, target, length, longer.length - length);
+        }
+    }
+
+    /**
+     * Writes the bitwise XOR of the arguments into the target array, which can be reused between calls (and can be
+     * one of the operands).
+     *
+     * @param bits1 the first operand, see {@link DenseBitVector#getAllBits()}
+     * @param bits2 the second operand
+     * @param target the array the result is written to, must be at least as long as the longer operand
+     * @throws IllegalArgumentException if the target array is too short
+     * @since 4.3
+     */
+    public static void xor(final long[] bits1, final long[] bits2, final long[] target) {
+        checkTargetLength(bits1, bits2, target);
+        final int length = Math.min(bits1.length, bits2.length);
+        for (int i = 0; i < length; i++) {
+            target[i] = bits1[i] ^ bits2[i];
+        }
+        final long[] longer = bits1.length > length ? bits1 : bits2;
+        if (longer != target) {
+            System.arraycopy(longer, length, target, length, longer.length - length);
+        }
+    }
+
+    private static void checkTargetLength(final long[] bits1, final long[] bits2, final long[] target) {
+        CheckUtils.checkArgument(target.length >= Math.max(bits1.length, bits2.length),
+            "Target array too short: %d < %d", target.length, Math.max(bits1.length, bits2.length));
+    }
+
     private static int sparseBitVectorCellCount(final BitVectorValue bv1, final BitVectorValue bv2) {
         int count = 0;
         if (bv1 instanceof SparseBitVectorCell) {
@@ -1296,4 +1296,25 @@ long cardinalityOfRelativeComplement(final DenseBitVector bitVector) {
         }
         return result;
     }
+
+    /**
+     * Computes the cardinality of the union with the given bitVector without creating the union.
+     *
+     * @see BitVectorUtil#cardinalityOfUnion(BitVectorValue, BitVectorValue)
+     * @param bitVector the other operand for the OR operator
+     * @return the cardinality of the union
+     */
+    long cardinalityOfUnion(final DenseBitVector bitVector) {
+        return BitVectorUtil.cardinalityOfUnion(m_storage, bitVector.m_storage);
+    }
+
+    /**
+     * Returns the internal storage (not a copy!), see {@link #getAllBits()} for its layout. Callers must not modify
+     * the array.
+     *
+     * @return the internal storage of the bits
+     */
+    long[] getStorage() {
+        return m_storage;
+    }
 }
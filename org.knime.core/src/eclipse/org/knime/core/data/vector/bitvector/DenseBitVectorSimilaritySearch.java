@@ -0,0 +1,327 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ------------------------------------------------------------------------
+ *
+ */
+package org.knime.core.data.vector.bitvector;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+import org.knime.core.data.DataCell;
+import org.knime.core.data.DataRow;
+import org.knime.core.data.DataTable;
+import org.knime.core.data.RowIterator;
+import org.knime.core.node.CanceledExecutionException;
+import org.knime.core.node.ExecutionMonitor;
+import org.knime.core.node.KNIMEConstants;
+import org.knime.core.util.ThreadPool;
+
+/**
+ * Compares a query bit vector with many bit vectors (e.g. all fingerprints in a column) in parallel. The vectors are
+ * copied once into a single contiguous <code>long[]</code> with a fixed number of words per vector and their
+ * cardinalities are precomputed, so that a comparison only needs to count the bits of the intersection. The inner
+ * loop is a plain loop over primitive arrays that the JIT can unroll and compile to popcnt (and vector) instructions;
+ * no objects are allocated per comparison.
+ *
+ * <p>
+ * Missing cells are allowed; their similarity to any query is {@link Double#NaN}. Instances are immutable after
+ * creation and can be queried concurrently.
+ *
+ * <pre>
+ * DenseBitVectorSimilaritySearch search = DenseBitVectorSimilaritySearch.create(table, fpColumn, exec);
+ * int[] hits = search.findSimilar(queryFingerprint, Measure.TANIMOTO, 0.8);
+ * </pre>
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ * @since 4.3
+ */
+public final class DenseBitVectorSimilaritySearch {
+
+    /** The similarity measure to compute. */
+    public enum Measure {
+        /** Tanimoto (Jaccard) similarity |a AND b| / |a OR b|. */
+        TANIMOTO,
+        /** Dice similarity 2 * |a AND b| / (|a| + |b|). */
+        DICE;
+    }
+
+    /** Minimum number of vectors processed by one task, smaller searches are not split. */
+    private static final int MIN_CHUNK_SIZE = 4096;
+
+    /** All vectors, vector i occupies the words [i * m_stride, (i + 1) * m_stride). */
+    private final long[] m_bits;
+
+    /** The number of 64 bit words per vector. */
+    private final int m_stride;
+
+    /** The cardinalities of the vectors, -1 for missing cells. */
+    private final long[] m_cardinalities;
+
+    /**
+     * Creates a new search over the given cells.
+     *
+     * @param cells the cells to search in, each either a missing cell or a {@link BitVectorValue}
+     * @throws IllegalArgumentException if any cell is not a bit vector or if the vectors are too large to be kept in a
+     *             single array
+     */
+    public DenseBitVectorSimilaritySearch(final List<? extends DataCell> cells) {
+        int stride = 0;
+        for (DataCell c : cells) {
+            if (!c.isMissing()) {
+                if (!(c instanceof BitVectorValue)) {
+                    throw new IllegalArgumentException("Not a bit vector: " + c.getClass().getName());
+                }
+                stride = Math.max(stride, wordCount(((BitVectorValue)c).length()));
+            }
+        }
+        if ((long)stride * cells.size() > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Too many bit vectors (" + cells.size() + " vectors with " + stride
+                + " words each)");
+        }
+        m_stride = stride;
+        m_bits = new long[stride * cells.size()];
+        m_cardinalities = new long[cells.size()];
+        int i = 0;
+        for (DataCell c : cells) {
+            if (c.isMissing()) {
+                m_cardinalities[i] = -1;
+            } else {
+                long[] bits = getBits((BitVectorValue)c);
+                System.arraycopy(bits, 0, m_bits, i * stride, bits.length);
+                m_cardinalities[i] = BitVectorUtil.cardinality(bits);
+            }
+            i++;
+        }
+    }
+
+    /**
+     * Creates a new search over all cells in a column of a table.
+     *
+     * @param table the table
+     * @param column the index of a column with bit vectors (e.g. {@link DenseBitVectorCell}s)
+     * @param exec for progress and cancellation, may be <code>null</code>
+     * @return a new search
+     * @throws CanceledExecutionException if canceled
+     * @throws IllegalArgumentException if the column doesn't contain bit vectors
+     */
+    public static DenseBitVectorSimilaritySearch create(final DataTable table, final int column,
+        final ExecutionMonitor exec) throws CanceledExecutionException {
+        final List<DataCell> cells = new ArrayList<>();
+        final RowIterator it = table.iterator();
+        while (it.hasNext()) {
+            if (exec != null && (cells.size() & 0x3FF) == 0) {
+                exec.checkCanceled();
+            }
+            final DataRow row = it.next();
+            cells.add(row.getCell(column));
+        }
+        return new DenseBitVectorSimilaritySearch(cells);
+    }
+
+    /**
+     * @return the number of vectors (including missing cells)
+     */
+    public int size() {
+        return m_cardinalities.length;
+    }
+
+    /**
+     * Computes the similarity of the query to all vectors.
+     *
+     * @param query the query
+     * @param measure the similarity measure
+     * @return a new array with the similarities, in the order of the vectors passed at construction time
+     *         ({@link Double#NaN} for missing cells)
+     * @throws InterruptedException if interrupted while waiting for the computation to finish
+     */
+    public double[] computeSimilarities(final BitVectorValue query, final Measure measure)
+        throws InterruptedException {
+        final double[] result = new double[size()];
+        computeSimilarities(query, measure, result);
+        return result;
+    }
+
+    /**
+     * Computes the similarity of the query to all vectors into the given array, which can be reused for several
+     * queries.
+     *
+     * @param query the query
+     * @param measure the similarity measure
+     * @param result the array the similarities are written to, must be at least of length {@link #size()}
+     * @throws InterruptedException if interrupted while waiting for the computation to finish
+     * @throws IllegalArgumentException if the result array is too short
+     */
+    public void computeSimilarities(final BitVectorValue query, final Measure measure, final double[] result)
+        throws InterruptedException {
+        if (result.length < size()) {
+            throw new IllegalArgumentException("Result array too short: " + result.length + " < " + size());
+        }
+        final long[] queryBits = getBits(query);
+        final long queryCardinality = BitVectorUtil.cardinality(queryBits);
+        runParallel(new ChunkComputation() {
+            @Override
+            public void compute(final int from, final int to) {
+                computeChunk(queryBits, queryCardinality, measure, from, to, result);
+            }
+        });
+    }
+
+    /**
+     * Finds all vectors whose similarity to the query is at least the given threshold.
+     *
+     * @param query the query
+     * @param measure the similarity measure
+     * @param threshold the minimum similarity
+     * @return the indices of the matching vectors in ascending order
+     * @throws InterruptedException if interrupted while waiting for the computation to finish
+     */
+    public int[] findSimilar(final BitVectorValue query, final Measure measure, final double threshold)
+        throws InterruptedException {
+        final double[] similarities = computeSimilarities(query, measure);
+        int[] hits = new int[16];
+        int count = 0;
+        for (int i = 0; i < similarities.length; i++) {
+            // NaN (missing) never matches
+            if (similarities[i] >= threshold) {
+                if (count == hits.length) {
+                    hits = Arrays.copyOf(hits, 2 * count);
+                }
+                hits[count++] = i;
+            }
+        }
+        return Arrays.copyOf(hits, count);
+    }
+
+    /** The kernel, compares the query with the vectors [from, to). */
+    private void computeChunk(final long[] query, final long queryCardinality, final Measure measure,
+        final int from, final int to, final double[] result) {
+        final long[] bits = m_bits;
+        final int stride = m_stride;
+        final int words = Math.min(stride, query.length);
+        final boolean tanimoto = measure == Measure.TANIMOTO;
+        for (int v = from; v < to; v++) {
+            final long cardinality = m_cardinalities[v];
+            if (cardinality < 0) {
+                result[v] = Double.NaN;
+                continue;
+            }
+            final int offset = v * stride;
+            long intersection = 0;
+            for (int w = 0; w < words; w++) {
+                intersection += Long.bitCount(bits[offset + w] & query[w]);
+            }
+            result[v] = tanimoto
+                ? BitVectorUtil.tanimotoSimilarity(cardinality, queryCardinality, intersection)
+                : BitVectorUtil.diceSimilarity(cardinality, queryCardinality, intersection);
+        }
+    }
+
+    /** Splits [0, size()) into chunks and processes them in a sub pool of the global thread pool. */
+    private void runParallel(final ChunkComputation computation) throws InterruptedException {
+        final int size = size();
+        final int maxChunks = Math.max(1, KNIMEConstants.GLOBAL_THREAD_POOL.getMaxThreads());
+        final int chunkCount = Math.max(1, Math.min(maxChunks, size / MIN_CHUNK_SIZE));
+        if (chunkCount == 1) {
+            computation.compute(0, size);
+            return;
+        }
+        final int chunkSize = (size + chunkCount - 1) / chunkCount;
+        final ThreadPool pool = KNIMEConstants.GLOBAL_THREAD_POOL.createSubPool();
+        final List<Future<?>> futures = new ArrayList<>(chunkCount);
+        for (int from = 0; from < size; from += chunkSize) {
+            final int start = from;
+            final int end = Math.min(size, from + chunkSize);
+            futures.add(pool.enqueue(new Runnable() {
+                @Override
+                public void run() {
+                    computation.compute(start, end);
+                }
+            }));
+        }
+        try {
+            pool.waitForTermination();
+        } catch (InterruptedException e) {
+            pool.interruptAll();
+            throw e;
+        }
+        for (Future<?> f : futures) {
+            try {
+                f.get();
+            } catch (ExecutionException e) {
+                // the computation doesn't throw checked exceptions
+                final Throwable cause = e.getCause();
+                if (cause instanceof RuntimeException) {
+                    throw (RuntimeException)cause;
+                } else if (cause instanceof Error) {
+                    throw (Error)cause;
+                }
+                throw new IllegalStateException(cause);
+            }
+        }
+    }
+
+    private static int wordCount(final long length) {
+        return (int)(((length - 1) >> 6) + 1);
+    }
+
+    /** Returns the words of the given vector, without copying for {@link DenseBitVectorCell}s. */
+    private static long[] getBits(final BitVectorValue bv) {
+        if (bv instanceof DenseBitVectorCell) {
+            return ((DenseBitVectorCell)bv).getStorage();
+        }
+        final long[] bits = new long[wordCount(bv.length())];
+        for (long i = bv.nextSetBit(0); i >= 0; i = bv.nextSetBit(i + 1)) {
+            bits[(int)(i >> 6)] |= 1L << i;
+        }
+        return bits;
+    }
+
+    /** Computation on a range of vectors. */
+    private interface ChunkComputation {
+        void compute(int from, int to);
+    }
+}
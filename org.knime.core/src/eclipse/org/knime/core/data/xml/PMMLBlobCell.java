@@ -48,6 +48,8 @@
 package org.knime.core.data.xml;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
 import java.util.List;
 import java.util.Set;
 
@@ -76,7 +78,7 @@
  */
 @SuppressWarnings("serial")
 public class PMMLBlobCell extends BlobDataCell
-        implements PMMLValue, StringValue {
+        implements PMMLValue, StringValue, XMLStreamAccess {
 
     /**
      * Serializer for {@link PMMLBlobCell}s.
@@ -147,6 +149,24 @@ public String getStringValue() {
         return m_content.getStringValue();
     }
 
+    /**
+     * {@inheritDoc}
+     * @since 4.3
+     */
+    @Override
+    public InputStream openStream() {
+        return m_content.openStream();
+    }
+
+    /**
+     * {@inheritDoc}
+     * @since 4.3
+     */
+    @Override
+    public Reader openReader() {
+        return m_content.openReader();
+    }
+
     /**
      * {@inheritDoc}
      *
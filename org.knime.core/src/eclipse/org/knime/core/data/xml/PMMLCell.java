@@ -45,6 +45,8 @@
 package org.knime.core.data.xml;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
 import java.util.List;
 import java.util.Set;
 
@@ -66,7 +68,7 @@
 
 
 @SuppressWarnings("serial")
-public class PMMLCell extends DataCell implements PMMLValue, StringValue {
+public class PMMLCell extends DataCell implements PMMLValue, StringValue, XMLStreamAccess {
     /**
      * Type for this cell implementation.
      * Convenience access member for {@link PMMLCellFactory#TYPE}.
@@ -179,6 +181,24 @@ public String getStringValue() {
         return m_content.getStringValue();
     }
 
+    /**
+     * {@inheritDoc}
+     * @since 4.3
+     */
+    @Override
+    public InputStream openStream() {
+        return m_content.openStream();
+    }
+
+    /**
+     * {@inheritDoc}
+     * @since 4.3
+     */
+    @Override
+    public Reader openReader() {
+        return m_content.openReader();
+    }
+
     /**
      * @return the content
      */
@@ -157,7 +157,7 @@ public static DataCell create(final Document dom) {
             throw new NullPointerException("dom must not be null");
         }
         PMMLCellContent content = new PMMLCellContent(dom);
-        if (content.getStringValue().length() >= MIN_BLOB_SIZE_IN_BYTES) {
+        if (content.getLength() >= MIN_BLOB_SIZE_IN_BYTES) {
             return new PMMLBlobCell(content);
         } else {
             return new PMMLCell(content);
@@ -186,7 +186,7 @@ public static DataCell create(final InputStream is) throws IOException,
             throw new NullPointerException("InputStream must not be null");
         }
         PMMLCellContent content = new PMMLCellContent(is);
-        if (content.getStringValue().length() >= MIN_BLOB_SIZE_IN_BYTES) {
+        if (content.getLength() >= MIN_BLOB_SIZE_IN_BYTES) {
             return new PMMLBlobCell(content);
         } else {
             return new PMMLCell(content);
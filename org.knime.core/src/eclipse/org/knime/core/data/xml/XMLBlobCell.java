@@ -48,6 +48,8 @@
 package org.knime.core.data.xml;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
 
 import javax.xml.parsers.ParserConfigurationException;
 
@@ -70,7 +72,7 @@
  * @author Heiko Hofer
  */
 @SuppressWarnings("serial")
-public class XMLBlobCell extends BlobDataCell implements XMLValue<Document>, StringValue {
+public class XMLBlobCell extends BlobDataCell implements XMLValue<Document>, StringValue, XMLStreamAccess {
     /**
      * Serializer for {@link XMLBlobCell}s.
      *
@@ -139,6 +141,24 @@ public String getStringValue() {
         return m_content.getStringValue();
     }
 
+    /**
+     * {@inheritDoc}
+     * @since 4.3
+     */
+    @Override
+    public InputStream openStream() {
+        return m_content.openStream();
+    }
+
+    /**
+     * {@inheritDoc}
+     * @since 4.3
+     */
+    @Override
+    public Reader openReader() {
+        return m_content.openReader();
+    }
+
     /**
      * {@inheritDoc}
      * @deprecated use {@link #getDocumentSupplier()} instead. See {@link XMLValue#getDocument()} for detailed
@@ -48,6 +48,8 @@
 package org.knime.core.data.xml;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
 
 import javax.xml.parsers.ParserConfigurationException;
 
@@ -69,7 +71,7 @@
  * @author Heiko Hofer
  */
 @SuppressWarnings("serial")
-public class XMLCell extends DataCell implements XMLValue<Document>, StringValue {
+public class XMLCell extends DataCell implements XMLValue<Document>, StringValue, XMLStreamAccess {
     /**
      * Type for this cell implementation.
      * Convenience access member for {@link XMLCellFactory#TYPE}.
@@ -188,6 +190,24 @@ public String getStringValue() {
         return m_content.getStringValue();
     }
 
+    /**
+     * {@inheritDoc}
+     * @since 4.3
+     */
+    @Override
+    public InputStream openStream() {
+        return m_content.openStream();
+    }
+
+    /**
+     * {@inheritDoc}
+     * @since 4.3
+     */
+    @Override
+    public Reader openReader() {
+        return m_content.openReader();
+    }
+
     /**
      * {@inheritDoc}
      * @since 3.6
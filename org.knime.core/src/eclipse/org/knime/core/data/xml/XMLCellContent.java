@@ -47,12 +47,20 @@
  */
 package org.knime.core.data.xml;
 
+import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
 import java.io.StringReader;
 import java.lang.ref.SoftReference;
+import java.nio.charset.StandardCharsets;
 import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
 
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.ParserConfigurationException;
@@ -62,6 +70,7 @@
 import org.knime.core.data.xml.io.XMLCellReaderFactory;
 import org.knime.core.data.xml.io.XMLCellWriter;
 import org.knime.core.data.xml.io.XMLCellWriterFactory;
+import org.knime.core.node.KNIMEConstants;
 import org.knime.core.node.NodeLogger;
 import org.w3c.dom.DOMConfiguration;
 import org.w3c.dom.Document;
@@ -71,16 +80,35 @@
  * This class encapsulates a {@link Document}. It is the common content of a
  * {@link XMLCell} and a {@link XMLBlobCell}.
  *
+ * <p>If the compact storage is enabled (see {@link KNIMEConstants#PROPERTY_XML_COMPACT_STORAGE}), the XML of larger
+ * documents is kept as compressed UTF-8 bytes only. The DOM is then parsed on request and kept in a bounded cache
+ * shared by all contents, instead of being softly referenced by each content.
+ *
  * @author Heiko Hofer
  */
-public class XMLCellContent implements XMLValue<Document> {
+public class XMLCellContent implements XMLValue<Document>, XMLStreamAccess {
     private static final NodeLogger LOGGER = NodeLogger
             .getLogger(XMLCellContent.class);
 
-    private final String m_xmlString;
+    /** Whether new contents use the compact storage, only changed by tests. */
+    private static volatile boolean compactStorage = Boolean.getBoolean(KNIMEConstants.PROPERTY_XML_COMPACT_STORAGE);
+
+    /** Minimum length of the XML string in order to be kept compressed, smaller strings are kept as they are. */
+    private static final int COMPACT_MIN_LENGTH = 1024;
+
+    /** The XML string, <code>null</code> if kept compressed. */
+    private String m_xmlString;
+
+    /** Deflated UTF-8 bytes of the XML, <code>null</code> unless in compact storage. */
+    private byte[] m_compressedXML;
+
+    /** Number of UTF-8 bytes of the XML, only set in compact storage. */
+    private int m_byteLength;
 
+    /** The DOM, not used in compact storage (see {@link XMLDocumentCache}). */
     private SoftReference<Document> m_content;
 
+    /** Guards the DOM; also the (identity) key of this content in the {@link XMLDocumentCache}. */
     private final ReentrantLock m_lock = new ReentrantLock();
 
     /**
@@ -100,10 +128,9 @@ public class XMLCellContent implements XMLValue<Document> {
         if (checkXML) {
             try {
                 // check if XML string is valid XML
-                Document doc = parse(xmlString);
+                Document doc = parse(new StringReader(xmlString));
                 // store the normalized string as cell content
-                m_xmlString = serialize(doc);
-                m_content = new SoftReference<Document>(doc);
+                setContent(serialize(doc), doc);
             } catch (IOException ex) {
                 Throwable cause = ex;
                 while ((cause.getCause() != cause) && (cause.getCause() != null)) {
@@ -116,8 +143,7 @@ public class XMLCellContent implements XMLValue<Document> {
                 }
             }
         } else {
-            m_xmlString = xmlString;
-            m_content = new SoftReference<Document>(null);
+            setContent(xmlString, null);
         }
     }
 
@@ -133,21 +159,8 @@ public class XMLCellContent implements XMLValue<Document> {
      */
     XMLCellContent(final InputStream is) throws IOException,
             ParserConfigurationException, SAXException, XMLStreamException {
-        try {
-            Document doc = parse(is);
-            m_content = new SoftReference<Document>(doc);
-            m_xmlString = serialize(doc);
-        } catch (IOException ex) {
-            Throwable cause = ex;
-            while ((cause.getCause() != cause) && (cause.getCause() != null)) {
-                cause = cause.getCause();
-            }
-            if (cause instanceof SAXException) {
-                throw ex;
-            } else {
-                throw ex;
-            }
-        }
+        Document doc = parse(is);
+        setContent(serialize(doc), doc);
     }
 
     /**
@@ -156,7 +169,6 @@ public class XMLCellContent implements XMLValue<Document> {
      * @param doc an XML document
      */
     XMLCellContent(final Document doc) {
-        m_content = new SoftReference<Document>(doc);
         // Transform CDATA to text
         DOMConfiguration domConfig = doc.getDomConfig();
         domConfig.setParameter("cdata-sections", Boolean.FALSE);
@@ -170,7 +182,7 @@ public class XMLCellContent implements XMLValue<Document> {
         } catch (IOException ex) {
             // should not happen
         }
-        m_xmlString = s;
+        setContent(s, doc);
     }
 
     /**
@@ -194,13 +206,46 @@ public XMLCellContent(final LockedSupplier<Document> documentSupplier) {
             doc.normalizeDocument();
 
             s = serialize(documentSupplier.get());
-            m_content = new SoftReference<Document>(null);
         } catch (IOException ex) {
             // should not happen
         }
+        setContent(s, null);
+    }
 
-        m_xmlString = s;
+    /** Called by the constructors to keep either the string and a soft reference to the DOM or, in compact storage,
+     * the compressed bytes only (the DOM, if given, is put into the shared cache). */
+    private void setContent(final String xmlString, final Document doc) {
+        if (compactStorage && xmlString != null && xmlString.length() >= COMPACT_MIN_LENGTH) {
+            byte[] bytes = xmlString.getBytes(StandardCharsets.UTF_8);
+            m_byteLength = bytes.length;
+            m_compressedXML = compress(bytes);
+            if (doc != null) {
+                XMLDocumentCache.getInstance().put(m_lock, doc, m_byteLength);
+            }
+        } else {
+            m_xmlString = xmlString;
+            m_content = new SoftReference<Document>(doc);
+        }
+    }
 
+    /**
+     * Enables or disables the compact storage for contents created afterwards (for tests).
+     *
+     * @param compact whether to use the compact storage
+     * @return the previous setting
+     */
+    static boolean setCompactStorage(final boolean compact) {
+        boolean old = compactStorage;
+        compactStorage = compact;
+        return old;
+    }
+
+    /**
+     * @return whether the content is kept compressed (compact storage)
+     * @since 4.3
+     */
+    public boolean isCompact() {
+        return m_compressedXML != null;
     }
 
     /**
@@ -214,10 +259,34 @@ public XMLCellContent(final LockedSupplier<Document> documentSupplier) {
     @Deprecated
     @Override
     public Document getDocument() {
+        // parse under the same lock as the document supplier, so that concurrent callers share one document
+        m_lock.lock();
+        try {
+            return getDocumentLocked();
+        } finally {
+            m_lock.unlock();
+        }
+    }
+
+    /** Returns the (cached or newly parsed) document, the caller holds {@link #m_lock}. */
+    private Document getDocumentLocked() {
+        if (m_compressedXML != null) {
+            XMLDocumentCache cache = XMLDocumentCache.getInstance();
+            Document doc = cache.get(m_lock);
+            if (doc == null) {
+                try {
+                    doc = parse(new InputStreamReader(openStream(), StandardCharsets.UTF_8));
+                    cache.put(m_lock, doc, m_byteLength);
+                } catch (Exception ex) {
+                    LOGGER.error("Error while parsing XML in XML Cell", ex);
+                }
+            }
+            return doc;
+        }
         Document doc = m_content.get();
         if (doc == null) {
             try {
-                doc = parse(m_xmlString);
+                doc = parse(new StringReader(m_xmlString));
                 m_content = new SoftReference<Document>(doc);
             } catch (Exception ex) {
                 LOGGER.error("Error while parsing XML in XML Cell", ex);
@@ -232,9 +301,83 @@ public Document getDocument() {
      * @return The XML Document as a string.
      */
     String getStringValue() {
+        if (m_compressedXML != null) {
+            return new String(decompress(m_compressedXML, m_byteLength), StandardCharsets.UTF_8);
+        }
         return m_xmlString;
     }
 
+    /**
+     * Returns the length of the XML, which is the length of the string or, in compact storage, the number of UTF-8
+     * bytes. Other than {@link #getStringValue()} this doesn't require decompressing the content.
+     *
+     * @return the length of the XML
+     */
+    int getLength() {
+        return m_compressedXML != null ? m_byteLength : m_xmlString.length();
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @since 4.3
+     */
+    @Override
+    public InputStream openStream() {
+        if (m_compressedXML != null) {
+            return new InflaterInputStream(new ByteArrayInputStream(m_compressedXML));
+        }
+        return new ByteArrayInputStream(m_xmlString.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @since 4.3
+     */
+    @Override
+    public Reader openReader() {
+        if (m_compressedXML != null) {
+            return new InputStreamReader(openStream(), StandardCharsets.UTF_8);
+        }
+        return new StringReader(m_xmlString);
+    }
+
+    private static byte[] compress(final byte[] bytes) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(bytes);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length / 4 + 16);
+            byte[] buffer = new byte[8192];
+            while (!deflater.finished()) {
+                int count = deflater.deflate(buffer);
+                out.write(buffer, 0, count);
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static byte[] decompress(final byte[] compressed, final int length) {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(compressed);
+            byte[] result = new byte[length];
+            int offset = 0;
+            while (offset < length && !inflater.finished()) {
+                offset += inflater.inflate(result, offset, length - offset);
+            }
+            return result;
+        } catch (DataFormatException ex) {
+            // can't happen as data was compressed by this class
+            throw new IllegalStateException("Corrupt compressed XML: " + ex.getMessage(), ex);
+        } finally {
+            inflater.end();
+        }
+    }
+
     private static String serialize(final Document doc) throws IOException {
         ByteArrayOutputStream os = new ByteArrayOutputStream();
 
@@ -258,8 +401,10 @@ public LockedSupplier<Document> getDocumentSupplier() {
     }
 
     @SuppressWarnings("deprecation")
-    private static Document parse(final String xmlString) throws IOException, ParserConfigurationException {
-        return XMLCellReaderFactory.createXMLCellReader(new StringReader(xmlString)).readXML().getDocument();
+    private static Document parse(final Reader reader) throws IOException, ParserConfigurationException {
+        try (Reader r = reader) {
+            return XMLCellReaderFactory.createXMLCellReader(r).readXML().getDocument();
+        }
     }
 
     @SuppressWarnings("deprecation")
@@ -303,6 +448,12 @@ public int hashCode() {
      */
     @Override
     public LockedSupplier<Document> getDocumentSupplier() {
-        return new LockedSupplier<Document>(getDocument(), m_lock);
+        // the lock is held while the document is looked up (and possibly parsed) and then passed on to the supplier
+        m_lock.lock();
+        try {
+            return new LockedSupplier<Document>(getDocumentLocked(), m_lock);
+        } finally {
+            m_lock.unlock();
+        }
     }
 }
@@ -159,7 +159,7 @@ public static DataCell create(final Document dom) {
             throw new NullPointerException("dom must not be null");
         }
         XMLCellContent content = new XMLCellContent(dom);
-        if (content.getStringValue().length() >= MIN_BLOB_SIZE_IN_BYTES) {
+        if (content.getLength() >= MIN_BLOB_SIZE_IN_BYTES) {
             return new XMLBlobCell(content);
         } else {
             return new XMLCell(content);
@@ -189,7 +189,7 @@ public static DataCell create(final InputStream is) throws IOException,
             throw new NullPointerException("InputStream must not be null");
         }
         XMLCellContent content = new XMLCellContent(is);
-        if (content.getStringValue().length() >= MIN_BLOB_SIZE_IN_BYTES) {
+        if (content.getLength() >= MIN_BLOB_SIZE_IN_BYTES) {
             return new XMLBlobCell(content);
         } else {
             return new XMLCell(content);
@@ -215,7 +215,7 @@ public static DataCell create(final XMLValue<Document> xml) {
     		return (DataCell)xml;
     	} else {
     		XMLCellContent content = new XMLCellContent(xml.getDocumentSupplier());
-            if (content.getStringValue().length() >= MIN_BLOB_SIZE_IN_BYTES) {
+            if (content.getLength() >= MIN_BLOB_SIZE_IN_BYTES) {
                 return new XMLBlobCell(content);
             } else {
                 return new XMLCell(content);
@@ -0,0 +1,159 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ------------------------------------------------------------------------
+ *
+ */
+package org.knime.core.data.xml;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.knime.core.data.util.memory.MemoryAlert;
+import org.knime.core.data.util.memory.MemoryAlertListener;
+import org.knime.core.data.util.memory.MemoryAlertSystem;
+import org.knime.core.node.KNIMEConstants;
+import org.knime.core.node.NodeLogger;
+import org.knime.core.node.util.ConvenienceMethods;
+import org.w3c.dom.Document;
+
+/**
+ * Bounded cache of parsed DOMs shared by all {@link XMLCellContent} instances that use the compact storage. The bound
+ * is the summed size of the XML sources of the cached documents (see
+ * {@link KNIMEConstants#PROPERTY_XML_DOM_CACHE_SIZE}); least recently used documents are evicted first. The cache is
+ * cleared entirely on a low memory event.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+final class XMLDocumentCache {
+
+    private static final NodeLogger LOGGER = NodeLogger.getLogger(XMLDocumentCache.class);
+
+    /** Default bound of the cache in bytes of XML source, 64MB. */
+    static final long DEF_MAX_SIZE_IN_BYTES = 64L * 1024 * 1024;
+
+    private static final XMLDocumentCache INSTANCE = new XMLDocumentCache(
+        ConvenienceMethods.readSizeSystemProperty(KNIMEConstants.PROPERTY_XML_DOM_CACHE_SIZE, DEF_MAX_SIZE_IN_BYTES));
+
+    static {
+        MemoryAlertSystem.getInstance().addListener(new MemoryAlertListener() {
+            @Override
+            protected boolean memoryAlert(final MemoryAlert alert) {
+                LOGGER.debug("Clearing XML document cache due to low memory event");
+                INSTANCE.clear();
+                return false;
+            }
+        });
+    }
+
+    private final long m_maxSize;
+
+    /** Access ordered map from cache key to entry, guarded by this. */
+    private final LinkedHashMap<Object, Entry> m_map = new LinkedHashMap<Object, Entry>(16, 0.75f, true);
+
+    private long m_size;
+
+    XMLDocumentCache(final long maxSize) {
+        m_maxSize = maxSize;
+    }
+
+    /** @return the shared instance. */
+    static XMLDocumentCache getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * @param key the key as passed to {@link #put(Object, Document, long)}, compared by identity
+     * @return the cached document or <code>null</code> if not cached (anymore)
+     */
+    synchronized Document get(final Object key) {
+        Entry e = m_map.get(key);
+        return e == null ? null : e.m_doc;
+    }
+
+    /**
+     * Adds a document to the cache, possibly evicting least recently used documents. Documents larger than the
+     * cache are not cached.
+     *
+     * @param key the key, usually an object private to the owner of the document (must not override
+     *            {@link Object#equals(Object)})
+     * @param doc the parsed document
+     * @param size the size of the XML source
+     */
+    synchronized void put(final Object key, final Document doc, final long size) {
+        if (size > m_maxSize) {
+            return;
+        }
+        Entry old = m_map.put(key, new Entry(doc, size));
+        if (old != null) {
+            m_size -= old.m_size;
+        }
+        m_size += size;
+        for (Iterator<Map.Entry<Object, Entry>> it = m_map.entrySet().iterator(); it.hasNext() && m_size > m_maxSize;) {
+            Entry evicted = it.next().getValue();
+            m_size -= evicted.m_size;
+            it.remove();
+        }
+    }
+
+    /** Removes all documents. */
+    synchronized void clear() {
+        m_map.clear();
+        m_size = 0L;
+    }
+
+    /** @return the summed source size of all cached documents. */
+    synchronized long getSize() {
+        return m_size;
+    }
+
+    private static final class Entry {
+        private final Document m_doc;
+        private final long m_size;
+
+        Entry(final Document doc, final long size) {
+            m_doc = doc;
+            m_size = size;
+        }
+    }
+}
@@ -0,0 +1,156 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ------------------------------------------------------------------------
+ *
+ */
+package org.knime.core.data.xml;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.parsers.SAXParserFactory;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.knime.core.node.KNIMEConstants;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+import org.xml.sax.helpers.DefaultHandler;
+
+/**
+ * Streaming access to the serialized XML of a cell, which doesn't require building a DOM. This is the preferred way
+ * of reading large XML and PMML cells in particular if their content is kept in compact storage (see
+ * {@link KNIMEConstants#PROPERTY_XML_COMPACT_STORAGE}).
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ * @since 4.3
+ */
+public interface XMLStreamAccess {
+
+    /**
+     * Opens a new stream on the UTF-8 encoded XML. The caller is responsible for closing it.
+     *
+     * @return a new stream
+     * @throws IOException if the stream can't be opened
+     */
+    InputStream openStream() throws IOException;
+
+    /**
+     * Opens a new reader on the XML. The caller is responsible for closing it.
+     *
+     * @return a new reader
+     * @throws IOException if the reader can't be opened
+     */
+    Reader openReader() throws IOException;
+
+    /**
+     * Parses the XML with a SAX parser, passing all events to the argument handler.
+     *
+     * @param handler the handler
+     * @throws IOException if reading fails
+     * @throws SAXException if parsing fails or the handler throws an exception
+     * @throws ParserConfigurationException if the SAX parser can't be created
+     */
+    default void parse(final DefaultHandler handler) throws IOException, SAXException, ParserConfigurationException {
+        SAXParserFactory factory = SAXParserFactory.newInstance();
+        factory.setNamespaceAware(true);
+        XMLReader xmlReader = factory.newSAXParser().getXMLReader();
+        xmlReader.setContentHandler(handler);
+        xmlReader.setErrorHandler(handler);
+        xmlReader.setDTDHandler(handler);
+        xmlReader.setEntityResolver(handler);
+        if (Boolean.getBoolean(KNIMEConstants.PROPERTY_XML_DISABLE_EXT_ENTITIES)) { // see AP-6752
+            xmlReader.setFeature("http://xml.org/sax/features/external-general-entities", false);
+            xmlReader.setFeature("http://xml.org/sax/features/external-parameter-entities", false);
+        }
+        try (Reader reader = openReader()) {
+            xmlReader.parse(new InputSource(reader));
+        }
+    }
+
+    /**
+     * Creates a StAX reader on the XML and passes it to the argument function. The reader is closed afterwards.
+     *
+     * @param function the function consuming the reader
+     * @param <T> the result type of the function
+     * @return the result of the function
+     * @throws IOException if reading fails
+     * @throws XMLStreamException if parsing fails or the function throws an exception
+     */
+    default <T> T readXMLStream(final XMLStreamReaderFunction<T> function) throws IOException, XMLStreamException {
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.IS_COALESCING, Boolean.TRUE);
+        factory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, Boolean.TRUE);
+        if (Boolean.getBoolean(KNIMEConstants.PROPERTY_XML_DISABLE_EXT_ENTITIES)) { // see AP-6752
+            factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, Boolean.FALSE);
+        }
+        try (Reader in = openReader()) {
+            XMLStreamReader reader = factory.createXMLStreamReader(in);
+            try {
+                return function.apply(reader);
+            } finally {
+                reader.close();
+            }
+        }
+    }
+
+    /**
+     * Function consuming a {@link XMLStreamReader}, see {@link XMLStreamAccess#readXMLStream(XMLStreamReaderFunction)}.
+     *
+     * @param <T> the result type
+     */
+    @FunctionalInterface
+    interface XMLStreamReaderFunction<T> {
+
+        /**
+         * @param reader the reader positioned at the start of the document
+         * @return the result
+         * @throws XMLStreamException if reading fails
+         */
+        T apply(XMLStreamReader reader) throws XMLStreamException;
+    }
+}
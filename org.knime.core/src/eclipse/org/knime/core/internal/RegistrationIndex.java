@@ -0,0 +1,269 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ------------------------------------------------------------------------
+ *
+ */
+package org.knime.core.internal;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TimerTask;
+
+import org.knime.core.node.KNIMEConstants;
+import org.knime.core.node.NodeLogger;
+import org.knime.core.util.EclipseUtil;
+import org.knime.core.util.KNIMETimer;
+import org.osgi.framework.Bundle;
+import org.osgi.framework.BundleContext;
+import org.osgi.framework.FrameworkUtil;
+
+/**
+ * Persistent cache for information derived from extension points that is expensive to compute because it requires
+ * loading classes and activating the contributing plug-ins (e.g. the node factories provided by a node set factory).
+ * Entries are string lists grouped into sections and stored in the KNIME home directory. The index is stamped with
+ * the symbolic names, versions and modification times of all installed bundles and discarded as a whole as soon as
+ * the installation changes. It is not used when running from the SDK (bundles change without a new version) or if
+ * disabled via {@link KNIMEConstants#PROPERTY_DISABLE_REGISTRATION_INDEX}.
+ *
+ * <p>
+ * Clients look up entries first and, on a miss, compute the information the expensive way, {@link #put(String,
+ * String, List) put} it into the index and eventually {@link #save()} the index.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ * @since 4.3
+ * @noreference This class is not intended to be referenced by clients.
+ */
+public final class RegistrationIndex {
+
+    private static final NodeLogger LOGGER = NodeLogger.getLogger(RegistrationIndex.class);
+
+    /** Name of the index file in the KNIME home directory. */
+    static final String FILE_NAME = "registration-index.bin";
+
+    private static final int MAGIC = 0x4B4E5249; // "KNRI"
+
+    private static final byte VERSION = 1;
+
+    /** Delay in ms of {@link #scheduleSave()}. */
+    private static final long SAVE_DELAY = 5000;
+
+    private static RegistrationIndex instance;
+
+    /** The index file, <code>null</code> if the index is not used. */
+    private final File m_file;
+
+    private final long m_stamp;
+
+    private final Map<String, Map<String, List<String>>> m_sections = new HashMap<>();
+
+    private boolean m_isDirty;
+
+    private boolean m_isSaveScheduled;
+
+    private RegistrationIndex(final File file, final long stamp) {
+        m_file = file;
+        m_stamp = stamp;
+    }
+
+    /**
+     * @return the index of this installation, loaded from disc on first access
+     */
+    public static synchronized RegistrationIndex getInstance() {
+        if (instance == null) {
+            instance = createInstance();
+        }
+        return instance;
+    }
+
+    private static RegistrationIndex createInstance() {
+        Bundle myself = FrameworkUtil.getBundle(RegistrationIndex.class);
+        BundleContext context = myself == null ? null : myself.getBundleContext();
+        if (context == null || EclipseUtil.isRunFromSDK()
+            || Boolean.getBoolean(KNIMEConstants.PROPERTY_DISABLE_REGISTRATION_INDEX)) {
+            return new RegistrationIndex(null, 0L);
+        }
+        long stamp = 17;
+        for (Bundle b : context.getBundles()) {
+            stamp = 31 * stamp + String.valueOf(b.getSymbolicName()).hashCode();
+            stamp = 31 * stamp + b.getVersion().hashCode();
+            stamp = 31 * stamp + b.getLastModified();
+        }
+        RegistrationIndex index = new RegistrationIndex(new File(KNIMEConstants.getKNIMEHomeDir(), FILE_NAME), stamp);
+        index.load();
+        return index;
+    }
+
+    /**
+     * Returns the entry with the given key.
+     *
+     * @param section the section, usually the id of the extension point
+     * @param key the key within the section
+     * @return the entry or an empty optional if the index does not (or no longer) contain it
+     */
+    public synchronized Optional<List<String>> get(final String section, final String key) {
+        Map<String, List<String>> entries = m_sections.get(section);
+        return entries == null ? Optional.empty() : Optional.ofNullable(entries.get(key));
+    }
+
+    /**
+     * Adds or replaces an entry. The change is only persisted by {@link #save()}.
+     *
+     * @param section the section, usually the id of the extension point
+     * @param key the key within the section
+     * @param values the values to store for the key
+     */
+    public synchronized void put(final String section, final String key, final List<String> values) {
+        if (m_file == null) {
+            return;
+        }
+        List<String> copy = Collections.unmodifiableList(new ArrayList<>(values));
+        List<String> old = m_sections.computeIfAbsent(section, s -> new HashMap<>()).put(key, copy);
+        m_isDirty |= !copy.equals(old);
+    }
+
+    /**
+     * Writes the index if it has been changed since it was loaded or last saved. Failures are only logged since the
+     * index is only a cache.
+     */
+    public synchronized void save() {
+        if (m_file == null || !m_isDirty) {
+            return;
+        }
+        Path target = m_file.toPath();
+        Path tmp = null;
+        try {
+            // write to temporary file and move it, other processes of the same installation may read concurrently
+            tmp = Files.createTempFile(target.getParent(), FILE_NAME, ".tmp");
+            try (OutputStream os = Files.newOutputStream(tmp); DataOutputStream out = new DataOutputStream(os)) {
+                out.writeInt(MAGIC);
+                out.writeByte(VERSION);
+                out.writeLong(m_stamp);
+                out.writeInt(m_sections.size());
+                for (Map.Entry<String, Map<String, List<String>>> section : m_sections.entrySet()) {
+                    out.writeUTF(section.getKey());
+                    out.writeInt(section.getValue().size());
+                    for (Map.Entry<String, List<String>> entry : section.getValue().entrySet()) {
+                        out.writeUTF(entry.getKey());
+                        out.writeInt(entry.getValue().size());
+                        for (String value : entry.getValue()) {
+                            out.writeUTF(value);
+                        }
+                    }
+                }
+            }
+            Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            m_isDirty = false;
+        } catch (IOException | UnsupportedOperationException ex) {
+            LOGGER.debug("Unable to write registration index to \"" + target + "\": " + ex.getMessage(), ex);
+            if (tmp != null) {
+                tmp.toFile().delete();
+            }
+        }
+    }
+
+    /**
+     * Schedules a {@link #save()} in a few seconds (unless one is already scheduled). Used by clients that add many
+     * entries one by one over time, e.g. one per created node factory.
+     */
+    public synchronized void scheduleSave() {
+        if (m_file == null || !m_isDirty || m_isSaveScheduled) {
+            return;
+        }
+        m_isSaveScheduled = true;
+        KNIMETimer.getInstance().schedule(new TimerTask() {
+            @Override
+            public void run() {
+                synchronized (RegistrationIndex.this) {
+                    m_isSaveScheduled = false;
+                    save();
+                }
+            }
+        }, SAVE_DELAY);
+    }
+
+    private void load() {
+        if (!m_file.isFile()) {
+            return;
+        }
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(Files.readAllBytes(m_file.toPath())))) {
+            if (in.readInt() != MAGIC || in.readByte() != VERSION) {
+                LOGGER.debug("Ignoring registration index \"" + m_file + "\" of unknown format");
+                return;
+            }
+            if (in.readLong() != m_stamp) {
+                LOGGER.debug("Ignoring registration index \"" + m_file + "\", the installation has changed");
+                return;
+            }
+            Map<String, Map<String, List<String>>> sections = new HashMap<>();
+            for (int s = in.readInt(); s > 0; s--) {
+                Map<String, List<String>> entries = new HashMap<>();
+                sections.put(in.readUTF(), entries);
+                for (int e = in.readInt(); e > 0; e--) {
+                    String key = in.readUTF();
+                    int count = in.readInt();
+                    List<String> values = new ArrayList<>(count);
+                    for (int v = 0; v < count; v++) {
+                        values.add(in.readUTF());
+                    }
+                    entries.put(key, Collections.unmodifiableList(values));
+                }
+            }
+            m_sections.putAll(sections);
+        } catch (IOException ex) {
+            LOGGER.debug("Unable to read registration index \"" + m_file + "\": " + ex.getMessage(), ex);
+        }
+    }
+}
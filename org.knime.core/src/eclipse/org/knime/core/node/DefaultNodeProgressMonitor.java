@@ -52,6 +52,8 @@
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Supplier;
 
 import org.apache.commons.lang3.StringUtils;
@@ -66,8 +68,11 @@
  * <code>null</code> if not available or set wrong (progress value out of range). Furthermore, it holds a flag which
  * indicates that the task during execution was interrupted.
  * <p>
- * This progress monitor uses a static timer task looking every 250 milliseconds if progress information has changed.
- * The <code>ProgressEvent</code> is fired if either the value or message has changed only.
+ * This progress monitor uses a static timer task looking every 250 milliseconds (see
+ * {@link KNIMEConstants#PROPERTY_PROGRESS_UPDATE_INTERVAL}) if progress information has changed. The
+ * <code>ProgressEvent</code> is fired if either the value or message has changed only. Progress and message are kept
+ * in an atomically replaced snapshot together with a dirty flag, so setting the progress doesn't acquire any lock and
+ * many updates between two timer runs are coalesced into a single event.
  *
  * @author Thomas Gabriel, University of Konstanz
  */
@@ -77,23 +82,52 @@ public class DefaultNodeProgressMonitor implements NodeProgressMonitor {
 
     private static final Supplier<String> NULL_SUPPLIER = () -> null;
 
-    /** The cancel requested flag. */
-    private boolean m_cancelExecute;
+    /**
+     * Immutable snapshot of progress value and message. Updates replace the whole snapshot atomically so that setters
+     * don't need to lock, which matters for nodes that report progress for each row.
+     */
+    private static final class ProgressState {
+        /** Progress of the execution between 0 and 1, or null if not available. */
+        private final Double m_progress;
 
-    /** Progress of the execution between 0 and 1, or null if not available. */
-    private Double m_progress;
+        /** Lazy setter of new message - generation may be skipped if new messages come in faster than processed. */
+        private final Supplier<String> m_messageSupplier;
 
-    /** Lazy setter of new message - generation may be skipped if new messages come in faster than processed. */
-    private Supplier<String> m_messageSupplier;
+        /** Lazy setter of new append message - used by SubNodeProgressMonitor. */
+        private final Supplier<String> m_appendSupplier;
 
-    /** Lazy setter of new append message - used by SubNodeProgressMonitor. */
-    private Supplier<String> m_appendSupplier;
+        ProgressState(final Double progress, final Supplier<String> messageSupplier,
+            final Supplier<String> appendSupplier) {
+            m_progress = progress;
+            m_messageSupplier = messageSupplier;
+            m_appendSupplier = appendSupplier;
+        }
+
+        /** Returns a copy with the given progress, unchanged if the value is out of range. */
+        ProgressState withProgress(final double progress) {
+            if (progress >= 0.0 && progress <= 1.0) {
+                return new ProgressState(progress, m_messageSupplier, m_appendSupplier);
+            }
+            return this;
+        }
+    }
+
+    private static final ProgressState EMPTY_STATE = new ProgressState(null, NULL_SUPPLIER, NULL_SUPPLIER);
+
+    /** The cancel requested flag. */
+    private volatile boolean m_cancelExecute;
+
+    /** The current progress and message. */
+    private final AtomicReference<ProgressState> m_state = new AtomicReference<>(EMPTY_STATE);
 
     /** A set of progress listeners. */
     private final CopyOnWriteArrayList<NodeProgressListener> m_listeners;
 
-    /** Timer period looking for changed progress information. */
-    private static final int TIMER_PERIOD = KNIMEConstants.MIN_GUI_REFRESH_INTERVAL;
+    /**
+     * Timer period looking for changed progress information, i.e. the maximum rate at which progress events are
+     * published. Can be changed with the {@link KNIMEConstants#PROPERTY_PROGRESS_UPDATE_INTERVAL} property.
+     */
+    private static final int TIMER_PERIOD = readTimerPeriod();
 
     /**
      * Keeps a static list of these progress monitors if they are active. The timer task iterates over this list and
@@ -101,8 +135,8 @@ public class DefaultNodeProgressMonitor implements NodeProgressMonitor {
      */
     private static final List<WeakReference<DefaultNodeProgressMonitor>> PROGMONS = new CopyOnWriteArrayList<>();
 
-    /** If progress has changed. */
-    private boolean m_changed = false;
+    /** If progress has changed (the dirty flag, cleared by the timer task when it publishes the change). */
+    private final AtomicBoolean m_changed = new AtomicBoolean();
 
     private static final ScheduledExecutorService NOTIFICATION_SERVICE =
             Executors.newSingleThreadScheduledExecutor(r -> new Thread(r, "KNIME Progress Updater"));
@@ -120,7 +154,7 @@ public void run() {
 
                     if (p == null) {
                         deadList.add(next);
-                    } else if (p.m_changed) {
+                    } else if (p.m_changed.get()) {
                         try {
                             p.fireProgressChanged(); // something has changed
                         } catch (Exception e) {
@@ -136,6 +170,23 @@ public void run() {
         }, TIMER_PERIOD, TIMER_PERIOD, TimeUnit.MILLISECONDS);
     }
 
+    private static int readTimerPeriod() {
+        final String property = System.getProperty(KNIMEConstants.PROPERTY_PROGRESS_UPDATE_INTERVAL);
+        if (property != null) {
+            try {
+                final int period = Integer.parseInt(property.trim());
+                if (period > 0) {
+                    return period;
+                }
+                LOGGER.warn("Progress update interval must be positive: " + period + ", using default");
+            } catch (NumberFormatException e) {
+                LOGGER.warn("Unable to parse property " + KNIMEConstants.PROPERTY_PROGRESS_UPDATE_INTERVAL
+                    + ", using default", e);
+            }
+        }
+        return KNIMEConstants.MIN_GUI_REFRESH_INTERVAL;
+    }
+
     /**
      * Creates a new progress monitor with an empty set of listeners.
      *
@@ -144,8 +195,6 @@ public void run() {
     public DefaultNodeProgressMonitor() {
         m_listeners = new CopyOnWriteArrayList<NodeProgressListener>();
         m_cancelExecute = false;
-        m_messageSupplier = NULL_SUPPLIER;
-        m_appendSupplier = NULL_SUPPLIER;
         // add this progress monitor to the list of active ones
         PROGMONS.add(new WeakReference<DefaultNodeProgressMonitor>(this));
     }
@@ -166,14 +215,12 @@ public DefaultNodeProgressMonitor(final NodeProgressListener l) {
      * NOTE: No notification is send to listeners! {@inheritDoc}
      */
     @Override
-    public synchronized void reset() {
-        if ((m_progress != null) || (m_messageSupplier.get() != null)) {
-            m_changed = true;
+    public void reset() {
+        final ProgressState old = m_state.getAndSet(EMPTY_STATE);
+        if ((old.m_progress != null) || (old.m_messageSupplier.get() != null)) {
+            m_changed.set(true);
         }
         m_cancelExecute = false;
-        m_progress = null;
-        m_appendSupplier = NULL_SUPPLIER;
-        m_messageSupplier = NULL_SUPPLIER;
     }
 
     /**
@@ -213,19 +260,21 @@ public void setExecuteCanceled() {
      * @param message The text message shown in the progress monitor.
      */
     @Override
-    public synchronized void setProgress(final double progress, final String message) {
-        setProgressIntern(progress);
-        setMessageIntern(() -> message, NULL_SUPPLIER);
-        m_changed = true;
+    public void setProgress(final double progress, final String message) {
+        final Supplier<String> messageSupplier = () -> message;
+        m_state.updateAndGet(s -> new ProgressState(s.withProgress(progress).m_progress, messageSupplier,
+            NULL_SUPPLIER));
+        m_changed.set(true);
     }
 
     /** {@inheritDoc}
      * @since 3.2 */
     @Override
-    public synchronized void setProgress(final double progress, final Supplier<String> message) {
-        setProgressIntern(progress);
-        m_messageSupplier = CheckUtils.checkArgumentNotNull(message);
-        m_changed = true;
+    public void setProgress(final double progress, final Supplier<String> message) {
+        CheckUtils.checkArgumentNotNull(message);
+        m_state.updateAndGet(s -> new ProgressState(s.withProgress(progress).m_progress, message,
+            s.m_appendSupplier));
+        m_changed.set(true);
     }
 
     /**
@@ -234,24 +283,26 @@ public synchronized void setProgress(final double progress, final Supplier<Strin
      * @param progress The value between 0 and 1.
      */
     @Override
-    public synchronized void setProgress(final double progress) {
-        if (setProgressIntern(progress)) {
-            m_changed = true;
+    public void setProgress(final double progress) {
+        final ProgressState old = m_state.getAndUpdate(s -> s.withProgress(progress));
+        if (old.m_progress == null || old.m_progress.doubleValue() != progress) {
+            m_changed.set(true);
         }
     }
 
     /** {@inheritDoc} */
     @Override
-    public synchronized void setMessage(final String message) {
+    public void setMessage(final String message) {
         setProgress(message);
     }
 
     /** {@inheritDoc}
      * @since 3.2 */
     @Override
-    public synchronized void setMessage(final Supplier<String> message) {
-        m_messageSupplier = CheckUtils.checkArgumentNotNull(message);
-        m_changed = true;
+    public void setMessage(final Supplier<String> message) {
+        CheckUtils.checkArgumentNotNull(message);
+        m_state.updateAndGet(s -> new ProgressState(s.m_progress, message, s.m_appendSupplier));
+        m_changed.set(true);
     }
 
     /**
@@ -260,49 +311,31 @@ public synchronized void setMessage(final Supplier<String> message) {
      * @param message The text message shown in the progress monitor.
      */
     @Override
-    public synchronized void setProgress(final String message) {
-        setMessageIntern(() -> message, NULL_SUPPLIER);
-        m_changed = true;
-    }
-
-    private synchronized void appendMessage(final Supplier<String> appendSupplier) {
-        setMessageIntern(m_messageSupplier, appendSupplier);
-        m_changed = true;
-    }
-
-    /**
-     * Sets progress internally, returns <code>true</code> if old value has changed.
-     */
-    private boolean setProgressIntern(final double progress) {
-        final Double oldProgress = m_progress;
-        if (progress >= 0.0 && progress <= 1.0) {
-            m_progress = progress;
-        }
-        boolean changed = oldProgress == null || oldProgress.doubleValue() != progress;
-        return changed;
+    public void setProgress(final String message) {
+        final Supplier<String> messageSupplier = () -> message;
+        m_state.updateAndGet(s -> new ProgressState(s.m_progress, messageSupplier, NULL_SUPPLIER));
+        m_changed.set(true);
     }
 
-    /** Sets message internally. */
-    private void setMessageIntern(final Supplier<String> messageSupplier, final Supplier<String> appendSupplier) {
-        assert Thread.holdsLock(this);
-        m_messageSupplier = messageSupplier;
-        m_appendSupplier = appendSupplier;
+    private void appendMessage(final Supplier<String> appendSupplier) {
+        m_state.updateAndGet(s -> new ProgressState(s.m_progress, s.m_messageSupplier, appendSupplier));
+        m_changed.set(true);
     }
 
     /**
      * @return The current progress value, or <code>null</code> if not yet set.
      */
     @Override
-    public synchronized Double getProgress() {
-        return m_progress;
+    public Double getProgress() {
+        return m_state.get().m_progress;
     }
 
     /**
      * @return The current progress message.
      */
     @Override
-    public synchronized String getMessage() {
-        return m_messageSupplier.get();
+    public String getMessage() {
+        return m_state.get().m_messageSupplier.get();
     }
 
     /**
@@ -334,8 +367,11 @@ public void removeAllProgressListener() {
     }
 
     private void fireProgressChanged() {
-        m_changed = false;
-        NodeProgress pe = new NodeProgress(getProgress(), createMessage(m_messageSupplier, m_appendSupplier));
+        // clear the flag before reading the state so that concurrent updates are published in the next round
+        m_changed.set(false);
+        final ProgressState state = m_state.get();
+        NodeProgress pe =
+            new NodeProgress(state.m_progress, createMessage(state.m_messageSupplier, state.m_appendSupplier));
         for (NodeProgressListener l : m_listeners) {
             try {
                 // we can't provide a useful node id here
@@ -113,7 +113,7 @@ protected NodeDescription createNodeDescription() {
         return new NodeDescription27Proxy(doc);
     }
 
-    /** Calls {@link NodeFactory#createNodeDescription()}, which parses the corresponding xml file named after
+    /** Parses (right away) the corresponding xml file named after
      * this factory class (same package). If that fails it logs it to the NodeLogger and returns an empty
      * {@link NoDescriptionProxy}.
      * @return The result of that call.
@@ -121,7 +121,7 @@ protected NodeDescription createNodeDescription() {
      */
     protected NodeDescription parseNodeDescriptionFromFile() {
         try {
-            return super.createNodeDescription();
+            return NodeFactory.parseNodeDescription(getClass());
         } catch (Exception e) {
             NodeLogger.getLogger(getClass()).error(e);
             return new NoDescriptionProxy(getClass());
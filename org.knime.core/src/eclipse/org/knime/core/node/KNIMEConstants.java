@@ -263,6 +263,165 @@ public final class KNIMEConstants {
     // see AP-6752
     public static final String PROPERTY_XML_DISABLE_EXT_ENTITIES = "knime.xml.disable_external_entities";
 
+    /**
+     * Java property to enable the compact storage of XML and PMML cells. If set to <code>true</code> the content of
+     * larger cells is kept as compressed UTF-8 bytes and the DOM is only built on request and held in a bounded
+     * shared cache (see {@link #PROPERTY_XML_DOM_CACHE_SIZE}). Default is <code>false</code>.
+     *
+     * @since 4.3
+     */
+    public static final String PROPERTY_XML_COMPACT_STORAGE = "knime.xml.compact";
+
+    /**
+     * Java property to set the maximum size of the shared cache of parsed XML documents used by the compact storage
+     * of XML cells. The value is the summed size of the XML sources in bytes, optionally with a "k" or "m" suffix.
+     * Default is 64m.
+     *
+     * @since 4.3
+     */
+    public static final String PROPERTY_XML_DOM_CACHE_SIZE = "knime.xml.domcache.size";
+
+    /**
+     * Java property to enable the primitive array based list cells (e.g.
+     * {@link org.knime.core.data.collection.DoubleListCell}) when the
+     * {@link org.knime.core.data.collection.CollectionCellFactory} creates lists from cells that are all doubles,
+     * integers or longs. If not set to <code>true</code> such lists are created as ordinary list cells (the factory
+     * methods taking primitive arrays always create the primitive variants). Default is <code>false</code>.
+     *
+     * @since 4.3
+     */
+    public static final String PROPERTY_PRIMITIVE_LIST_CELLS = "knime.collection.primitivecells";
+
+    /**
+     * Java property to set the memory budget for the working memory reserved by executing nodes, as a fraction of the
+     * maximum heap size (e.g. 0.6). Nodes whose reservation doesn't fit into the remaining budget are delayed until
+     * other nodes have finished. A value of 0 disables the admission control. Default is the usage threshold of the
+     * {@link org.knime.core.data.util.memory.MemoryAlertSystem}.
+     *
+     * @see org.knime.core.data.util.memory.MemoryBudget
+     * @since 4.3
+     */
+    public static final String PROPERTY_MEMORY_BUDGET_FRACTION = "knime.memory.budget.fraction";
+
+    /**
+     * Java property to set the interval in milliseconds in which changes of a node's progress and progress message are
+     * published to listeners. Changes in between are coalesced. Default is {@link #MIN_GUI_REFRESH_INTERVAL}.
+     *
+     * @since 4.3
+     */
+    public static final String PROPERTY_PROGRESS_UPDATE_INTERVAL = "knime.progress.interval";
+
+    /**
+     * Java property to enable the asynchronous dispatching of node progress events (and of state events to
+     * {@link org.knime.core.node.workflow.AsyncNodeStateChangeListener}s). If set to <code>true</code> these events
+     * are delivered by a single dispatcher thread instead of the thread that caused them. Events of the same node and
+     * kind are delivered in order, but several of them may be coalesced into the latest one; events of different
+     * nodes (or progress vs. state events of the same node) may be delivered in a different order than they occurred.
+     * Default is <code>false</code>, i.e. all events are delivered synchronously.
+     *
+     * @since 4.3
+     */
+    public static final String PROPERTY_ASYNC_NODE_EVENTS = "knime.events.async";
+
+    /**
+     * Java property to store the blob cells of newly written tables in a few large segment files per table instead
+     * of one file per blob cell, which avoids the creation of millions of files for tables with many small blobs.
+     * Tables saved in this format cannot be read by KNIME versions prior 4.3. Default is <code>false</code>.
+     *
+     * @since 4.3
+     */
+    public static final String PROPERTY_PACKED_BLOBS = "knime.blobs.packed";
+
+    /**
+     * Java property to disable the multi-threaded zip engine used by {@link org.knime.core.util.FileUtil} when
+     * creating and extracting archive files (e.g. workflow export and import). If set to <code>false</code> archives
+     * are written and read sequentially by one thread. Default is <code>true</code>.
+     *
+     * @since 4.3
+     */
+    public static final String PROPERTY_PARALLEL_ZIP = "knime.zip.parallel";
+
+    /**
+     * Java property to enable the node execution cache: the outputs of nodes implementing
+     * {@link CacheableNodeModel} are stored in the given directory, keyed by a fingerprint of the node's settings and
+     * inputs, and restored instead of re-executing the node with identical settings and inputs. The directory is kept
+     * across sessions but used by only one KNIME instance at a time; other instances run without cache. Not set by
+     * default (cache disabled).
+     *
+     * @since 4.3
+     */
+    public static final String PROPERTY_EXECUTION_CACHE_DIR = "knime.execution.cache.dir";
+
+    /**
+     * Java property to set the maximum size of the node execution cache (see {@link #PROPERTY_EXECUTION_CACHE_DIR})
+     * in megabytes. Least recently used entries are deleted once the size is exceeded. Default is 10240.
+     *
+     * @since 4.3
+     */
+    public static final String PROPERTY_EXECUTION_CACHE_SIZE = "knime.execution.cache.size";
+
+    /**
+     * Java property to enable binary settings files: when saving a workflow, a compact binary copy of each
+     * settings.xml and workflow.knime is written next to it, which is read instead of the XML file when loading
+     * (unless the XML file has changed since). Value is true or false (default).
+     *
+     * @since 4.3
+     */
+    public static final String PROPERTY_BINARY_SETTINGS = "knime.settings.binary";
+
+    /**
+     * Java property to disable the registration index, which caches the results of scanning extension points
+     * (e.g. the node factories provided by node sets) across restarts of the same installation. Value is true or
+     * false (default).
+     *
+     * @since 4.3
+     */
+    public static final String PROPERTY_DISABLE_REGISTRATION_INDEX = "knime.registration.index.disabled";
+
+    /**
+     * Java property to set the maximum number of parsed PMML documents kept in memory, keyed by their content, so
+     * that PMML port objects with identical content are not parsed again when loaded. 0 disables the cache.
+     * Default is 10.
+     *
+     * @since 4.3
+     */
+    public static final String PROPERTY_PMML_CACHE_SIZE = "knime.pmml.cache.size";
+
+    /**
+     * Java property to set the maximum number of idle, loaded instances kept per workflow fragment (see
+     * {@link org.knime.core.node.workflow.capture.WorkflowFragment#borrowWorkflow()}) so that captured workflows
+     * executed repeatedly are not loaded again each time. Instances are disposed after five minutes of inactivity.
+     * 0 disables the pool. Default is 4.
+     *
+     * @since 4.3
+     */
+    public static final String PROPERTY_WORKFLOW_FRAGMENT_POOL_SIZE = "knime.workflow.fragment.pool.size";
+
+    /**
+     * Java property to keep the nodes of a loop body configured between loop iterations instead of resetting and
+     * re-configuring them each time. Only applied to loops whose body consists of plain nodes (no metanodes,
+     * components or nested scopes) without flow variable settings and whose loop start produced the same output specs
+     * in the last two iterations. If the loop start produces other specs in the new iteration, the body is reset and
+     * configured after all. Loop starts that don't reset their body anyway are not affected. Value is true or false
+     * (default).
+     * <p>
+     * Only enable this if the nodes in the loop bodies don't read flow variables in their configure method (e.g. via
+     * {@link NodeModel#peekFlowVariableString(String)}): their configuration is kept from an earlier iteration, so
+     * they don't see the variables of the current iteration until they execute.
+     *
+     * @since 4.3
+     */
+    public static final String PROPERTY_KEEP_LOOP_BODY_CONFIGURED = "knime.loop.keepbodyconfigured";
+
+    /**
+     * Java property to profile node executions, recording CPU time, allocated bytes, table rows and bytes written and
+     * read, buffer spills and workflow lock wait time per execution (see
+     * {@link org.knime.core.node.workflow.ExecutionProfiler}). Value is true or false (default).
+     *
+     * @since 4.3
+     */
+    public static final String PROPERTY_EXECUTION_PROFILER = "knime.profiler.enabled";
+
     /** For KNIME's R extension: Run the R process in debug mode and print debug messages to the logging facilities.
      * Value is true or false (default).
      * @since 3.2*/
@@ -320,6 +479,19 @@ public final class KNIMEConstants {
      * @since 2.8 */
     public static final String PROPERTY_DATABASE_CONCURRENCY = "knime.database.enable.concurrency";
 
+    /** Java property to switch on reading the next batch of database rows in a background thread while the
+     * previous batch is written into the table. If set to true, the fetch size of queries without an explicit
+     * fetch size (see {@link #PROPERTY_DATABASE_FETCHSIZE}) is also adapted to the number of columns. Default is
+     * false.
+     * @since 4.3 */
+    public static final String PROPERTY_DATABASE_PREFETCH = "knime.database.prefetch";
+
+    /** Java property to set the number of threads that insert rows into a database in parallel, each using its own
+     * connection. Default is 1, that is rows are written sequentially on the connection of the node. Not used by
+     * writers that fail on errors, since the rows are written in several transactions that can't be rolled back as one.
+     * @since 4.3 */
+    public static final String PROPERTY_DATABASE_WRITER_THREADS = "knime.database.writer.threads";
+
     /** @deprecated Use #PROPERTY_DATABASE_FETCHSIZE instead. */
     @Deprecated
     // obsolete as of v2.3
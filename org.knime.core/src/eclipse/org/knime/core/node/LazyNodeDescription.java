@@ -0,0 +1,372 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ------------------------------------------------------------------------
+ *
+ */
+package org.knime.core.node;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import org.apache.xmlbeans.XmlException;
+import org.knime.core.node.NodeFactory.NodeType;
+import org.knime.core.node.context.ports.ModifiablePortsConfiguration;
+import org.w3c.dom.Element;
+import org.xml.sax.SAXException;
+
+/**
+ * Node description that parses the XML file only when a field is requested that is not part of the {@link Summary},
+ * which is extracted up-front with a streaming parser (or taken from the registration index). The summary holds the
+ * fields needed to create and execute a node (name, icon, type, port names), so that headless applications usually
+ * never parse the full description.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+final class LazyNodeDescription extends NodeDescription {
+
+    /** Parses the full node description. */
+    @FunctionalInterface
+    interface Parser {
+        /**
+         * @return the full node description
+         * @throws SAXException if the XML file is not well-formed
+         * @throws IOException if the XML file cannot be read
+         * @throws XmlException if the XML file is not valid
+         */
+        NodeDescription parse() throws SAXException, IOException, XmlException;
+    }
+
+    /**
+     * The fields of a node description that are available without parsing the full description.
+     */
+    static final class Summary {
+
+        private static final String FORMAT = "1";
+
+        /** Marker for a <code>null</code> value in {@link #toList()}. */
+        private static final String NULL = "\u0000";
+
+        private final String m_name;
+
+        private final String m_iconPath;
+
+        private final String m_type;
+
+        private final boolean m_deprecated;
+
+        private final Map<Integer, String> m_inportNames;
+
+        private final Map<Integer, String> m_outportNames;
+
+        /**
+         * @param name the name element, may be <code>null</code>
+         * @param iconPath the icon attribute, may be <code>null</code>
+         * @param type the type attribute, may be <code>null</code>
+         * @param deprecated the deprecated attribute
+         * @param inportNames the names of the input ports by index
+         * @param outportNames the names of the output ports by index
+         */
+        Summary(final String name, final String iconPath, final String type, final boolean deprecated,
+            final Map<Integer, String> inportNames, final Map<Integer, String> outportNames) {
+            m_name = name;
+            m_iconPath = iconPath;
+            m_type = type;
+            m_deprecated = deprecated;
+            m_inportNames = inportNames;
+            m_outportNames = outportNames;
+        }
+
+        /**
+         * @return this summary as list of strings, see {@link #fromList(List)}
+         */
+        List<String> toList() {
+            List<String> list = new ArrayList<>();
+            list.add(FORMAT);
+            list.add(encode(m_name));
+            list.add(encode(m_iconPath));
+            list.add(encode(m_type));
+            list.add(Boolean.toString(m_deprecated));
+            addPortNames(list, m_inportNames);
+            addPortNames(list, m_outportNames);
+            return list;
+        }
+
+        /**
+         * @param list a list created by {@link #toList()}
+         * @return the summary or <code>null</code> if the list is not a valid summary
+         */
+        static Summary fromList(final List<String> list) {
+            if (list.size() < 7 || !FORMAT.equals(list.get(0))) {
+                return null;
+            }
+            try {
+                Map<Integer, String> inportNames = new HashMap<>();
+                int next = readPortNames(list, 5, inportNames);
+                Map<Integer, String> outportNames = new HashMap<>();
+                readPortNames(list, next, outportNames);
+                return new Summary(decode(list.get(1)), decode(list.get(2)), decode(list.get(3)),
+                    Boolean.parseBoolean(list.get(4)), inportNames, outportNames);
+            } catch (NumberFormatException | IndexOutOfBoundsException ex) {
+                return null;
+            }
+        }
+
+        private static void addPortNames(final List<String> list, final Map<Integer, String> names) {
+            list.add(Integer.toString(names.size()));
+            for (Map.Entry<Integer, String> e : names.entrySet()) {
+                list.add(Integer.toString(e.getKey()));
+                list.add(encode(e.getValue()));
+            }
+        }
+
+        private static int readPortNames(final List<String> list, final int start, final Map<Integer, String> names) {
+            final int count = Integer.parseInt(list.get(start));
+            int pos = start + 1;
+            for (int i = 0; i < count; i++) {
+                names.put(Integer.parseInt(list.get(pos)), decode(list.get(pos + 1)));
+                pos += 2;
+            }
+            return pos;
+        }
+
+        private static String encode(final String s) {
+            return s == null ? NULL : s;
+        }
+
+        private static String decode(final String s) {
+            return NULL.equals(s) ? null : s;
+        }
+    }
+
+    @SuppressWarnings("rawtypes")
+    private final Class<? extends NodeFactory> m_factoryClass;
+
+    /** The summary, <code>null</code> if not available (the full description is then parsed on first access). */
+    private final Summary m_summary;
+
+    private final Parser m_parser;
+
+    private Consumer<NodeDescription> m_postProcessor;
+
+    /** Value passed to {@link #setIsDeprecated(boolean)}, <code>null</code> if not called. */
+    private Boolean m_deprecated;
+
+    private NodeDescription m_delegate;
+
+    /**
+     * @param factoryClass the factory class the description belongs to
+     * @param summary the summary or <code>null</code>
+     * @param parser parses the full description
+     */
+    LazyNodeDescription(@SuppressWarnings("rawtypes") final Class<? extends NodeFactory> factoryClass,
+        final Summary summary, final Parser parser) {
+        m_factoryClass = factoryClass;
+        m_summary = summary;
+        m_parser = parser;
+    }
+
+    /**
+     * Sets a callback that is invoked with the full description once it has been parsed.
+     *
+     * @param postProcessor the callback
+     */
+    synchronized void setPostProcessor(final Consumer<NodeDescription> postProcessor) {
+        m_postProcessor = postProcessor;
+        if (m_delegate != null) {
+            postProcessor.accept(m_delegate);
+        }
+    }
+
+    /** @return whether the full description has been parsed (for testing) */
+    synchronized boolean isParsed() {
+        return m_delegate != null;
+    }
+
+    /** @return the full description, parsed on first invocation */
+    synchronized NodeDescription getDelegate() {
+        if (m_delegate == null) {
+            NodeDescription delegate;
+            NodeLogger logger = NodeLogger.getLogger(m_factoryClass);
+            try {
+                delegate = m_parser.parse();
+            } catch (SAXException ex) {
+                logger.error("Broken XML file for node description of " + m_factoryClass.getName() + ": "
+                    + ex.getMessage(), ex);
+                delegate = new NoDescriptionProxy(m_factoryClass);
+            } catch (IOException ex) {
+                logger.error("I/O error while reading node description of " + m_factoryClass.getName() + ": "
+                    + ex.getMessage(), ex);
+                delegate = new NoDescriptionProxy(m_factoryClass);
+            } catch (XmlException ex) {
+                logger.error("Node description of " + m_factoryClass.getName()
+                    + " does not conform to used XML schema: " + ex.getMessage(), ex);
+                delegate = new NoDescriptionProxy(m_factoryClass);
+            }
+            if (m_deprecated != null) {
+                delegate.setIsDeprecated(m_deprecated);
+            }
+            if (m_postProcessor != null) {
+                m_postProcessor.accept(delegate);
+            }
+            m_delegate = delegate;
+        }
+        return m_delegate;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public String getIconPath() {
+        return m_summary != null ? m_summary.m_iconPath : getDelegate().getIconPath();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public String getInportDescription(final int index) {
+        return getDelegate().getInportDescription(index);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public String getInportName(final int index) {
+        return m_summary != null ? m_summary.m_inportNames.get(index) : getDelegate().getInportName(index);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public String getInteractiveViewName() {
+        return getDelegate().getInteractiveViewName();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public String getNodeName() {
+        if (m_summary == null || m_summary.m_name == null) {
+            return getDelegate().getNodeName();
+        }
+        String nodeName = m_summary.m_name;
+        if (isDeprecated() && !nodeName.matches("^.+\\s+\\(?[dD]eprecated\\)?$")) {
+            return nodeName + " (deprecated)";
+        } else {
+            return nodeName;
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public String getOutportDescription(final int index) {
+        return getDelegate().getOutportDescription(index);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public String getOutportName(final int index) {
+        return m_summary != null ? m_summary.m_outportNames.get(index) : getDelegate().getOutportName(index);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public NodeType getType() {
+        if (m_summary != null && m_summary.m_type != null) {
+            try {
+                return NodeType.valueOf(m_summary.m_type);
+            } catch (IllegalArgumentException ex) {
+                // let the full description report the problem
+            }
+        }
+        return getDelegate().getType();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public int getViewCount() {
+        return getDelegate().getViewCount();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public String getViewDescription(final int index) {
+        return getDelegate().getViewDescription(index);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public String getViewName(final int index) {
+        return getDelegate().getViewName(index);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Element getXMLDescription() {
+        return getDelegate().getXMLDescription();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    protected synchronized void setIsDeprecated(final boolean b) {
+        m_deprecated = b;
+        if (m_delegate != null) {
+            m_delegate.setIsDeprecated(b);
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public synchronized boolean isDeprecated() {
+        if (m_deprecated != null) {
+            return m_deprecated;
+        }
+        return m_summary != null ? m_summary.m_deprecated : getDelegate().isDeprecated();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    NodeDescription createUpdatedNodeDescription(final ModifiablePortsConfiguration portsConfiguration) {
+        NodeDescription delegate = getDelegate();
+        NodeDescription updated = delegate.createUpdatedNodeDescription(portsConfiguration);
+        return updated == delegate ? this : updated;
+    }
+}
@@ -1012,7 +1012,7 @@ public boolean execute(final PortObject[] rawInData, final ExecutionEnvironment
             try {
                 // INVOKE MODEL'S EXECUTE
                 // (warnings will now be processed "automatically" - we listen)
-                rawOutData = invokeFullyNodeModelExecute(exec, exEnv, newInData);
+                rawOutData = invokeNodeModelExecuteOrRestore(exec, exEnv, newInData);
             } catch (Throwable th) {
                 boolean isCanceled = th instanceof CanceledExecutionException;
                 isCanceled = isCanceled || th instanceof InterruptedException;
@@ -1218,6 +1218,30 @@ public PortObject[] invokeNodeModelExecute(final ExecutionContext exec, final Ex
         return ArrayUtils.remove(extendedOutData, 0);
     }
 
+    /** Restores the output from the {@link NodeExecutionCache} if enabled and the node has been executed with
+     * identical settings and input before, otherwise invokes
+     * {@link #invokeFullyNodeModelExecute(ExecutionContext, ExecutionEnvironment, PortObject[])} (and fills the
+     * cache). */
+    private PortObject[] invokeNodeModelExecuteOrRestore(final ExecutionContext exec,
+        final ExecutionEnvironment exEnv, final PortObject[] inData) throws Exception {
+        final NodeExecutionCache cache = NodeExecutionCache.getInstance();
+        final String fingerprint = cache == null || (exEnv != null && exEnv.reExecute()) ? null
+            : cache.createFingerprint(this, m_model, inData, exec);
+        if (fingerprint != null) {
+            PortObject[] cached = cache.restore(fingerprint, m_model, exec);
+            if (cached != null) {
+                LOGGER.debug("Restored output of " + getName() + " from execution cache");
+                m_model.setHasContent(true);
+                return cached;
+            }
+        }
+        PortObject[] rawOutData = invokeFullyNodeModelExecute(exec, exEnv, inData);
+        if (fingerprint != null) {
+            cache.store(fingerprint, m_model, rawOutData);
+        }
+        return rawOutData;
+    }
+
     /** Invokes package private method {@link NodeModel#executeModel(PortObject[], ExecutionEnvironment,
      * ExecutionContext)}. The array argument and result include the optional flow variable in- and output (all nodes
      * have at least one in- and one output).
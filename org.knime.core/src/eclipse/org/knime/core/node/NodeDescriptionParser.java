@@ -48,12 +48,22 @@
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
 
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 
 import org.apache.xmlbeans.XmlException;
+import org.knime.core.internal.RegistrationIndex;
 import org.w3c.dom.Document;
 import org.w3c.dom.DocumentType;
 import org.xml.sax.EntityResolver;
@@ -103,6 +113,26 @@ public InputSource resolveEntity(final String publicId, final String systemId) t
         }
     };
 
+    /** Section of the {@link RegistrationIndex} holding the summaries of node descriptions. */
+    private static final String INDEX_SECTION = "org.knime.core.NodeDescription";
+
+    /**
+     * Namespaces of node descriptions whose ports are described by indexed <tt>inPort</tt> and <tt>outPort</tt>
+     * elements, i.e. for which a {@link LazyNodeDescription.Summary} can be extracted.
+     */
+    private static final Set<String> SUMMARY_NAMESPACES = new HashSet<>(Arrays.asList("http://knime.org/node2012",
+        "http://knime.org/node/v2.8", "http://knime.org/node/v2.10", "http://knime.org/node/v2.12",
+        "http://knime.org/node/v3.1", "http://knime.org/node/v3.6", "http://knime.org/node/v4.1"));
+
+    private static final XMLInputFactory STAX_FACTORY = createStaxFactory();
+
+    private static XMLInputFactory createStaxFactory() {
+        XMLInputFactory fac = XMLInputFactory.newInstance();
+        fac.setProperty(XMLInputFactory.SUPPORT_DTD, Boolean.FALSE);
+        fac.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, Boolean.FALSE);
+        return fac;
+    }
+
     private final DocumentBuilder m_parser;
 
     /**
@@ -134,23 +164,12 @@ public NodeDescription parseDescription(
         @SuppressWarnings("rawtypes") final Class<? extends NodeFactory> factoryClass) throws SAXException,
         IOException, XmlException {
 
-        String descriptionFile = factoryClass.getSimpleName() + ".xml";
-        InputStream inStream = factoryClass.getResourceAsStream(descriptionFile);
+        InputStream inStream = openDescription(factoryClass);
         if (inStream == null) {
-            // could be a node factory hierarchy, check superclasses for node descriptions
-            Class<?> superClass = factoryClass.getSuperclass();
-            while ((inStream == null) && (superClass != null)) {
-                descriptionFile = superClass.getSimpleName() + ".xml";
-                inStream = superClass.getResourceAsStream(descriptionFile);
-                superClass = superClass.getSuperclass();
-            }
-
-            if (inStream == null) {
-                // OK, this is it, giving up
-                NodeLogger.getLogger(NodeDescriptionParser.class).coding(
-                    "No node description file found for " + factoryClass.getName());
-                return new NoDescriptionProxy(factoryClass);
-            }
+            // OK, this is it, giving up
+            NodeLogger.getLogger(NodeDescriptionParser.class).coding(
+                "No node description file found for " + factoryClass.getName());
+            return new NoDescriptionProxy(factoryClass);
         }
 
 
@@ -200,4 +219,112 @@ public NodeDescription parseDescription(
                 + namespaceUri);
         }
     }
+
+    /**
+     * Returns the node description for the given node factory class like {@link #parseDescription(Class)} but defers
+     * parsing the XML file until a field is requested that is not needed to create and execute nodes (see
+     * {@link LazyNodeDescription}). Problems with the XML file are reported when it is parsed.
+     *
+     * @param factoryClass the class of the factory for which the node description should be read.
+     * @return the node description
+     * @since 4.3
+     */
+    NodeDescription parseDescriptionLazily(
+        @SuppressWarnings("rawtypes") final Class<? extends NodeFactory> factoryClass) {
+        final RegistrationIndex index = RegistrationIndex.getInstance();
+        LazyNodeDescription.Summary summary =
+            index.get(INDEX_SECTION, factoryClass.getName()).map(LazyNodeDescription.Summary::fromList).orElse(null);
+        if (summary == null) {
+            try (InputStream inStream = openDescription(factoryClass)) {
+                if (inStream == null) {
+                    NodeLogger.getLogger(NodeDescriptionParser.class).coding(
+                        "No node description file found for " + factoryClass.getName());
+                    return new NoDescriptionProxy(factoryClass);
+                }
+                summary = readSummary(inStream);
+            } catch (IOException | XMLStreamException | NumberFormatException ex) {
+                // reported when parsing the full description
+                summary = null;
+            }
+            if (summary != null) {
+                index.put(INDEX_SECTION, factoryClass.getName(), summary.toList());
+                index.scheduleSave();
+            }
+        }
+        return new LazyNodeDescription(factoryClass, summary, () -> parseDescription(factoryClass));
+    }
+
+    /**
+     * Opens the XML file named after the factory class or, if there is none, after one of its super classes.
+     *
+     * @return the stream or <code>null</code> if there is no such file
+     */
+    private static InputStream openDescription(
+        @SuppressWarnings("rawtypes") final Class<? extends NodeFactory> factoryClass) {
+        InputStream inStream = factoryClass.getResourceAsStream(factoryClass.getSimpleName() + ".xml");
+        // could be a node factory hierarchy, check superclasses for node descriptions
+        Class<?> superClass = factoryClass.getSuperclass();
+        while ((inStream == null) && (superClass != null)) {
+            inStream = superClass.getResourceAsStream(superClass.getSimpleName() + ".xml");
+            superClass = superClass.getSuperclass();
+        }
+        return inStream;
+    }
+
+    /**
+     * Extracts name, icon, type, deprecation flag and port names with a streaming parser.
+     *
+     * @return the summary or <code>null</code> if the description is of a version for which no summary can be read
+     */
+    private static LazyNodeDescription.Summary readSummary(final InputStream inStream) throws XMLStreamException {
+        XMLStreamReader reader = STAX_FACTORY.createXMLStreamReader(inStream);
+        try {
+            while (reader.next() != XMLStreamConstants.START_ELEMENT) {
+                // skip prolog
+            }
+            if (!SUMMARY_NAMESPACES.contains(reader.getNamespaceURI())) {
+                return null;
+            }
+            final String iconPath = reader.getAttributeValue(null, "icon");
+            final String type = reader.getAttributeValue(null, "type");
+            final String deprecated = reader.getAttributeValue(null, "deprecated");
+            String name = null;
+            final Map<Integer, String> inportNames = new HashMap<>();
+            final Map<Integer, String> outportNames = new HashMap<>();
+            boolean inPorts = false;
+            int depth = 1;
+            while (depth > 0) {
+                int event = reader.next();
+                if (event == XMLStreamConstants.START_ELEMENT) {
+                    depth++;
+                    String localName = reader.getLocalName();
+                    if (depth == 2 && "name".equals(localName)) {
+                        name = reader.getElementText();
+                        depth--;
+                    } else if (depth == 2) {
+                        inPorts = "ports".equals(localName);
+                    } else if (depth == 3 && inPorts && "inPort".equals(localName)) {
+                        putPortName(reader, inportNames);
+                    } else if (depth == 3 && inPorts && "outPort".equals(localName)) {
+                        putPortName(reader, outportNames);
+                    }
+                } else if (event == XMLStreamConstants.END_ELEMENT) {
+                    depth--;
+                }
+            }
+            return new LazyNodeDescription.Summary(name, iconPath, type,
+                "true".equals(deprecated) || "1".equals(deprecated), inportNames, outportNames);
+        } finally {
+            reader.close();
+        }
+    }
+
+    private static void putPortName(final XMLStreamReader reader, final Map<Integer, String> portNames)
+        throws XMLStreamException {
+        String index = reader.getAttributeValue(null, "index");
+        if (index == null) {
+            throw new XMLStreamException("Missing port index", reader.getLocation());
+        }
+        portNames.put(Integer.parseInt(index.trim()), reader.getAttributeValue(null, "name"));
+    }
 }
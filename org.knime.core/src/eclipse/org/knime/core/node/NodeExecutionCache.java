@@ -0,0 +1,539 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ------------------------------------------------------------------------
+ *
+ */
+package org.knime.core.node;
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.output.NullOutputStream;
+import org.knime.core.data.DataCell;
+import org.knime.core.data.DataCellDataOutput;
+import org.knime.core.data.DataCellSerializer;
+import org.knime.core.data.DataRow;
+import org.knime.core.data.DataType;
+import org.knime.core.data.DataTypeRegistry;
+import org.knime.core.data.container.ContainerTable;
+import org.knime.core.data.container.DataContainer;
+import org.knime.core.data.container.LongUTFDataOutputStream;
+import org.knime.core.data.filestore.FileStoreCell;
+import org.knime.core.data.util.NonClosableOutputStream;
+import org.knime.core.node.port.PortObject;
+import org.knime.core.node.port.PortObjectHolder;
+import org.knime.core.node.port.PortType;
+import org.knime.core.node.port.flowvariable.FlowVariablePortObject;
+import org.knime.core.node.workflow.FlowVariable;
+import org.knime.core.node.workflow.LoopEndNode;
+import org.knime.core.node.workflow.LoopStartNode;
+import org.knime.core.node.workflow.ScopeEndNode;
+import org.knime.core.node.workflow.ScopeStartNode;
+import org.knime.core.util.FileUtil;
+import org.osgi.framework.Bundle;
+import org.osgi.framework.FrameworkUtil;
+
+/**
+ * Cache for the output tables of {@link CacheableNodeModel}s. An entry is keyed by a SHA-256 fingerprint of the node
+ * factory (and its bundle version), the node's current settings (with flow variables applied), the values of all
+ * available flow variables and the content of the input tables; it is a directory holding one zip file per output
+ * table (written with {@link DataContainer#writeToZip(org.knime.core.data.DataTable, File, ExecutionMonitor)}).
+ * Entries are created atomically by renaming a temporary directory, together with the warning message of the node. The
+ * sizes of the entries are kept in an index (built once when the cache is opened), from which the least recently used
+ * entries are evicted once the size limit is exceeded; the order of use survives restarts as the modification time of
+ * an entry is updated on every hit.
+ *
+ * <p>
+ * The directory can only be used by one KNIME instance at a time, which holds a lock on a file in the directory. A
+ * second instance finding the directory locked runs without cache.
+ *
+ * <p>
+ * Fingerprinting reads all input rows, which is cheap compared to the nodes worth caching but not free; inputs with
+ * cells that can't be serialized deterministically (file store cells, cells without serializer) disable caching for
+ * the execution.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+final class NodeExecutionCache {
+
+    private static final NodeLogger LOGGER = NodeLogger.getLogger(NodeExecutionCache.class);
+
+    private static final String TABLE_FILE_PREFIX = "port_";
+
+    private static final String TABLE_FILE_SUFFIX = ".zip";
+
+    private static final String WARNING_FILE = "warning.txt";
+
+    private static final String LOCK_FILE = ".lock";
+
+    private static final String TEMP_DIR_INFIX = ".tmp-";
+
+    private static final long DEFAULT_MAX_SIZE_MB = 10240;
+
+    private static volatile NodeExecutionCache instance = createInstance();
+
+    private final File m_dir;
+
+    private final long m_maxSize;
+
+    /** Lock on {@link #LOCK_FILE}, held as long as the cache is open. */
+    private final FileLock m_dirLock;
+
+    /** Read lock held while restoring an entry, write lock while evicting. */
+    private final ReadWriteLock m_lock = new ReentrantReadWriteLock();
+
+    /** Sizes of the entries by fingerprint, least recently used first; guarded by itself. */
+    private final Map<String, Long> m_entrySizes = new LinkedHashMap<>(16, 0.75f, true);
+
+    /** Sum of {@link #m_entrySizes}; guarded by {@link #m_entrySizes}. */
+    private long m_totalSize;
+
+    private NodeExecutionCache(final File dir, final long maxSize, final FileLock dirLock) {
+        m_dir = dir;
+        m_maxSize = maxSize;
+        m_dirLock = dirLock;
+    }
+
+    private static NodeExecutionCache createInstance() {
+        String dirProp = System.getProperty(KNIMEConstants.PROPERTY_EXECUTION_CACHE_DIR);
+        if (dirProp == null || dirProp.trim().isEmpty()) {
+            return null;
+        }
+        File dir = new File(dirProp.trim());
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            LOGGER.warn("Unable to create node execution cache directory \"" + dir.getAbsolutePath()
+                + "\", cache disabled");
+            return null;
+        }
+        long maxSizeMB = DEFAULT_MAX_SIZE_MB;
+        String sizeProp = System.getProperty(KNIMEConstants.PROPERTY_EXECUTION_CACHE_SIZE);
+        if (sizeProp != null) {
+            try {
+                maxSizeMB = Long.parseLong(sizeProp.trim());
+            } catch (NumberFormatException e) {
+                LOGGER.warn("Invalid value for system property \"" + KNIMEConstants.PROPERTY_EXECUTION_CACHE_SIZE
+                    + "\" (" + sizeProp + "), using default of " + DEFAULT_MAX_SIZE_MB + "MB");
+            }
+        }
+        NodeExecutionCache cache = open(dir, maxSizeMB << 20);
+        if (cache != null) {
+            LOGGER.debug("Node execution cache enabled in \"" + dir.getAbsolutePath() + "\" (" + maxSizeMB + "MB)");
+        }
+        return cache;
+    }
+
+    /**
+     * Opens the cache in an existing directory: locks the directory, deletes left-over temporary entries and builds the
+     * size index.
+     *
+     * @param dir the cache directory
+     * @param maxSize the maximum size in bytes
+     * @return the cache or <code>null</code> if the directory is used by another instance or can't be locked
+     */
+    static NodeExecutionCache open(final File dir, final long maxSize) {
+        FileLock dirLock;
+        try {
+            FileChannel channel = FileChannel.open(new File(dir, LOCK_FILE).toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE);
+            try {
+                dirLock = channel.tryLock();
+            } catch (IOException | OverlappingFileLockException e) {
+                channel.close();
+                throw e;
+            }
+            if (dirLock == null) {
+                channel.close();
+                LOGGER.warn("Node execution cache directory \"" + dir.getAbsolutePath()
+                    + "\" is used by another KNIME instance, cache disabled");
+                return null;
+            }
+        } catch (IOException | OverlappingFileLockException e) {
+            LOGGER.warn("Unable to lock node execution cache directory \"" + dir.getAbsolutePath()
+                + "\", cache disabled: " + e.getMessage(), e);
+            return null;
+        }
+        NodeExecutionCache cache = new NodeExecutionCache(dir, maxSize, dirLock);
+        cache.buildIndex();
+        return cache;
+    }
+
+    /** Deletes left-over temporary directories and adds the entries to the index, least recently used first. */
+    private void buildIndex() {
+        File[] entries = m_dir.listFiles(File::isDirectory);
+        if (entries == null) {
+            return;
+        }
+        Arrays.sort(entries, Comparator.comparingLong(File::lastModified));
+        synchronized (m_entrySizes) {
+            for (File e : entries) {
+                if (e.getName().contains(TEMP_DIR_INFIX)) {
+                    FileUtil.deleteRecursively(e);
+                } else {
+                    long size = FileUtils.sizeOfDirectory(e);
+                    m_entrySizes.put(e.getName(), size);
+                    m_totalSize += size;
+                }
+            }
+        }
+    }
+
+    /** @return the cache or <code>null</code> if caching is disabled. */
+    static NodeExecutionCache getInstance() {
+        return instance;
+    }
+
+    /**
+     * Replaces the cache (for tests).
+     *
+     * @param cache the new cache or <code>null</code> to disable caching
+     * @return the previous cache
+     */
+    static NodeExecutionCache setInstance(final NodeExecutionCache cache) {
+        NodeExecutionCache old = instance;
+        instance = cache;
+        return old;
+    }
+
+    /** Releases the lock on the directory (for tests); the cache must not be used afterwards. */
+    void close() throws IOException {
+        m_dirLock.channel().close();
+    }
+
+    /** @return the size of all entries according to the index (for tests) */
+    long getSize() {
+        synchronized (m_entrySizes) {
+            return m_totalSize;
+        }
+    }
+
+    /**
+     * Computes the fingerprint of an execution.
+     *
+     * @param node the node to execute
+     * @param model its model
+     * @param inData the input data including the flow variable port
+     * @param exec for cancelation
+     * @return the fingerprint or <code>null</code> if this execution can't be cached
+     * @throws CanceledExecutionException if canceled
+     */
+    String createFingerprint(final Node node, final NodeModel model, final PortObject[] inData,
+        final ExecutionMonitor exec) throws CanceledExecutionException {
+        if (!isCacheable(model)) {
+            return null;
+        }
+        final MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            LOGGER.coding("SHA-256 not available", e);
+            return null;
+        }
+        try (FingerprintOutput out =
+                new FingerprintOutput(new DataOutputStream(new DigestOutputStream(new NullOutputStream(), digest)))) {
+            Class<?> factoryClass = node.getFactory().getClass();
+            out.writeUTF(factoryClass.getName());
+            Bundle bundle = FrameworkUtil.getBundle(factoryClass);
+            out.writeUTF(bundle == null ? "" : bundle.getVersion().toString());
+
+            NodeSettings settings = new NodeSettings("model");
+            model.saveSettingsTo(settings);
+            settings.saveToXML(new NonClosableOutputStream(out));
+
+            // the node may also read variables in execute, so the resolved value of every available variable counts
+            Map<String, FlowVariable> variables = new TreeMap<>(node.getFlowObjectStack()
+                .getAllAvailableFlowVariables());
+            out.writeInt(variables.size());
+            for (FlowVariable v : variables.values()) {
+                out.writeUTF(v.getName());
+                out.writeUTF(v.getVariableType().toString());
+                out.writeUTF(v.getValueAsString());
+            }
+
+            for (int i = 1; i < inData.length; i++) {
+                PortObject in = inData[i];
+                if (in == null) {
+                    out.writeBoolean(false);
+                } else if (in instanceof BufferedDataTable) {
+                    out.writeBoolean(true);
+                    BufferedDataTable table = (BufferedDataTable)in;
+                    ModelContent spec = new ModelContent("spec");
+                    table.getDataTableSpec().save(spec);
+                    spec.saveToXML(new NonClosableOutputStream(out));
+                    for (DataRow row : table) {
+                        exec.checkCanceled();
+                        out.writeUTF(row.getKey().getString());
+                        for (DataCell cell : row) {
+                            out.writeDataCell(cell);
+                        }
+                    }
+                } else {
+                    return null;
+                }
+            }
+        } catch (NotCacheableException e) {
+            LOGGER.debug("Not caching execution of " + node.getName() + ": " + e.getMessage());
+            return null;
+        } catch (IOException e) {
+            LOGGER.debug("Unable to fingerprint execution of " + node.getName() + ": " + e.getMessage(), e);
+            return null;
+        }
+        StringBuilder b = new StringBuilder(64);
+        for (byte by : digest.digest()) {
+            b.append(Character.forDigit((by >> 4) & 0xF, 16)).append(Character.forDigit(by & 0xF, 16));
+        }
+        return b.toString();
+    }
+
+    private static boolean isCacheable(final NodeModel model) {
+        if (!(model instanceof CacheableNodeModel) || model instanceof LoopStartNode || model instanceof LoopEndNode
+            || model instanceof ScopeStartNode || model instanceof ScopeEndNode
+            || model instanceof BufferedDataTableHolder || model instanceof PortObjectHolder) {
+            return false;
+        }
+        for (int i = 0; i < model.getNrOutPorts(); i++) {
+            if (!isTablePort(model.getOutPortType(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isTablePort(final PortType type) {
+        return BufferedDataTable.class.equals(type.getPortObjectClass());
+    }
+
+    /**
+     * Restores the outputs of an earlier execution.
+     *
+     * @param fingerprint the fingerprint of the execution, see
+     *            {@link #createFingerprint(Node, NodeModel, PortObject[], ExecutionMonitor)}
+     * @param model the node's model, which on a hit gets the warning message of the earlier execution
+     * @param exec to create the output tables
+     * @return the outputs including the flow variable port or <code>null</code> on a cache miss
+     * @throws CanceledExecutionException if canceled
+     */
+    PortObject[] restore(final String fingerprint, final NodeModel model, final ExecutionContext exec)
+        throws CanceledExecutionException {
+        final int nrOutPorts = model.getNrOutPorts() + 1;
+        m_lock.readLock().lock();
+        try {
+            synchronized (m_entrySizes) {
+                // also marks the entry as recently used
+                if (m_entrySizes.get(fingerprint) == null) {
+                    return null;
+                }
+            }
+            File entryDir = new File(m_dir, fingerprint);
+            if (!entryDir.isDirectory()) {
+                // deleted from outside
+                removeFromIndex(fingerprint);
+                return null;
+            }
+            File warningFile = new File(entryDir, WARNING_FILE);
+            String warning = warningFile.isFile()
+                ? new String(Files.readAllBytes(warningFile.toPath()), StandardCharsets.UTF_8) : null;
+            PortObject[] result = new PortObject[nrOutPorts];
+            result[0] = FlowVariablePortObject.INSTANCE;
+            for (int i = 1; i < nrOutPorts; i++) {
+                File zip = new File(entryDir, TABLE_FILE_PREFIX + i + TABLE_FILE_SUFFIX);
+                ContainerTable table = DataContainer.readFromZip(zip);
+                try {
+                    result[i] = exec.createBufferedDataTable(table, exec.createSubProgress(1.0 / nrOutPorts));
+                } finally {
+                    table.clear();
+                }
+            }
+            // keeps the order of use for the next session
+            if (!entryDir.setLastModified(System.currentTimeMillis())) {
+                LOGGER.debug("Unable to update timestamp of cache entry " + entryDir.getAbsolutePath());
+            }
+            model.setWarningMessage(warning);
+            return result;
+        } catch (IOException e) {
+            LOGGER.warn("Unable to restore node outputs from execution cache entry " + fingerprint + ", executing node: "
+                + e.getMessage(), e);
+            return null;
+        } finally {
+            m_lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Stores the outputs of an execution and evicts old entries if the cache exceeds its size. Failures are logged.
+     *
+     * @param fingerprint the fingerprint of the execution
+     * @param model the node's model, whose warning message is stored with the outputs
+     * @param outData the outputs including the flow variable port
+     */
+    void store(final String fingerprint, final NodeModel model, final PortObject[] outData) {
+        File entryDir = new File(m_dir, fingerprint);
+        synchronized (m_entrySizes) {
+            if (m_entrySizes.containsKey(fingerprint)) {
+                return;
+            }
+        }
+        for (int i = 1; i < outData.length; i++) {
+            if (!(outData[i] instanceof BufferedDataTable) || containsFileStores(
+                ((BufferedDataTable)outData[i]).getDataTableSpec().stream().map(c -> c.getType()))) {
+                return;
+            }
+        }
+        File tempDir = new File(m_dir, fingerprint + TEMP_DIR_INFIX + UUID.randomUUID());
+        try {
+            if (!tempDir.mkdir()) {
+                throw new IOException("Unable to create directory " + tempDir.getAbsolutePath());
+            }
+            for (int i = 1; i < outData.length; i++) {
+                DataContainer.writeToZip((BufferedDataTable)outData[i],
+                    new File(tempDir, TABLE_FILE_PREFIX + i + TABLE_FILE_SUFFIX), new ExecutionMonitor());
+            }
+            String warning = model.getWarningMessage();
+            if (warning != null) {
+                Files.write(new File(tempDir, WARNING_FILE).toPath(), warning.getBytes(StandardCharsets.UTF_8));
+            }
+            long size = FileUtils.sizeOfDirectory(tempDir);
+            if (tempDir.renameTo(entryDir)) {
+                synchronized (m_entrySizes) {
+                    m_entrySizes.put(fingerprint, size);
+                    m_totalSize += size;
+                }
+            } else if (!entryDir.isDirectory()) {
+                throw new IOException("Unable to rename " + tempDir.getAbsolutePath() + " to " + entryDir.getName());
+            } // else: stored concurrently by an execution with the same fingerprint
+        } catch (IOException | CanceledExecutionException e) {
+            LOGGER.warn("Unable to store node outputs in execution cache: " + e.getMessage(), e);
+        } finally {
+            if (tempDir.exists()) {
+                FileUtil.deleteRecursively(tempDir);
+            }
+        }
+        evict();
+    }
+
+    private static boolean containsFileStores(final Stream<DataType> types) {
+        return types.anyMatch(t -> FileStoreCell.class.isAssignableFrom(t.getCellClass())
+            || (t.getCollectionElementType() != null
+                && containsFileStores(Stream.of(t.getCollectionElementType()))));
+    }
+
+    private void removeFromIndex(final String fingerprint) {
+        synchronized (m_entrySizes) {
+            Long size = m_entrySizes.remove(fingerprint);
+            if (size != null) {
+                m_totalSize -= size;
+            }
+        }
+    }
+
+    /** Deletes least recently used entries until the cache fits into its size limit. */
+    private void evict() {
+        m_lock.writeLock().lock();
+        try {
+            synchronized (m_entrySizes) {
+                for (Iterator<Map.Entry<String, Long>> it = m_entrySizes.entrySet().iterator();
+                        it.hasNext() && m_totalSize > m_maxSize;) {
+                    Map.Entry<String, Long> e = it.next();
+                    LOGGER.debug("Evicting node execution cache entry " + e.getKey());
+                    FileUtil.deleteRecursively(new File(m_dir, e.getKey()));
+                    m_totalSize -= e.getValue();
+                    it.remove();
+                }
+            }
+        } finally {
+            m_lock.writeLock().unlock();
+        }
+    }
+
+    /** Thrown when an input cell can't be fingerprinted. */
+    @SuppressWarnings("serial")
+    private static final class NotCacheableException extends IOException {
+        NotCacheableException(final String message) {
+            super(message);
+        }
+    }
+
+    /** Writes cells with their serializers into the digest. */
+    private static final class FingerprintOutput extends LongUTFDataOutputStream implements DataCellDataOutput {
+
+        FingerprintOutput(final DataOutputStream output) {
+            super(output);
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public void writeDataCell(final DataCell cell) throws IOException {
+            if (cell instanceof FileStoreCell) {
+                throw new NotCacheableException("input contains file store cells (" + cell.getClass().getName() + ")");
+            }
+            writeUTF(cell.getClass().getName());
+            Optional<DataCellSerializer<DataCell>> serializer =
+                DataTypeRegistry.getInstance().getSerializer(cell.getClass());
+            if (!serializer.isPresent()) {
+                throw new NotCacheableException("no serializer for " + cell.getClass().getName());
+            }
+            serializer.get().serialize(cell, this);
+        }
+    }
+}
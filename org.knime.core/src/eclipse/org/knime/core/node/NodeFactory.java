@@ -188,7 +188,8 @@ protected NodeFactory(final boolean lazyInitialization) {
     }
 
     /**
-     * Creates the description for this node. The default implementation reads the factory's XML file. Subclasses may
+     * Creates the description for this node. The default implementation reads the factory's XML file (the full file is
+     * parsed on first access of a field other than name, icon, type, and port names). Subclasses may
      * override this method in order to create the description by other means.
      *
      * @return the node description
@@ -198,7 +199,22 @@ protected NodeFactory(final boolean lazyInitialization) {
      * @since 2.8
      */
     protected NodeDescription createNodeDescription() throws SAXException, IOException, XmlException {
-        return PARSER.parseDescription(this.getClass());
+        return PARSER.parseDescriptionLazily(this.getClass());
+    }
+
+    /**
+     * Parses the factory's XML file right away, as opposed to {@link #createNodeDescription()}.
+     *
+     * @param factoryClass the factory class
+     * @return the node description
+     * @throws SAXException if the XML file is not well-formed
+     * @throws IOException if the XML file cannot be read
+     * @throws XmlException if the XML file is not valid
+     */
+    static NodeDescription parseNodeDescription(
+        @SuppressWarnings("rawtypes") final Class<? extends NodeFactory> factoryClass)
+        throws SAXException, IOException, XmlException {
+        return PARSER.parseDescription(factoryClass);
     }
 
     /**
@@ -235,7 +251,11 @@ public synchronized void init() {
         // constructor - local fields in the derived NodeFactory have
         // not been initialized
 
-        addBundleInformation();
+        if (m_nodeDescription instanceof LazyNodeDescription) {
+            ((LazyNodeDescription)m_nodeDescription).setPostProcessor(this::addBundleInformation);
+        } else {
+            addBundleInformation(m_nodeDescription);
+        }
         addLoadedFactory(getClass());
         m_initialized = true;
     }
@@ -279,8 +299,8 @@ NodeDescription getNodeDescription() {
      * Adds information about the bundle/feature in which this node resides to the XML description tree. Note that the
      * bundle information does not have a namespace!
      */
-    private void addBundleInformation() {
-        Element root = m_nodeDescription.getXMLDescription();
+    private void addBundleInformation(final NodeDescription nodeDescription) {
+        Element root = nodeDescription.getXMLDescription();
 
         if ((root != null) && !(this instanceof MissingNodeFactory)) { // for running in non-osgi context
             NodeAndBundleInformationPersistor nodeInfo = NodeAndBundleInformationPersistor.create(this);
@@ -0,0 +1,401 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ------------------------------------------------------------------------
+ *
+ */
+package org.knime.core.node.config;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+import org.knime.core.node.InvalidSettingsException;
+import org.knime.core.node.config.base.AbstractConfigEntry;
+import org.knime.core.node.config.base.ConfigEntries;
+
+/**
+ * Compact binary encoding of a {@link Config} tree, as alternative to XML. The format is a type-tagged tree preceded
+ * by a table of all strings (keys and string values), so that repeated keys are stored and decoded only once.
+ *
+ * <pre>
+ *   int magic, byte version
+ *   int #strings, #strings * (int byte length, UTF-8 bytes)
+ *   int root key index
+ *   config body: int #children, #children * entry
+ *   entry: byte tag, int key index, value (a config is stored as int byte length, config body)
+ * </pre>
+ *
+ * The byte length of sub configs allows readers to skip them, see {@link #load(InputStream, Function, Set)}.
+ * Password entries (and entry types unknown to this class) are stored using java serialization. Transient strings
+ * are not stored, same as in the XML format.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ * @since 4.3
+ * @noreference This class is not intended to be referenced by clients.
+ */
+public final class ConfigBinaryFormat {
+
+    private static final int MAGIC = 0x4B4E4346; // "KNCF"
+
+    private static final byte VERSION = 1;
+
+    private static final byte TAG_CONFIG = 0;
+
+    private static final byte TAG_BOOLEAN = 1;
+
+    private static final byte TAG_BYTE = 2;
+
+    private static final byte TAG_SHORT = 3;
+
+    private static final byte TAG_INT = 4;
+
+    private static final byte TAG_LONG = 5;
+
+    private static final byte TAG_FLOAT = 6;
+
+    private static final byte TAG_DOUBLE = 7;
+
+    private static final byte TAG_CHAR = 8;
+
+    private static final byte TAG_STRING = 9;
+
+    private static final byte TAG_SERIALIZED = 10;
+
+    private ConfigBinaryFormat() {
+    }
+
+    /**
+     * Writes the config to the stream. The stream is not closed.
+     *
+     * @param config the config to write
+     * @param out the stream to write to
+     * @throws IOException if writing fails
+     */
+    public static void save(final Config config, final OutputStream out) throws IOException {
+        final Map<String, Integer> strings = new LinkedHashMap<>();
+        collectStrings(config, strings);
+        final DataOutputStream dataOut = new DataOutputStream(out);
+        dataOut.writeInt(MAGIC);
+        dataOut.writeByte(VERSION);
+        dataOut.writeInt(strings.size());
+        for (String s : strings.keySet()) {
+            byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+            dataOut.writeInt(bytes.length);
+            dataOut.write(bytes);
+        }
+        dataOut.writeInt(strings.get(config.getKey()));
+        writeConfigBody(config, strings, dataOut);
+        dataOut.flush();
+    }
+
+    /**
+     * Reads a config written by {@link #save(Config, OutputStream)}. The stream is not closed.
+     *
+     * @param in the stream to read from
+     * @param rootFactory creates the (empty) root config for the stored root key
+     * @return the root config
+     * @throws IOException if reading fails or the stream is not in the binary format
+     */
+    public static <C extends Config> C load(final InputStream in, final Function<String, C> rootFactory)
+        throws IOException {
+        return load(in, rootFactory, Collections.emptySet());
+    }
+
+    /**
+     * Reads a config written by {@link #save(Config, OutputStream)}, skipping the sub configs of the root with the
+     * given keys (without decoding them). This allows to read, e.g., header information of a workflow without the
+     * configuration of its nodes.
+     *
+     * @param in the stream to read from
+     * @param rootFactory creates the (empty) root config for the stored root key
+     * @param skippedSubConfigs keys of the sub configs of the root to skip
+     * @return the root config
+     * @throws IOException if reading fails or the stream is not in the binary format
+     */
+    public static <C extends Config> C load(final InputStream in, final Function<String, C> rootFactory,
+        final Set<String> skippedSubConfigs) throws IOException {
+        final DataInputStream dataIn = new DataInputStream(in);
+        if (dataIn.readInt() != MAGIC) {
+            throw new IOException("Not a binary config stream");
+        }
+        final byte version = dataIn.readByte();
+        if (version != VERSION) {
+            throw new IOException("Unsupported binary config version " + version);
+        }
+        final String[] strings = new String[dataIn.readInt()];
+        for (int i = 0; i < strings.length; i++) {
+            byte[] bytes = new byte[dataIn.readInt()];
+            dataIn.readFully(bytes);
+            strings[i] = new String(bytes, StandardCharsets.UTF_8);
+        }
+        final C root = rootFactory.apply(string(strings, dataIn.readInt()));
+        readConfigBody(root, strings, dataIn, skippedSubConfigs);
+        return root;
+    }
+
+    private static void collectStrings(final Config config, final Map<String, Integer> strings) {
+        addString(config.getKey(), strings);
+        for (String key : config.keySet()) {
+            AbstractConfigEntry entry = config.getEntry(key);
+            if (isTransient(entry)) {
+                continue;
+            }
+            addString(key, strings);
+            switch (entry.getType()) {
+                case config:
+                    collectStrings((Config)entry, strings);
+                    break;
+                case xstring:
+                    addString(entry.toStringValue(), strings);
+                    break;
+                default:
+            }
+        }
+    }
+
+    private static boolean isTransient(final AbstractConfigEntry entry) {
+        return entry.getType() == ConfigEntries.xtransientstring;
+    }
+
+    private static void addString(final String s, final Map<String, Integer> strings) {
+        if (s != null && !strings.containsKey(s)) {
+            strings.put(s, strings.size());
+        }
+    }
+
+    private static void writeString(final String s, final Map<String, Integer> strings, final DataOutputStream out)
+        throws IOException {
+        out.writeInt(s == null ? -1 : strings.get(s));
+    }
+
+    private static String string(final String[] strings, final int index) throws IOException {
+        if (index == -1) {
+            return null;
+        }
+        if (index < 0 || index >= strings.length) {
+            throw new IOException("Invalid string index " + index);
+        }
+        return strings[index];
+    }
+
+    private static void writeConfigBody(final Config config, final Map<String, Integer> strings,
+        final DataOutputStream out) throws IOException {
+        int count = 0;
+        for (String key : config.keySet()) {
+            if (!isTransient(config.getEntry(key))) {
+                count++;
+            }
+        }
+        out.writeInt(count);
+        for (String key : config.keySet()) {
+            final AbstractConfigEntry entry = config.getEntry(key);
+            if (isTransient(entry)) {
+                continue;
+            }
+            try {
+                writeEntry(config, key, entry, strings, out);
+            } catch (InvalidSettingsException ex) {
+                throw new IOException("Unable to write entry \"" + key + "\": " + ex.getMessage(), ex);
+            }
+        }
+    }
+
+    private static void writeEntry(final Config config, final String key, final AbstractConfigEntry entry,
+        final Map<String, Integer> strings, final DataOutputStream out) throws IOException, InvalidSettingsException {
+        switch (entry.getType()) {
+            case config:
+                out.writeByte(TAG_CONFIG);
+                writeString(key, strings, out);
+                ByteArrayOutputStream body = new ByteArrayOutputStream();
+                DataOutputStream bodyOut = new DataOutputStream(body);
+                writeConfigBody((Config)entry, strings, bodyOut);
+                bodyOut.flush();
+                out.writeInt(body.size());
+                body.writeTo(out);
+                break;
+            case xboolean:
+                out.writeByte(TAG_BOOLEAN);
+                writeString(key, strings, out);
+                out.writeBoolean(config.getBoolean(key));
+                break;
+            case xbyte:
+                out.writeByte(TAG_BYTE);
+                writeString(key, strings, out);
+                out.writeByte(config.getByte(key));
+                break;
+            case xshort:
+                out.writeByte(TAG_SHORT);
+                writeString(key, strings, out);
+                out.writeShort(config.getShort(key));
+                break;
+            case xint:
+                out.writeByte(TAG_INT);
+                writeString(key, strings, out);
+                out.writeInt(config.getInt(key));
+                break;
+            case xlong:
+                out.writeByte(TAG_LONG);
+                writeString(key, strings, out);
+                out.writeLong(config.getLong(key));
+                break;
+            case xfloat:
+                out.writeByte(TAG_FLOAT);
+                writeString(key, strings, out);
+                out.writeFloat(config.getFloat(key));
+                break;
+            case xdouble:
+                out.writeByte(TAG_DOUBLE);
+                writeString(key, strings, out);
+                out.writeDouble(config.getDouble(key));
+                break;
+            case xchar:
+                out.writeByte(TAG_CHAR);
+                writeString(key, strings, out);
+                out.writeChar(config.getChar(key));
+                break;
+            case xstring:
+                out.writeByte(TAG_STRING);
+                writeString(key, strings, out);
+                writeString(entry.toStringValue(), strings, out);
+                break;
+            default:
+                // passwords (kept encrypted) and possible future entry types
+                out.writeByte(TAG_SERIALIZED);
+                writeString(key, strings, out);
+                ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+                try (ObjectOutputStream oos = new ObjectOutputStream(bytes)) {
+                    oos.writeObject(entry);
+                }
+                out.writeInt(bytes.size());
+                bytes.writeTo(out);
+        }
+    }
+
+    /** Skips exactly <code>length</code> bytes, {@link DataInputStream#skipBytes(int)} may skip fewer. */
+    private static void skipFully(final DataInputStream in, final int length) throws IOException {
+        int remaining = length;
+        while (remaining > 0) {
+            final int skipped = in.skipBytes(remaining);
+            if (skipped <= 0) {
+                // skipBytes returns 0 at the end of the stream but also if the stream does not support skipping
+                if (in.read() < 0) {
+                    throw new EOFException("Unexpected end of stream while skipping sub config, "
+                        + remaining + " of " + length + " bytes missing");
+                }
+                remaining--;
+            } else {
+                remaining -= skipped;
+            }
+        }
+    }
+
+    private static void readConfigBody(final Config config, final String[] strings, final DataInputStream in,
+        final Set<String> skippedSubConfigs) throws IOException {
+        final int childCount = in.readInt();
+        for (int i = 0; i < childCount; i++) {
+            final byte tag = in.readByte();
+            final String key = string(strings, in.readInt());
+            switch (tag) {
+                case TAG_CONFIG:
+                    final int length = in.readInt();
+                    if (skippedSubConfigs.contains(key)) {
+                        skipFully(in, length);
+                    } else {
+                        readConfigBody(config.addConfig(key), strings, in, Collections.emptySet());
+                    }
+                    break;
+                case TAG_BOOLEAN:
+                    config.addBoolean(key, in.readBoolean());
+                    break;
+                case TAG_BYTE:
+                    config.addByte(key, in.readByte());
+                    break;
+                case TAG_SHORT:
+                    config.addShort(key, in.readShort());
+                    break;
+                case TAG_INT:
+                    config.addInt(key, in.readInt());
+                    break;
+                case TAG_LONG:
+                    config.addLong(key, in.readLong());
+                    break;
+                case TAG_FLOAT:
+                    config.addFloat(key, in.readFloat());
+                    break;
+                case TAG_DOUBLE:
+                    config.addDouble(key, in.readDouble());
+                    break;
+                case TAG_CHAR:
+                    config.addChar(key, in.readChar());
+                    break;
+                case TAG_STRING:
+                    config.addString(key, string(strings, in.readInt()));
+                    break;
+                case TAG_SERIALIZED:
+                    byte[] bytes = new byte[in.readInt()];
+                    in.readFully(bytes);
+                    try (ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+                        config.addEntry((AbstractConfigEntry)ois.readObject());
+                    } catch (ClassNotFoundException | ClassCastException ex) {
+                        throw new IOException("Unable to read entry \"" + key + "\": " + ex.getMessage(), ex);
+                    }
+                    break;
+                default:
+                    throw new IOException("Unknown entry tag " + tag + " for key \"" + key + "\"");
+            }
+        }
+    }
+}
@@ -47,12 +47,24 @@
  */
 package org.knime.core.node.exec;
 
+import java.util.Arrays;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
 
+import org.knime.core.data.util.memory.MemoryBudget;
+import org.knime.core.node.CanceledExecutionException;
+import org.knime.core.node.ExecutionMonitor;
+import org.knime.core.node.NodeLogger;
+import org.knime.core.node.NodeModel;
+import org.knime.core.node.WorkingMemoryEstimator;
 import org.knime.core.node.port.PortObject;
+import org.knime.core.node.workflow.NativeNodeContainer;
 import org.knime.core.node.workflow.NodeExecutionJob;
+import org.knime.core.node.workflow.NodeMessage;
 import org.knime.core.node.workflow.SingleNodeContainer;
 import org.knime.core.node.workflow.execresult.NodeContainerExecutionStatus;
+import org.knime.core.util.ThreadPool;
 
 /**
  * A locally executed node job. It can only execute {@link SingleNodeContainer}.
@@ -92,7 +104,86 @@ void setFuture(final Future<?> future) {
     @Override
     public NodeContainerExecutionStatus mainExecute() {
         SingleNodeContainer snc = (SingleNodeContainer)getNodeContainer();
-        return snc.performExecuteNode(getPortObjects());
+        final MemoryBudget.Reservation reservation;
+        try {
+            reservation = reserveWorkingMemory(snc);
+        } catch (CanceledExecutionException | InterruptedException e) {
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            snc.setNodeMessage(NodeMessage.newWarning("Execution canceled while waiting for working memory"));
+            return NodeContainerExecutionStatus.FAILURE;
+        }
+        try {
+            return snc.performExecuteNode(getPortObjects());
+        } finally {
+            if (reservation != null) {
+                reservation.close();
+            }
+        }
+    }
+
+    /**
+     * Reserves the working memory estimated by the node model (if it implements {@link WorkingMemoryEstimator}) in
+     * the {@link MemoryBudget}, waiting until the reservation fits. While waiting, the thread doesn't count as running
+     * in its pool so other (less memory intensive) nodes can execute in the meantime.
+     *
+     * @return the reservation or <code>null</code> if the node doesn't need one
+     */
+    private MemoryBudget.Reservation reserveWorkingMemory(final SingleNodeContainer snc)
+        throws CanceledExecutionException, InterruptedException {
+        if (!(snc instanceof NativeNodeContainer)) {
+            return null;
+        }
+        final NodeModel model = ((NativeNodeContainer)snc).getNodeModel();
+        if (!(model instanceof WorkingMemoryEstimator)) {
+            return null;
+        }
+        final PortObject[] data = getPortObjects();
+        long estimate;
+        try {
+            // the first port is the flow variable port, which is not passed to the node model
+            estimate = ((WorkingMemoryEstimator)model).estimateWorkingMemory(Arrays.copyOfRange(data, 1, data.length));
+        } catch (RuntimeException e) {
+            NodeLogger.getLogger(LocalNodeExecutionJob.class).coding(
+                "Estimating working memory of " + snc.getNameWithID() + " failed: " + e.getMessage(), e);
+            return null;
+        }
+        if (estimate <= 0) {
+            return null;
+        }
+        final MemoryBudget budget = MemoryBudget.getInstance();
+        final MemoryBudget.Reservation reservation = budget.tryReserve(estimate);
+        if (reservation != null) {
+            return reservation;
+        }
+        final long bytes = estimate;
+        final ExecutionMonitor exec = new ExecutionMonitor(snc.getProgressMonitor());
+        exec.setMessage("Waiting for " + (bytes >> 20) + "MB of working memory");
+        final ThreadPool pool = ThreadPool.currentPool();
+        try {
+            if (pool == null) {
+                return budget.reserve(bytes, exec);
+            }
+            return pool.runInvisible(new Callable<MemoryBudget.Reservation>() {
+                @Override
+                public MemoryBudget.Reservation call() throws Exception {
+                    return budget.reserve(bytes, exec);
+                }
+            });
+        } catch (ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof CanceledExecutionException) {
+                throw (CanceledExecutionException)cause;
+            } else if (cause instanceof InterruptedException) {
+                throw (InterruptedException)cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException)cause;
+            }
+            throw new IllegalStateException(cause);
+        } finally {
+            exec.setMessage((String)null);
+        }
     }
 
     /**
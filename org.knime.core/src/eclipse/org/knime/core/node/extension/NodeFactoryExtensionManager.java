@@ -48,6 +48,7 @@
  */
 package org.knime.core.node.extension;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Iterator;
@@ -63,6 +64,7 @@
 import org.eclipse.core.runtime.IExtensionPoint;
 import org.eclipse.core.runtime.IExtensionRegistry;
 import org.eclipse.core.runtime.Platform;
+import org.knime.core.internal.RegistrationIndex;
 import org.knime.core.node.NodeFactory;
 import org.knime.core.node.NodeLogger;
 import org.knime.core.node.NodeModel;
@@ -117,6 +119,12 @@ public class NodeFactoryExtensionManager {
     private final Map<String, NodeSetFactoryExtension> m_factoryNameToNodeSetFactoryExtensionMap =
         new LinkedHashMap<>();
 
+    /**
+     * Map of dynamic node factory class name to the configuration element of its (not yet created) node set, filled
+     * from the {@link RegistrationIndex} so that node set factories are only instantiated when first needed.
+     */
+    private final Map<String, IConfigurationElement> m_factoryNameToPendingNodeSetMap = new LinkedHashMap<>();
+
     /**
      * @return the singleton instance
      */
@@ -138,9 +146,13 @@ public synchronized static NodeFactoryExtensionManager getInstance() {
             instance.collectNodeSetFactoryExtensions();
             long nodeSetCount = instance.m_factoryNameToNodeSetFactoryExtensionMap.values().stream().distinct().count();
             int nodesCount = instance.m_factoryNameToNodeSetFactoryExtensionMap.size();
-            LOGGER.debugWithFormat("Collected %s extensions... found %d node sets with %d nodes in %.1fs",
+            long pendingNodeSetCount =
+                instance.m_factoryNameToPendingNodeSetMap.values().stream().distinct().count();
+            LOGGER.debugWithFormat("Collected %s extensions... found %d node sets with %d nodes in %.1fs "
+                + "(%d further node sets with %d nodes are created on demand)",
                 NodeSetFactory.class.getSimpleName(), nodeSetCount, nodesCount,
-                (System.currentTimeMillis() - start) / 1000.0);
+                (System.currentTimeMillis() - start) / 1000.0, pendingNodeSetCount,
+                instance.m_factoryNameToPendingNodeSetMap.size());
 
         }
         return instance;
@@ -159,8 +171,9 @@ public Iterable<NodeFactoryExtension> getNodeFactoryExtensions() {
     /**
      * @return iterator over all known node sets.
      */
-    public Iterable<NodeSetFactoryExtension> getNodeSetFactoryExtensions() {
-        return m_factoryNameToNodeSetFactoryExtensionMap.values();
+    public synchronized Iterable<NodeSetFactoryExtension> getNodeSetFactoryExtensions() {
+        createAllPendingNodeSets();
+        return new ArrayList<>(m_factoryNameToNodeSetFactoryExtensionMap.values());
     }
 
     /**
@@ -181,7 +194,7 @@ public Optional<NodeFactory<? extends NodeModel>> createNodeFactory(final String
         if (nodeFactoryExtension != null) {
             return Optional.of(nodeFactoryExtension.createFactory());
         }
-        NodeSetFactoryExtension nodeSetFactoryExtension = m_factoryNameToNodeSetFactoryExtensionMap.get(factoryClassName);
+        NodeSetFactoryExtension nodeSetFactoryExtension = getNodeSetFactoryExtension(factoryClassName);
         if (nodeSetFactoryExtension != null) {
             Class<? extends NodeFactory<? extends NodeModel>> classForFactoryClassName =
                 nodeSetFactoryExtension.getClassForFactoryClassName(factoryClassName);
@@ -195,6 +208,45 @@ public Optional<NodeFactory<? extends NodeModel>> createNodeFactory(final String
         return Optional.empty();
     }
 
+    private synchronized NodeSetFactoryExtension getNodeSetFactoryExtension(final String factoryClassName) {
+        if (m_factoryNameToPendingNodeSetMap.containsKey(factoryClassName)) {
+            createPendingNodeSet(factoryClassName);
+        } else if (!m_factoryNameToNodeSetFactoryExtensionMap.containsKey(factoryClassName)) {
+            // the index may be outdated for node sets whose content is not defined by their bundle only
+            createAllPendingNodeSets();
+        }
+        return m_factoryNameToNodeSetFactoryExtensionMap.get(factoryClassName);
+    }
+
+    private void createAllPendingNodeSets() {
+        if (m_factoryNameToPendingNodeSetMap.isEmpty()) {
+            return;
+        }
+        while (!m_factoryNameToPendingNodeSetMap.isEmpty()) {
+            createPendingNodeSet(m_factoryNameToPendingNodeSetMap.keySet().iterator().next());
+        }
+        RegistrationIndex.getInstance().save();
+    }
+
+    /** Creates the node set whose creation was deferred because its content is known from the index. */
+    private void createPendingNodeSet(final String factoryClassName) {
+        IConfigurationElement element = m_factoryNameToPendingNodeSetMap.get(factoryClassName);
+        m_factoryNameToPendingNodeSetMap.values().removeIf(e -> e == element);
+        NodeSetFactoryExtension.from(element).ifPresent(this::addNodeSetFactoryExtension);
+    }
+
+    private void addNodeSetFactoryExtension(final NodeSetFactoryExtension nodeSetFactoryExtension) {
+        nodeSetFactoryExtension.getClassNameToFactoryMap().keySet().stream()
+            .forEach(clName -> m_factoryNameToNodeSetFactoryExtensionMap.put(clName, nodeSetFactoryExtension));
+        RegistrationIndex.getInstance().put(ID_NODE_SET, getIndexKey(nodeSetFactoryExtension.getConfigurationElement()),
+            new ArrayList<>(nodeSetFactoryExtension.getClassNameToFactoryMap().keySet()));
+    }
+
+    private static String getIndexKey(final IConfigurationElement element) {
+        return NodeSetFactoryExtension.getContributingPlugIn(element) + ":"
+            + element.getAttribute(NodeSetFactoryExtension.SET_FACTORY_CLASS_ATTRIBUTE);
+    }
+
     private void collectNodeFactoryExtensions() {
         IExtensionRegistry registry = Platform.getExtensionRegistry();
         IExtensionPoint point = registry.getExtensionPoint(ID_NODE);
@@ -217,18 +269,25 @@ private void collectNodeSetFactoryExtensions() {
         IExtensionRegistry registry = Platform.getExtensionRegistry();
         IExtensionPoint point = registry.getExtensionPoint(ID_NODE_SET);
         CheckUtils.checkState(point != null, "Invalid extension point: %s", ID_NODE_SET);
+        final RegistrationIndex index = RegistrationIndex.getInstance();
+        // node sets whose factory class names are known from the index are created on first use
         @SuppressWarnings("null")
-        List<NodeSetFactoryExtension> nodeSetFactoryExtensions = Arrays.stream(point.getExtensions())//
+        List<IConfigurationElement> unindexedElements = Arrays.stream(point.getExtensions())//
             .flatMap(ext -> Stream.of(ext.getConfigurationElements()))//
+            .filter(element -> {
+                Optional<List<String>> classNames = index.get(ID_NODE_SET, getIndexKey(element));
+                classNames.ifPresent(l -> l.forEach(clName -> m_factoryNameToPendingNodeSetMap.put(clName, element)));
+                return !classNames.isPresent();
+            })//
+            .collect(Collectors.toList());
+        List<NodeSetFactoryExtension> nodeSetFactoryExtensions = unindexedElements.stream()//
             .parallel()// extensions will be activated in this stream, which is expensive
             .map(element -> NodeSetFactoryExtension.from(element))//
             .filter(Optional::isPresent)//
             .map(Optional::get)//
             .collect(Collectors.toList());
-        for (NodeSetFactoryExtension nodeSetFactoryExtension : nodeSetFactoryExtensions) {
-            nodeSetFactoryExtension.getClassNameToFactoryMap().keySet().stream()
-                .forEach(clName -> m_factoryNameToNodeSetFactoryExtensionMap.put(clName, nodeSetFactoryExtension));
-        }
+        nodeSetFactoryExtensions.forEach(this::addNodeSetFactoryExtension);
+        index.save();
     }
 
     /**
@@ -242,13 +301,14 @@ public void addLoadedFactory(final Class<? extends NodeFactory<NodeModel>> facto
     }
 
     @Override
-    public String toString() {
+    public synchronized String toString() {
         long totalNodes = m_factoryNameToNodeFactoryExtensionMap.size();
         long deprecatedNodes = m_factoryNameToNodeFactoryExtensionMap.values()//
                 .stream().filter(d -> d.isDeprecated()).count();
         long hiddenNodes = m_factoryNameToNodeFactoryExtensionMap.values()//
                 .stream().filter(d -> d.isHidden()).count();
-        long nodesets = m_factoryNameToNodeSetFactoryExtensionMap.values().stream().distinct().count();
+        long nodesets = m_factoryNameToNodeSetFactoryExtensionMap.values().stream().distinct().count()
+            + m_factoryNameToPendingNodeSetMap.values().stream().distinct().count();
         return String.format("%d nodes (%d deprecated, %d hidden), %d node sets", totalNodes, deprecatedNodes,
             hiddenNodes, nodesets);
     }
@@ -81,7 +81,7 @@ public final class NodeSetFactoryExtension {
 
     private static final NodeLogger LOGGER = NodeLogger.getLogger(NodeSetFactoryExtension.class);
 
-    private static final String SET_FACTORY_CLASS_ATTRIBUTE = "factory-class";
+    static final String SET_FACTORY_CLASS_ATTRIBUTE = "factory-class";
 
     private final IConfigurationElement m_configurationElement;
 
@@ -144,6 +144,11 @@ Class<? extends NodeFactory<? extends NodeModel>> getClassForFactoryClassName(fi
         return cl;
     }
 
+    /** @return the configuration element this node set was created from. */
+    IConfigurationElement getConfigurationElement() {
+        return m_configurationElement;
+    }
+
     /** @return the number of nodes defined through this NodeSetFactory. */
     public long getNumberOfNodes() {
         return m_numberOfNodes;
@@ -47,6 +47,7 @@
  */
 package org.knime.core.node.port.database;
 
+import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.regex.Matcher;
@@ -129,6 +130,18 @@ public void setFetchSize(final Statement statement, final int fetchSize) throws
             }
         }
 
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public int adaptFetchSize(final ResultSet result, final int fetchSize) throws SQLException {
+            if (fetchSize >= 0) {
+                return super.adaptFetchSize(result, fetchSize);
+            }
+            // results are streamed row by row (see #setFetchSize), which must not be changed
+            return getAdaptiveFetchSize(result.getMetaData().getColumnCount());
+        }
+
         // pattern that matches all(?) SQL queries for which we must NOT append a LIMIT without wrapping the query first
         private static final Pattern UNSAVE_LIMIT_PATTERN = Pattern.compile(
             "(?i)(?:LIMIT\\s+\\d+|PROCEDURE\\s+\\S+|INTO\\s+\\S+|FOR\\s+UPDATE|LOCK\\s+IN\\s+SHARE\\s+MODE)");
@@ -47,6 +47,7 @@
  */
 package org.knime.core.node.port.database;
 
+import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.List;
@@ -76,6 +77,13 @@
  */
 public class StatementManipulator {
 
+    /** Number of cells per round trip the adaptive fetch size aims at. */
+    private static final int ADAPTIVE_FETCH_CELLS = 100000;
+
+    private static final int MIN_ADAPTIVE_FETCH_SIZE = 100;
+
+    private static final int MAX_ADAPTIVE_FETCH_SIZE = 10000;
+
     private final PivotStatementGenerator m_pivot;
 
     private final BinningStatementGenerator m_binning;
@@ -260,6 +268,40 @@ public void setFetchSize(final Statement statement, final int fetchSize) throws
         }
     }
 
+    /**
+     * Adapts the fetch size of an executed query to the number of columns in its result if no fetch size has been
+     * set explicitly. Many drivers default to very small fetch sizes (e.g. 10 rows), which results in one round trip
+     * per few rows; the adapted fetch size aims at a fixed number of cells per round trip instead.
+     *
+     * @param result the result set of the executed query
+     * @param fetchSize the fetch size passed to {@link #setFetchSize(Statement, int)}; a negative value indicates that
+     *            it has not been set explicitly
+     * @return the number of rows that are fetched per round trip, which can be used as batch size when processing
+     *         the result
+     * @throws SQLException if the meta data of the result set cannot be read
+     * @since 4.3
+     */
+    public int adaptFetchSize(final ResultSet result, final int fetchSize) throws SQLException {
+        if (fetchSize > 0) {
+            return fetchSize;
+        }
+        final int adapted = getAdaptiveFetchSize(result.getMetaData().getColumnCount());
+        if (fetchSize < 0 && result.getFetchSize() < adapted) {
+            result.setFetchSize(adapted);
+        }
+        return adapted;
+    }
+
+    /**
+     * @param columnCount the number of columns of the result
+     * @return the fetch size for a result with the given number of columns
+     * @since 4.3
+     */
+    protected static int getAdaptiveFetchSize(final int columnCount) {
+        final int size = ADAPTIVE_FETCH_CELLS / Math.max(1, columnCount);
+        return Math.max(MIN_ADAPTIVE_FETCH_SIZE, Math.min(MAX_ADAPTIVE_FETCH_SIZE, size));
+    }
+
     /**
      * Returns a random name for a temporary table.
      *
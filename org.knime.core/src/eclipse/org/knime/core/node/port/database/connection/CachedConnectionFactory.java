@@ -246,6 +246,40 @@ public Connection call() throws Exception {
         }
     }
 
+    /**
+     * Opens a new connection with the given settings that is neither taken from nor added to the connection cache.
+     * Such connections are used where several connections to the same database are needed at the same time, e.g.
+     * for writing in parallel. The caller is responsible for closing the connection.
+     *
+     * @param cp {@link CredentialsProvider} providing user/password
+     * @param settings {@link DatabaseConnectionSettings}
+     * @return a new connection
+     * @throws InvalidSettingsException if the driver cannot be found or does not accept the URL
+     * @throws SQLException if the connection cannot be opened
+     * @since 4.3
+     */
+    public Connection createUncachedConnection(final CredentialsProvider cp,
+        final DatabaseConnectionSettings settings) throws InvalidSettingsException, SQLException {
+        final String jdbcUrl = settings.getJDBCUrl();
+        final Driver d;
+        try {
+            d = getDriverFactory().getDriver(settings);
+        } catch (Exception ex) {
+            throw new InvalidSettingsException(ex);
+        }
+        if (!d.acceptsURL(jdbcUrl)) {
+            throw new InvalidSettingsException("Driver \"" + d + "\" does not accept URL: " + jdbcUrl);
+        }
+        LOGGER.debug("Opening additional database connection to \"" + jdbcUrl + "\"...");
+        final Connection conn = createConnection(settings, jdbcUrl, settings.getUserName(cp), settings.getPassword(cp),
+            settings.useKerberos(), d);
+        if (conn == null) {
+            throw new SQLException("Driver \"" + d.getClass().getName() + "\" returned no connection for URL \""
+                + jdbcUrl + "\"");
+        }
+        return conn;
+    }
+
     private static ConnectionKey createConnectionKey(final CredentialsProvider cp, final DatabaseConnectionSettings settings) {
         final String jdbcUrl = settings.getJDBCUrl();
         final String user = settings.getUserName(cp);
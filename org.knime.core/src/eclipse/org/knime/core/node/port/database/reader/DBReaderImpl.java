@@ -73,6 +73,7 @@
 import org.knime.core.node.CanceledExecutionException;
 import org.knime.core.node.ExecutionContext;
 import org.knime.core.node.ExecutionMonitor;
+import org.knime.core.node.KNIMEConstants;
 import org.knime.core.node.NodeLogger;
 import org.knime.core.node.port.database.DatabaseConnectionSettings;
 import org.knime.core.node.port.database.DatabaseHelper;
@@ -93,6 +94,10 @@ public class DBReaderImpl extends DatabaseHelper implements DBReader {
     static final NodeLogger LOGGER =
             NodeLogger.getLogger(DBReaderImpl.class);
 
+    /** Whether rows are read ahead in a background thread (with a fetch size adapted to the number of columns), see
+     * {@link KNIMEConstants#PROPERTY_DATABASE_PREFETCH}. */
+    private static final boolean PREFETCH = Boolean.getBoolean(KNIMEConstants.PROPERTY_DATABASE_PREFETCH);
+
     DataTableSpec m_spec;
 
     private BufferedDataContainer m_errorContainer;
@@ -299,10 +304,16 @@ private DBRowIterator createRowIteratorConnection(final Connection conn, final E
         final String selectQuery = oQueries[oQueries.length - 1];
         LOGGER.debug("Executing SQL statement as executeQuery: " + selectQuery);
         final ResultSet result = stmt.executeQuery(selectQuery);
+        final int batchSize =
+            PREFETCH ? dbConn.getUtility().getStatementManipulator().adaptFetchSize(result, fetchsize) : -1;
         LOGGER.debug("Reading meta data from database ResultSet...");
         m_spec = createTableSpec(result.getMetaData());
         LOGGER.debug("Parsing database ResultSet...");
-        final RowIterator iterator = createDBRowIterator(m_spec, dbConn, m_blobFactory, useDbRowId, result);
+        RowIterator iterator = createDBRowIterator(m_spec, dbConn, m_blobFactory, useDbRowId, result);
+        if (PREFETCH) {
+            // decode the next batch of rows while the previous one is written into the table
+            iterator = new PrefetchingRowIterator(iterator, batchSize);
+        }
         return new RowIteratorConnection(conn, stmt, m_spec, iterator);
     }
 
@@ -358,6 +369,10 @@ DataTable createTable(final boolean useDbRowId, final int cachedNoRows, final Cr
                 final String lastQuery = oQueries[oQueries.length - 1];
                 LOGGER.debug("Executing SQL statement as executeQuery: " + lastQuery);
                 final ResultSet result = stmt.executeQuery(lastQuery);
+                if (PREFETCH && cachedNoRows < 0) {
+                    dbConn.getUtility().getStatementManipulator().adaptFetchSize(result,
+                        (DatabaseConnectionSettings.FETCH_SIZE != null) ? DatabaseConnectionSettings.FETCH_SIZE : -1);
+                }
                 LOGGER.debug("Reading meta data from database ResultSet...");
                 m_spec = createTableSpec(result.getMetaData());
                 LOGGER.debug("Parsing database ResultSet...");
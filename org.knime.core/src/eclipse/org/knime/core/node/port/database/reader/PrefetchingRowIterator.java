@@ -0,0 +1,220 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ------------------------------------------------------------------------
+ *
+ */
+package org.knime.core.node.port.database.reader;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.knime.core.data.DataRow;
+import org.knime.core.data.RowIterator;
+import org.knime.core.data.container.CloseableRowIterator;
+import org.knime.core.util.ThreadUtils;
+
+/**
+ * Row iterator that reads the rows of a database iterator in batches on a background thread, so that decoding the
+ * next fetch batch of the result set overlaps with processing (e.g. writing into a table) of the previous one. The
+ * wrapped iterator is only ever accessed by the background thread.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+final class PrefetchingRowIterator extends CloseableRowIterator {
+
+    /** Number of batches that are read ahead. */
+    private static final int QUEUE_CAPACITY = 2;
+
+    /** Marks the end of the result set in the queue. */
+    private static final List<DataRow> END = Collections.emptyList();
+
+    private final BlockingQueue<List<DataRow>> m_queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+
+    private final Thread m_reader;
+
+    private volatile Throwable m_failure;
+
+    private volatile boolean m_closed;
+
+    private Iterator<DataRow> m_current = Collections.emptyIterator();
+
+    private boolean m_endReached;
+
+    /**
+     * Creates and starts the iterator.
+     *
+     * @param iterator the database row iterator to read from
+     * @param batchSize the number of rows per batch
+     */
+    PrefetchingRowIterator(final RowIterator iterator, final int batchSize) {
+        final int size = Math.max(1, batchSize);
+        m_reader = ThreadUtils.threadWithContext(() -> read(iterator, size), "KNIME Database Reader");
+        m_reader.setDaemon(true);
+        m_reader.start();
+    }
+
+    private void read(final RowIterator iterator, final int batchSize) {
+        try {
+            List<DataRow> batch = new ArrayList<>(batchSize);
+            while (!m_closed && iterator.hasNext()) {
+                batch.add(iterator.next());
+                if (batch.size() == batchSize) {
+                    m_queue.put(batch);
+                    batch = new ArrayList<>(batchSize);
+                }
+            }
+            if (!batch.isEmpty()) {
+                m_queue.put(batch);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        } catch (Throwable t) { // NOSONAR rethrown in the consuming thread
+            m_failure = t;
+        }
+        try {
+            while (!m_closed && !m_queue.offer(END, 100, TimeUnit.MILLISECONDS)) {
+                // wait for the consumer to take the pending batches
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean hasNext() {
+        while (!m_current.hasNext()) {
+            if (m_endReached) {
+                return false;
+            }
+            final List<DataRow> batch;
+            try {
+                batch = m_queue.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                close();
+                throw new IllegalStateException("Interrupted while reading rows from database", e);
+            }
+            if (batch == END) {
+                m_endReached = true;
+                if (m_failure != null) {
+                    final Throwable failure = m_failure;
+                    if (failure instanceof RuntimeException) {
+                        throw (RuntimeException)failure;
+                    } else if (failure instanceof Error) {
+                        throw (Error)failure;
+                    }
+                    throw new IllegalStateException("Reading rows from database failed: " + failure.getMessage(),
+                        failure);
+                }
+                return false;
+            }
+            m_current = batch.iterator();
+        }
+        return true;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public DataRow next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException("No more rows in database result");
+        }
+        return m_current.next();
+    }
+
+    /**
+     * Stops the background thread and waits until it no longer accesses the underlying iterator, so that the result
+     * set can safely be closed afterwards. This method doesn't return before the background thread has terminated.
+     */
+    @Override
+    public void close() {
+        if (m_closed) {
+            return;
+        }
+        m_closed = true;
+        m_endReached = true;
+        m_current = Collections.emptyIterator();
+        // the reader is first given the chance to notice the closed flag as some drivers close the connection on
+        // interrupts; only if it doesn't stop in time (e.g. blocked in the driver) it is interrupted
+        boolean interrupted = awaitReader(System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(1));
+        if (m_reader.isAlive()) {
+            m_reader.interrupt();
+            interrupted |= awaitReader(Long.MAX_VALUE);
+        }
+        m_queue.clear();
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Drains the queue until the reader has terminated or the deadline has passed. Not interruptible as the caller
+     * closes the result set next.
+     *
+     * @return whether the calling thread was interrupted while waiting
+     */
+    private boolean awaitReader(final long deadline) {
+        boolean interrupted = false;
+        while (m_reader.isAlive() && System.currentTimeMillis() < deadline) {
+            m_queue.clear();
+            try {
+                m_reader.join(100);
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        return interrupted;
+    }
+}
@@ -54,6 +54,7 @@
 
 import org.knime.core.data.DataTableSpec;
 import org.knime.core.data.RowIterator;
+import org.knime.core.data.container.CloseableRowIterator;
 import org.knime.core.node.port.database.DatabaseConnectionSettings;
 
 /**
@@ -113,6 +114,10 @@ public DataTableSpec getDataTableSpec() {
      */
     @Override
     public void close() throws SQLException {
+        if (m_iterator instanceof CloseableRowIterator) {
+            // stop any background access to the result set before closing the statement
+            ((CloseableRowIterator)m_iterator).close();
+        }
         if (m_stmt != null) {
             if (!m_conn2.getAutoCommit()) {
                 m_conn2.commit();
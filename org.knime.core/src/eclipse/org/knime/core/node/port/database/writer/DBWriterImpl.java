@@ -321,6 +321,21 @@ public String writeData(final String table, final RowInput input, final long row
             // count number of rows added to current batch
             int curBatchSize = 0;
 
+            final int writerThreads = ParallelBatchInserter.getWriterThreads(conSettings, batchSize);
+            if (writerThreads > 1 && !failOnError) {
+                // a rollback of all changes on error is not possible across several connections
+                LOGGER.debug("Executing SQL statement with " + writerThreads + " writers: " + insertStamtement);
+                if (!conn.getAutoCommit()) {
+                    // writers use their own connections and must see the created table
+                    conn.commit();
+                }
+                final TimeZone timezone = conSettings.getTimeZone();
+                final Map<Integer, Integer> types = columnTypes;
+                return new ParallelBatchInserter(conSettings, cp, insertStamtement, writerThreads, batchSize,
+                    (s, row) -> fillRow(s, row, spec, mapping, insertNullForMissingCols, timezone, types))
+                        .write(input, rowCount, exec);
+            }
+
             LOGGER.debug("Executing SQL statement as prepareStatement: " + insertStamtement);
             final PreparedStatement stmt = conn.prepareStatement(insertStamtement);
             // remember auto-commit flag
@@ -341,19 +356,7 @@ public String writeData(final String table, final RowInput input, final long row
                             exec.setProgress("Writing Row#" + cnt);
                         }
 
-                    int dbIdx = 1;
-                    for (int i = 0; i < mapping.length; i++) {
-                        if (mapping[i] < 0) {
-                            if (insertNullForMissingCols) {
-                                //insert only null if the insert null for missing col option is enabled
-                                stmt.setNull(dbIdx++, Types.NULL);
-                            }
-                        } else {
-                            final DataColumnSpec cspec = spec.getColumnSpec(mapping[i]);
-                            final DataCell cell = row.getCell(mapping[i]);
-                            fillStatement(stmt, dbIdx++, cspec, cell, timezone, columnTypes);
-                        }
-                    }
+                    fillRow(stmt, row, spec, mapping, insertNullForMissingCols, timezone, columnTypes);
                     // if batch mode
                     if (batchSize > 1) {
                         // a new row will be added
@@ -429,6 +432,9 @@ public String writeData(final String table, final RowInput input, final long row
                 }
                 if (allErrors == 0) {
                         return null;
+                    } else if (batchSize > 1) {
+                        // a failing batch is skipped as a whole, in contrast to ParallelBatchInserter (counting rows)
+                        return "Errors in \"" + allErrors + "\" batches writing " + (cnt - 1) + " rows.";
                     } else {
                         return "Errors \"" + allErrors + "\" writing " + (cnt - 1) + " rows.";
                     }
@@ -439,6 +445,24 @@ public String writeData(final String table, final RowInput input, final long row
         });
     }
 
+    private void fillRow(final PreparedStatement stmt, final DataRow row, final DataTableSpec spec,
+        final int[] mapping, final boolean insertNullForMissingCols, final TimeZone timezone,
+        final Map<Integer, Integer> columnTypes) throws SQLException {
+        int dbIdx = 1;
+        for (int i = 0; i < mapping.length; i++) {
+            if (mapping[i] < 0) {
+                if (insertNullForMissingCols) {
+                    //insert only null if the insert null for missing col option is enabled
+                    stmt.setNull(dbIdx++, Types.NULL);
+                }
+            } else {
+                final DataColumnSpec cspec = spec.getColumnSpec(mapping[i]);
+                final DataCell cell = row.getCell(mapping[i]);
+                fillStatement(stmt, dbIdx++, cspec, cell, timezone, columnTypes);
+            }
+        }
+    }
+
     /** Create connection to update table in database.
      * @param data The data to write.
      * @param setColumns columns part of the SET clause
@@ -0,0 +1,457 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ------------------------------------------------------------------------
+ *
+ */
+package org.knime.core.node.port.database.writer;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.knime.core.data.DataRow;
+import org.knime.core.node.ExecutionMonitor;
+import org.knime.core.node.KNIMEConstants;
+import org.knime.core.node.NodeLogger;
+import org.knime.core.node.port.database.DatabaseConnectionSettings;
+import org.knime.core.node.port.database.connection.CachedConnectionFactory;
+import org.knime.core.node.port.database.connection.DBConnectionFactory;
+import org.knime.core.node.streamable.RowInput;
+import org.knime.core.node.workflow.CredentialsProvider;
+import org.knime.core.util.ThreadUtils;
+
+/**
+ * Inserts rows into a database table using several writer threads, each with its own connection and prepared
+ * statement. The calling thread reads the rows from the input and groups them into batches while the writer threads
+ * fill and execute the batches, so that reading the input overlaps with the database round trips.
+ *
+ * <p>
+ * Each writer commits after a group of batches. A failing batch is retried together with the uncommitted batches of
+ * its group; if it keeps failing the rows of the group are written one by one, so that only the failing rows are
+ * skipped and each of them is counted as an error. If the execution is canceled or a writer fails, the uncommitted
+ * batches of the other writers are rolled back. As the rows are written by several transactions, a rollback of all
+ * changes on error is not possible; this class must therefore not be used if the writer should fail on errors.
+ * </p>
+ *
+ * <p>No public API.</p>
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ * @since 4.3
+ * @noreference This class is not intended to be referenced by clients.
+ */
+public final class ParallelBatchInserter {
+
+    private static final NodeLogger LOGGER = NodeLogger.getLogger(ParallelBatchInserter.class);
+
+    /** Number of batches a writer commits at once. */
+    static final int COMMIT_INTERVAL = 8;
+
+    /** Number of times a failed group of batches is retried before the batches are written one by one. */
+    static final int MAX_RETRIES = 3;
+
+    /** Number of writer threads, see {@link KNIMEConstants#PROPERTY_DATABASE_WRITER_THREADS}. */
+    private static final int WRITER_THREADS = initWriterThreads();
+
+    private static int initWriterThreads() {
+        String threads = System.getProperty(KNIMEConstants.PROPERTY_DATABASE_WRITER_THREADS);
+        if (threads != null) {
+            try {
+                return Math.max(1, Integer.parseInt(threads.trim()));
+            } catch (NumberFormatException nfe) {
+                LOGGER.warn("Number of database writer threads not valid '" + threads + "', using 1.");
+            }
+        }
+        return 1;
+    }
+
+    /** Marks the end of the input for a writer. */
+    private static final Batch END = new Batch(-1, new ArrayList<>(0));
+
+    /**
+     * Sets the parameters of the insert statement for one row.
+     */
+    @FunctionalInterface
+    public interface RowFiller {
+        /**
+         * @param stmt the insert statement
+         * @param row the row to insert
+         * @throws SQLException if a parameter cannot be set
+         */
+        void fill(PreparedStatement stmt, DataRow row) throws SQLException;
+    }
+
+    /** Rows written in one call of {@link PreparedStatement#executeBatch()}. */
+    private static final class Batch {
+        /** Number of the first row in the batch, starting at 1. */
+        private final long m_firstRow;
+
+        private final List<DataRow> m_rows;
+
+        Batch(final long firstRow, final List<DataRow> rows) {
+            m_firstRow = firstRow;
+            m_rows = rows;
+        }
+
+        /** @return a batch holding the single row with the given index */
+        Batch getRow(final int index) {
+            return new Batch(m_firstRow + index, m_rows.subList(index, index + 1));
+        }
+
+        String describe() {
+            if (m_rows.size() == 1) {
+                return "row #" + m_firstRow + " (" + m_rows.get(0).getKey() + ")";
+            }
+            return "rows #" + m_firstRow + " - #" + (m_firstRow + m_rows.size() - 1);
+        }
+    }
+
+    /** Opens the connection of a writer thread. */
+    private final Callable<Connection> m_connectionOpener;
+
+    private final String m_insertStatement;
+
+    private final int m_threads;
+
+    private final int m_batchSize;
+
+    private final RowFiller m_filler;
+
+    private final BlockingQueue<Batch> m_queue;
+
+    private final AtomicLong m_errors = new AtomicLong();
+
+    private final AtomicLong m_reportedErrors = new AtomicLong();
+
+    private volatile boolean m_stopped;
+
+    /**
+     * @param settings the settings of the database to write to
+     * @param cp {@link CredentialsProvider} providing user/password
+     * @param insertStatement the SQL insert statement with one parameter per inserted column
+     * @param threads the number of writer threads and connections
+     * @param batchSize the number of rows per batch
+     * @param filler sets the parameters of the insert statement for a row
+     */
+    public ParallelBatchInserter(final DatabaseConnectionSettings settings, final CredentialsProvider cp,
+        final String insertStatement, final int threads, final int batchSize, final RowFiller filler) {
+        this(() -> ((CachedConnectionFactory)settings.getUtility().getConnectionFactory())
+            .createUncachedConnection(cp, settings), insertStatement, threads, batchSize, filler);
+    }
+
+    /**
+     * @param connectionOpener opens the connection of a writer thread, which is closed by the writer
+     * @param insertStatement the SQL insert statement with one parameter per inserted column
+     * @param threads the number of writer threads and connections
+     * @param batchSize the number of rows per batch
+     * @param filler sets the parameters of the insert statement for a row
+     */
+    ParallelBatchInserter(final Callable<Connection> connectionOpener, final String insertStatement,
+        final int threads, final int batchSize, final RowFiller filler) {
+        m_connectionOpener = connectionOpener;
+        m_insertStatement = insertStatement;
+        m_threads = Math.max(1, threads);
+        m_batchSize = Math.max(1, batchSize);
+        m_filler = filler;
+        m_queue = new ArrayBlockingQueue<>(2 * m_threads);
+    }
+
+    /**
+     * Returns the number of writer threads to use for the given database, which is 1 if rows should be written
+     * sequentially.
+     *
+     * @param settings the settings of the database to write to
+     * @param batchSize the batch size of the writer
+     * @return the number of writer threads, 1 if parallel writing is not enabled or not supported
+     */
+    public static int getWriterThreads(final DatabaseConnectionSettings settings, final int batchSize) {
+        if (WRITER_THREADS <= 1 || batchSize <= 1) {
+            return 1;
+        }
+        final DBConnectionFactory factory = settings.getUtility().getConnectionFactory();
+        return factory instanceof CachedConnectionFactory ? WRITER_THREADS : 1;
+    }
+
+    /**
+     * Writes all rows of the input.
+     *
+     * @param input the rows to write
+     * @param rowCount the number of rows in the input, -1 if unknown
+     * @param exec for progress and cancellation
+     * @return an error string with the number of rows that could not be written (each failed row is counted, unlike
+     *         the sequential writer counting failed batches) or <code>null</code> if all rows were written
+     * @throws Exception if the input cannot be read, a connection cannot be opened or the execution is canceled
+     */
+    public String write(final RowInput input, final long rowCount, final ExecutionMonitor exec) throws Exception {
+        final ExecutorService executor =
+            ThreadUtils.executorServiceWithContext(Executors.newFixedThreadPool(m_threads));
+        final List<Future<?>> writers = new ArrayList<>(m_threads);
+        long cnt = 0;
+        try {
+            for (int i = 0; i < m_threads; i++) {
+                writers.add(executor.submit(() -> {
+                    runWriter(exec);
+                    return null;
+                }));
+            }
+            List<DataRow> rows = new ArrayList<>(m_batchSize);
+            DataRow row;
+            while ((row = input.poll()) != null) {
+                cnt++;
+                exec.checkCanceled();
+                if (rowCount > 0) {
+                    exec.setProgress(1.0 * cnt / rowCount, "Row " + "#" + cnt);
+                } else {
+                    exec.setProgress("Writing Row#" + cnt);
+                }
+                rows.add(row);
+                if (rows.size() == m_batchSize) {
+                    put(new Batch(cnt - rows.size() + 1, rows), writers, exec);
+                    rows = new ArrayList<>(m_batchSize);
+                }
+            }
+            if (!rows.isEmpty()) {
+                put(new Batch(cnt - rows.size() + 1, rows), writers, exec);
+            }
+            for (int i = 0; i < m_threads; i++) {
+                put(END, writers, exec);
+            }
+            for (Future<?> writer : writers) {
+                get(writer);
+            }
+        } finally {
+            m_stopped = true;
+            m_queue.clear();
+            executor.shutdown();
+            executor.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+        }
+        final long allErrors = m_errors.get();
+        if (allErrors == 0) {
+            return null;
+        } else {
+            return "Errors \"" + allErrors + "\" writing " + cnt + " rows.";
+        }
+    }
+
+    /** Queues a batch, failing early if a writer terminated with an exception. */
+    private void put(final Batch batch, final List<Future<?>> writers, final ExecutionMonitor exec)
+        throws Exception {
+        while (!m_queue.offer(batch, 100, TimeUnit.MILLISECONDS)) {
+            exec.checkCanceled();
+            for (Future<?> writer : writers) {
+                if (writer.isDone()) {
+                    get(writer);
+                    throw new SQLException("Database writer terminated unexpectedly");
+                }
+            }
+        }
+    }
+
+    private static void get(final Future<?> writer) throws Exception {
+        try {
+            writer.get();
+        } catch (ExecutionException ee) {
+            final Throwable cause = ee.getCause();
+            if (cause instanceof Exception) {
+                throw (Exception)cause;
+            }
+            throw ee;
+        }
+    }
+
+    private void runWriter(final ExecutionMonitor exec) throws Exception {
+        try (Connection conn = m_connectionOpener.call();
+                PreparedStatement stmt = conn.prepareStatement(m_insertStatement)) {
+            DatabaseConnectionSettings.setAutoCommit(conn, false);
+            new Writer(conn, stmt, exec).run();
+        }
+    }
+
+    private void reportError(final String errorMsg, final Throwable t, final ExecutionMonitor exec) {
+        m_errors.incrementAndGet();
+        final long reported = m_reportedErrors.getAndIncrement();
+        if (reported < 10) {
+            exec.setMessage(errorMsg);
+            LOGGER.warn(errorMsg);
+        } else if (reported == 10) {
+            exec.setMessage(errorMsg);
+            LOGGER.warn(errorMsg + " - more errors...", t);
+        }
+    }
+
+    /** Writes batches on one connection, owned by a single writer thread. */
+    private final class Writer {
+
+        private final Connection m_conn;
+
+        private final PreparedStatement m_stmt;
+
+        private final ExecutionMonitor m_exec;
+
+        /** Batches executed since the last commit. */
+        private final List<Batch> m_uncommitted = new ArrayList<>(COMMIT_INTERVAL);
+
+        /** Failure of the last {@link #execute(Batch)} or {@link #tryCommit()}. */
+        private SQLException m_lastFailure;
+
+        Writer(final Connection conn, final PreparedStatement stmt, final ExecutionMonitor exec) {
+            m_conn = conn;
+            m_stmt = stmt;
+            m_exec = exec;
+        }
+
+        void run() throws InterruptedException {
+            boolean finished = false;
+            try {
+                while (!m_stopped) {
+                    final Batch batch = m_queue.poll(100, TimeUnit.MILLISECONDS);
+                    if (batch == null) {
+                        continue;
+                    }
+                    if (batch == END) {
+                        finished = true;
+                        break;
+                    }
+                    m_uncommitted.add(batch);
+                    final boolean success = execute(batch);
+                    if (!success || m_uncommitted.size() == COMMIT_INTERVAL) {
+                        commit(success);
+                    }
+                }
+            } finally {
+                if (!m_uncommitted.isEmpty()) {
+                    if (finished) {
+                        commit(true);
+                    } else {
+                        // canceled or another writer failed
+                        rollback();
+                        m_uncommitted.clear();
+                    }
+                }
+            }
+        }
+
+        /**
+         * Commits the uncommitted batches, retrying them if a batch or the commit fails.
+         *
+         * @param executed whether all uncommitted batches have been executed successfully
+         */
+        private void commit(final boolean executed) {
+            boolean success = executed && tryCommit();
+            for (int attempt = 1; !success && attempt <= MAX_RETRIES && !m_stopped; attempt++) {
+                rollback();
+                try {
+                    Thread.sleep(100L * attempt);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+                success = m_uncommitted.stream().allMatch(this::execute) && tryCommit();
+            }
+            if (!success) {
+                // write the rows individually to skip only the failing ones
+                rollback();
+                for (Batch batch : m_uncommitted) {
+                    for (int i = 0; i < batch.m_rows.size() && !m_stopped; i++) {
+                        final Batch row = batch.getRow(i);
+                        if (!(execute(row) && tryCommit())) {
+                            rollback();
+                            reportError("Error while adding " + row.describe() + ", reason: "
+                                + (m_lastFailure == null ? "unknown" : m_lastFailure.getMessage()), m_lastFailure,
+                                m_exec);
+                        }
+                    }
+                }
+            }
+            m_uncommitted.clear();
+        }
+
+        private boolean execute(final Batch batch) {
+            try {
+                for (DataRow row : batch.m_rows) {
+                    m_filler.fill(m_stmt, row);
+                    m_stmt.addBatch();
+                }
+                m_stmt.executeBatch();
+                return true;
+            } catch (SQLException e) {
+                m_lastFailure = e;
+                return false;
+            } finally {
+                try {
+                    m_stmt.clearBatch();
+                } catch (SQLException e) {
+                    LOGGER.debug("Could not clear batch: " + e.getMessage(), e);
+                }
+            }
+        }
+
+        private boolean tryCommit() {
+            try {
+                m_conn.commit();
+                return true;
+            } catch (SQLException e) {
+                m_lastFailure = e;
+                return false;
+            }
+        }
+
+        private void rollback() {
+            try {
+                m_conn.rollback();
+            } catch (SQLException e) {
+                LOGGER.debug("Rollback failed: " + e.getMessage(), e);
+            }
+        }
+    }
+}
@@ -109,6 +109,18 @@ public void initializeFrom(final PMMLDocument pmmlDoc) {
        m_spec = new DataTableSpec(colSpecs.toArray(new DataColumnSpec[0]));
     }
 
+    /**
+     * Initializes this translator with the result of another (already initialized) translator, used to restore
+     * cached results (see {@link PMMLDocumentCache}).
+     *
+     * @param other the initialized translator
+     */
+    void copyFrom(final PMMLDataDictionaryTranslator other) {
+        m_spec = other.m_spec;
+        m_activeDerivedFields.addAll(other.m_activeDerivedFields);
+        m_dictFields.addAll(other.m_dictFields);
+    }
+
 
     /**
      * @param pmmlDoc the PMML document to analyze
@@ -0,0 +1,202 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ------------------------------------------------------------------------
+ *
+ */
+package org.knime.core.node.port.pmml;
+
+import java.lang.ref.SoftReference;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Map;
+
+import org.apache.commons.codec.binary.Hex;
+import org.dmg.pmml.PMMLDocument;
+import org.knime.core.node.KNIMEConstants;
+import org.knime.core.node.NodeLogger;
+import org.knime.core.node.util.ConvenienceMethods;
+import org.knime.core.util.LRUCache;
+
+/**
+ * Cache of parsed {@link PMMLDocument}s and of the results of the {@link PMMLDataDictionaryTranslator} and
+ * {@link PMMLMiningSchemaTranslator} derived from them. Entries are keyed by a SHA-256 hash of the PMML content as it
+ * was read, so that the same model loaded repeatedly (e.g. in a loop, or by several nodes reading the same port
+ * object) is parsed only once. Entries are softly referenced and the number of entries is limited by
+ * {@link KNIMEConstants#PROPERTY_PMML_CACHE_SIZE}.
+ *
+ * <p>
+ * XMLBeans documents are mutable, hence the cache never hands out its own instances but copies of them; copying is
+ * considerably cheaper than parsing. The same holds for the translators, whose results are copied into the
+ * translator passed by the caller.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+final class PMMLDocumentCache {
+
+    private static final NodeLogger LOGGER = NodeLogger.getLogger(PMMLDocumentCache.class);
+
+    private static final int DEFAULT_SIZE = 10;
+
+    private static final Map<String, SoftReference<Entry>> CACHE = createCache();
+
+    private PMMLDocumentCache() {
+    }
+
+    private static Map<String, SoftReference<Entry>> createCache() {
+        final int size =
+            ConvenienceMethods.readIntSystemProperty(KNIMEConstants.PROPERTY_PMML_CACHE_SIZE, DEFAULT_SIZE);
+        return size > 0 ? new LRUCache<>(size) : null;
+    }
+
+    /** @return whether documents are cached, see {@link KNIMEConstants#PROPERTY_PMML_CACHE_SIZE} */
+    static boolean isEnabled() {
+        return CACHE != null;
+    }
+
+    /**
+     * Computes the key of a PMML content.
+     *
+     * @param content the PMML content as read from the stream
+     * @return the key or <code>null</code> if the cache is disabled
+     */
+    static String createKey(final byte[] content) {
+        if (CACHE == null) {
+            return null;
+        }
+        try {
+            return new String(Hex.encodeHex(MessageDigest.getInstance("SHA-256").digest(content)));
+        } catch (NoSuchAlgorithmException e) {
+            LOGGER.coding("SHA-256 not available", e);
+            return null;
+        }
+    }
+
+    /**
+     * @param key the content key, may be <code>null</code>
+     * @return a copy of the cached document or <code>null</code> if not cached
+     */
+    static PMMLDocument getDocument(final String key) {
+        Entry entry = getEntry(key);
+        return entry == null ? null : (PMMLDocument)entry.m_doc.copy();
+    }
+
+    /**
+     * Caches a copy of a parsed document.
+     *
+     * @param key the content key, may be <code>null</code> (then nothing is cached)
+     * @param doc the parsed document, which the caller continues to use
+     */
+    static void putDocument(final String key, final PMMLDocument doc) {
+        if (key == null) {
+            return;
+        }
+        SoftReference<Entry> ref = new SoftReference<>(new Entry((PMMLDocument)doc.copy()));
+        synchronized (CACHE) {
+            CACHE.put(key, ref);
+        }
+    }
+
+    /**
+     * Initializes the translator from the cached result or, if not cached, from the document (and caches the result).
+     *
+     * @param key the content key of the document, may be <code>null</code>
+     * @param doc the document
+     * @param translator the translator to initialize
+     */
+    static void initialize(final String key, final PMMLDocument doc, final PMMLDataDictionaryTranslator translator) {
+        Entry entry = getEntry(key);
+        PMMLDataDictionaryTranslator cached = entry == null ? null : entry.m_dataDictionary;
+        if (cached == null) {
+            cached = new PMMLDataDictionaryTranslator();
+            cached.initializeFrom(doc);
+            if (entry != null) {
+                entry.m_dataDictionary = cached;
+            }
+        }
+        translator.copyFrom(cached);
+    }
+
+    /**
+     * Initializes the translator from the cached result or, if not cached, from the document (and caches the result).
+     *
+     * @param key the content key of the document, may be <code>null</code>
+     * @param doc the document
+     * @param translator the translator to initialize
+     */
+    static void initialize(final String key, final PMMLDocument doc, final PMMLMiningSchemaTranslator translator) {
+        Entry entry = getEntry(key);
+        PMMLMiningSchemaTranslator cached = entry == null ? null : entry.m_miningSchema;
+        if (cached == null) {
+            cached = new PMMLMiningSchemaTranslator();
+            cached.initializeFrom(doc);
+            if (entry != null) {
+                entry.m_miningSchema = cached;
+            }
+        }
+        translator.copyFrom(cached);
+    }
+
+    private static Entry getEntry(final String key) {
+        if (key == null || CACHE == null) {
+            return null;
+        }
+        SoftReference<Entry> ref;
+        synchronized (CACHE) {
+            ref = CACHE.get(key);
+        }
+        return ref == null ? null : ref.get();
+    }
+
+    private static final class Entry {
+
+        private final PMMLDocument m_doc;
+
+        private volatile PMMLDataDictionaryTranslator m_dataDictionary;
+
+        private volatile PMMLMiningSchemaTranslator m_miningSchema;
+
+        Entry(final PMMLDocument doc) {
+            m_doc = doc;
+        }
+    }
+}
@@ -141,6 +141,17 @@ public void initializeFrom(final PMMLDocument pmmlDoc) {
     }
 
 
+    /**
+     * Initializes this translator with the result of another (already initialized) translator, used to restore
+     * cached results (see {@link PMMLDocumentCache}).
+     *
+     * @param other the initialized translator
+     */
+    void copyFrom(final PMMLMiningSchemaTranslator other) {
+        m_learningFields.addAll(other.m_learningFields);
+        m_targetFields.addAll(other.m_targetFields);
+    }
+
     /**
      * @param pmmlDoc the PMML document to check
      * @param miningField the mining field to check
@@ -44,6 +44,7 @@
  */
 package org.knime.core.node.port.pmml;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
@@ -61,6 +62,7 @@
 import javax.xml.namespace.QName;
 import javax.xml.parsers.ParserConfigurationException;
 
+import org.apache.commons.io.IOUtils;
 import org.apache.xmlbeans.SchemaType;
 import org.apache.xmlbeans.XmlCursor;
 import org.apache.xmlbeans.XmlException;
@@ -92,7 +94,6 @@
 import org.dmg.pmml.TransformationDictionaryDocument.TransformationDictionary;
 import org.dmg.pmml.TreeModelDocument.TreeModel;
 import org.knime.core.data.DataTableSpec;
-import org.knime.core.data.util.LockedSupplier;
 import org.knime.core.data.util.NonClosableInputStream;
 import org.knime.core.data.xml.PMMLCellFactory;
 import org.knime.core.data.xml.PMMLValue;
@@ -105,7 +106,6 @@
 import org.knime.core.pmml.PMMLModelType;
 import org.knime.core.pmml.PMMLUtils;
 import org.knime.core.pmml.PMMLValidator;
-import org.w3c.dom.Document;
 import org.w3c.dom.DocumentFragment;
 import org.xml.sax.SAXException;
 
@@ -202,6 +202,9 @@ public final class PMMLPortObject implements PortObject {
 
     private PMMLDocument m_pmmlDoc;
 
+    /** Key of the document in the {@link PMMLDocumentCache}, null if not cached or modified since. */
+    private String m_contentKey;
+
     private PMMLPortObjectSpec m_spec;
 
     /**
@@ -268,9 +271,10 @@ public PMMLPortObject(final PMMLPortObjectSpec spec,
             final PMMLPortObject port, final DataTableSpec inData) {
         m_spec = spec;
         if (port != null) {
-            try (LockedSupplier<Document> supplier = port.getPMMLValue().getDocumentSupplier()) {
-                parse(supplier.get());
-            }
+            // copying the document is much cheaper than serializing and parsing it again
+            // no validation needed here as the input is already validated
+            m_pmmlDoc = (PMMLDocument)port.m_pmmlDoc.copy();
+            m_contentKey = port.m_contentKey;
         } else if (inData != null) {
             initializePMMLDocument(inData);
         } else {
@@ -278,19 +282,6 @@ public PMMLPortObject(final PMMLPortObjectSpec spec,
         }
     }
 
-    /**
-     * @param doc
-     */
-    private void parse(final Document doc) {
-        try {
-            m_pmmlDoc = PMMLDocument.Factory.parse(doc);
-            // no validation needed here as the input is already validated
-        } catch (XmlException e) {
-            throw new IllegalArgumentException("An error occurred while "
-                    + "parsing the PMML document.", e);
-        }
-    }
-
     /* Just added temporary for models still using SAX. Will be removed soon.*/
     /**
      * @param spec the port object spec
@@ -319,6 +310,7 @@ public PMMLPortObject(final PMMLPortObjectSpec spec,
     @Deprecated
     public void addPMMLModelFromHandler(final PMMLContentHandler handler)
             throws SAXException {
+        m_contentKey = null;
         XmlObject model = null;
         Thread current = Thread.currentThread();
         ClassLoader oldLoader = current.getContextClassLoader();
@@ -373,7 +365,23 @@ private void initializePMMLDocument(final DataTableSpec inData) {
      * @param translator the model translator to be initialized
      */
     public void initializeModelTranslator(final PMMLTranslator translator) {
-        translator.initializeFrom(m_pmmlDoc);
+        if (translator.getClass() == PMMLDataDictionaryTranslator.class) {
+            PMMLDocumentCache.initialize(m_contentKey, m_pmmlDoc, (PMMLDataDictionaryTranslator)translator);
+        } else {
+            translator.initializeFrom(m_pmmlDoc);
+        }
+    }
+
+    /**
+     * Initializes the mining schema translator from this object's document. The result is cached for documents that
+     * were loaded (and not modified since), hence this is preferable to calling
+     * {@link PMMLMiningSchemaTranslator#initializeFrom(PMMLDocument)} on a parsed copy of the document.
+     *
+     * @param translator the mining schema translator to be initialized
+     * @since 4.3
+     */
+    public void initializeMiningSchemaTranslator(final PMMLMiningSchemaTranslator translator) {
+        PMMLDocumentCache.initialize(m_contentKey, m_pmmlDoc, translator);
     }
 
     /**
@@ -382,6 +390,7 @@ public void initializeModelTranslator(final PMMLTranslator translator) {
      *      added
      */
     public void addModelTranslater(final PMMLTranslator modelTranslator) {
+        m_contentKey = null;
         SchemaType type = modelTranslator.exportTo(m_pmmlDoc, m_spec);
         LocalTransformations localTransformations = moveDerivedFields(type);
 
@@ -454,6 +463,7 @@ public void addModelTranslater(final PMMLTranslator modelTranslator) {
     /** Moves the content of the transformation dictionary to local
      * transformations of the model if a model exists. */
     public void moveGlobalTransformationsToModel() {
+        m_contentKey = null;
         PMML pmml = m_pmmlDoc.getPMML();
         TransformationDictionary transDict
                 = pmml.getTransformationDictionary();
@@ -659,15 +669,35 @@ public void loadFrom(final PMMLPortObjectSpec spec, final InputStream is)
         // called once.
         // TODO: The document is read twice here. Could we "probe" into the file to check the version?
 
+        m_spec = spec;
+        m_contentKey = null;
+        InputStream parseIn = is;
+        if (PMMLDocumentCache.isEnabled()) {
+            // the content is read completely to look up the parsed document in the cache, which is not more memory
+            // than the parsed document takes anyway
+            byte[] content;
+            try (NonClosableInputStream nonClosableIn = new NonClosableInputStream(is)) {
+                content = IOUtils.toByteArray(nonClosableIn);
+            } finally {
+                is.close(); // call only once (see above)
+            }
+            m_contentKey = PMMLDocumentCache.createKey(content);
+            m_pmmlDoc = PMMLDocumentCache.getDocument(m_contentKey);
+            if (m_pmmlDoc != null) {
+                return;
+            }
+            parseIn = new ByteArrayInputStream(content);
+        }
+
         XmlObject xmlDoc = null;
         Thread current = Thread.currentThread();
         ClassLoader oldLoader = current.getContextClassLoader();
         current.setContextClassLoader(PMMLDocument.class.getClassLoader());
-        try (NonClosableInputStream nonClosableIn = new NonClosableInputStream(is)) {
+        try (NonClosableInputStream nonClosableIn = new NonClosableInputStream(parseIn)) {
             xmlDoc = XmlObject.Factory.parse(nonClosableIn);
         } finally {
             current.setContextClassLoader(oldLoader);
-            is.close(); // call only once (see above)
+            parseIn.close(); // call only once (see above)
         }
         if (xmlDoc instanceof PMMLDocument) {
             m_pmmlDoc = (PMMLDocument)xmlDoc;
@@ -693,7 +723,7 @@ public void loadFrom(final PMMLPortObjectSpec spec, final InputStream is)
                         "Parsing of PMML v 3.x/4.0 document failed.");
             }
         }
-        m_spec = spec;
+        PMMLDocumentCache.putDocument(m_contentKey, m_pmmlDoc);
     }
 
     /**
@@ -730,6 +760,7 @@ public void addGlobalTransformations(
             throw new IllegalArgumentException("DefineFunctions are not "
                     + "supported so far. Only derived fields are allowed.");
         }
+        m_contentKey = null;
 
         TransformationDictionary dict
             = m_pmmlDoc.getPMML().getTransformationDictionary();
@@ -870,12 +901,20 @@ private void fixAttributeAtPath(final PMML pmml, final String xpath,
     /**
      * @return the derived fields defined in the transformation dictionary and
      *          local transformations or an empty array if no derived fields
-     *          are defined.
+     *          are defined. The fields are part of this object's document, i.e.
+     *          changing them changes the document.
      */
     public DerivedField[] getDerivedFields() {
+        // the fields are live and may be changed by the caller, hence the cached translator results may become stale
+        m_contentKey = null;
         return DerivedFieldMapper.getDerivedFields(m_pmmlDoc.getPMML());
     }
 
+    /** @return the key of the document in the {@link PMMLDocumentCache}, null if not cached or modified (for tests) */
+    String getContentKey() {
+        return m_contentKey;
+    }
+
     /**
      * Returns the PMML value.
      *
@@ -50,6 +50,7 @@
 import java.util.BitSet;
 import java.util.HashSet;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
 import javax.swing.JComponent;
 import javax.swing.ListSelectionModel;
@@ -90,6 +91,11 @@
  * have some performance problems when the user scrolls up in the table view.
  * However, when scrolling down, the data flow is somewhat "fluent".</p>
  *
+ * <p>If the table supports row range access ({@link BufferedDataTable} and
+ * {@link ContainerTable}) and all rows are shown, the cache is instead moved
+ * to the requested position, reading only the rows around it. The rows adjacent
+ * to the cache in scroll direction are then loaded in a background thread.</p>
+ *
  * <p>This class also supports hiliting of rows (even though it is a view
  * property). We do store the hilite status of the rows in here as it
  * complies nicely with the caching strategy.</p>
@@ -202,6 +208,14 @@ public boolean performsFiltering() {
      */
     private int m_rowCountInIterator;
 
+    /** Index of the first row read by the current iterator, 0 unless the cache was
+     * moved using row range access (see {@link #moveCacheTo(int)}). */
+    private int m_firstRowInIterator;
+
+    /** Loads rows around the cache in the background if the table supports row
+     * range access, otherwise <code>null</code>. */
+    private TableRowPrefetcher m_prefetcher;
+
     /** lower bound for overall number of rows in {@link #m_data}, updated when
      * new rows are encountered.
      */
@@ -366,6 +380,11 @@ private void setDataTableIntern(final DataTable originalData,
             ((CloseableRowIterator)m_iterator).close();
         }
         m_iterator = null;
+        if (m_prefetcher != null) {
+            m_prefetcher.close();
+            m_prefetcher = null;
+        }
+        m_firstRowInIterator = 0;
         m_rowCountOfInterestInIterator = 0;
         m_rowCountOfInterest = 0;
         m_maxRowCount = 0;
@@ -407,6 +426,10 @@ private void setDataTableIntern(final DataTable originalData,
                     m_rowCountOfInterest = m_maxRowCount;
                     m_isRowCountOfInterestFinal = true;
                 }
+                if (TableRowPrefetcher.supportsRangeAccess(data)) {
+                    m_prefetcher = new TableRowPrefetcher(data, m_maxRowCount,
+                        (from, to) -> onRowsLoaded(data, from, to));
+                }
             }
 
             if (data instanceof AsyncTable) {
@@ -927,8 +950,9 @@ public final int getChunkSize() {
     public boolean isHiLit(final int row) {
         // ensure row is cached
         getRow(row);
-        assert (row >= (m_rowCountOfInterestInIterator - getCacheSize())
-                && row < m_rowCountOfInterestInIterator);
+        if (!isCached(row)) {
+            return false; // still loading
+        }
         return getHiLiteFromCache(row);
     } // isHiLit(int)
 
@@ -942,8 +966,9 @@ public boolean isHiLit(final int row) {
     public ColorAttr getColorAttr(final int row) {
         // makes also sure row is cached
         DataRow r = getRow(row);
-        assert (row >= (m_rowCountOfInterestInIterator - getCacheSize())
-                && row < m_rowCountOfInterestInIterator);
+        if (!isCached(row)) {
+            return ColorAttr.DEFAULT; // still loading
+        }
         return m_data.getDataTableSpec().getRowColor(r);
     }
 
@@ -1083,13 +1108,48 @@ protected DataRow getRow(final int row) {
         // the iterator goes further when the last known row is requested
         boolean pushIterator = !isRowCountFinal() && (row == oldRowCount - 1);
         if (row >= (m_rowCountOfInterestInIterator - cacheSize)
+                && row >= m_firstRowInIterator
                 && (row < m_rowCountOfInterestInIterator) && !pushIterator) {
             return getRowFromCache(row);
         }
 
         /* row is not in cache */
-        // row already released from cache
-        if (row < (m_rowCountOfInterestInIterator - cacheSize)) {
+        boolean isScrollingBackwards = false;
+        if (usesRangeAccess()) {
+            int firstRow = m_rowCountOfInterestInIterator;
+            boolean isJump = false;
+            // row already released from cache
+            if (row < (m_rowCountOfInterestInIterator - cacheSize)
+                    || row < m_firstRowInIterator) {
+                // read the rows preceding the requested row (as the user is
+                // likely to scroll further up) instead of starting over
+                firstRow = Math.max(0, row + m_chunkSize + 1 - cacheSize);
+                isJump = true;
+                isScrollingBackwards = true;
+            } else if (row >= m_rowCountOfInterestInIterator + cacheSize) {
+                // jump forward, skip the rows in between
+                firstRow = Math.max(0, row - m_chunkSize);
+                isJump = true;
+            }
+            // rows not read by the current iterator are loaded in the
+            // background, show a placeholder until they are available (or
+            // the error if they couldn't be loaded)
+            if ((isJump || m_iterator == null) && !m_prefetcher.fetch(
+                    firstRow, row + m_chunkSize + 1 - firstRow)) {
+                final CompletableFuture<DataRow> futureRow =
+                    new CompletableFuture<>();
+                final Throwable failure = m_prefetcher.getFailure(row);
+                if (failure != null) {
+                    futureRow.completeExceptionally(failure);
+                }
+                return new AsyncDataRow(row, getColumnCount(), futureRow);
+            }
+            if (isJump) {
+                moveCacheTo(firstRow);
+            }
+        } else if (row < (m_rowCountOfInterestInIterator - cacheSize)
+                || row < m_firstRowInIterator) {
+            // row already released from cache
             // clear cache, init new iterator
             clearCache();
         }
@@ -1105,6 +1165,15 @@ protected DataRow getRow(final int row) {
             mayHaveNext = cacheNextRow();
         } while ((m_rowCountOfInterestInIterator - 1) != (row + m_chunkSize)
                 && mayHaveNext);
+        if (usesRangeAccess()) {
+            // load the rows the next request in scroll direction will ask for
+            if (isScrollingBackwards) {
+                m_prefetcher.prefetch(
+                    m_firstRowInIterator + m_chunkSize - cacheSize, cacheSize);
+            } else {
+                m_prefetcher.prefetch(m_rowCountInIterator, cacheSize);
+            }
+        }
         // is it the first time that we see the last row? (fire event)
         boolean isFinalSwap = !wasRowCountFinal && !mayHaveNext;
         // block contains rows that we haven't seen before
@@ -1130,14 +1199,21 @@ private boolean cacheNextRow() {
         DataRow currentRow;
         boolean isHiLit;
         do {
-            if (!m_iterator.hasNext()) {
-                // set to false with new data
-                m_isMaxRowCountFinal = true;
-                // set to false with new highlight event or new data
-                m_isRowCountOfInterestFinal = true;
-                return false;
+            currentRow = pollPrefetchedRow();
+            if (currentRow == null) {
+                if (m_iterator == null && m_rowCountInIterator < m_maxRowCount) {
+                    // given up in favor of prefetched rows, continue at current position
+                    m_iterator = TableRowPrefetcher.iteratorFrom(m_data, m_rowCountInIterator);
+                }
+                if (m_iterator == null || !m_iterator.hasNext()) {
+                    // set to false with new data
+                    m_isMaxRowCountFinal = true;
+                    // set to false with new highlight event or new data
+                    m_isRowCountOfInterestFinal = true;
+                    return false;
+                }
+                currentRow = m_iterator.next();
             }
-            currentRow = m_iterator.next();
             m_rowCountInIterator++;
             if (!m_isMaxRowCountFinal) {
                 m_maxRowCount = Math.max(m_maxRowCount, m_rowCountInIterator);
@@ -1157,6 +1233,72 @@ private boolean cacheNextRow() {
         return true;
     } // cacheNextRow()
 
+    /** @return the row at the current iterator position if it has been loaded
+     * in the background (in which case the iterator is closed), otherwise null */
+    private DataRow pollPrefetchedRow() {
+        if (!usesRangeAccess()) {
+            return null;
+        }
+        DataRow row = m_prefetcher.poll(m_rowCountInIterator);
+        if (row != null && m_iterator != null) {
+            if (m_iterator instanceof CloseableRowIterator) {
+                ((CloseableRowIterator)m_iterator).close();
+            }
+            m_iterator = null;
+        }
+        return row;
+    }
+
+    /**
+     * Called when the prefetcher of the argument table loaded rows (or failed
+     * to), fires an update event for them (replacing the placeholders shown
+     * so far) unless the table has been replaced in the meantime.
+     */
+    private void onRowsLoaded(final DataTable data, final long from,
+            final long to) {
+        ViewUtils.invokeLaterInEDT(() -> {
+            if (m_data == data && from < getRowCount()) {
+                fireTableRowsUpdated((int)from,
+                    (int)Math.min(to, getRowCount() - 1));
+            }
+        });
+    }
+
+    /** @return whether the row is in the cache, which isn't the case if
+     * {@link #getRow(int)} returned a placeholder as the row is still loaded
+     * in the background */
+    private boolean isCached(final int row) {
+        return row >= Math.max(m_firstRowInIterator,
+                m_rowCountOfInterestInIterator - getCacheSize())
+            && row < m_rowCountOfInterestInIterator;
+    }
+
+    /** @return whether rows are read using row range access, i.e. the table
+     * supports it and all rows are shown (rows indices in the cache equal
+     * indices in the table) */
+    private boolean usesRangeAccess() {
+        return m_prefetcher != null && !m_tableFilter.performsFiltering();
+    }
+
+    /**
+     * Clears the cache and positions the (lazily created) iterator at the
+     * argument row, only to be called if {@link #usesRangeAccess()}.
+     *
+     * @param firstRow index of the first row to be read
+     */
+    private void moveCacheTo(final int firstRow) {
+        assert usesRangeAccess();
+        if (m_iterator instanceof CloseableRowIterator) {
+            ((CloseableRowIterator)m_iterator).close();
+        }
+        m_iterator = null;
+        m_firstRowInIterator = firstRow;
+        m_rowCountInIterator = firstRow;
+        m_rowCountOfInterestInIterator = firstRow;
+        Arrays.fill(m_cachedRows, null);
+        m_hilitSet.clear();
+    }
+
     /** Get new iterator, only to be called when data is set. Gets an
      * {@link BufferedDataTable#iteratorFailProve() fail prove iterator} if
      * the table is an instance of {@link BufferedDataTable}. */
@@ -1179,6 +1321,7 @@ protected void clearCache() {
             ((CloseableRowIterator)m_iterator).close();
         }
         m_iterator = getNewDataIterator();
+        m_firstRowInIterator = 0;
         m_rowCountInIterator = 0;
         // all updated in nextBlock()
         m_rowCountOfInterestInIterator = 0;
@@ -1250,8 +1393,7 @@ private int firstRowCached() {
             return -1;
         }
         final int cS = getCacheSize();
-        int next = (lastRow + 1) % cS;
-        return m_cachedRows[next] != null ? next : 0;
+        return Math.max(m_firstRowInIterator, m_rowCountOfInterestInIterator - cS) % cS;
     }
 
     /** @return index in cache hosting the last row in the table that's
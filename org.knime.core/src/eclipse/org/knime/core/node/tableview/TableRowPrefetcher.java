@@ -0,0 +1,389 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ------------------------------------------------------------------------
+ *
+ */
+package org.knime.core.node.tableview;
+
+import java.util.Arrays;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
+
+import org.knime.core.data.DataRow;
+import org.knime.core.data.DataTable;
+import org.knime.core.data.container.CloseableRowIterator;
+import org.knime.core.data.container.ContainerTable;
+import org.knime.core.data.container.filter.TableFilter;
+import org.knime.core.node.BufferedDataTable;
+import org.knime.core.node.DefaultNodeProgressMonitor;
+import org.knime.core.node.ExecutionMonitor;
+import org.knime.core.node.NodeLogger;
+
+/**
+ * Loads windows of rows of a table in a background thread so that the {@link TableContentModel} can jump to any row
+ * (e.g. when scrolling backwards) without reading the rows in between on the event dispatch thread. Only applicable
+ * to tables that support row range filters, see {@link #supportsRangeAccess(DataTable)}.
+ *
+ * <p>
+ * The model {@link #fetch(long, int) fetches} the rows it needs to show (showing placeholders until they are loaded),
+ * {@link #prefetch(long, int) requests} the window adjacent to the cached rows in scroll direction and
+ * {@link #poll(long) polls} rows once they are loaded. Each prefetcher loads at most one window at a time; a pending
+ * load is cancelled (and its thread interrupted, also while skipping the rows preceding the window) when a different
+ * window is requested. All prefetchers share a small, fixed number of threads. If loading a window fails, its rows
+ * are not requested again until a different window has been requested; the model can show the
+ * {@link #getFailure(long) cause} instead.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+final class TableRowPrefetcher {
+
+    private static final NodeLogger LOGGER = NodeLogger.getLogger(TableRowPrefetcher.class);
+
+    /** Number of threads loading rows for all table views. */
+    private static final int MAX_THREADS = 2;
+
+    private static final ThreadPoolExecutor EXECUTOR = createExecutor();
+
+    private final DataTable m_table;
+
+    private final long m_size;
+
+    private final BiConsumer<Long, Long> m_rowsLoadedCallback;
+
+    /** The last completely loaded window, or null. */
+    private Window m_available;
+
+    /** The window currently being loaded, or null. */
+    private Window m_pending;
+
+    /** The last window that failed to load, or null. Not loaded again until a different window is requested. */
+    private Window m_failed;
+
+    /**
+     * @param table the table to load rows from, must {@link #supportsRangeAccess(DataTable) support range access}
+     * @param size the number of rows in the table
+     * @param rowsLoadedCallback called with the indices of the first and last row of a window once it's loaded or
+     *            failed to load; called from the loading thread
+     */
+    TableRowPrefetcher(final DataTable table, final long size, final BiConsumer<Long, Long> rowsLoadedCallback) {
+        assert supportsRangeAccess(table);
+        m_table = table;
+        m_size = size;
+        m_rowsLoadedCallback = rowsLoadedCallback;
+    }
+
+    private static ThreadPoolExecutor createExecutor() {
+        // the queue holds at most one task per prefetcher as stale tasks are removed when cancelled
+        final ThreadPoolExecutor executor = new ThreadPoolExecutor(MAX_THREADS, MAX_THREADS, 10, TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>(), r -> {
+                Thread t = new Thread(r, "KNIME-TableView-Prefetcher");
+                t.setDaemon(true);
+                return t;
+            });
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /**
+     * @param table the table in question
+     * @return whether rows can be read from an arbitrary index, that is, the table is a {@link BufferedDataTable} or a
+     *         {@link ContainerTable}
+     */
+    static boolean supportsRangeAccess(final DataTable table) {
+        return table instanceof BufferedDataTable || table instanceof ContainerTable;
+    }
+
+    /**
+     * Opens an iterator starting at the argument row.
+     *
+     * @param table a table {@link #supportsRangeAccess(DataTable) supporting range access}
+     * @param fromIndex index of the first row returned by the iterator
+     * @return a new iterator
+     */
+    static CloseableRowIterator iteratorFrom(final DataTable table, final long fromIndex) {
+        return iterator(table, TableFilter.filterRowsFromIndex(fromIndex), null);
+    }
+
+    private static CloseableRowIterator iterator(final DataTable table, final TableFilter filter,
+        final ExecutionMonitor exec) {
+        if (table instanceof BufferedDataTable) {
+            return ((BufferedDataTable)table).filter(filter, exec).iterator();
+        }
+        return ((ContainerTable)table).iteratorWithFilter(filter, exec);
+    }
+
+    /**
+     * Returns whether the rows from (including) <code>from</code> are loaded. If not, starts loading them in the
+     * background unless they are already being loaded or failed to load, cancelling any other pending load.
+     *
+     * @param from index of the first row
+     * @param length number of rows
+     * @return whether the rows can be {@link #poll(long) polled}
+     */
+    synchronized boolean fetch(final long from, final int length) {
+        final long start = Math.max(0, from);
+        final long end = Math.min(start + length, m_size);
+        if (end <= start) {
+            return true;
+        }
+        if (m_pending != null && m_pending.isDone()) {
+            promoteOrCancelPending();
+        }
+        if (covers(m_available, start, end)) {
+            return true;
+        }
+        if (!covers(m_pending, start, end) && !covers(m_failed, start, end)) {
+            submit(start, end);
+        }
+        return false;
+    }
+
+    /**
+     * Starts loading the rows from (including) <code>from</code> in the background, unless a window that is loaded
+     * or being loaded already covers the first half of the requested rows.
+     *
+     * @param from index of the first row to load
+     * @param length number of rows to load
+     */
+    synchronized void prefetch(final long from, final int length) {
+        final long start = Math.max(0, from);
+        final long end = Math.min(start + length, m_size);
+        if (end <= start) {
+            return;
+        }
+        final long halfEnd = start + (end - start + 1) / 2;
+        if (covers(m_pending, start, halfEnd) || covers(m_available, start, halfEnd)) {
+            return;
+        }
+        submit(start, end);
+    }
+
+    private void submit(final long start, final long end) {
+        promoteOrCancelPending();
+        m_failed = null;
+        m_pending = new Window(start, (int)(end - start));
+        EXECUTOR.execute(m_pending);
+    }
+
+    /**
+     * Returns the row with the given index if it's part of a window that is completely loaded. Doesn't block.
+     *
+     * @param index the row index
+     * @return that row or null if not available
+     */
+    synchronized DataRow poll(final long index) {
+        // keep serving the available window, the pending one may not cover the rows that follow
+        if ((m_available == null || !m_available.contains(index)) && m_pending != null && m_pending.isDone()) {
+            promoteOrCancelPending();
+        }
+        if (m_available != null && m_available.contains(index)) {
+            DataRow[] rows = m_available.getRows();
+            int offset = (int)(index - m_available.m_from);
+            return rows != null && offset < rows.length ? rows[offset] : null;
+        }
+        return null;
+    }
+
+    /**
+     * Returns why the row with the given index could not be loaded, if it's part of the last window that failed to
+     * load.
+     *
+     * @param index the row index
+     * @return the cause of the failure or null if the row didn't fail to load
+     */
+    synchronized Throwable getFailure(final long index) {
+        if (m_pending != null && m_pending.isDone()) {
+            promoteOrCancelPending();
+        }
+        return m_failed != null && m_failed.contains(index) ? m_failed.getFailure() : null;
+    }
+
+    /** Cancels a pending load and releases all loaded rows. */
+    synchronized void close() {
+        if (m_pending != null) {
+            m_pending.cancelAndRemove();
+            m_pending = null;
+        }
+        m_available = null;
+        m_failed = null;
+    }
+
+    private static boolean covers(final Window w, final long start, final long end) {
+        return w != null && w.m_from <= start && end <= w.m_from + w.m_length;
+    }
+
+    /**
+     * Makes a loaded pending window the available one (or the failed one if loading failed), cancels it if it's still
+     * loading.
+     */
+    private void promoteOrCancelPending() {
+        if (m_pending == null) {
+            return;
+        }
+        if (m_pending.isDone()) {
+            if (m_pending.getRows() != null) {
+                m_available = m_pending;
+            } else if (!m_pending.isCancelled()) {
+                m_failed = m_pending;
+            }
+        } else {
+            m_pending.cancelAndRemove();
+        }
+        m_pending = null;
+    }
+
+    private DataRow[] load(final long from, final int count) throws InterruptedException {
+        DataRow[] rows = new DataRow[count];
+        int i = 0;
+        // the monitor stops the iteration also while the rows preceding the window are skipped
+        final ExecutionMonitor exec = new ExecutionMonitor(new InterruptibleProgressMonitor());
+        try (CloseableRowIterator it =
+            iterator(m_table, TableFilter.filterRangeOfRows(from, from + count - 1), exec)) {
+            while (i < count && it.hasNext()) {
+                if (Thread.currentThread().isInterrupted()) {
+                    throw new InterruptedException();
+                }
+                rows[i++] = it.next();
+            }
+        } catch (LoadInterruptedException ex) {
+            throw new InterruptedException();
+        }
+        return i == count ? rows : Arrays.copyOf(rows, i);
+    }
+
+    /**
+     * Progress monitor of a load, which is informed about every row read (including the rows skipped until the start
+     * of the window) and aborts the iteration if the loading thread got interrupted.
+     */
+    private static final class InterruptibleProgressMonitor extends DefaultNodeProgressMonitor {
+
+        /** {@inheritDoc} */
+        @Override
+        public void setProgress(final double progress, final Supplier<String> message) {
+            if (Thread.currentThread().isInterrupted()) {
+                throw new LoadInterruptedException();
+            }
+        }
+    }
+
+    /** Thrown out of the row iteration by an {@link InterruptibleProgressMonitor}. */
+    @SuppressWarnings("serial")
+    private static final class LoadInterruptedException extends RuntimeException {
+        LoadInterruptedException() {
+            super(null, null, false, false);
+        }
+    }
+
+    /** Rows from a given index, loaded in the background. */
+    private final class Window extends FutureTask<DataRow[]> {
+
+        private final long m_from;
+
+        private final int m_length;
+
+        Window(final long from, final int length) {
+            super(() -> load(from, length));
+            m_from = from;
+            m_length = length;
+        }
+
+        boolean contains(final long index) {
+            return index >= m_from && index < m_from + m_length && isDone();
+        }
+
+        void cancelAndRemove() {
+            cancel(true);
+            EXECUTOR.remove(this);
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        protected void done() {
+            // failed loads are reported as well so that the placeholders are replaced by the error
+            if (m_rowsLoadedCallback != null && !isCancelled()) {
+                m_rowsLoadedCallback.accept(m_from, m_from + m_length - 1);
+            }
+        }
+
+        /** @return the loaded rows, null if not done or failed */
+        DataRow[] getRows() {
+            if (!isDone() || isCancelled()) {
+                return null;
+            }
+            try {
+                return get();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return null;
+            } catch (ExecutionException | CancellationException ex) {
+                LOGGER.debug("Unable to load rows " + m_from + " to " + (m_from + m_length - 1) + ": "
+                    + ex.getMessage(), ex);
+                return null;
+            }
+        }
+
+        /** @return the cause of the failed load, null if not done, cancelled or loaded successfully */
+        Throwable getFailure() {
+            if (!isDone() || isCancelled()) {
+                return null;
+            }
+            try {
+                get();
+                return null;
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return null;
+            } catch (ExecutionException ex) {
+                return ex.getCause();
+            } catch (CancellationException ex) {
+                return null;
+            }
+        }
+    }
+}
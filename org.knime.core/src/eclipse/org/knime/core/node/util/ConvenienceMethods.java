@@ -156,6 +156,25 @@ public static long readSizeSystemProperty(
         return size;
     }
 
+    /** Read system property <code>property</code> that is supposed to be an integer. If it can't be parsed, it will
+     * return the default value and log a warning.
+     * @param property The name of the property, must not be null
+     * @param defaultValue The value returned if the property is not set or invalid
+     * @return The value of the property or the defaultValue.
+     * @since 4.3
+     */
+    public static int readIntSystemProperty(final String property, final int defaultValue) {
+        String value = System.getProperty(property);
+        if (value != null) {
+            try {
+                return Integer.parseInt(value.trim());
+            } catch (NumberFormatException e) {
+                LOGGER.warn("Invalid value for " + property + ": " + value + ", using default of " + defaultValue);
+            }
+        }
+        return defaultValue;
+    }
+
     /** Get string summary from argument collection for printing in warning messages,
      * see {@link #getShortStringFrom(Iterator, int, int)} for details.
      * @param objs The non null array to summarize
@@ -53,15 +53,28 @@
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.TimerTask;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import org.eclipse.core.resources.ResourcesPlugin;
 import org.eclipse.core.runtime.CoreException;
@@ -75,6 +88,7 @@
 import org.knime.core.data.def.IntCell;
 import org.knime.core.data.def.LongCell;
 import org.knime.core.data.def.StringCell;
+import org.knime.core.data.util.memory.MemoryAlertSystem;
 import org.knime.core.node.CanceledExecutionException;
 import org.knime.core.node.ExecutionMonitor;
 import org.knime.core.node.InvalidSettingsException;
@@ -91,6 +105,7 @@
 import org.knime.core.util.KnimeEncryption;
 import org.knime.core.util.LockFailedException;
 import org.knime.core.util.MutableBoolean;
+import org.knime.core.util.ThreadUtils;
 import org.knime.core.util.VMFileLocker;
 import org.knime.core.util.tokenizer.Tokenizer;
 import org.knime.core.util.tokenizer.TokenizerSettings;
@@ -237,6 +252,19 @@ public IllegalOptionException(final String message, final Throwable cause) {
      */
     protected boolean m_stopOnError = true;
 
+    /** Maximum number of workflows executed concurrently, see option -parallel. */
+    private int m_parallelRuns = 1;
+
+    /** File listing workflows (or directory containing workflows) to execute, see option -workflowList. */
+    private File m_workflowList;
+
+    /** File with one set of workflow variables per line, see option -variableSets. */
+    private File m_variableSets;
+
+    /** Zipped input workflows extracted once (into the mapped temporary directory) and used as template for all runs
+     * of the workflow. Deleted after all workflows have been run. */
+    private final Map<File, File> m_extractedWorkflows = new ConcurrentHashMap<>();
+
     private static final NodeLogger LOGGER = NodeLogger.getLogger(BatchExecutor.class);
 
     private static class Option {
@@ -392,6 +420,38 @@ protected static class WorkflowConfiguration {
 
         /** The (temporary) workflow location which should be used to load the workflow. */
         File workflowLocation;
+
+        /** If the workflow is run more than once: load it from a private temporary copy, deleted after the run. */
+        boolean privateCopy;
+
+        /**
+         * Creates a new, empty configuration.
+         */
+        protected WorkflowConfiguration() {
+        }
+
+        /**
+         * Creates a copy of the given configuration. The credentials, workflow variables and node options are copied
+         * into new collections, their elements are shared. The workflow location is not copied.
+         *
+         * @param other the configuration to copy
+         * @since 4.3
+         */
+        protected WorkflowConfiguration(final WorkflowConfiguration other) {
+            noSave = other.noSave;
+            reset = other.reset;
+            updateMetanodeLinks = other.updateMetanodeLinks;
+            noExecute = other.noExecute;
+            failOnLoadError = other.failOnLoadError;
+            masterKey = other.masterKey;
+            credentials.putAll(other.credentials);
+            inputWorkflow = other.inputWorkflow;
+            outputFile = other.outputFile;
+            outputDir = other.outputDir;
+            flowVariables.addAll(other.flowVariables);
+            nodeOptions.addAll(other.nodeOptions);
+            privateCopy = other.privateCopy;
+        }
     }
 
     /**
@@ -464,10 +524,148 @@ protected WorkflowConfiguration parseConfigFromArguments(final String[] args) th
 
         // yes == is intended here
         setupEncryptionKey(config.masterKey == PROMPT_FOR_PASSWORD, config.masterKey);
-        m_workflows.add(config);
+        if (m_workflowList == null && m_variableSets == null) {
+            m_workflows.add(config);
+        } else {
+            m_workflows.addAll(expandConfiguration(config));
+        }
         return config;
     }
 
+    /**
+     * Creates one configuration per workflow given by -workflowList (or the single input workflow) and variable set
+     * given by -variableSets, each a {@linkplain #copyConfiguration(WorkflowConfiguration) copy} of the argument
+     * configuration.
+     */
+    private List<WorkflowConfiguration> expandConfiguration(final WorkflowConfiguration template)
+        throws IllegalOptionException {
+        List<File> inputs = new ArrayList<>();
+        if (m_workflowList != null) {
+            inputs.addAll(readWorkflowList(m_workflowList));
+        } else if (template.inputWorkflow != null) {
+            inputs.add(template.inputWorkflow);
+        } else {
+            throw new IllegalOptionException("No workflow file or directory given.");
+        }
+        List<List<FlowVariable>> variableSets = new ArrayList<>();
+        if (m_variableSets != null) {
+            variableSets.addAll(readVariableSets(m_variableSets));
+        } else {
+            variableSets.add(Collections.<FlowVariable> emptyList());
+        }
+        final boolean multipleRuns = inputs.size() * variableSets.size() > 1;
+        if (multipleRuns && template.outputFile != null) {
+            throw new IllegalOptionException("-destFile can't be used when executing multiple workflows, use -destDir");
+        }
+        if (variableSets.size() > 1 && !template.noSave && template.outputDir == null) {
+            throw new IllegalOptionException("Workflows executed with multiple variable sets can't be saved in place, "
+                + "use -nosave or -destDir");
+        }
+        List<WorkflowConfiguration> result = new ArrayList<>();
+        // lower case names of the output directories, workflows from different directories may have the same name
+        Set<String> outputNames = new HashSet<>();
+        for (File input : inputs) {
+            String baseName = input.getName().replaceAll("\\.(?:zip|ZIP|knwf)$", "");
+            String name = baseName;
+            for (int n = 2; !outputNames.add(name.toLowerCase()); n++) {
+                name = baseName + "_" + n;
+            }
+            for (int i = 0; i < variableSets.size(); i++) {
+                WorkflowConfiguration config = copyConfiguration(template);
+                config.inputWorkflow = input;
+                config.flowVariables.addAll(variableSets.get(i));
+                if (template.outputDir != null) {
+                    config.outputDir = multipleRuns
+                        ? new File(template.outputDir, variableSets.size() > 1 ? (name + "_" + i) : name)
+                        : template.outputDir;
+                }
+                config.privateCopy = variableSets.size() > 1;
+                result.add(config);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Reads the workflows from the argument of -workflowList: either a directory, whose workflow directories and
+     * zipped workflows are used, or a file listing a workflow (directory or zip file) per line. Workflows listed more
+     * than once are only run once.
+     */
+    private static List<File> readWorkflowList(final File list) throws IllegalOptionException {
+        Map<File, File> result = new LinkedHashMap<>();
+        if (list.isDirectory()) {
+            File[] children = list.listFiles();
+            if (children != null) {
+                Arrays.sort(children);
+                for (File f : children) {
+                    if (new File(f, WorkflowPersistor.WORKFLOW_FILE).isFile()
+                        || (f.isFile() && f.getName().matches(".*\\.(?:zip|ZIP|knwf)$"))) {
+                        result.put(f, f);
+                    }
+                }
+            }
+        } else {
+            for (String line : readLines(list, "-workflowList")) {
+                File f = new File(line);
+                if (!f.exists()) {
+                    throw new IllegalOptionException("Workflow '" + line + "' listed in " + list + " does not exist.");
+                }
+                File key;
+                try {
+                    key = f.getCanonicalFile();
+                } catch (IOException ex) {
+                    key = f.getAbsoluteFile();
+                }
+                if (result.putIfAbsent(key, f) != null) {
+                    LOGGER.warn("Workflow '" + line + "' is listed more than once in " + list + ", running it once");
+                }
+            }
+        }
+        if (result.isEmpty()) {
+            throw new IllegalOptionException("No workflows found in " + list);
+        }
+        return new ArrayList<>(result.values());
+    }
+
+    /**
+     * Reads the argument of -variableSets: each line defines the workflow variables of one run, as tab separated list
+     * of definitions in the format of -workflow.variable (name,value,type).
+     */
+    private static List<List<FlowVariable>> readVariableSets(final File file) throws IllegalOptionException {
+        List<List<FlowVariable>> result = new ArrayList<>();
+        for (String line : readLines(file, "-variableSets")) {
+            List<FlowVariable> set = new ArrayList<>();
+            for (String def : line.split("\t")) {
+                try {
+                    set.add(createWorkflowVariable(splitWorkflowVariableArg(def.trim())));
+                } catch (Exception e) {
+                    throw new IllegalOptionException("Couldn't parse workflow variable '" + def + "' in " + file
+                        + ": " + e.getMessage(), e);
+                }
+            }
+            result.add(set);
+        }
+        if (result.isEmpty()) {
+            throw new IllegalOptionException("No variable sets found in " + file);
+        }
+        return result;
+    }
+
+    /** @return the non-empty lines of the file which are not comments (starting with '#'). */
+    private static List<String> readLines(final File file, final String option) throws IllegalOptionException {
+        try {
+            List<String> lines = new ArrayList<>();
+            for (String line : Files.readAllLines(file.toPath(), StandardCharsets.UTF_8)) {
+                if (!line.trim().isEmpty() && !line.startsWith("#")) {
+                    lines.add(line);
+                }
+            }
+            return lines;
+        } catch (IOException e) {
+            throw new IllegalOptionException("Couldn't read " + option + " file " + file + ": " + e.getMessage(), e);
+        }
+    }
+
     /**
      * Handles a single command line argument (pair).
      *
@@ -558,6 +756,35 @@ protected void handleCommandlineArgument(final String[] parts, final String s, f
                 throw new IllegalOptionException("Couldn't parse -destDir argument: " + s);
             }
             config.outputDir = new File(parts[1]);
+        } else if ("-workflowList".equals(parts[0])) {
+            if (parts.length != 2) {
+                throw new IllegalOptionException("Couldn't parse -workflowList argument: " + s);
+            }
+            m_workflowList = new File(parts[1]);
+            if (!m_workflowList.exists()) {
+                throw new IllegalOptionException("Workflow list '" + parts[1] + "' does not exist.");
+            }
+        } else if ("-variableSets".equals(parts[0])) {
+            if (parts.length != 2) {
+                throw new IllegalOptionException("Couldn't parse -variableSets argument: " + s);
+            }
+            m_variableSets = new File(parts[1]);
+            if (!m_variableSets.isFile()) {
+                throw new IllegalOptionException("Variable sets file '" + parts[1] + "' is not a file.");
+            }
+        } else if ("-parallel".equals(parts[0])) {
+            if (parts.length == 1) {
+                m_parallelRuns = Runtime.getRuntime().availableProcessors();
+            } else {
+                try {
+                    m_parallelRuns = Integer.parseInt(parts[1]);
+                } catch (NumberFormatException e) {
+                    throw new IllegalOptionException("Couldn't parse -parallel argument: " + s, e);
+                }
+                if (m_parallelRuns < 1) {
+                    throw new IllegalOptionException("Number of parallel runs must be positive: " + s);
+                }
+            }
         } else if ("-workflow.variable".equals(parts[0])) {
             if (parts.length != 2) {
                 throw new IllegalOptionException("Couldn't parse -workflow.variable argument: " + s);
@@ -626,7 +853,16 @@ public static String getOptionsString() {
                 + "                      if omitted the workflow is only saved in place\n"
                 + " -workflow.variable=name,value,type => define or overwrite workflow variable\n"
                 + "                      'name' with value 'value' (possibly enclosed by quotes). The\n"
-                + "                      'type' must be one of \"String\", \"int\" or \"double\".";
+                + "                      'type' must be one of \"String\", \"int\" or \"double\".\n"
+                + " -workflowList=... => directory containing workflows (directories or ZIP files) or\n"
+                + "                      text file listing one workflow per line, used instead of\n"
+                + "                      -workflowFile/-workflowDir; results go to -destDir/<name>,\n"
+                + "                      workflows with the same name get a suffix (_2, _3, ...)\n"
+                + " -variableSets=... => text file with one set of workflow variables per line (tab\n"
+                + "                      separated, each as in -workflow.variable); each workflow is\n"
+                + "                      executed once per set, results go to -destDir/<name>_<line>\n"
+                + " -parallel[=n]     => execute up to n workflows concurrently (default: number of\n"
+                + "                      cores); no further workflow is started while memory is low";
     }
 
     /**
@@ -713,27 +949,43 @@ public static void main(final String[] args) throws Exception {
     protected WorkflowManager loadWorkflow(final WorkflowConfiguration config) throws IOException,
             InvalidSettingsException, CanceledExecutionException, UnsupportedWorkflowVersionException,
             LockFailedException, IllegalOptionException {
-        if (config.inputWorkflow.isFile()) {
+        if (config.privateCopy) {
+            // the same workflow is run multiple times (possibly concurrently), each run works on its own copy of the
+            // template (which for zipped workflows is only extracted once)
+            File template = config.inputWorkflow;
+            if (template.isFile()) {
+                template = getExtractedWorkflow(template);
+            }
+            File copy = FileUtil.createTempDir("BatchExecutorRun");
+            boolean loaded = false;
+            try {
+                File workflowDir = new File(copy, template.getName());
+                FileUtil.copyDir(template, workflowDir);
+                config.workflowLocation = workflowDir;
+                WorkflowManager wfm = loadWorkflowFromLocation(config);
+                loaded = true;
+                return wfm;
+            } finally {
+                if (!loaded) {
+                    // otherwise the copy is deleted once the run is finished
+                    FileUtil.deleteRecursively(copy);
+                    config.workflowLocation = null;
+                }
+            }
+        } else if (config.inputWorkflow.isFile()) {
             File dir = FileUtil.createTempDir("BatchExecutorInput");
             FileUtil.unzip(config.inputWorkflow, dir);
-            config.workflowLocation = dir;
+            config.workflowLocation = findWorkflowDirectory(dir);
         } else {
-            config.workflowLocation = config.inputWorkflow;
-        }
-
-        // the workflow may be contained in a sub-directory
-        // if run on a archived workflow (typical scenario if workflow is
-        // exported to a zip using the wizard)
-        if (!new File(config.workflowLocation, WorkflowPersistor.WORKFLOW_FILE).exists()) {
-            File[] children = config.workflowLocation.listFiles();
-            if (children.length == 0) {
-                throw new IOException("No workflow directory at " + config.workflowLocation);
-            } else {
-                config.workflowLocation = config.workflowLocation.listFiles()[0];
-            }
-
+            config.workflowLocation = findWorkflowDirectory(config.inputWorkflow);
         }
+        return loadWorkflowFromLocation(config);
+    }
 
+    /** Loads the workflow from the already resolved {@link WorkflowConfiguration#workflowLocation}. */
+    private WorkflowManager loadWorkflowFromLocation(final WorkflowConfiguration config) throws IOException,
+            InvalidSettingsException, CanceledExecutionException, UnsupportedWorkflowVersionException,
+            LockFailedException, IllegalOptionException {
         BatchExecWorkflowLoadHelper batchLH =
             new BatchExecWorkflowLoadHelper(config.credentials, config.workflowLocation);
         WorkflowLoadResult loadResult =
@@ -780,6 +1032,53 @@ protected WorkflowManager loadWorkflow(final WorkflowConfiguration config) throw
         return wfm;
     }
 
+    /**
+     * The workflow may be contained in a sub-directory if run on a archived workflow (typical scenario if workflow is
+     * exported to a zip using the wizard).
+     */
+    private static File findWorkflowDirectory(final File location) throws IOException {
+        if (!new File(location, WorkflowPersistor.WORKFLOW_FILE).exists()) {
+            File[] children = location.listFiles();
+            if (children == null || children.length == 0) {
+                throw new IOException("No workflow directory at " + location);
+            } else {
+                return children[0];
+            }
+        }
+        return location;
+    }
+
+    /** @return the workflow directory of the zipped workflow, extracted on first access */
+    private File getExtractedWorkflow(final File zipFile) throws IOException {
+        File dir = m_extractedWorkflows.get(zipFile);
+        if (dir == null) {
+            synchronized (m_extractedWorkflows) {
+                dir = m_extractedWorkflows.get(zipFile);
+                if (dir == null) {
+                    dir = FileUtil.createTempDir("BatchExecutorInput");
+                    try {
+                        FileUtil.unzip(zipFile, dir);
+                    } catch (IOException ex) {
+                        FileUtil.deleteRecursively(dir);
+                        throw ex;
+                    }
+                    m_extractedWorkflows.put(zipFile, dir);
+                }
+            }
+        }
+        return findWorkflowDirectory(dir);
+    }
+
+    /** Deletes the workflows extracted by {@link #getExtractedWorkflow(File)}. */
+    private void deleteExtractedWorkflows() {
+        synchronized (m_extractedWorkflows) {
+            for (File dir : m_extractedWorkflows.values()) {
+                FileUtil.deleteRecursively(dir);
+            }
+            m_extractedWorkflows.clear();
+        }
+    }
+
     /**
      * Executes a workflow.
      *
@@ -882,6 +1181,14 @@ protected void saveWorkflow(final WorkflowManager wfm, final WorkflowConfigurati
      * @since 2.7
      */
     public int runAll() {
+        try {
+            return m_parallelRuns > 1 && m_workflows.size() > 1 ? runAllParallel() : runAllSequentially();
+        } finally {
+            deleteExtractedWorkflows();
+        }
+    }
+
+    private int runAllSequentially() {
         int retVal = EXIT_SUCCESS;
 
         for (WorkflowConfiguration config : m_workflows) {
@@ -900,7 +1207,78 @@ public int runAll() {
         return retVal;
     }
 
+    /**
+     * Runs the workflows concurrently with at most {@link #m_parallelRuns} at a time, all sharing the JVM and thereby
+     * the table caches, node factories and loaded classes. A further workflow is only started if the memory is not
+     * low (unless nothing else is running).
+     */
+    private int runAllParallel() {
+        LOGGER.info("===== Executing " + m_workflows.size() + " workflows with up to " + m_parallelRuns
+            + " in parallel =====");
+        final ExecutorService executor =
+            ThreadUtils.executorServiceWithContext(Executors.newFixedThreadPool(m_parallelRuns));
+        final CompletionService<Integer> completionService = new ExecutorCompletionService<>(executor);
+        int retVal = EXIT_SUCCESS;
+        int running = 0;
+        boolean stop = false;
+        Iterator<WorkflowConfiguration> it = m_workflows.iterator();
+        try {
+            while ((it.hasNext() && !stop) || running > 0) {
+                if (it.hasNext() && !stop && running < m_parallelRuns
+                    && (running == 0 || !MemoryAlertSystem.getInstance().isMemoryLow())) {
+                    final WorkflowConfiguration config = it.next();
+                    completionService.submit(() -> {
+                        LOGGER.info("===== Executing workflow " + config.inputWorkflow + " =====");
+                        int rv = runOne(config);
+                        LOGGER.info("===== Workflow " + config.inputWorkflow
+                            + (rv == EXIT_SUCCESS ? " executed sucessfully" : " did not execute sucessfully")
+                            + " =====");
+                        return rv;
+                    });
+                    running++;
+                } else {
+                    // wait for a run to finish (or re-check the memory state after a while)
+                    Future<Integer> finished = completionService.poll(1, TimeUnit.SECONDS);
+                    if (finished != null) {
+                        running--;
+                        int rv = getRunResult(finished);
+                        if (rv != EXIT_SUCCESS) {
+                            retVal = rv;
+                            stop = m_stopOnError;
+                        }
+                    }
+                }
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            LOGGER.warn("Interrupted while waiting for workflows to finish");
+            retVal = EXIT_ERR_EXECUTION;
+        } finally {
+            executor.shutdown();
+        }
+        return retVal;
+    }
+
+    private static int getRunResult(final Future<Integer> finished) throws InterruptedException {
+        try {
+            return finished.get();
+        } catch (ExecutionException ex) {
+            LOGGER.error("Workflow execution failed: " + ex.getCause().getMessage(), ex.getCause());
+            return EXIT_ERR_EXECUTION;
+        }
+    }
+
     private int runOne(final WorkflowConfiguration config) {
+        try {
+            return runOneInternal(config);
+        } finally {
+            if (config.privateCopy && config.workflowLocation != null) {
+                FileUtil.deleteRecursively(config.workflowLocation.getParentFile());
+            }
+        }
+    }
+
+    private int runOneInternal(final WorkflowConfiguration config) {
         long t = System.currentTimeMillis();
         WorkflowManager wfm;
         try {
@@ -1245,6 +1623,19 @@ protected WorkflowConfiguration createNewConfiguration() {
         return new WorkflowConfiguration();
     }
 
+    /**
+     * Creates a copy of a workflow configuration, used if the workflows are given by <tt>-workflowList</tt> or are
+     * executed with multiple <tt>-variableSets</tt>. Subclasses that override {@link #createNewConfiguration()}
+     * should also override this method and copy their custom fields.
+     *
+     * @param config the configuration to copy
+     * @return a new workflow configuration object with the same settings
+     * @since 4.3
+     */
+    protected WorkflowConfiguration copyConfiguration(final WorkflowConfiguration config) {
+        return new WorkflowConfiguration(config);
+    }
+
     /**
      * Checks the workflow configuration after all paramaters have been read.
      *
@@ -0,0 +1,175 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ------------------------------------------------------------------------
+ *
+ */
+package org.knime.core.node.workflow;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collections;
+import java.util.Set;
+import java.util.zip.CRC32;
+
+import org.knime.core.node.KNIMEConstants;
+import org.knime.core.node.NodeLogger;
+import org.knime.core.node.NodeSettings;
+import org.knime.core.node.NodeSettingsRO;
+import org.knime.core.node.config.ConfigBinaryFormat;
+
+/**
+ * Binary copy of a settings.xml or workflow.knime file (see {@link ConfigBinaryFormat}), stored next to the XML
+ * file with suffix {@value #SUFFIX}. The XML file remains the authoritative file; the binary copy records length and
+ * checksum of the XML file it was created from and is ignored if the XML file has been modified since (e.g. by a
+ * client not supporting the binary copy). Only used if enabled via {@link KNIMEConstants#PROPERTY_BINARY_SETTINGS}
+ * and never for encrypted workflows.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+final class BinarySettingsFile {
+
+    private static final NodeLogger LOGGER = NodeLogger.getLogger(BinarySettingsFile.class);
+
+    /** Suffix appended to the name of the XML file. */
+    static final String SUFFIX = ".bin";
+
+    private static final boolean ENABLED = Boolean.getBoolean(KNIMEConstants.PROPERTY_BINARY_SETTINGS);
+
+    private BinarySettingsFile() {
+    }
+
+    /**
+     * @param xmlFile the XML file
+     * @return the binary copy of the argument file
+     */
+    static File getBinaryFile(final File xmlFile) {
+        return new File(xmlFile.getParentFile(), xmlFile.getName() + SUFFIX);
+    }
+
+    /**
+     * Writes the binary copy of an XML settings file that has just been written (and closed). Failures are only
+     * logged. If the binary settings are disabled or the file is encrypted, a previously written binary copy is
+     * deleted.
+     *
+     * @param settings the settings that were written to the XML file
+     * @param xmlFile the XML file
+     * @param parent the parent whose cipher was used to write the XML file
+     */
+    static void write(final NodeSettings settings, final File xmlFile, final NodeContainerParent parent) {
+        final File binFile = getBinaryFile(xmlFile);
+        final String name = xmlFile.getName();
+        if (!ENABLED || !name.equals(parent.getCipherFileName(name))) {
+            binFile.delete();
+            return;
+        }
+        try (DataOutputStream out =
+            new DataOutputStream(new BufferedOutputStream(new FileOutputStream(binFile)))) {
+            out.writeLong(xmlFile.length());
+            out.writeLong(checksum(xmlFile));
+            ConfigBinaryFormat.save(settings, out);
+        } catch (IOException ioe) {
+            LOGGER.debug("Unable to write binary settings file \"" + binFile.getAbsolutePath() + "\": "
+                + ioe.getMessage(), ioe);
+            binFile.delete();
+        }
+    }
+
+    /**
+     * Reads the settings from the binary copy of the argument XML file.
+     *
+     * @param xmlFile the XML file
+     * @return the settings or <code>null</code> if there is no valid, up-to-date binary copy (in which case the
+     *         XML file needs to be read)
+     */
+    static NodeSettingsRO read(final File xmlFile) {
+        return read(xmlFile, Collections.emptySet());
+    }
+
+    /**
+     * Reads the settings from the binary copy of the argument XML file, skipping the given top-level sub-configs.
+     *
+     * @param xmlFile the XML file
+     * @param skippedSubConfigs keys of the top-level sub-configs not to read
+     * @return the settings or <code>null</code> if there is no valid, up-to-date binary copy (in which case the
+     *         XML file needs to be read)
+     */
+    static NodeSettingsRO read(final File xmlFile, final Set<String> skippedSubConfigs) {
+        if (!ENABLED) {
+            return null;
+        }
+        final File binFile = getBinaryFile(xmlFile);
+        if (!binFile.isFile()) {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(binFile)))) {
+            if (in.readLong() != xmlFile.length() || in.readLong() != checksum(xmlFile)) {
+                LOGGER.debug("Ignoring outdated binary settings file \"" + binFile.getAbsolutePath() + "\"");
+                return null;
+            }
+            return ConfigBinaryFormat.load(in, NodeSettings::new, skippedSubConfigs);
+        } catch (IOException ioe) {
+            LOGGER.debug("Unable to read binary settings file \"" + binFile.getAbsolutePath() + "\": "
+                + ioe.getMessage(), ioe);
+            return null;
+        }
+    }
+
+    private static long checksum(final File file) throws IOException {
+        final CRC32 crc = new CRC32();
+        final byte[] buffer = new byte[8192];
+        try (InputStream in = new FileInputStream(file)) {
+            int read;
+            while ((read = in.read(buffer)) >= 0) {
+                crc.update(buffer, 0, read);
+            }
+        }
+        return crc.getValue();
+    }
+}
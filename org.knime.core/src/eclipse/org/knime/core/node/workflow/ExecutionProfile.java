@@ -0,0 +1,189 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ------------------------------------------------------------------------
+ *
+ */
+package org.knime.core.node.workflow;
+
+/**
+ * Resource usage of one or more executions of a node as recorded by the {@link ExecutionProfiler}. CPU time and
+ * allocated bytes are -1 if not supported by the JVM or if the execution didn't finish in the thread it started in.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ * @since 4.3
+ */
+public final class ExecutionProfile {
+
+    private final NodeID m_nodeID;
+
+    private final String m_nodeName;
+
+    private final int m_nrExecutions;
+
+    private final long m_wallTime;
+
+    private final long m_cpuTime;
+
+    private final long m_allocatedBytes;
+
+    private final long m_rowsWritten;
+
+    private final long m_bytesWritten;
+
+    private final long m_rowsRead;
+
+    private final long m_bytesRead;
+
+    private final int m_nrSpills;
+
+    private final long m_lockWaitTime;
+
+    ExecutionProfile(final NodeID nodeID, final String nodeName, final int nrExecutions, final long wallTime,
+        final long cpuTime, final long allocatedBytes, final long rowsWritten, final long bytesWritten,
+        final long rowsRead, final long bytesRead, final int nrSpills, final long lockWaitTime) {
+        m_nodeID = nodeID;
+        m_nodeName = nodeName;
+        m_nrExecutions = nrExecutions;
+        m_wallTime = wallTime;
+        m_cpuTime = cpuTime;
+        m_allocatedBytes = allocatedBytes;
+        m_rowsWritten = rowsWritten;
+        m_bytesWritten = bytesWritten;
+        m_rowsRead = rowsRead;
+        m_bytesRead = bytesRead;
+        m_nrSpills = nrSpills;
+        m_lockWaitTime = lockWaitTime;
+    }
+
+    /**
+     * Sums up this and another profile of the same node, for instance when a node in a loop body is executed several
+     * times.
+     *
+     * @param other the profile to add
+     * @return a new profile holding the sums
+     */
+    ExecutionProfile add(final ExecutionProfile other) {
+        return new ExecutionProfile(m_nodeID, m_nodeName, m_nrExecutions + other.m_nrExecutions,
+            m_wallTime + other.m_wallTime, addKnown(m_cpuTime, other.m_cpuTime),
+            addKnown(m_allocatedBytes, other.m_allocatedBytes), m_rowsWritten + other.m_rowsWritten,
+            m_bytesWritten + other.m_bytesWritten, m_rowsRead + other.m_rowsRead, m_bytesRead + other.m_bytesRead,
+            m_nrSpills + other.m_nrSpills, m_lockWaitTime + other.m_lockWaitTime);
+    }
+
+    private static long addKnown(final long a, final long b) {
+        if (a < 0) {
+            return b;
+        }
+        return b < 0 ? a : a + b;
+    }
+
+    /** @return the ID of the profiled node */
+    public NodeID getNodeID() {
+        return m_nodeID;
+    }
+
+    /** @return the name of the profiled node, including its ID */
+    public String getNodeName() {
+        return m_nodeName;
+    }
+
+    /** @return the number of executions summed up in this profile */
+    public int getNrExecutions() {
+        return m_nrExecutions;
+    }
+
+    /** @return the wall-clock execution time in nanoseconds */
+    public long getWallTime() {
+        return m_wallTime;
+    }
+
+    /** @return the CPU time of the executing thread in nanoseconds or -1 if unknown */
+    public long getCPUTime() {
+        return m_cpuTime;
+    }
+
+    /** @return the number of bytes allocated by the executing thread or -1 if unknown */
+    public long getAllocatedBytes() {
+        return m_allocatedBytes;
+    }
+
+    /** @return the number of rows written into tables created during the execution */
+    public long getRowsWritten() {
+        return m_rowsWritten;
+    }
+
+    /** @return the number of bytes of tables written to disk during the execution */
+    public long getBytesWritten() {
+        return m_bytesWritten;
+    }
+
+    /** @return the number of rows of the tables iterated during the execution (counted when iteration starts) */
+    public long getRowsRead() {
+        return m_rowsRead;
+    }
+
+    /** @return the number of bytes of tables iterated from disk during the execution */
+    public long getBytesRead() {
+        return m_bytesRead;
+    }
+
+    /** @return how often tables created during the execution were written to disk before being closed, for
+     *         instance due to low memory */
+    public int getNrSpills() {
+        return m_nrSpills;
+    }
+
+    /** @return the time in nanoseconds the execution was blocked waiting for a {@link WorkflowLock} */
+    public long getLockWaitTime() {
+        return m_lockWaitTime;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public String toString() {
+        return String.format("%s: %d execution(s), wall %d ms, cpu %d ms, allocated %d bytes, written %d rows/%d bytes, "
+            + "read %d rows/%d bytes, %d spill(s), lock wait %d ms", m_nodeName, m_nrExecutions, m_wallTime / 1000000,
+            m_cpuTime < 0 ? -1 : m_cpuTime / 1000000, m_allocatedBytes, m_rowsWritten, m_bytesWritten, m_rowsRead,
+            m_bytesRead, m_nrSpills, m_lockWaitTime / 1000000);
+    }
+}
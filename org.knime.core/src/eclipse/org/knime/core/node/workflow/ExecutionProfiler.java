@@ -0,0 +1,335 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ------------------------------------------------------------------------
+ *
+ */
+package org.knime.core.node.workflow;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.knime.core.node.KNIMEConstants;
+import org.knime.core.node.NodeLogger;
+
+/**
+ * Records resource usage of node executions if enabled via {@link KNIMEConstants#PROPERTY_EXECUTION_PROFILER}.
+ * For each execution the CPU time and allocated bytes of the executing thread, the rows and bytes written and read by
+ * the table buffers, the number of buffers spilled to disk and the time blocked on {@link WorkflowLock}s are recorded
+ * and made available via {@link NodeTimer#getLastExecutionProfile()} and {@link #getProfiles(WorkflowManager)}.
+ * Each profile is also logged on debug level.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ * @since 4.3
+ */
+public final class ExecutionProfiler {
+
+    private static final NodeLogger LOGGER = NodeLogger.getLogger(ExecutionProfiler.class);
+
+    private static volatile boolean enabled = Boolean.getBoolean(KNIMEConstants.PROPERTY_EXECUTION_PROFILER);
+
+    private ExecutionProfiler() {
+    }
+
+    /**
+     * Access to the thread measurements of the JVM, initialized on first use so that nothing is touched unless
+     * profiling is enabled.
+     */
+    private static final class ThreadMetrics {
+
+        private static final ThreadMXBean THREAD_BEAN = ManagementFactory.getThreadMXBean();
+
+        private static final boolean CPU_TIME_SUPPORTED = isCPUTimeSupported();
+
+        /**
+         * <code>getThreadAllocatedBytes(long)</code> of the HotSpot specific extension of the {@link ThreadMXBean},
+         * looked up reflectively as that interface is not part of the Java SE API. Null if not available.
+         */
+        private static final Method GET_ALLOCATED_BYTES = lookupAllocatedBytesMethod();
+
+        private static boolean isCPUTimeSupported() {
+            try {
+                if (!THREAD_BEAN.isCurrentThreadCpuTimeSupported()) {
+                    return false;
+                }
+                if (!THREAD_BEAN.isThreadCpuTimeEnabled()) {
+                    THREAD_BEAN.setThreadCpuTimeEnabled(true);
+                }
+                return true;
+            } catch (UnsupportedOperationException | SecurityException e) {
+                LOGGER.debug("CPU time measurement not available: " + e.getMessage(), e);
+                return false;
+            }
+        }
+
+        private static Method lookupAllocatedBytesMethod() {
+            try {
+                // the public interface, the class of the bean itself is not accessible
+                Class<?> beanInterface = Class.forName("com.sun.management.ThreadMXBean");
+                if (!beanInterface.isInstance(THREAD_BEAN)) {
+                    return null;
+                }
+                if (!(Boolean)beanInterface.getMethod("isThreadAllocatedMemorySupported").invoke(THREAD_BEAN)) {
+                    return null;
+                }
+                if (!(Boolean)beanInterface.getMethod("isThreadAllocatedMemoryEnabled").invoke(THREAD_BEAN)) {
+                    beanInterface.getMethod("setThreadAllocatedMemoryEnabled", boolean.class).invoke(THREAD_BEAN,
+                        Boolean.TRUE);
+                }
+                return beanInterface.getMethod("getThreadAllocatedBytes", long.class);
+            } catch (ReflectiveOperationException | RuntimeException e) {
+                LOGGER.debug("Allocated bytes measurement not available: " + e.getMessage(), e);
+                return null;
+            }
+        }
+
+        private static long getCurrentThreadCPUTime() {
+            return CPU_TIME_SUPPORTED ? THREAD_BEAN.getCurrentThreadCpuTime() : -1;
+        }
+
+        private static long getCurrentThreadAllocatedBytes() {
+            if (GET_ALLOCATED_BYTES == null) {
+                return -1;
+            }
+            try {
+                return (Long)GET_ALLOCATED_BYTES.invoke(THREAD_BEAN, Thread.currentThread().getId());
+            } catch (IllegalAccessException | InvocationTargetException e) {
+                return -1;
+            }
+        }
+    }
+
+    /** @return whether node executions are profiled */
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Enables or disables profiling of node executions started afterwards (for tests).
+     *
+     * @param enable whether to profile
+     * @return the previous setting
+     */
+    static boolean setEnabled(final boolean enable) {
+        final boolean old = enabled;
+        enabled = enable;
+        return old;
+    }
+
+    /**
+     * Returns the recorder of the node currently executing in the calling thread, as determined by the
+     * {@link NodeContext}.
+     *
+     * @return the recorder or null if profiling is disabled or no node is executing
+     * @noreference This method is not intended to be referenced by clients.
+     */
+    public static Recorder currentRecorder() {
+        if (!enabled) {
+            return null;
+        }
+        NodeContext context = NodeContext.getContext();
+        NodeContainer nc = context == null ? null : context.getNodeContainer();
+        return nc == null ? null : nc.getNodeTimer().getProfileRecorder();
+    }
+
+    /**
+     * Lists the profiles of all native nodes in the workflow, including those in metanodes and components, that have
+     * been executed since their last reset. Multiple executions of a node since its last reset (e.g. of loop start and
+     * end nodes, loop body nodes are reset in each iteration) are summed up. The list is
+     * sorted by descending CPU time, or wall-clock time if CPU time is not available, so that the hot nodes come first.
+     *
+     * @param wfm the workflow
+     * @return the profiles, empty if profiling is disabled
+     */
+    public static List<ExecutionProfile> getProfiles(final WorkflowManager wfm) {
+        List<ExecutionProfile> result = new ArrayList<>();
+        collectProfiles(wfm, result);
+        Comparator<ExecutionProfile> comparator = ThreadMetrics.CPU_TIME_SUPPORTED
+            ? Comparator.comparingLong(ExecutionProfile::getCPUTime)
+            : Comparator.comparingLong(ExecutionProfile::getWallTime);
+        result.sort(comparator.reversed());
+        return result;
+    }
+
+    private static void collectProfiles(final WorkflowManager wfm, final List<ExecutionProfile> result) {
+        for (NodeContainer nc : wfm.getNodeContainers()) {
+            if (nc instanceof WorkflowManager) {
+                collectProfiles((WorkflowManager)nc, result);
+            } else if (nc instanceof SubNodeContainer) {
+                collectProfiles(((SubNodeContainer)nc).getWorkflowManager(), result);
+            } else {
+                ExecutionProfile profile = nc.getNodeTimer().getExecutionProfileSinceReset();
+                if (profile != null) {
+                    result.add(profile);
+                }
+            }
+        }
+    }
+
+    /**
+     * Creates a human readable report of the profiles of a workflow, one line per node, hot nodes first.
+     *
+     * @param wfm the workflow
+     * @return the report
+     * @see #getProfiles(WorkflowManager)
+     */
+    public static String createReport(final WorkflowManager wfm) {
+        StringBuilder b = new StringBuilder("Execution profile of ").append(wfm.getNameWithID());
+        if (!enabled) {
+            return b.append(": profiling disabled (set -D").append(KNIMEConstants.PROPERTY_EXECUTION_PROFILER)
+                .append("=true)").toString();
+        }
+        for (ExecutionProfile profile : getProfiles(wfm)) {
+            b.append("\n  ").append(profile);
+        }
+        return b.toString();
+    }
+
+    /**
+     * Collects the measurements of a single node execution. Counters may be updated concurrently from threads other
+     * than the executing one.
+     *
+     * @noreference This class is not intended to be referenced by clients.
+     */
+    public static final class Recorder {
+
+        private final long m_threadID;
+
+        private final long m_startTime;
+
+        private final long m_startCPUTime;
+
+        private final long m_startAllocatedBytes;
+
+        private final LongAdder m_rowsWritten = new LongAdder();
+
+        private final LongAdder m_bytesWritten = new LongAdder();
+
+        private final LongAdder m_rowsRead = new LongAdder();
+
+        private final LongAdder m_bytesRead = new LongAdder();
+
+        private final LongAdder m_nrSpills = new LongAdder();
+
+        private final LongAdder m_lockWaitTime = new LongAdder();
+
+        /** Starts recording in the calling (executing) thread. */
+        Recorder() {
+            m_threadID = Thread.currentThread().getId();
+            m_startTime = System.nanoTime();
+            m_startCPUTime = ThreadMetrics.getCurrentThreadCPUTime();
+            m_startAllocatedBytes = ThreadMetrics.getCurrentThreadAllocatedBytes();
+        }
+
+        /**
+         * @param rows number of rows written into a closed table
+         * @param bytes number of bytes of that table written to disk
+         */
+        public void addWrite(final long rows, final long bytes) {
+            m_rowsWritten.add(rows);
+            m_bytesWritten.add(bytes);
+        }
+
+        /**
+         * @param rows number of rows of a table whose iteration starts
+         * @param bytes number of bytes of that table if it is read from disk
+         */
+        public void addRead(final long rows, final long bytes) {
+            m_rowsRead.add(rows);
+            m_bytesRead.add(bytes);
+        }
+
+        /** Records that a table was written to disk before being closed. */
+        public void addSpill() {
+            m_nrSpills.increment();
+        }
+
+        /** @param nanos time in nanoseconds the execution was blocked on a workflow lock */
+        void addLockWait(final long nanos) {
+            m_lockWaitTime.add(nanos);
+        }
+
+        /**
+         * Finishes the recording, called in the thread that finishes the execution.
+         *
+         * @param nc the executed node
+         * @return the profile
+         */
+        ExecutionProfile finish(final NodeContainer nc) {
+            final long wallTime = System.nanoTime() - m_startTime;
+            long cpuTime = -1;
+            long allocatedBytes = -1;
+            if (Thread.currentThread().getId() == m_threadID) {
+                cpuTime = subtractKnown(ThreadMetrics.getCurrentThreadCPUTime(), m_startCPUTime);
+                allocatedBytes =
+                    subtractKnown(ThreadMetrics.getCurrentThreadAllocatedBytes(), m_startAllocatedBytes);
+            }
+            ExecutionProfile profile = new ExecutionProfile(nc.getID(), nc.getNameWithID(), 1, wallTime, cpuTime,
+                allocatedBytes, m_rowsWritten.sum(), m_bytesWritten.sum(), m_rowsRead.sum(), m_bytesRead.sum(),
+                m_nrSpills.intValue(), m_lockWaitTime.sum());
+            LOGGER.debug(profile);
+            return profile;
+        }
+
+        private static long subtractKnown(final long end, final long start) {
+            return end < 0 || start < 0 ? -1 : end - start;
+        }
+    }
+
+    /**
+     * Records the time the calling thread was blocked on a workflow lock for the node executing in it, if any.
+     *
+     * @param nanos the blocked time in nanoseconds
+     */
+    static void recordLockWait(final long nanos) {
+        Recorder recorder = currentRecorder();
+        if (recorder != null) {
+            recorder.addLockWait(nanos);
+        }
+    }
+}
@@ -207,15 +207,17 @@ public void preLoadNodeContainer(final WorkflowPersistor parentPersistor, final
             setDirtyAfterLoad();
             throw new IOException("Can't read node file \"" + settingsFile.getAbsolutePath() + "\"");
         }
-        NodeSettingsRO settings;
-        try {
-            InputStream in = new FileInputStream(settingsFile);
-            // parentPersitor is null for loaded subnode templates
-            in = parentPersistor == null ? in : parentPersistor.decipherInput(in);
-            settings = NodeSettings.loadFromXML(new BufferedInputStream(in));
-        } catch (IOException ioe) {
-            setDirtyAfterLoad();
-            throw ioe;
+        NodeSettingsRO settings = BinarySettingsFile.read(settingsFile);
+        if (settings == null) {
+            try {
+                InputStream in = new FileInputStream(settingsFile);
+                // parentPersitor is null for loaded subnode templates
+                in = parentPersistor == null ? in : parentPersistor.decipherInput(in);
+                settings = NodeSettings.loadFromXML(new BufferedInputStream(in));
+            } catch (IOException ioe) {
+                setDirtyAfterLoad();
+                throw ioe;
+            }
         }
 
         boolean resetRequired = meta.load(settings, parentSettings, result);
@@ -605,6 +607,7 @@ protected static String save(final SingleNodeContainer singleNC, final Reference
         OutputStream os = new FileOutputStream(nodeSettingsXMLFile);
         os = singleNC.getDirectNCParent().cipherOutput(os);
         settings.saveToXML(os);
+        BinarySettingsFile.write(settings, nodeSettingsXMLFile, singleNC.getDirectNCParent());
         if (saveHelper.isAutoSave() && sncAutoSaveDirRef == null) {
             sncAutoSaveDirRef = nodeDirRef;
             singleNC.setAutoSaveDirectory(sncAutoSaveDirRef);
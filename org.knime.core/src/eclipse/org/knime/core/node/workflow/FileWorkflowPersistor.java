@@ -526,20 +526,22 @@ public void preLoadNodeContainer(final WorkflowPersistor parentPersistor, final
                 + ReferencedFile.class.getSimpleName() + " object");
         }
         m_mustWarnOnDataLoadError = loadIfMustWarnOnDataLoadError(parentRef.getFile());
-        NodeSettingsRO subWFSettings;
-        try {
-            InputStream in = new FileInputStream(nodeFile);
-            if (m_parentPersistor != null) { // real metanode, not a project
-                // the workflow.knime (or template.knime) file is not encrypted
-                // with this metanode's cipher but possibly with a parent
-                // cipher
-                in = m_parentPersistor.decipherInput(in);
-            }
-            in = new BufferedInputStream(in);
-            subWFSettings = NodeSettings.loadFromXML(in);
-        } catch (IOException ioe) {
-            setDirtyAfterLoad();
-            throw ioe;
+        NodeSettingsRO subWFSettings = BinarySettingsFile.read(nodeFile);
+        if (subWFSettings == null) {
+            try {
+                InputStream in = new FileInputStream(nodeFile);
+                if (m_parentPersistor != null) { // real metanode, not a project
+                    // the workflow.knime (or template.knime) file is not encrypted
+                    // with this metanode's cipher but possibly with a parent
+                    // cipher
+                    in = m_parentPersistor.decipherInput(in);
+                }
+                in = new BufferedInputStream(in);
+                subWFSettings = NodeSettings.loadFromXML(in);
+            } catch (IOException ioe) {
+                setDirtyAfterLoad();
+                throw ioe;
+            }
         }
         m_workflowSett = subWFSettings;
 
@@ -2011,10 +2013,12 @@ private static void saveContent(final WorkflowManager wm, final NodeSettings pre
             String toBeDeletedFileName = Role.Template.equals(r) ? TEMPLATE_FILE : WORKFLOW_FILE;
             new File(workflowDir, toBeDeletedFileName).delete();
             new File(workflowDir, WorkflowCipher.getCipherFileName(toBeDeletedFileName)).delete();
+            BinarySettingsFile.getBinaryFile(new File(workflowDir, toBeDeletedFileName)).delete();
 
             OutputStream os = new FileOutputStream(workflowFile);
             os = wm.getDirectNCParent().cipherOutput(os);
             preFilledSettings.saveToXML(os);
+            BinarySettingsFile.write(preFilledSettings, workflowFile, wm.getDirectNCParent());
             if (saveHelper.isSaveData()) {
                 File saveWithDataFile = new File(workflowDir, SAVED_WITH_DATA_FILE);
                 BufferedWriter o = new BufferedWriter(new FileWriter(saveWithDataFile));
@@ -45,6 +45,7 @@
 package org.knime.core.node.workflow;
 
 import org.knime.core.data.filestore.internal.ILoopStartWriteFileStoreHandler;
+import org.knime.core.node.port.PortObjectSpec;
 import org.knime.core.node.util.ConvenienceMethods;
 
 
@@ -59,6 +60,8 @@ public class FlowLoopContext extends FlowScopeContext {
     private int m_iterationIndex = 0;
     private ILoopStartWriteFileStoreHandler m_fileStoreHandler;
     private NodeID m_tailNode;
+    private PortObjectSpec[] m_headSpecsOfLastIteration;
+    private boolean m_bodyKeptConfigured;
 
     public void setTailNode(final NodeID tail) throws IllegalLoopException {
         if (m_tailNode != null && tail != null) {
@@ -96,6 +99,26 @@ boolean needsCompleteResetOnLoopBodyChanges() {
         return m_tailNode != null;
     }
 
+    /** @return output specs of the loop start recorded at the last loop restart, or null */
+    PortObjectSpec[] getHeadSpecsOfLastIteration() {
+        return m_headSpecsOfLastIteration;
+    }
+
+    /** @param headSpecs output specs of the loop start at the current loop restart */
+    void setHeadSpecsOfLastIteration(final PortObjectSpec[] headSpecs) {
+        m_headSpecsOfLastIteration = headSpecs;
+    }
+
+    /** @return whether the loop body was kept configured at the last loop restart */
+    boolean isBodyKeptConfigured() {
+        return m_bodyKeptConfigured;
+    }
+
+    /** @param kept whether the loop body was kept configured at the current loop restart */
+    void setBodyKeptConfigured(final boolean kept) {
+        m_bodyKeptConfigured = kept;
+    }
+
     /** {@inheritDoc} */
     @Override
     protected FlowObject cloneAndUnsetOwner() {
@@ -103,6 +126,8 @@ protected FlowObject cloneAndUnsetOwner() {
         clone.m_tailNode = null;
         clone.m_iterationIndex = 0;
         clone.m_fileStoreHandler = null;
+        clone.m_headSpecsOfLastIteration = null;
+        clone.m_bodyKeptConfigured = false;
         return clone;
     }
 
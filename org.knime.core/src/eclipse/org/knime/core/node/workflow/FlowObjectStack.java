@@ -48,17 +48,20 @@
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
+import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Optional;
-import java.util.Vector;
-import java.util.function.Function;
-import java.util.stream.Collectors;
-import java.util.stream.IntStream;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
 
 import org.apache.commons.lang3.ArrayUtils;
 import org.knime.core.internal.KNIMEPath;
@@ -75,6 +78,13 @@
 /**
  * Container for the stack that keeps for an individual node the
  * flow variables and flow loop information.
+ *
+ * <p>
+ * The content of the stack is kept in immutable {@link StackContent} snapshots that are structurally shared among
+ * stacks: pushing appends to the array of the snapshot in place if no other snapshot has done so already, popping only
+ * truncates, and a stack derived from a single predecessor shares the predecessor's snapshot unless local variables or
+ * duplicates have to be removed. Name-indexed views of the variables and merge results are computed lazily and cached
+ * per snapshot, so they are computed once per stack version rather than once per call.
  * @author Bernd Wiswedel, University of Konstanz
  * @noreference This class is not intended to be referenced by clients.
  */
@@ -87,8 +97,10 @@ public final class FlowObjectStack implements Iterable<FlowObject> {
     private static FlowObjectStack rootStack = new FlowObjectStack();
 
     /** Stack of FlowObjects, which is shared among nodes along the
-     * workflow. */
-    private final Vector<FlowObject> m_stack;
+     * workflow. Replaced (never modified) when the stack is modified, which is guarded by m_lock. */
+    private volatile StackContent m_stack;
+
+    private final Object m_lock = new Object();
     /** Owner of FlowObject object, which are put onto m_stack via this
      * StackWrapper. */
     private final NodeID m_nodeID;
@@ -96,7 +108,7 @@ public final class FlowObjectStack implements Iterable<FlowObject> {
     /** Root stack. */
     private FlowObjectStack() {
         m_nodeID = WorkflowManager.ROOT.getID();
-        m_stack = new Vector<FlowObject>();
+        m_stack = StackContent.EMPTY;
         File wsDirPath = KNIMEPath.getWorkspaceDirPath();
         if (wsDirPath != null) {
             push(new FlowVariable("knime.workspace",
@@ -169,13 +181,11 @@ private FlowObjectStack() {
      * @throws NullPointerException If <code>id</code> is <code>null</code>.
      * @throws IllegalFlowObjectStackException If the stacks can't be merged.
      */
-    @SuppressWarnings("unchecked")
     private FlowObjectStack(final NodeID id, final FlowObjectStack[] predStacks, final boolean ignoredFlag) {
         if (id == null) {
             throw new NullPointerException("NodeID argument must not be null.");
         }
-        List<Vector<FlowObject>> predecessors =
-            new ArrayList<Vector<FlowObject>>();
+        List<StackContent> predecessors = new ArrayList<StackContent>();
         for (int i = 0; i < predStacks.length; i++) {
             if (predStacks[i] != null) {
                 predecessors.add(predStacks[i].m_stack);
@@ -184,8 +194,7 @@ private FlowObjectStack(final NodeID id, final FlowObjectStack[] predStacks, fin
         if (predecessors.isEmpty()) {
             predecessors.add(rootStack.m_stack);
         }
-        Vector<FlowObject>[] sos = predecessors.toArray(
-                new Vector[predecessors.size()]);
+        StackContent[] sos = predecessors.toArray(new StackContent[predecessors.size()]);
         m_stack = merge(resortInputStacks(sos));
         m_nodeID = id;
     }
@@ -201,26 +210,56 @@ private FlowObjectStack(final NodeID id, final FlowObjectStack[] predStacks, fin
      *         a copy, whereby the copy will be shifted by one and the last
      *         element is the first element of sos.
      */
-    private static Vector<FlowObject>[] resortInputStacks(
-            final Vector<FlowObject>[] sos) {
+    private static StackContent[] resortInputStacks(
+            final StackContent[] sos) {
         if (sos.length <= 1) {
             return sos;
         }
-        @SuppressWarnings("unchecked")
-        Vector<FlowObject>[] result = new Vector[sos.length];
+        StackContent[] result = new StackContent[sos.length];
         System.arraycopy(sos, 1, result, 0, sos.length - 1);
         result[sos.length - 1] = sos[0];
         return result;
     }
 
-    private static Vector<FlowObject> merge(final Vector<FlowObject>[] sos) {
-        Vector<FlowObject> result = new Vector<FlowObject>();
+    /** Merges the (resorted) input stacks, using the results cached with the inputs where possible. */
+    private static StackContent merge(final StackContent[] sos) {
+        // identical inputs contribute identical buckets; as later occurrences of a variable overrule earlier ones,
+        // only the last occurrence of each input needs to be merged
+        StackContent[] distinct = removeIdenticalInputs(sos);
+        if (distinct.length == 1) {
+            return distinct[0].getMergedAlone();
+        }
+        MergeResult last = distinct[0].m_lastMerge;
+        if (last != null && Arrays.equals(last.m_inputs, distinct)) {
+            return last.m_result;
+        }
+        StackContent result = StackContent.of(mergeContents(distinct));
+        distinct[0].m_lastMerge = new MergeResult(distinct, result);
+        return result;
+    }
+
+    private static StackContent[] removeIdenticalInputs(final StackContent[] sos) {
+        if (sos.length <= 1) {
+            return sos;
+        }
+        LinkedList<StackContent> result = new LinkedList<StackContent>();
+        Set<StackContent> seen = Collections.newSetFromMap(new IdentityHashMap<StackContent, Boolean>());
+        for (int i = sos.length - 1; i >= 0; i--) {
+            if (seen.add(sos[i])) {
+                result.addFirst(sos[i]);
+            }
+        }
+        return result.size() == sos.length ? sos : result.toArray(new StackContent[result.size()]);
+    }
+
+    private static List<FlowObject> mergeContents(final StackContent[] sos) {
+        List<FlowObject> result = new ArrayList<FlowObject>();
         @SuppressWarnings("unchecked") // no generics in array definition
         Iterator<FlowObject>[] its = new Iterator[sos.length];
         FlowObject[] nexts = new FlowObject[sos.length];
         boolean hasMoreElements = false;
         for (int i = 0; i < sos.length; i++) {
-            its[i] = new FilteredScopeIterator(sos[i].iterator(), Scope.Local);
+            its[i] = new FilteredScopeIterator(sos[i].bottomUpIterator(), Scope.Local);
             hasMoreElements = hasMoreElements ||  its[i].hasNext();
         }
         while (hasMoreElements) {
@@ -292,15 +331,14 @@ public <T extends FlowObject> T peek(final Class<T> type) {
      * @since 3.4
      */
     public <T extends FlowObject> Optional<T> peekOptional(final Class<T> type) {
-        synchronized (m_stack) {
-            for (int i = m_stack.size() - 1; i >= 0; i--) {
-                FlowObject e = m_stack.get(i);
-                if (type.isInstance(e)) {
-                    return Optional.of(type.cast(e));
-                }
+        StackContent stack = m_stack;
+        for (int i = stack.size() - 1; i >= 0; i--) {
+            FlowObject e = stack.get(i);
+            if (type.isInstance(e)) {
+                return Optional.of(type.cast(e));
             }
-            return Optional.empty();
         }
+        return Optional.empty();
     }
 
     /**
@@ -314,15 +352,14 @@ public <T extends FlowObject> Optional<T> peekOptional(final Class<T> type) {
      * @since 2.8
      */
     public <T extends FlowScopeContext> T peekScopeContext(final Class<T> type, final boolean isInactiveScope) {
-        synchronized (m_stack) {
-            for (int i = m_stack.size() - 1; i >= 0; i--) {
-                FlowObject e = m_stack.get(i);
-                if (type.isInstance(e) && (type.cast(e).isInactiveScope() == isInactiveScope)) {
-                    return type.cast(e);
-                }
+        StackContent stack = m_stack;
+        for (int i = stack.size() - 1; i >= 0; i--) {
+            FlowObject e = stack.get(i);
+            if (type.isInstance(e) && (type.cast(e).isInactiveScope() == isInactiveScope)) {
+                return type.cast(e);
             }
-            return null;
         }
+        return null;
     }
 
     /**
@@ -337,13 +374,16 @@ public <T extends FlowScopeContext> T peekScopeContext(final Class<T> type, fina
      * @see java.util.Stack#pop()
      */
     public <T extends FlowObject> T pop(final Class<T> type) {
-        synchronized (m_stack) {
-            for (int i = m_stack.size() - 1; i >= 0; i--) {
-                FlowObject e = m_stack.remove(i);
+        synchronized (m_lock) {
+            StackContent stack = m_stack;
+            for (int i = stack.size() - 1; i >= 0; i--) {
+                FlowObject e = stack.get(i);
                 if (type.isInstance(e)) {
+                    m_stack = stack.truncate(i);
                     return type.cast(e);
                 }
             }
+            m_stack = stack.truncate(0);
             return null;
         }
     }
@@ -363,13 +403,16 @@ public <T extends FlowObject> T pop(final Class<T> type) {
      * @since 2.8
      */
     public <T extends FlowScopeContext> T popScopeContext(final Class<T> type, final boolean isInactiveScope) {
-        synchronized (m_stack) {
-            for (int i = m_stack.size() - 1; i >= 0; i--) {
-                FlowObject e = m_stack.remove(i);
+        synchronized (m_lock) {
+            StackContent stack = m_stack;
+            for (int i = stack.size() - 1; i >= 0; i--) {
+                FlowObject e = stack.get(i);
                 if (type.isInstance(e) && (type.cast(e).isInactiveScope() == isInactiveScope)) {
+                    m_stack = stack.truncate(i);
                     return type.cast(e);
                 }
             }
+            m_stack = stack.truncate(0);
             return null;
         }
     }
@@ -384,16 +427,9 @@ public <T extends FlowScopeContext> T popScopeContext(final Class<T> type, final
      */
     @Deprecated
     public FlowVariable peekFlowVariable(final String name, final Type type) {
-        synchronized (m_stack) {
-            for (int i = m_stack.size() - 1; i >= 0; i--) {
-                FlowObject e = m_stack.get(i);
-                if (!(e instanceof FlowVariable)) {
-                    continue;
-                }
-                FlowVariable v = (FlowVariable)e;
-                if (v.getName().equals(name) && v.getType().equals(type)) {
-                    return v;
-                }
+        for (FlowVariable v : m_stack.getVariables(name)) {
+            if (v.getType().equals(type)) {
+                return v;
             }
         }
         throw new NoSuchElementException("No such variable \"" + name + "\" of"
@@ -413,14 +449,9 @@ public FlowVariable peekFlowVariable(final String name, final Type type) {
     public Optional<FlowVariable> peekFlowVariable(final String name, final VariableType<?> type) {
         CheckUtils.checkArgumentNotNull(name, "Variable name must not be null.");
         CheckUtils.checkArgumentNotNull(type, "Variable type must not be null.");
-        synchronized (m_stack) {
-            final int size = m_stack.size();
-            return IntStream.rangeClosed(1, size).mapToObj(i -> m_stack.get(size - i))//
-                .filter(o -> o instanceof FlowVariable)//
-                .map(o -> (FlowVariable)o)//
-                .filter(v -> v.getName().equals(name) && v.getVariableType().equals(type))//
-                .findFirst();
-        }
+        return m_stack.getVariables(name).stream()//
+            .filter(v -> v.getVariableType().equals(type))//
+            .findFirst();
     }
 
     /**
@@ -454,24 +485,9 @@ public Map<String, FlowVariable> getAvailableFlowVariables() {
      */
     @Deprecated
     public Map<String, FlowVariable> getAvailableFlowVariables(final FlowVariable.Type... types) {
-        LinkedHashMap<String, FlowVariable> hash = new LinkedHashMap<String, FlowVariable>();
         List<Type> typesAsList = Arrays.asList(types);
-        synchronized (m_stack) {
-            for (int i = m_stack.size() - 1; i >= 0; i--) {
-                FlowObject e = m_stack.get(i);
-                if (!(e instanceof FlowVariable)) {
-                    continue;
-                }
-                FlowVariable v = (FlowVariable)e;
-                if (!typesAsList.contains(v.getType())) {
-                    continue;
-                }
-                if (!hash.containsKey(v.getName())) {
-                    hash.put(v.getName(), v);
-                }
-            }
-        }
-        return Collections.unmodifiableMap(hash);
+        return m_stack.getAvailableVariables(new HashSet<Object>(typesAsList),
+            v -> typesAsList.contains(v.getType()));
     }
 
     /**
@@ -483,17 +499,9 @@ public Map<String, FlowVariable> getAvailableFlowVariables(final FlowVariable.Ty
      * @since 4.1
      */
     public Map<String, FlowVariable> getAvailableFlowVariables(final VariableType<?>[] types) {
-        synchronized (m_stack) {
-            final int size = m_stack.size();
-            final List<VariableType<?>> typesAsList = Arrays.asList(types);
-            return Collections.unmodifiableMap(//
-                IntStream.rangeClosed(1, size).mapToObj(i -> m_stack.get(size - i))//
-                    .filter(o -> o instanceof FlowVariable)//
-                    .map(o -> (FlowVariable)o)//
-                    .filter(v -> typesAsList.contains(v.getVariableType()))//
-                    .collect(Collectors.toMap(FlowVariable::getName, Function.identity(), (v1, v2) -> v1,
-                        LinkedHashMap::new)));
-        }
+        final List<VariableType<?>> typesAsList = Arrays.asList(types);
+        return m_stack.getAvailableVariables(new HashSet<Object>(typesAsList),
+            v -> typesAsList.contains(v.getVariableType()));
     }
 
     /**
@@ -520,13 +528,11 @@ public Map<String, FlowVariable> getAvailableFlowVariables(final VariableType<?>
     List<FlowObject> getFlowObjectsOwnedBy(final NodeID id,
             final Scope... ignoredScopes) {
         List<FlowObject> result = new ArrayList<FlowObject>();
-        synchronized (m_stack) {
-            FilteredScopeIterator it = new FilteredScopeIterator(m_stack.iterator(), ignoredScopes);
-            while (it.hasNext()) {
-                FlowObject v = it.next();
-                if (v.getOwner().equals(id)) {
-                    result.add(v);
-                }
+        FilteredScopeIterator it = new FilteredScopeIterator(m_stack.bottomUpIterator(), ignoredScopes);
+        while (it.hasNext()) {
+            FlowObject v = it.next();
+            if (v.getOwner().equals(id)) {
+                result.add(v);
             }
         }
         return result;
@@ -550,14 +556,16 @@ public void push(final FlowObject item) {
      */
     void pushWithOwner(final FlowObject item) {
         CheckUtils.checkArgument(item.getOwner() != null, "Item should have owner set at this point: %s", item);
-        m_stack.add(item);
+        synchronized (m_lock) {
+            m_stack = m_stack.push(item);
+        }
     }
 
     /**
      * @return true if stack is empty
      */
     boolean isEmpty() {
-        return m_stack.isEmpty();
+        return m_stack.size() == 0;
     }
 
     /** Get number of elements in the stack.
@@ -568,13 +576,11 @@ int size() {
 
     /** Get iterator on elements, top of stack first. The iterator is
      * read only and not affected by potential modifications of the stack
-     * after this method returns (iterator on copy).
+     * after this method returns (iterator on the current immutable snapshot).
      * {@inheritDoc} */
     @Override
     public Iterator<FlowObject> iterator() {
-        Vector<FlowObject> copy = new Vector<FlowObject>(m_stack);
-        Collections.reverse(copy);
-        return Collections.unmodifiableList(copy).iterator();
+        return m_stack.topDownIterator();
     }
 
     /**
@@ -590,10 +596,9 @@ public String toString() {
     public int hashCode() {
         // stacks are not really used in hashs ... but since we implement equals
         int hash = m_nodeID.hashCode();
-        synchronized (m_stack) {
-            for (FlowObject o : m_stack) {
-                hash += o.hashCode();
-            }
+        StackContent stack = m_stack;
+        for (int i = 0; i < stack.size(); i++) {
+            hash += stack.get(i).hashCode();
         }
         return hash;
     }
@@ -608,10 +613,8 @@ public boolean equals(final Object obj) {
             return false;
         }
         FlowObjectStack o = (FlowObjectStack)obj;
-        synchronized (m_stack) {
-            return o.m_nodeID.equals(m_nodeID)
-                && o.m_stack.equals(m_stack); // deep equals!
-        }
+        return o.m_nodeID.equals(m_nodeID)
+            && o.m_stack.contentEquals(m_stack); // deep equals!
     }
 
     /**
@@ -623,12 +626,11 @@ public String toDeepString() {
         b.append(m_nodeID);
         b.append("---");
         b.append('\n');
-        synchronized (m_stack) {
-            for (int i = m_stack.size() - 1; i >= 0; --i) {
-                FlowObject o = m_stack.get(i);
-                b.append(o);
-                b.append('\n');
-            }
+        StackContent stack = m_stack;
+        for (int i = stack.size() - 1; i >= 0; --i) {
+            FlowObject o = stack.get(i);
+            b.append(o);
+            b.append('\n');
         }
         b.append("--------");
         return b.toString();
@@ -689,6 +691,200 @@ private static final Pair<String, Type> getVariableDefinition(
         return new Pair<String, Type>(varName, varType);
     }
 
+    /**
+     * Immutable content of a stack (bottom first). Contents derived from each other by pushing share one array:
+     * pushing appends in place if the slot after the content is still unused, otherwise the array is copied. Views
+     * derived from the content are computed lazily and cached with it.
+     */
+    private static final class StackContent {
+
+        static final StackContent EMPTY = new StackContent(new Block(new FlowObject[0], 0), 0);
+
+        private final Block m_block;
+
+        private final int m_size;
+
+        /** Variables by name, top-most first. */
+        private volatile Map<String, List<FlowVariable>> m_nameIndex;
+
+        /** Available variables by the set of types they were filtered for. */
+        private final Map<Set<Object>, Map<String, FlowVariable>> m_availableVariables =
+            new ConcurrentHashMap<Set<Object>, Map<String, FlowVariable>>();
+
+        /** Result of merging this content as single input. */
+        private volatile StackContent m_mergedAlone;
+
+        /** Last merge of several inputs with this content as first input. */
+        private volatile MergeResult m_lastMerge;
+
+        private StackContent(final Block block, final int size) {
+            m_block = block;
+            m_size = size;
+        }
+
+        static StackContent of(final List<FlowObject> elements) {
+            FlowObject[] array = elements.toArray(new FlowObject[elements.size()]);
+            return new StackContent(new Block(array, array.length), array.length);
+        }
+
+        int size() {
+            return m_size;
+        }
+
+        FlowObject get(final int index) {
+            if (index >= m_size) {
+                throw new IndexOutOfBoundsException(index + " >= " + m_size);
+            }
+            return m_block.m_array[index];
+        }
+
+        StackContent push(final FlowObject item) {
+            synchronized (m_block) {
+                if (m_block.m_used == m_size && m_size < m_block.m_array.length) {
+                    m_block.m_array[m_size] = item;
+                    m_block.m_used++;
+                    return new StackContent(m_block, m_size + 1);
+                }
+            }
+            FlowObject[] array = Arrays.copyOf(m_block.m_array, Math.max(8, m_size + (m_size >> 1) + 1));
+            array[m_size] = item;
+            return new StackContent(new Block(array, m_size + 1), m_size + 1);
+        }
+
+        StackContent truncate(final int size) {
+            return size == m_size ? this : new StackContent(m_block, size);
+        }
+
+        boolean contentEquals(final StackContent other) {
+            if (other == this) {
+                return true;
+            }
+            if (other.m_size != m_size) {
+                return false;
+            }
+            for (int i = 0; i < m_size; i++) {
+                if (!get(i).equals(other.get(i))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        Iterator<FlowObject> bottomUpIterator() {
+            return Collections.unmodifiableList(Arrays.asList(m_block.m_array).subList(0, m_size)).iterator();
+        }
+
+        Iterator<FlowObject> topDownIterator() {
+            return new Iterator<FlowObject>() {
+                private int m_next = m_size - 1;
+
+                @Override
+                public boolean hasNext() {
+                    return m_next >= 0;
+                }
+
+                @Override
+                public FlowObject next() {
+                    if (m_next < 0) {
+                        throw new NoSuchElementException("Iterator at end");
+                    }
+                    return m_block.m_array[m_next--];
+                }
+            };
+        }
+
+        /** @return the variables with the given name, top-most first, possibly empty */
+        List<FlowVariable> getVariables(final String name) {
+            Map<String, List<FlowVariable>> index = m_nameIndex;
+            if (index == null) {
+                index = new HashMap<String, List<FlowVariable>>();
+                for (int i = m_size - 1; i >= 0; i--) {
+                    FlowObject e = m_block.m_array[i];
+                    if (e instanceof FlowVariable) {
+                        FlowVariable v = (FlowVariable)e;
+                        index.computeIfAbsent(v.getName(), n -> new ArrayList<FlowVariable>(1)).add(v);
+                    }
+                }
+                m_nameIndex = index;
+            }
+            List<FlowVariable> result = index.get(name);
+            return result == null ? Collections.<FlowVariable> emptyList() : result;
+        }
+
+        /**
+         * @param key the key of the filter in the cache
+         * @param filter the filter for the variables
+         * @return the top-most variable for each name among the variables accepted by the filter (read-only)
+         */
+        Map<String, FlowVariable> getAvailableVariables(final Set<Object> key, final Predicate<FlowVariable> filter) {
+            Map<String, FlowVariable> result = m_availableVariables.get(key);
+            if (result == null) {
+                LinkedHashMap<String, FlowVariable> hash = new LinkedHashMap<String, FlowVariable>();
+                for (int i = m_size - 1; i >= 0; i--) {
+                    FlowObject e = m_block.m_array[i];
+                    if (e instanceof FlowVariable && filter.test((FlowVariable)e)) {
+                        hash.putIfAbsent(((FlowVariable)e).getName(), (FlowVariable)e);
+                    }
+                }
+                result = Collections.unmodifiableMap(hash);
+                m_availableVariables.put(key, result);
+            }
+            return result;
+        }
+
+        /**
+         * @return the result of merging this content alone, i.e. without local variables and duplicates; this if
+         *         there are no such elements
+         */
+        StackContent getMergedAlone() {
+            StackContent result = m_mergedAlone;
+            if (result == null) {
+                List<FlowObject> merged = mergeContents(new StackContent[]{this});
+                result = hasSameElements(merged) ? this : of(merged);
+                m_mergedAlone = result;
+            }
+            return result;
+        }
+
+        private boolean hasSameElements(final List<FlowObject> elements) {
+            if (elements.size() != m_size) {
+                return false;
+            }
+            for (int i = 0; i < m_size; i++) {
+                if (elements.get(i) != m_block.m_array[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    /** Array shared by stack contents, with the number of slots used by any of them (guarded by the block). */
+    private static final class Block {
+
+        private final FlowObject[] m_array;
+
+        private int m_used;
+
+        Block(final FlowObject[] array, final int used) {
+            m_array = array;
+            m_used = used;
+        }
+    }
+
+    /** Inputs (compared by identity) and result of a merge. */
+    private static final class MergeResult {
+
+        private final StackContent[] m_inputs;
+
+        private final StackContent m_result;
+
+        MergeResult(final StackContent[] inputs, final StackContent result) {
+            m_inputs = inputs;
+            m_result = result;
+        }
+    }
+
     /** Iterator that removes flow variables with given scopes from an
      * underlying iterator. Used, for instance to remove "local" variables when
      * merging stacks of predecessor nodes.
@@ -194,6 +194,11 @@ public boolean executionInProgress() {
     private final CopyOnWriteArraySet<NodeProgressListener>
         m_progressListeners = new CopyOnWriteArraySet<NodeProgressListener>();
 
+    /** Keys of this node's progress and state events in the {@link NodeEventDispatcher}. */
+    private final Object m_progressEventKey = new Object();
+
+    private final Object m_stateEventKey = new Object();
+
     private final CopyOnWriteArraySet<NodeUIInformationListener> m_uiListeners =
         new CopyOnWriteArraySet<NodeUIInformationListener>();
 
@@ -782,6 +787,15 @@ public boolean removeNodeProgressListener(final NodeProgressListener listener) {
     * @param e the new progress event
     */
    protected void notifyProgressListeners(final NodeProgressEvent e) {
+       if (NodeEventDispatcher.isEnabled()) {
+           // coalesced and delivered off the calling thread, see NodeEventDispatcher
+           NodeEventDispatcher.getInstance().dispatch(m_progressEventKey, () -> deliverProgressEvent(e));
+       } else {
+           deliverProgressEvent(e);
+       }
+   }
+
+   private void deliverProgressEvent(final NodeProgressEvent e) {
        for (NodeProgressListener l : m_progressListeners) {
            l.progressChanged(e);
        }
@@ -895,8 +909,23 @@ public void setUIInformation(final NodeUIInformation uiInformation) {
      * @param e the new state change event
      */
     protected void notifyStateChangeListeners(final NodeStateEvent e) {
+        final boolean async = NodeEventDispatcher.isEnabled();
+        boolean hasAsyncListeners = false;
         for (NodeStateChangeListener l : m_stateChangeListeners) {
-            l.stateChanged(e);
+            if (async && l instanceof AsyncNodeStateChangeListener) {
+                hasAsyncListeners = true;
+            } else {
+                l.stateChanged(e);
+            }
+        }
+        if (hasAsyncListeners) {
+            NodeEventDispatcher.getInstance().dispatch(m_stateEventKey, () -> {
+                for (NodeStateChangeListener l : m_stateChangeListeners) {
+                    if (l instanceof AsyncNodeStateChangeListener) {
+                        l.stateChanged(e);
+                    }
+                }
+            });
         }
         findChangesTracker().ifPresent(ChangesTracker::nodeStateChange);
     }
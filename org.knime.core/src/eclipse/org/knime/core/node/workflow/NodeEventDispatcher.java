@@ -0,0 +1,146 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ------------------------------------------------------------------------
+ *
+ */
+package org.knime.core.node.workflow;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+
+import org.knime.core.node.KNIMEConstants;
+import org.knime.core.node.NodeLogger;
+
+/**
+ * Delivers node events (progress and state events for {@link AsyncNodeStateChangeListener}s) on a dedicated thread.
+ * Events are dispatched by key, usually one key per node and event kind. If a new event for a key arrives while the
+ * delivery of an earlier one is still pending, only the latest event is delivered. Each key is queued at most once,
+ * so memory is bounded by the number of keys (two per node) even if listeners are very slow, and the calling thread
+ * never blocks nor delivers events itself (which could deadlock with listeners acquiring the workflow lock).
+ *
+ * <p>
+ * Only used if enabled via {@link KNIMEConstants#PROPERTY_ASYNC_NODE_EVENTS}. Events of one key are delivered in the
+ * order they were dispatched (possibly coalesced); there is no ordering guarantee among different keys.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+final class NodeEventDispatcher {
+
+    private static final NodeLogger LOGGER = NodeLogger.getLogger(NodeEventDispatcher.class);
+
+    private static final boolean ENABLED = Boolean.getBoolean(KNIMEConstants.PROPERTY_ASYNC_NODE_EVENTS);
+
+    /** Holds the singleton, created on first use so that the thread isn't started unless the dispatcher is used. */
+    private static final class InstanceHolder {
+        private static final NodeEventDispatcher INSTANCE = new NodeEventDispatcher();
+    }
+
+    /** The latest pending delivery per key. */
+    private final ConcurrentHashMap<Object, Runnable> m_pending = new ConcurrentHashMap<>();
+
+    /** Keys with pending deliveries, in the order of their first event; a key is contained at most once. */
+    private final BlockingQueue<Object> m_queue = new LinkedBlockingQueue<>();
+
+    /**
+     * Creates a new dispatcher and starts its thread.
+     */
+    NodeEventDispatcher() {
+        final Thread thread = new Thread(this::dispatchLoop, "KNIME Node Event Dispatcher");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * @return the singleton instance
+     */
+    static NodeEventDispatcher getInstance() {
+        return InstanceHolder.INSTANCE;
+    }
+
+    /**
+     * @return <code>true</code> if events should be dispatched asynchronously, <code>false</code> if they should be
+     *         delivered synchronously (see {@link KNIMEConstants#PROPERTY_ASYNC_NODE_EVENTS})
+     */
+    static boolean isEnabled() {
+        return ENABLED;
+    }
+
+    /**
+     * Schedules the delivery of an event, replacing any pending delivery for the same key.
+     *
+     * @param key the key identifying node and event kind, compared by equals
+     * @param delivery notifies the listeners about the event
+     */
+    void dispatch(final Object key, final Runnable delivery) {
+        if (m_pending.put(key, delivery) == null) {
+            // no pending delivery for the key, hence it isn't queued (it is removed from the queue before the pending
+            // delivery is taken); otherwise the queued key delivers the replaced event
+            m_queue.add(key);
+        }
+    }
+
+    private void dispatchLoop() {
+        while (true) {
+            final Object key;
+            try {
+                key = m_queue.take();
+            } catch (InterruptedException e) {
+                LOGGER.debug("Node event dispatcher interrupted, continuing");
+                continue;
+            }
+            final Runnable r = m_pending.remove(key);
+            if (r != null) {
+                deliver(r);
+            }
+        }
+    }
+
+    private static void deliver(final Runnable delivery) {
+        try {
+            delivery.run();
+        } catch (Throwable t) {
+            LOGGER.error("Exception while notifying node event listeners: " + t.getMessage(), t);
+        }
+    }
+}
@@ -133,6 +133,11 @@ public final class NodeTimer {
     private long m_executionDurationOverall;
     private int m_numberOfExecutionsSinceReset;
     private int m_numberOfExecutionsOverall;
+    private int m_numberOfLoopIterationsSinceReset;
+    private long m_loopIterationOverheadSinceReset;
+    private volatile ExecutionProfiler.Recorder m_profileRecorder;
+    private ExecutionProfile m_lastExecutionProfile;
+    private ExecutionProfile m_executionProfileSinceReset;
 
     /**
      * Container holding stats for the entire instance and all nodes that have been used/timed.
@@ -759,6 +764,45 @@ public int getNrExecsSinceStart() {
         return m_numberOfExecutionsOverall;
     }
 
+    /**
+     * @return number of loop restarts since the last reset, only counted for loop start nodes
+     * @since 4.3
+     */
+    public int getNrLoopIterationsSinceReset() {
+        return m_numberOfLoopIterationsSinceReset;
+    }
+
+    /**
+     * @return accumulated time in nanoseconds the workflow manager spent on restarting the loop (resetting,
+     *         configuring and re-queuing the loop body) since the last reset, only counted for loop start nodes
+     * @since 4.3
+     */
+    public long getLoopIterationOverheadSinceReset() {
+        return m_loopIterationOverheadSinceReset;
+    }
+
+    /**
+     * @return resource usage of the last execution or null if not profiled, see {@link ExecutionProfiler}
+     * @since 4.3
+     */
+    public ExecutionProfile getLastExecutionProfile() {
+        return m_lastExecutionProfile;
+    }
+
+    /**
+     * @return summed up resource usage of all executions since the last reset or null if not profiled, see
+     *         {@link ExecutionProfiler}
+     * @since 4.3
+     */
+    public ExecutionProfile getExecutionProfileSinceReset() {
+        return m_executionProfileSinceReset;
+    }
+
+    /** @return the recorder of the running execution or null if not executing or not profiled */
+    ExecutionProfiler.Recorder getProfileRecorder() {
+        return m_profileRecorder;
+    }
+
     /**
      * @return time when node has been started the last time (format is the same as returned by
      *         {@link System#currentTimeMillis()}), -1 if node hasn't been started, yet
@@ -782,15 +826,33 @@ private void initialize() {
         m_numberOfExecutionsSinceReset = 0;
         m_numberOfExecutionsOverall = 0;
         m_executionDurationOverall = 0;
+        m_numberOfLoopIterationsSinceReset = 0;
+        m_loopIterationOverheadSinceReset = 0;
+        m_profileRecorder = null;
+        m_lastExecutionProfile = null;
+        m_executionProfileSinceReset = null;
     }
 
     public void resetNode() {
         m_numberOfExecutionsSinceReset = 0;
         m_executionDurationSinceReset = 0;
+        m_numberOfLoopIterationsSinceReset = 0;
+        m_loopIterationOverheadSinceReset = 0;
+        m_executionProfileSinceReset = null;
+    }
+
+    /** Called by the workflow manager after a loop has been restarted.
+     * @param overheadNanos time spent on the restart in nanoseconds */
+    void addLoopIteration(final long overheadNanos) {
+        m_numberOfLoopIterationsSinceReset++;
+        m_loopIterationOverheadSinceReset += overheadNanos;
     }
 
     public void startExec() {
         m_startTime = System.currentTimeMillis();
+        if (ExecutionProfiler.isEnabled()) {
+            m_profileRecorder = new ExecutionProfiler.Recorder();
+        }
     }
 
     public void endExec(final boolean success) {
@@ -805,6 +867,13 @@ public void endExec(final boolean success) {
             String cname = getCanonicalName(m_parent);
             GLOBAL_TIMER.addExecutionTime(cname, success, m_lastExecutionDuration);
         }
+        final ExecutionProfiler.Recorder recorder = m_profileRecorder;
+        if (recorder != null) {
+            m_profileRecorder = null;
+            m_lastExecutionProfile = recorder.finish(m_parent);
+            m_executionProfileSinceReset = m_executionProfileSinceReset == null ? m_lastExecutionProfile
+                : m_executionProfileSinceReset.add(m_lastExecutionProfile);
+        }
         m_lastStartTime = m_startTime;
         m_startTime = -1;
     }
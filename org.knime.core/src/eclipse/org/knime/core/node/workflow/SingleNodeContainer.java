@@ -120,6 +120,10 @@ public static enum MemoryPolicy {
     private SingleNodeContainerSettings m_settings =
         new SingleNodeContainerSettings();
 
+    /** Set if the node was kept configured while its loop was restarted, see
+     * {@link WorkflowManager#doBeforeExecution(NodeContainer)}. Only accessed under the workflow lock. */
+    private boolean m_refreshFlowObjectStackBeforeExecution;
+
     /**
      * @param parent ...
      * @param id ...
@@ -902,6 +906,16 @@ void saveSNCSettings(final NodeSettingsWO settings, final boolean initDefaultMod
         sncSettings.save(settings);
     }
 
+    /** @return whether the flow object stack needs to be re-created from the predecessors before execution */
+    boolean isRefreshFlowObjectStackBeforeExecution() {
+        return m_refreshFlowObjectStackBeforeExecution;
+    }
+
+    /** @param refresh whether to re-create the flow object stack from the predecessors before execution */
+    void setRefreshFlowObjectStackBeforeExecution(final boolean refresh) {
+        m_refreshFlowObjectStackBeforeExecution = refresh;
+    }
+
     /** @return reference to internally used settings (contains information for
      * memory policy, e.g.) */
     SingleNodeContainerSettings getSingleNodeContainerSettings() {
@@ -50,6 +50,8 @@
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.net.URI;
+import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
 
@@ -306,7 +308,12 @@ public final TemplateNodeContainerPersistor createTemplateLoadPersistor(
             throw new IOException("No \"" + fileName + "\" file in directory \"" + directory.getAbsolutePath() + "\"");
         }
 
-        NodeSettingsRO settings = NodeSettings.loadFromXML(new BufferedInputStream(new FileInputStream(dotKNIME)));
+        // only the header information is needed here, nodes and connections are read by the returned persistor
+        NodeSettingsRO settings = BinarySettingsFile.read(dotKNIME,
+            new HashSet<>(Arrays.asList(WorkflowPersistor.KEY_NODES, WorkflowPersistor.KEY_CONNECTIONS)));
+        if (settings == null) {
+            settings = NodeSettings.loadFromXML(new BufferedInputStream(new FileInputStream(dotKNIME)));
+        }
         // CeBIT 2006 version did not contain a version string.
         String versionString;
         if (settings.containsKey(WorkflowLoadHelper.CFG_VERSION)) {
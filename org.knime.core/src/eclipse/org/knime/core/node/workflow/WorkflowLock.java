@@ -119,7 +119,13 @@ boolean isHeldByCurrentThread() {
      * @return this.
      */
     public WorkflowLock lock() {
-        m_reentrantLock.lock();
+        if (!ExecutionProfiler.isEnabled()) {
+            m_reentrantLock.lock();
+        } else if (!m_reentrantLock.tryLock()) {
+            final long waitStart = System.nanoTime();
+            m_reentrantLock.lock();
+            ExecutionProfiler.recordLockWait(System.nanoTime() - waitStart);
+        }
         if (KNIMEConstants.ASSERTIONS_ENABLED) {
             hasNoChildLocked();
         }
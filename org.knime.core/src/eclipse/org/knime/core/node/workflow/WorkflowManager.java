@@ -221,6 +221,10 @@ public final class WorkflowManager extends NodeContainer
     /** my logger. */
     private static final NodeLogger LOGGER = NodeLogger.getLogger(WorkflowManager.class);
 
+    /** See {@link KNIMEConstants#PROPERTY_KEEP_LOOP_BODY_CONFIGURED}. */
+    private static volatile boolean keepLoopBodyConfigured =
+        Boolean.getBoolean(KNIMEConstants.PROPERTY_KEEP_LOOP_BODY_CONFIGURED);
+
     /**
      * Name of this workflow (usually displayed at top of the node figure). May be null to use name of workflow
      * directory.
@@ -1953,6 +1957,12 @@ public void loadNodeSettings(final NodeID id, final NodeSettingsRO settings) thr
                 // make sure we are consistent (that is reset + configure)
                 // if we touch upstream nodes implicitly (e.g. loop heads)
                 nc.validateSettings(settings);
+                if (nc instanceof SingleNodeContainer && hasIdenticalSettings((SingleNodeContainer)nc, settings)) {
+                    // nothing changed that could affect the node's or its successors' output, e.g. a dialog closed
+                    // with OK but without modifications -- don't reset (and possibly re-execute) the successors
+                    LOGGER.debug("Settings of " + nc.getNameWithID() + " unchanged, not resetting node and successors");
+                    return;
+                }
                 resetNodeAndSuccessors(id);
                 nc.loadSettings(settings);
                 // bug fix 2593: can't simply call configureNodeAndSuccessor
@@ -1971,6 +1981,26 @@ public void loadNodeSettings(final NodeID id, final NodeSettingsRO settings) thr
         }
     }
 
+    /** Compares the settings (model, variables and node container settings) of a node with new settings. Only
+     * nodes that are configured or executed without error or warning qualify -- an idle node or a node with a
+     * message may succeed in configure when re-applying the same settings (e.g. after its input has changed).
+     * @param snc the node
+     * @param settings the new settings
+     * @return true if the node is configured or executed without message and the new settings are identical to
+     *         the node's current settings */
+    private static boolean hasIdenticalSettings(final SingleNodeContainer snc, final NodeSettingsRO settings) {
+        InternalNodeContainerState state = snc.getInternalState();
+        if (state != CONFIGURED && state != EXECUTED) {
+            return false;
+        }
+        if (snc.getNodeMessage().getMessageType() != NodeMessage.Type.RESET) {
+            return false;
+        }
+        NodeSettings current = new NodeSettings(settings.getKey());
+        snc.saveSettings(current, true);
+        return current.equals(settings);
+    }
+
     /**
      * write node settings into Settings object.
      *
@@ -3124,6 +3154,10 @@ void doBeforeExecution(final NodeContainer nc) {
             LOGGER.debug(nc.getNameWithID() + " doBeforeExecution");
             nc.getNodeTimer().startExec();
             if (nc instanceof SingleNodeContainer) {
+                if (((SingleNodeContainer)nc).isRefreshFlowObjectStackBeforeExecution()) {
+                    // node was kept configured during a loop restart - pick up the variables of this iteration
+                    refreshFlowObjectStack((SingleNodeContainer)nc);
+                }
                 FlowObjectStack flowObjectStack = nc.getFlowObjectStack();
                 FlowScopeContext fsc = flowObjectStack.peek(FlowScopeContext.class);
 
@@ -3258,6 +3292,7 @@ void doAfterExecution(final NodeContainer nc, final NodeContainerExecutionStatus
                     if (nnc.isModelCompatibleTo(LoopStartNode.class)) {
                         // if this was BEGIN, it's not anymore (until we do not restart it explicitly!)
                         node.setLoopEndNode(null);
+                        checkLoopBodyKeptConfigured(nnc);
                     }
                     if (nnc.isModelCompatibleTo(LoopEndNode.class)) {
                         // make sure entire loop body is executed. Trigger execution of rest if not.
@@ -3384,6 +3419,7 @@ void doAfterExecution(final NodeContainer nc, final NodeContainerExecutionStatus
      */
     private void restartLoop(final FlowLoopContext slc) throws IllegalLoopException {
         assert m_workflowLock.isHeldByCurrentThread();
+        final long restartStart = System.nanoTime();
         NodeContainer tailNode = m_workflow.getNode(slc.getTailNode());
         NodeContainer headNode = m_workflow.getNode(slc.getOwner());
         if ((tailNode == null) || (headNode == null)) {
@@ -3422,8 +3458,12 @@ private void restartLoop(final FlowLoopContext slc) throws IllegalLoopException
         FlowLoopContext flc = headOutgoingStack.peek(FlowLoopContext.class);
         assert !flc.isInactiveScope();
         flc.incrementIterationIndex();
+        // only for loop starts that want their body to be reset, others keep the old behavior
+        final boolean keepBodyConfigured = headNNC.resetAndConfigureLoopBody()
+            && canKeepLoopBodyConfigured(headNNC, (NativeNodeContainer)tailNode, loopBodyNodes, flc);
+        flc.setBodyKeptConfigured(keepBodyConfigured);
         // (4-7) reset/configure loop body - or not...
-        if (headNNC.resetAndConfigureLoopBody()) {
+        if (headNNC.resetAndConfigureLoopBody() && !keepBodyConfigured) {
             // (4a) reset the nodes in the body (only those -
             //     make sure end of loop is NOT reset). Make sure reset()
             //     is performed in the correct order (last nodes first!)
@@ -3514,6 +3554,9 @@ private void restartLoop(final FlowLoopContext slc) throws IllegalLoopException
                     if (nc.getInternalState().equals(EXECUTED)) {
                         ((SingleNodeContainer)nc).markForReExecution(new ExecutionEnvironment(false, null, false));
                     }
+                    if (keepBodyConfigured) {
+                        ((SingleNodeContainer)nc).setRefreshFlowObjectStackBeforeExecution(true);
+                    }
                 } else {
                     // Mark executed nodes for re-execution (will also mark
                     // queuded and idle nodes but those don't exist)
@@ -3525,14 +3568,163 @@ private void restartLoop(final FlowLoopContext slc) throws IllegalLoopException
             //            ((SingleNodeContainer)tailNode).markForExecution(true);
             // see above - state is ok
             assert tailNode.getInternalState().equals(CONFIGURED_MARKEDFOREXEC);
+            if (keepBodyConfigured) {
+                ((NativeNodeContainer)tailNode).setRefreshFlowObjectStackBeforeExecution(true);
+            }
         }
         // (8) allow access to tail node
         ((NativeNodeContainer)headNode).getNode().setLoopEndNode(((NativeNodeContainer)tailNode).getNode());
+        headNNC.getNodeTimer().addLoopIteration(System.nanoTime() - restartStart);
         // (9) and finally try to queue the head of this loop!
         assert headNode.getInternalState().equals(EXECUTED_MARKEDFOREXEC);
         queueIfQueuable(headNode);
     }
 
+    /**
+     * Whether the body of a loop can stay configured while the loop is restarted, that is, whether the body nodes
+     * only need to be marked for re-execution (as for loops that don't {@link NodeModel#resetAndConfigureLoopBody()}).
+     * This requires {@link KNIMEConstants#PROPERTY_KEEP_LOOP_BODY_CONFIGURED} to be set, the loop start to have
+     * produced the same output specs in the last two iterations, and all body nodes to be executed native nodes that
+     * don't open or close a scope. Neither body nodes nor the loop end may have flow variable settings, as those are
+     * only applied during configure. Models that read flow variables in their configure method are not detected and
+     * keep the configuration of an earlier iteration, which is why this is opt-in. Also remembers the current specs
+     * of the loop start for the next iteration. As the specs of the next iteration are only known once the loop start
+     * has executed again, they are checked once more in {@link #checkLoopBodyKeptConfigured(NativeNodeContainer)}.
+     */
+    private boolean canKeepLoopBodyConfigured(final NativeNodeContainer headNNC, final NativeNodeContainer tailNNC,
+        final List<NodeAndInports> loopBodyNodes, final FlowLoopContext flc) {
+        if (!keepLoopBodyConfigured) {
+            return false;
+        }
+        final PortObjectSpec[] headSpecs = getOutputSpecs(headNNC);
+        final PortObjectSpec[] previousHeadSpecs = flc.getHeadSpecsOfLastIteration();
+        flc.setHeadSpecsOfLastIteration(headSpecs);
+        if (!Arrays.equals(headSpecs, previousHeadSpecs) || hasVariablesSettings(tailNNC)) {
+            return false;
+        }
+        for (NodeAndInports nai : loopBodyNodes) {
+            NodeContainer nc = m_workflow.getNode(nai.getID());
+            if (!(nc instanceof NativeNodeContainer) || !nc.getInternalState().equals(EXECUTED)) {
+                return false;
+            }
+            NativeNodeContainer nnc = (NativeNodeContainer)nc;
+            if (nnc.isInactive() || nnc.isModelCompatibleTo(ScopeStartNode.class)
+                || nnc.isModelCompatibleTo(ScopeEndNode.class) || hasVariablesSettings(nnc)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean hasVariablesSettings(final SingleNodeContainer snc) {
+        return snc.getSingleNodeContainerSettings().getVariablesSettings() != null;
+    }
+
+    private static PortObjectSpec[] getOutputSpecs(final NativeNodeContainer nnc) {
+        final PortObjectSpec[] specs = new PortObjectSpec[nnc.getNrOutPorts()];
+        for (int i = 0; i < specs.length; i++) {
+            specs[i] = nnc.getOutPort(i).getPortObjectSpec();
+        }
+        return specs;
+    }
+
+    /**
+     * Called after a loop start has executed. If its body was kept configured during the loop restart but the loop
+     * start now produced other output specs than in the previous iteration, the body is reset and configured after
+     * all, as it is done in {@link #restartLoop(FlowLoopContext)} for all other loops.
+     *
+     * @param headNNC the loop start that has just executed
+     */
+    private void checkLoopBodyKeptConfigured(final NativeNodeContainer headNNC) {
+        assert m_workflowLock.isHeldByCurrentThread();
+        final FlowLoopContext flc = headNNC.getOutgoingFlowObjectStack().peek(FlowLoopContext.class);
+        if (flc == null || !flc.isBodyKeptConfigured()) {
+            return;
+        }
+        flc.setBodyKeptConfigured(false);
+        if (Arrays.equals(getOutputSpecs(headNNC), flc.getHeadSpecsOfLastIteration())) {
+            return;
+        }
+        final NodeContainer tailNode = flc.getTailNode() == null ? null : m_workflow.getNode(flc.getTailNode());
+        if (!(tailNode instanceof NativeNodeContainer)) {
+            return;
+        }
+        LOGGER.debug("Output specs of " + headNNC.getNameWithID() + " changed, resetting loop body kept configured");
+        final NativeNodeContainer tailNNC = (NativeNodeContainer)tailNode;
+        ArrayList<NodeAndInports> loopBodyNodes;
+        try {
+            loopBodyNodes = m_workflow.findAllNodesConnectedToLoopBody(headNNC.getID(), tailNNC.getID());
+        } catch (IllegalLoopException ile) {
+            LOGGER.error(ile.getMessage(), ile);
+            disableNodeForExecution(tailNNC.getID());
+            tailNNC.setNodeMessage(new NodeMessage(NodeMessage.Type.ERROR, ile.getMessage()));
+            return;
+        }
+        // reset the body, last nodes first - they are all native nodes, see canKeepLoopBodyConfigured
+        ListIterator<NodeAndInports> li = loopBodyNodes.listIterator(loopBodyNodes.size());
+        while (li.hasPrevious()) {
+            NodeContainer nc = m_workflow.getNode(li.previous().getID());
+            if (!(nc instanceof SingleNodeContainer)) {
+                continue;
+            }
+            SingleNodeContainer snc = (SingleNodeContainer)nc;
+            snc.setRefreshFlowObjectStackBeforeExecution(false);
+            if (snc.getInternalState().equals(EXECUTED_MARKEDFOREXEC)) {
+                // remove the mark set in restartLoop, the node is not queued as its predecessors are not done yet
+                snc.cancelExecution();
+            }
+            if (snc.getInternalState().equals(EXECUTED)) {
+                invokeResetOnSingleNodeContainer(snc);
+            }
+        }
+        tailNNC.setRefreshFlowObjectStackBeforeExecution(false);
+        // configure and mark as in restartLoop (the loop start itself is executed and keeps its stack)
+        configureNodeAndPortSuccessors(headNNC.getID(), null, false, true, false);
+        if (tailNNC.getInternalState().equals(CONFIGURED_MARKEDFOREXEC)) {
+            for (NodeAndInports nai : loopBodyNodes) {
+                NodeContainer nc = m_workflow.getNode(nai.getID());
+                if (nc instanceof SingleNodeContainer
+                    && (nc.getInternalState().equals(IDLE) || nc.getInternalState().equals(CONFIGURED))) {
+                    ((SingleNodeContainer)nc).markForExecution(true);
+                }
+            }
+        } else {
+            disableNodeForExecution(tailNNC.getID());
+            tailNNC.setNodeMessage(new NodeMessage(NodeMessage.Type.ERROR, "Loop end node could not be executed."
+                + " This is likely due to a failure in the loop's body. Aborting Loop execution."));
+        }
+    }
+
+    /**
+     * Enables or disables keeping loop bodies configured, see {@link KNIMEConstants#PROPERTY_KEEP_LOOP_BODY_CONFIGURED}
+     * (for tests).
+     *
+     * @param keep whether to keep loop bodies configured if possible
+     * @return the previous setting
+     */
+    static boolean setKeepLoopBodyConfigured(final boolean keep) {
+        final boolean old = keepLoopBodyConfigured;
+        keepLoopBodyConfigured = keep;
+        return old;
+    }
+
+    /**
+     * Re-creates the flow object stack of a node that was kept configured during a loop restart from the stacks of
+     * its predecessors, so that it sees the variables of the current iteration.
+     */
+    private void refreshFlowObjectStack(final SingleNodeContainer snc) {
+        assert m_workflowLock.isHeldByCurrentThread();
+        snc.setRefreshFlowObjectStackBeforeExecution(false);
+        NodeOutPort[] predPorts = assemblePredecessorOutPorts(snc.getID());
+        FlowObjectStack[] sos = new FlowObjectStack[predPorts.length];
+        for (int i = 0; i < predPorts.length; i++) {
+            if (predPorts[i] != null) {
+                sos[i] = predPorts[i].getFlowObjectStack();
+            }
+        }
+        createAndSetFlowObjectStackFor(snc, sos);
+    }
+
     /* Parallelize this "loop": create appropriate number of parallel
      * branches executing the matching chunks.
      */
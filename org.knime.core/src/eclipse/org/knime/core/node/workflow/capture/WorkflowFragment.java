@@ -111,6 +111,9 @@ public final class WorkflowFragment {
 
     private byte[] m_wfmStream = null;
 
+    //key of the serialized workflow in the WorkflowFragmentPool, lazily computed
+    private volatile String m_poolKey = null;
+
     private final String m_name;
 
     private final Set<NodeIDSuffix> m_portObjectReferenceReaderNodes;
@@ -165,25 +168,76 @@ public WorkflowFragment(final WorkflowManager wfm, final List<Input> inputs, fin
      */
     public WorkflowManager loadWorkflow() {
         if (m_wfm == null) {
-            File tmpDir = null;
-            try (ZipInputStream in = new ZipInputStream(new ByteArrayInputStream(m_wfmStream))) {
-                tmpDir = FileUtil.createTempDir("workflow_fragment");
-                FileUtil.unzip(in, tmpDir, 1);
-                WorkflowLoadHelper loadHelper =
-                    new WorkflowLoadHelper(new WorkflowContext.Factory(tmpDir).createContext());
-                WorkflowLoadResult loadResult;
-                loadResult =
-                    WorkflowManager.EXTRACTED_WORKFLOW_ROOT.load(tmpDir, new ExecutionMonitor(), loadHelper, false);
-                m_wfm = loadResult.getWorkflowManager();
-            } catch (InvalidSettingsException | CanceledExecutionException | UnsupportedWorkflowVersionException
-                    | LockFailedException | IOException ex) {
-                // should never happen
-                throw new IllegalStateException("Failed loading workflow port object", ex);
-            }
+            m_wfm = streamToWfm(m_wfmStream);
         }
         return m_wfm;
     }
 
+    private static WorkflowManager streamToWfm(final byte[] wfmStream) {
+        File tmpDir = null;
+        try (ZipInputStream in = new ZipInputStream(new ByteArrayInputStream(wfmStream))) {
+            tmpDir = FileUtil.createTempDir("workflow_fragment");
+            FileUtil.unzip(in, tmpDir, 1);
+            WorkflowLoadHelper loadHelper =
+                new WorkflowLoadHelper(new WorkflowContext.Factory(tmpDir).createContext());
+            WorkflowLoadResult loadResult;
+            loadResult =
+                WorkflowManager.EXTRACTED_WORKFLOW_ROOT.load(tmpDir, new ExecutionMonitor(), loadHelper, false);
+            return loadResult.getWorkflowManager();
+        } catch (InvalidSettingsException | CanceledExecutionException | UnsupportedWorkflowVersionException
+                | LockFailedException | IOException ex) {
+            // should never happen
+            throw new IllegalStateException("Failed loading workflow port object", ex);
+        }
+    }
+
+    /**
+     * Borrows a loaded, reset instance of the workflow representing the fragment from a pool shared by all fragments
+     * with identical content, or loads a new one if none is available. Unlike {@link #loadWorkflow()}, each call
+     * returns a distinct instance that is exclusively owned by the caller, hence independent executions (e.g. of
+     * different batches of input data) can run in parallel on different instances.
+     *
+     * Always give the instance back via {@link #returnWorkflow(WorkflowManager)} once its execution has finished (and
+     * don't use it afterwards)! Callers must not change the structure or the node settings of the instance, as it is
+     * handed out to other callers later on.
+     *
+     * @return a workflow manager representing the fragment
+     * @since 4.3
+     */
+    public WorkflowManager borrowWorkflow() {
+        final byte[] wfmStream = getWorkflowStream();
+        return WorkflowFragmentPool.getInstance().borrow(m_poolKey, () -> streamToWfm(wfmStream));
+    }
+
+    /**
+     * Gives back an instance of the workflow obtained via {@link #borrowWorkflow()}. The instance is reset and kept in
+     * the pool for later use or disposed if the pool is full.
+     *
+     * @param wfm the workflow manager returned by {@link #borrowWorkflow()}
+     * @throws IllegalStateException if the workflow is still executing
+     * @since 4.3
+     */
+    public void returnWorkflow(final WorkflowManager wfm) {
+        WorkflowFragmentPool.getInstance().giveBack(m_poolKey, wfm);
+    }
+
+    private synchronized byte[] getWorkflowStream() {
+        if (m_wfmStream == null) {
+            if (m_wfm == null) {
+                throw new IllegalStateException("Can't load workflow fragment. Workflow has been disposed already.");
+            }
+            try {
+                m_wfmStream = wfmToStream(m_wfm);
+            } catch (IOException ex) {
+                throw new IllegalStateException("Failed saving workflow port object", ex);
+            }
+        }
+        if (m_poolKey == null) {
+            m_poolKey = WorkflowFragmentPool.getInstance().createKey(m_wfmStream);
+        }
+        return m_wfmStream;
+    }
+
     /**
      * Disposes the workflow manager cached by this fragment (either loaded via {@link #loadWorkflow()} or passed to the
      * constructor). Removes it from the workflow hierarchy and the local reference.
@@ -0,0 +1,301 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ------------------------------------------------------------------------
+ *
+ */
+package org.knime.core.node.workflow.capture;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TimerTask;
+import java.util.function.Supplier;
+
+import org.apache.commons.codec.binary.Hex;
+import org.knime.core.node.KNIMEConstants;
+import org.knime.core.node.NodeLogger;
+import org.knime.core.node.util.CheckUtils;
+import org.knime.core.node.util.ConvenienceMethods;
+import org.knime.core.node.workflow.WorkflowManager;
+import org.knime.core.util.KNIMETimer;
+import org.knime.core.util.LRUCache;
+
+/**
+ * Pool of loaded, reset workflow managers of {@link WorkflowFragment}s, keyed by a SHA-256 hash of the serialized
+ * fragment, so that fragments with identical content (e.g. the same workflow port object in each loop iteration)
+ * share their instances. Instances are borrowed via {@link WorkflowFragment#borrowWorkflow()}, which loads a new one
+ * if none is idle, and given back via {@link WorkflowFragment#returnWorkflow(WorkflowManager)}.
+ *
+ * <p>
+ * The number of idle instances per fragment is limited by {@link KNIMEConstants#PROPERTY_WORKFLOW_FRAGMENT_POOL_SIZE},
+ * the number of fragments by {@link #MAX_FRAGMENTS}; instances idle for longer than {@link #IDLE_TIMEOUT} are
+ * disposed.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+final class WorkflowFragmentPool {
+
+    private static final NodeLogger LOGGER = NodeLogger.getLogger(WorkflowFragmentPool.class);
+
+    private static final int DEFAULT_SIZE = 4;
+
+    /** Maximum number of fragments that have idle instances in the pool. */
+    static final int MAX_FRAGMENTS = 16;
+
+    /** Time in ms after which an idle instance is disposed. */
+    static final long IDLE_TIMEOUT = 5 * 60 * 1000;
+
+    private static final WorkflowFragmentPool INSTANCE = new WorkflowFragmentPool(readSize());
+
+    private final int m_size;
+
+    /** Idle instances per fragment key, most recently returned first. Guarded by this. */
+    private final Map<String, Deque<IdleWorkflow>> m_idle;
+
+    /** Instances evicted from {@link #m_idle} that still need to be disposed (outside the lock). Guarded by this. */
+    private final List<WorkflowManager> m_evicted = new ArrayList<>();
+
+    /** Periodically disposes expired idle instances while there are any, <code>null</code> otherwise. Guarded by
+     * this. */
+    private TimerTask m_evictionTask;
+
+    /**
+     * Creates a new pool, only used by the singleton and tests.
+     *
+     * @param size the maximum number of idle instances per fragment, 0 disables the pool
+     */
+    WorkflowFragmentPool(final int size) {
+        m_size = size;
+        m_idle = new LRUCache<String, Deque<IdleWorkflow>>(MAX_FRAGMENTS) {
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<String, Deque<IdleWorkflow>> e) {
+                boolean remove = super.removeEldestEntry(e);
+                if (remove) {
+                    for (IdleWorkflow idle : e.getValue()) {
+                        m_evicted.add(idle.m_wfm);
+                    }
+                }
+                return remove;
+            }
+        };
+    }
+
+    private static int readSize() {
+        final String property = KNIMEConstants.PROPERTY_WORKFLOW_FRAGMENT_POOL_SIZE;
+        return Math.max(0, ConvenienceMethods.readIntSystemProperty(property, DEFAULT_SIZE));
+    }
+
+    /** @return the singleton instance */
+    static WorkflowFragmentPool getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Computes the key of a serialized fragment.
+     *
+     * @param wfmStream the serialized fragment
+     * @return the key or <code>null</code> if the pool is disabled
+     */
+    String createKey(final byte[] wfmStream) {
+        if (m_size == 0) {
+            return null;
+        }
+        try {
+            return new String(Hex.encodeHex(MessageDigest.getInstance("SHA-256").digest(wfmStream)));
+        } catch (NoSuchAlgorithmException e) {
+            LOGGER.coding("SHA-256 not available", e);
+            return null;
+        }
+    }
+
+    /**
+     * Takes an idle instance out of the pool or loads a new one.
+     *
+     * @param key the fragment key, <code>null</code> to always load a new instance
+     * @param loader loads a new instance
+     * @return the instance, exclusively owned by the caller until given back via {@link #giveBack(String,
+     *         WorkflowManager)}
+     */
+    WorkflowManager borrow(final String key, final Supplier<WorkflowManager> loader) {
+        if (key != null) {
+            synchronized (this) {
+                Deque<IdleWorkflow> idle = m_idle.get(key);
+                if (idle != null && !idle.isEmpty()) {
+                    WorkflowManager wfm = idle.removeFirst().m_wfm;
+                    if (idle.isEmpty()) {
+                        m_idle.remove(key);
+                    }
+                    return wfm;
+                }
+            }
+        }
+        // load outside the lock, independent borrowers load in parallel
+        WorkflowManager wfm = loader.get();
+        disposeEvicted();
+        return wfm;
+    }
+
+    /**
+     * Resets an instance and puts it back into the pool, or disposes it if the pool is full.
+     *
+     * @param key the fragment key, <code>null</code> to dispose the instance
+     * @param wfm the instance returned by {@link #borrow(String, Supplier)}
+     * @throws IllegalStateException if the instance is still executing
+     */
+    void giveBack(final String key, final WorkflowManager wfm) {
+        CheckUtils.checkState(!wfm.getNodeContainerState().isExecutionInProgress(),
+            "Workflow fragment \"%s\" can't be returned while executing", wfm.getName());
+        boolean keep = key != null;
+        if (keep) {
+            try {
+                wfm.resetAndConfigureAll();
+            } catch (RuntimeException e) {
+                LOGGER.debug("Unable to reset workflow fragment \"" + wfm.getName() + "\", disposing it", e);
+                keep = false;
+            }
+        }
+        if (keep) {
+            synchronized (this) {
+                Deque<IdleWorkflow> idle = m_idle.get(key);
+                if (idle == null) {
+                    idle = new ArrayDeque<>(m_size);
+                    m_idle.put(key, idle);
+                }
+                if (idle.size() < m_size) {
+                    idle.addFirst(new IdleWorkflow(wfm));
+                    scheduleEviction();
+                } else {
+                    keep = false;
+                }
+            }
+        }
+        if (!keep) {
+            dispose(wfm);
+        }
+        disposeEvicted();
+    }
+
+    private synchronized void scheduleEviction() {
+        if (m_evictionTask != null) {
+            return;
+        }
+        m_evictionTask = new TimerTask() {
+            @Override
+            public void run() {
+                evictIdle(System.currentTimeMillis());
+            }
+        };
+        KNIMETimer.getInstance().schedule(m_evictionTask, IDLE_TIMEOUT / 2, IDLE_TIMEOUT / 2);
+    }
+
+    /** @return whether the periodic disposal of expired idle instances is scheduled (for tests) */
+    synchronized boolean isEvictionScheduled() {
+        return m_evictionTask != null;
+    }
+
+    /** @return the number of idle instances of the given fragment (for tests) */
+    synchronized int getIdleCount(final String key) {
+        Deque<IdleWorkflow> idle = m_idle.get(key);
+        return idle == null ? 0 : idle.size();
+    }
+
+    /**
+     * Disposes all instances that have been idle for longer than {@link #IDLE_TIMEOUT} and stops the periodic
+     * disposal once no idle instances are left (it is scheduled again by the next {@link #giveBack(String,
+     * WorkflowManager)}).
+     *
+     * @param now the current time in ms
+     */
+    void evictIdle(final long now) {
+        long limit = now - IDLE_TIMEOUT;
+        synchronized (this) {
+            for (Iterator<Deque<IdleWorkflow>> it = m_idle.values().iterator(); it.hasNext();) {
+                Deque<IdleWorkflow> idle = it.next();
+                // most recently returned first, hence expired ones are at the end
+                while (!idle.isEmpty() && idle.peekLast().m_idleSince < limit) {
+                    m_evicted.add(idle.removeLast().m_wfm);
+                }
+                if (idle.isEmpty()) {
+                    it.remove();
+                }
+            }
+            if (m_idle.isEmpty() && m_evictionTask != null) {
+                m_evictionTask.cancel();
+                m_evictionTask = null;
+            }
+        }
+        disposeEvicted();
+    }
+
+    private void disposeEvicted() {
+        List<WorkflowManager> evicted;
+        synchronized (this) {
+            if (m_evicted.isEmpty()) {
+                return;
+            }
+            evicted = new ArrayList<>(m_evicted);
+            m_evicted.clear();
+        }
+        evicted.forEach(WorkflowFragmentPool::dispose);
+    }
+
+    private static void dispose(final WorkflowManager wfm) {
+        WorkflowManager.EXTRACTED_WORKFLOW_ROOT.removeNode(wfm.getID());
+    }
+
+    private static final class IdleWorkflow {
+
+        private final WorkflowManager m_wfm;
+
+        private final long m_idleSince = System.currentTimeMillis();
+
+        IdleWorkflow(final WorkflowManager wfm) {
+            m_wfm = wfm;
+        }
+    }
+}
@@ -0,0 +1,548 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ------------------------------------------------------------------------
+ *
+ */
+package org.knime.core.util;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.knime.core.node.KNIMEConstants;
+import org.knime.core.node.NodeLogger;
+
+/** A variant of the {@link MultiThreadWorker} for cheap per-element computations. Instead of submitting one task per
+ * input element, the input is cut into contiguous slices (batches) of a fixed size, each of which is computed by a
+ * single worker. The slice buffers (input and output arrays) are pooled and reused, so that the per-element overhead
+ * is reduced to an array store -- no {@link FutureTask} or map entry is created per element.
+ *
+ * <p>As in the {@link MultiThreadWorker}, the worker threads are taken from the global
+ * {@link KNIMEConstants#GLOBAL_THREAD_POOL KNIME threadpool} or any {@link Executor} set via
+ * {@link #setExecutor(Executor)}. The computed output is passed element by element to
+ * {@link #processFinished(Object, Object, long)}, which is never called concurrently and receives the elements in
+ * input order.
+ *
+ * <p>Different from the {@link MultiThreadWorker}, an exception thrown by {@link #compute(Object, long)} aborts the
+ * entire execution (there is no per-element task on which the exception could be handled). Implementations that
+ * need to recover from failing elements should catch the exception in {@link #compute(Object, long)} and return an
+ * appropriate placeholder.
+ *
+ * @param <In> The type of input to be processed.
+ * @param <Out> The output type generated by the {@link #compute(Object, long)} method.
+ * @author KNIME AG, Zurich, Switzerland
+ * @since 4.3
+ */
+public abstract class BatchedMultiThreadWorker<In, Out> {
+
+    private final NodeLogger m_logger = NodeLogger.getLogger(getClass());
+
+    /** Number of elements per batch. */
+    private final int m_batchSize;
+
+    /** Maximum number of batches that are submitted or finished but not yet finally processed. */
+    private final int m_maxQueueSize;
+
+    /** Maximum number of simultaneously computed batches. */
+    private final int m_maxActiveInstanceSize;
+
+    /** Limits the number of simultaneously running computations. */
+    private final Semaphore m_maxActiveInstanceSemaphore;
+
+    /** Limits the number of batches in flight (submitted, running or waiting to be processed). */
+    private final Semaphore m_maxQueueSemaphore;
+
+    /** Buffers that can be reused for the next batch, guarded by itself. */
+    private final ArrayDeque<BatchBuffer> m_freeBuffers;
+
+    /** Finished batches that wait for their predecessors, indexed by batch index modulo queue size. Guarded by
+     * itself. */
+    private final BatchTask[] m_finishedTasks;
+
+    /** Currently running tasks (used for cancelation). */
+    private final ConcurrentHashMap<Long, BatchTask> m_activeTasks;
+
+    /** Next batch index to be finally processed (guarded by m_finishedTasks). */
+    private long m_nextFinishedBatchIndex;
+
+    /** Number of elements already finally processed. */
+    private volatile long m_finishedCount;
+
+    /** Number of elements already submitted. */
+    private volatile long m_submittedCount;
+
+    /** Executor to be used, if null use the KNIME global thread pool. */
+    private Executor m_executor;
+
+    /** Exception pointer, if set the execution will abort. */
+    private final AtomicReference<Exception> m_exceptionReference;
+
+    /** Phases of a {@link BatchTask}, see {@link BatchTask#run()}. */
+    private static final int NOT_STARTED = 0;
+
+    private static final int RUNNING = 1;
+
+    private static final int CANCELED_BEFORE_RUN = 2;
+
+    /** Thread running the {@link #run(Iterable)} method (kept to be able to interrupt it). */
+    private Thread m_mainThread;
+
+    /** Whether {@link #cancel(boolean)} has been called. */
+    private volatile boolean m_isCanceled;
+
+    /** Creates a new worker.
+     * @param batchSize The number of contiguous input elements that are computed by a single task.
+     * @param maxQueueSize Maximum number of batches that are in flight, i.e. computing or finished but waiting for a
+     *            previous batch in order to ensure the output ordering. If this limit is reached no further batches are
+     *            submitted.
+     * @param maxActiveInstanceSize The maximum number of simultaneously computed batches (unless otherwise bound by
+     *            the used executor).
+     * @throws IllegalArgumentException if batch size &lt; 1 or queue size &lt; running instance count
+     */
+    public BatchedMultiThreadWorker(final int batchSize, final int maxQueueSize, final int maxActiveInstanceSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Batch size must be positive: " + batchSize);
+        }
+        if (maxActiveInstanceSize < 1) {
+            throw new IllegalArgumentException("Running instance count must be positive: " + maxActiveInstanceSize);
+        }
+        if (maxQueueSize < maxActiveInstanceSize) {
+            throw new IllegalArgumentException("Queue size must be as least as large as running instance count: "
+                + maxQueueSize + " vs. " + maxActiveInstanceSize);
+        }
+        m_batchSize = batchSize;
+        m_maxQueueSize = maxQueueSize;
+        m_maxActiveInstanceSize = maxActiveInstanceSize;
+        m_maxQueueSemaphore = new Semaphore(maxQueueSize);
+        m_maxActiveInstanceSemaphore = new Semaphore(maxActiveInstanceSize);
+        m_freeBuffers = new ArrayDeque<BatchBuffer>(maxQueueSize);
+        @SuppressWarnings("unchecked")
+        BatchTask[] finishedTasks = new BatchedMultiThreadWorker.BatchTask[maxQueueSize];
+        m_finishedTasks = finishedTasks;
+        m_activeTasks = new ConcurrentHashMap<Long, BatchTask>((int)(4 / 3.0 * maxActiveInstanceSize) + 1);
+        m_exceptionReference = new AtomicReference<Exception>();
+    }
+
+    /** @return the number of elements per batch as given in the constructor. */
+    public final int getBatchSize() {
+        return m_batchSize;
+    }
+
+    /** @return Get the number of already submitted elements. Should only be used for statistics. */
+    public final long getSubmittedCount() {
+        return m_submittedCount;
+    }
+
+    /** @return The number of elements that were already processed by the
+     * {@link #processFinished(Object, Object, long)} method - used for stats. */
+    public final long getFinishedCount() {
+        return m_finishedCount;
+    }
+
+    /** @return Estimate for number of currently computed batches. */
+    public final int getActiveCount() {
+        return m_maxActiveInstanceSize - m_maxActiveInstanceSemaphore.availablePermits();
+    }
+
+    /** @param executor the executor to set (null is the default -- it will then use the global
+     * {@link KNIMEConstants#GLOBAL_THREAD_POOL KNIME thread pool}. */
+    public void setExecutor(final Executor executor) {
+        m_executor = executor;
+    }
+
+    /** @return the executor
+     * @see #setExecutor(Executor) */
+    public Executor getExecutor() {
+        return m_executor;
+    }
+
+    /** Main run method to process the input. This method is to be called only once per instance (subsequent calls
+     * will result in an exception). It returns when all elements have passed the
+     * {@link #processFinished(Object, Object, long)} method.
+     *
+     * @param inputIterable The input elements.
+     * @throws InterruptedException If the main execution has been interrupted.
+     * @throws ExecutionException If an exception is thrown in {@link #compute(Object, long)} or
+     *             {@link #processFinished(Object, Object, long)}.
+     * @throws CancellationException If {@link #cancel(boolean)} has been called.
+     * @see MultiThreadWorker#run(Iterable)
+     */
+    public void run(final Iterable<In> inputIterable) throws InterruptedException, ExecutionException {
+        if (m_executor != null) {
+            innerRun(inputIterable);
+            return;
+        }
+        // run the run method invisibly in the global thread pool
+        Callable<Void> c = new Callable<Void>() {
+            @Override
+            public Void call() throws Exception {
+                innerRun(inputIterable);
+                return null;
+            }
+        };
+        try {
+            KNIMEConstants.GLOBAL_THREAD_POOL.runInvisible(c);
+        } catch (ExecutionException ee) {
+            Throwable e = ee.getCause();
+            if (e instanceof InterruptedException) {
+                throw (InterruptedException)e;
+            } else if (e instanceof CancellationException) {
+                throw (CancellationException)e;
+            } else if (e instanceof ExecutionException) {
+                throw (ExecutionException)e;
+            }
+            throw ee;
+        }
+    }
+
+    /** Actual implementation of the run method.
+     * @see #run(Iterable) */
+    private void innerRun(final Iterable<In> inputIterable)
+        throws InterruptedException, ExecutionException, CancellationException {
+        if (m_mainThread != null) {
+            throw new IllegalStateException("Can only run once");
+        }
+        m_mainThread = Thread.currentThread();
+        final Executor executor = m_executor;
+        final Iterator<In> it = inputIterable.iterator();
+        long nextSubmittedBatchIndex = 0L;
+        long nextSubmittedIndex = 0L;
+        try {
+            while (it.hasNext()) {
+                m_maxActiveInstanceSemaphore.acquire();
+                m_maxQueueSemaphore.acquire();
+                checkExceptionInMainThread();
+                if (m_isCanceled) {
+                    throw new CancellationException();
+                }
+                final BatchBuffer buffer = borrowBuffer();
+                int size = 0;
+                while (size < m_batchSize && it.hasNext()) {
+                    In in = it.next();
+                    try {
+                        beforeSubmitting(in, nextSubmittedIndex + size);
+                    } catch (Exception e) {
+                        releaseBuffer(buffer);
+                        m_maxQueueSemaphore.release();
+                        m_maxActiveInstanceSemaphore.release();
+                        throw new ExecutionException(e);
+                    }
+                    buffer.m_in[size++] = in;
+                }
+                buffer.m_size = size;
+                BatchTask task = new BatchTask(buffer, nextSubmittedBatchIndex, nextSubmittedIndex);
+                m_activeTasks.put(nextSubmittedBatchIndex, task);
+                nextSubmittedBatchIndex += 1L;
+                nextSubmittedIndex += size;
+                m_submittedCount = nextSubmittedIndex;
+                if (executor == null) {
+                    KNIMEConstants.GLOBAL_THREAD_POOL.enqueue(task);
+                } else {
+                    executor.execute(ThreadUtils.runnableWithContext(task));
+                }
+            }
+            // wait for all jobs to finish
+            m_maxQueueSemaphore.acquire(m_maxQueueSize);
+        } catch (InterruptedException | CancellationException ie) {
+            innerCancel(true);
+            m_isCanceled = true;
+        } finally {
+            // reset interrupted flag that was set when an exception has occurred in callProcessFinished
+            Thread.interrupted();
+        }
+        checkExceptionInMainThread();
+        if (m_isCanceled) {
+            throw new CancellationException();
+        }
+    }
+
+    /** Cancels an ongoing execution.
+     * @param mayInterruptIfRunning If working (and the main thread executing the {@link #run(Iterable) run method})
+     *            may be interrupted.
+     */
+    public void cancel(final boolean mayInterruptIfRunning) {
+        if (m_mainThread == null) {
+            throw new IllegalStateException("Not started");
+        }
+        m_isCanceled = true;
+        innerCancel(mayInterruptIfRunning);
+        if (mayInterruptIfRunning) {
+            m_mainThread.interrupt();
+        }
+    }
+
+    private void innerCancel(final boolean mayInterruptIfRunning) {
+        for (BatchTask t : m_activeTasks.values()) {
+            t.cancel(mayInterruptIfRunning);
+        }
+    }
+
+    /** Computes all elements of a batch, called in a worker thread. */
+    private void computeBatch(final BatchBuffer buffer, final long firstIndex) throws Exception {
+        for (int i = 0; i < buffer.m_size; i++) {
+            if (m_isCanceled) {
+                throw new CancellationException();
+            }
+            Exception exception = m_exceptionReference.get();
+            if (exception != null) {
+                throw new ExecutionException("Exception occurred in sibling worker thread", exception);
+            }
+            @SuppressWarnings("unchecked")
+            In in = (In)buffer.m_in[i];
+            buffer.m_out[i] = compute(in, firstIndex + i);
+        }
+    }
+
+    /** Called from each finishing batch (very likely concurrently). */
+    private void callProcessFinished(final BatchTask task) {
+        final long batchIndex = task.m_batchIndex;
+        m_activeTasks.remove(batchIndex);
+        try {
+            synchronized (m_finishedTasks) {
+                if (m_exceptionReference.get() != null || m_isCanceled) {
+                    // don't processFinished if canceled
+                    releaseTask(task);
+                    return;
+                }
+                if (batchIndex != m_nextFinishedBatchIndex) {
+                    // not next-to-be-processed, just line-up
+                    int slot = (int)(batchIndex % m_maxQueueSize);
+                    assert m_finishedTasks[slot] == null : "Slot " + slot + " already occupied";
+                    m_finishedTasks[slot] = task;
+                    return;
+                }
+                BatchTask next = task;
+                do {
+                    try {
+                        next.get();
+                        processBatch(next);
+                    } catch (Exception e) {
+                        Throwable cause = e instanceof ExecutionException && e.getCause() instanceof Exception
+                            ? e.getCause() : e;
+                        if (cause instanceof CancellationException || cause instanceof InterruptedException) {
+                            // ordinary cancel
+                            m_logger.debug("Cancelling \"" + getClass().getSimpleName() + "\" due to "
+                                + cause.getClass().getSimpleName());
+                            m_isCanceled = true;
+                        } else {
+                            // abnormal termination
+                            m_exceptionReference.compareAndSet(null, (Exception)cause);
+                        }
+                        innerCancel(true);
+                        releaseTask(next);
+                        // release all lined-up batches, otherwise the "main" thread will wait forever
+                        for (int i = 0; i < m_finishedTasks.length; i++) {
+                            if (m_finishedTasks[i] != null) {
+                                releaseTask(m_finishedTasks[i]);
+                                m_finishedTasks[i] = null;
+                            }
+                        }
+                        return;
+                    }
+                    releaseTask(next);
+                    m_nextFinishedBatchIndex += 1L;
+                    int slot = (int)(m_nextFinishedBatchIndex % m_maxQueueSize);
+                    next = m_finishedTasks[slot];
+                    m_finishedTasks[slot] = null;
+                    // do while there are more that finished previously
+                } while (next != null);
+            }
+        } finally {
+            m_maxActiveInstanceSemaphore.release();
+        }
+    }
+
+    /** Passes all elements of a computed batch to {@link #processFinished(Object, Object, long)}. */
+    private void processBatch(final BatchTask task)
+        throws ExecutionException, CancellationException, InterruptedException {
+        final BatchBuffer buffer = task.m_buffer;
+        final long firstIndex = task.m_firstIndex;
+        for (int i = 0; i < buffer.m_size; i++) {
+            @SuppressWarnings("unchecked")
+            In in = (In)buffer.m_in[i];
+            @SuppressWarnings("unchecked")
+            Out out = (Out)buffer.m_out[i];
+            processFinished(in, out, firstIndex + i);
+            m_finishedCount = firstIndex + i + 1;
+        }
+    }
+
+    /** Returns the buffer of a no longer needed task into the pool and frees its queue slot. */
+    private void releaseTask(final BatchTask task) {
+        releaseBuffer(task.m_buffer);
+        m_maxQueueSemaphore.release();
+    }
+
+    private BatchBuffer borrowBuffer() {
+        synchronized (m_freeBuffers) {
+            BatchBuffer buffer = m_freeBuffers.poll();
+            return buffer != null ? buffer : new BatchBuffer(m_batchSize);
+        }
+    }
+
+    private void releaseBuffer(final BatchBuffer buffer) {
+        buffer.clear();
+        synchronized (m_freeBuffers) {
+            m_freeBuffers.push(buffer);
+        }
+    }
+
+    private void checkExceptionInMainThread() throws ExecutionException {
+        Exception exception = m_exceptionReference.get();
+        if (exception != null) {
+            if (exception instanceof ExecutionException) {
+                throw (ExecutionException)exception;
+            }
+            throw new ExecutionException(exception);
+        }
+    }
+
+    /** Callback for subclasses to be informed about a new element being added to a batch. This method is called
+     * iteratively from the {@link #run(Iterable)} method. This default implementation is empty.
+     * @param in The element.
+     * @param index The index of the element to be submitted.
+     * @throws Exception In case the execution shall be aborted
+     */
+    protected void beforeSubmitting(final In in, final long index) throws Exception {
+        // subclass hook
+    }
+
+    /** Performs the computation for a given input. This method is called concurrently for elements of different
+     * batches and sequentially for the elements of the same batch.
+     * @param in The element.
+     * @param index The index of the element.
+     * @return The computed output
+     * @throws Exception Any exception, which will abort the entire execution.
+     */
+    protected abstract Out compute(In in, long index) throws Exception;
+
+    /** Post-process a computed element, for instance add a computed row to a data container. This method is <b>not
+     * called concurrently</b> and the elements come in the order of the iterator passed to {@link #run(Iterable)}.
+     * @param in The input element.
+     * @param out The output as computed by {@link #compute(Object, long)}.
+     * @param index The index of the element.
+     * @throws ExecutionException If the entire calculation should stop with an error.
+     * @throws CancellationException If canceled (abort)
+     * @throws InterruptedException If canceled (abort)
+     */
+    protected abstract void processFinished(In in, Out out, long index)
+        throws ExecutionException, CancellationException, InterruptedException;
+
+    /** Reusable input and output arrays of a batch. */
+    private static final class BatchBuffer {
+
+        private final Object[] m_in;
+        private final Object[] m_out;
+        private int m_size;
+
+        BatchBuffer(final int batchSize) {
+            m_in = new Object[batchSize];
+            m_out = new Object[batchSize];
+        }
+
+        /** Drops the element references so they can be garbage collected while the buffer is pooled. */
+        void clear() {
+            Arrays.fill(m_in, 0, m_size, null);
+            Arrays.fill(m_out, 0, m_size, null);
+            m_size = 0;
+        }
+    }
+
+    /** The computation of a single batch. */
+    private final class BatchTask extends FutureTask<Void> {
+
+        private final BatchBuffer m_buffer;
+        private final long m_batchIndex;
+        private final long m_firstIndex;
+
+        BatchTask(final BatchBuffer buffer, final long batchIndex, final long firstIndex) {
+            super(new Callable<Void>() {
+                @Override
+                public Void call() throws Exception {
+                    computeBatch(buffer, firstIndex);
+                    return null;
+                }
+            });
+            m_buffer = buffer;
+            m_batchIndex = batchIndex;
+            m_firstIndex = firstIndex;
+        }
+
+        /** {@link #NOT_STARTED}, {@link #RUNNING} or {@link #CANCELED_BEFORE_RUN}. */
+        private final AtomicInteger m_phase = new AtomicInteger(NOT_STARTED);
+
+        /** The batch is processed (and its buffer released) by the worker thread once the computation has returned,
+         * even if the task is canceled meanwhile -- the computation may still write to the buffer until then. */
+        @Override
+        public void run() {
+            if (!m_phase.compareAndSet(NOT_STARTED, RUNNING)) {
+                // canceled before it was started, already released in done()
+                return;
+            }
+            try {
+                super.run();
+            } finally {
+                callProcessFinished(this);
+            }
+        }
+
+        /** Only releases the batch if the task was canceled before a worker picked it up, otherwise that is done by
+         * the worker at the end of {@link #run()}. */
+        @Override
+        protected void done() {
+            if (m_phase.compareAndSet(NOT_STARTED, CANCELED_BEFORE_RUN)) {
+                callProcessFinished(this);
+            }
+        }
+    }
+
+}
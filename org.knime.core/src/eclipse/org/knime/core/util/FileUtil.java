@@ -72,17 +72,28 @@
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Enumeration;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.Stack;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Predicate;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+import java.util.zip.ZipFile;
 import java.util.zip.ZipInputStream;
 import java.util.zip.ZipOutputStream;
 
@@ -410,6 +421,39 @@ private static boolean deleteRecursively(final File dir, final boolean removeFro
     // size of read buffer when reading/writing from/to a zip stream
     private static final int BUFF_SIZE = 16384;
 
+    /** Whether archive files are written and extracted with multiple threads, see
+     * {@link KNIMEConstants#PROPERTY_PARALLEL_ZIP}. */
+    private static final boolean PARALLEL_ZIP =
+        !"false".equalsIgnoreCase(System.getProperty(KNIMEConstants.PROPERTY_PARALLEL_ZIP));
+
+    /** @return number of threads used to write or extract an archive file, 1 if sequential. */
+    private static int getZipThreads() {
+        return PARALLEL_ZIP ? Runtime.getRuntime().availableProcessors() : 1;
+    }
+
+    /** Pool shared by all parallel zip and unzip operations, created on first use; see {@link #getZipExecutor()}. */
+    private static ExecutorService zipExecutor;
+
+    /**
+     * @return the executor deflating and inflating archive entries, shared by all concurrent (un)zip operations.
+     *         It must not be shut down, its idle threads time out.
+     */
+    private static synchronized ExecutorService getZipExecutor() {
+        if (zipExecutor == null) {
+            final AtomicInteger threadCount = new AtomicInteger();
+            final int threads = getZipThreads();
+            final ThreadPoolExecutor pool = new ThreadPoolExecutor(threads, threads, 30, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), r -> {
+                    Thread t = new Thread(r, "KNIME-Zip-Worker-" + threadCount.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                });
+            pool.allowCoreThreadTimeOut(true);
+            zipExecutor = ThreadUtils.executorServiceWithContext(pool);
+        }
+        return zipExecutor;
+    }
+
     /**
      * Packs all files and directories passed in the includeList into a zip
      * file. Recursively adds all files contained in directories. Files in the
@@ -446,6 +490,10 @@ public static boolean zipDir(final File zipFile,
             final Collection<File> includeList, final int compressionLevel,
             final ZipFileFilter filter, final ExecutionMonitor exec)
             throws IOException, CanceledExecutionException {
+        final int threads = getZipThreads();
+        if (threads > 1) {
+            return zipDirParallel(zipFile, includeList, compressionLevel, filter, exec, threads);
+        }
         ZipOutputStream zout =
                 new ZipOutputStream(new BufferedOutputStream(
                         new FileOutputStream(zipFile)));
@@ -557,6 +605,90 @@ public static boolean zipDir(final ZipOutputStream zout,
         return complete;
     }
 
+    /**
+     * Same as {@link #zipDir(File, Collection, int, ZipFileFilter, ExecutionMonitor)} but using a
+     * {@link ParallelZipWriter}, which doesn't re-compress compressed files and deflates the others concurrently.
+     */
+    private static boolean zipDirParallel(final File zipFile, final Collection<File> includeList,
+        final int compressionLevel, final ZipFileFilter filter, final ExecutionMonitor exec, final int threads)
+        throws IOException, CanceledExecutionException {
+        ExecutionMonitor execMon = exec;
+        if (execMon == null) {
+            execMon = new ExecutionMonitor();
+        }
+        long size = 0;
+        if (exec != null) {
+            for (File f : includeList) {
+                size += getFileSizeRec(f);
+            }
+        } else {
+            size = Long.MAX_VALUE;
+        }
+        // false if unable to look into a sub dir or to read a file
+        boolean complete = true;
+        // closing the writer cancels its pending chunks, the shared executor itself is never shut down
+        try (ParallelZipWriter zipper = new ParallelZipWriter(new BufferedOutputStream(
+            new FileOutputStream(zipFile), 1 << 16), compressionLevel, getZipExecutor(), threads, execMon, size)) {
+            for (File f : includeList) {
+                if (!filter.include(f)) {
+                    continue;
+                }
+                if (f.isFile()) {
+                    complete &= addZipEntry(zipper, f, f.getName());
+                } else if (f.isDirectory()) {
+                    complete &= addOneDir(zipper, f, filter);
+                } else {
+                    throw new IOException("File " + f.getAbsolutePath() + " not added to zip archive");
+                }
+            }
+            zipper.finish();
+        }
+        return complete;
+    }
+
+    private static boolean addOneDir(final ParallelZipWriter zipper, final File rootDir, final ZipFileFilter filter)
+        throws IOException, CanceledExecutionException {
+        // false if unable to look into a sub dir
+        boolean complete = true;
+        Stack<File> dirs = new Stack<File>();
+        String rootName = rootDir.getName();
+        zipper.addDirectory(rootName + "/");
+        dirs.push(rootDir);
+        int rootEndIdx = rootDir.getAbsolutePath().length() + 1;
+        while (!dirs.isEmpty()) {
+            File d = dirs.pop();
+            File[] ls = d.listFiles();
+            if (ls == null) {
+                // the dir was not accessible
+                complete = false;
+                continue;
+            }
+            for (File f : ls) {
+                if (!filter.include(f)) {
+                    continue;
+                }
+                String fName = f.getAbsolutePath().substring(rootEndIdx).replace('\\', '/');
+                String entryName = rootName + "/" + fName;
+                if (f.isFile()) {
+                    complete &= addZipEntry(zipper, f, entryName);
+                } else if (f.isDirectory()) {
+                    zipper.addDirectory(entryName + "/");
+                    dirs.push(f);
+                }
+            }
+        }
+        return complete;
+    }
+
+    private static boolean addZipEntry(final ParallelZipWriter zipper, final File f, final String entryName)
+        throws IOException, CanceledExecutionException {
+        if (!zipper.addFile(f, entryName)) {
+            LOGGER.debug("Unable to read file, not added to zip archive (" + f.getAbsolutePath() + ")");
+            return false;
+        }
+        return true;
+    }
+
     /**
      * recursively adds the file sizes.
      * @param fileOrDir to get the (contained) size for. Must not be null.
@@ -777,6 +909,26 @@ public static void unzip(final File zipFile, final File destDir)
         if (!destDir.isDirectory()) {
             throw new IOException("Destination is not a directory: " + destDir);
         }
+        final int threads = getZipThreads();
+        if (threads > 1) {
+            ZipFile zip;
+            try {
+                zip = new ZipFile(zipFile);
+            } catch (ZipException ze) {
+                // e.g. archives without (valid) central directory, only readable as stream
+                LOGGER.debug("Unable to open \"" + zipFile.getAbsolutePath()
+                    + "\" with random access, extracting sequentially: " + ze.getMessage(), ze);
+                zip = null;
+            }
+            if (zip != null) {
+                try {
+                    unzipParallel(zip, destDir, threads);
+                } finally {
+                    zip.close();
+                }
+                return;
+            }
+        }
         ZipInputStream in = new ZipInputStream(new FileInputStream(zipFile));
         unzip(in, destDir, 0);
     }
@@ -833,6 +985,71 @@ public static void unzip(final ZipInputStream zipStream, final File dir,
 
     }
 
+    /**
+     * Extracts the entries of a zip file concurrently, the equivalent of {@link #unzip(ZipInputStream, File, int)}
+     * with a strip level of 0. Directories are created up-front, the files are then inflated by the given number of
+     * threads (each reading its own input stream of the zip file).
+     */
+    private static void unzipParallel(final ZipFile zip, final File dir, final int threads) throws IOException {
+        // later entries with the same name overwrite earlier ones as in the sequential extraction
+        final Map<File, ZipEntry> fileEntries = new LinkedHashMap<>();
+        for (Enumeration<? extends ZipEntry> en = zip.entries(); en.hasMoreElements();) {
+            ZipEntry e = en.nextElement();
+            String name = stripOff(e.getName().replace('\\', '/'), 0);
+            if (e.isDirectory()) {
+                if (!name.isEmpty() && !name.equals("/")) {
+                    File d = new File(dir, name);
+                    if (!d.mkdirs() && !d.exists()) {
+                        throw new IOException("Could not create directory '" + d.getAbsolutePath() + "'.");
+                    }
+                }
+            } else {
+                File f = new File(dir, name);
+                File parentDir = f.getParentFile();
+                if (!parentDir.exists() && !parentDir.mkdirs()) {
+                    throw new IOException("Could not create directory '" + parentDir.getAbsolutePath() + "'.");
+                }
+                fileEntries.remove(f);
+                fileEntries.put(f, e);
+            }
+        }
+        final ExecutorService executor = getZipExecutor();
+        final List<Future<Void>> futures = new ArrayList<>(fileEntries.size());
+        try {
+            for (Map.Entry<File, ZipEntry> fileEntry : fileEntries.entrySet()) {
+                futures.add(executor.submit(() -> {
+                    byte[] buf = new byte[BUFF_SIZE];
+                    try (InputStream in = zip.getInputStream(fileEntry.getValue());
+                            OutputStream out = new FileOutputStream(fileEntry.getKey())) {
+                        int read;
+                        while ((read = in.read(buf)) >= 0) {
+                            out.write(buf, 0, read);
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (Future<Void> future : futures) {
+                try {
+                    future.get();
+                } catch (ExecutionException ee) {
+                    if (ee.getCause() instanceof IOException) {
+                        throw (IOException)ee.getCause();
+                    }
+                    throw new IOException(ee.getCause().getMessage(), ee.getCause());
+                }
+            }
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while extracting " + zip.getName(), ie);
+        } finally {
+            // no-op for completed entries, stops the remaining ones if an entry failed
+            for (Future<Void> future : futures) {
+                future.cancel(true);
+            }
+        }
+    }
+
     /**
      * Strip off the path the specified amount of segments. Segment separator
      * must be a '/'.
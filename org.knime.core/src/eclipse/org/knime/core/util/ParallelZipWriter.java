@@ -0,0 +1,680 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ------------------------------------------------------------------------
+ *
+ */
+package org.knime.core.util;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.ZipException;
+
+import org.knime.core.node.CanceledExecutionException;
+import org.knime.core.node.ExecutionMonitor;
+
+/**
+ * Writes zip archives using multiple threads. Files whose content is already compressed (zip, gzip, snappy, common
+ * image formats -- detected by their leading magic bytes) are added uncompressed (STORED) so that they are not
+ * deflated a second time. All other files are split into chunks of {@value #CHUNK_SIZE} bytes that are deflated
+ * concurrently by an executor and concatenated into one deflate stream per entry (as done by <i>pigz</i>), using the
+ * tail of the preceding chunk as dictionary to keep the compression ratio close to a sequential deflater.
+ *
+ * <p>
+ * The archive is streamed to the output in entry order; the number of chunks held in memory is bounded. Deflated
+ * entries use data descriptors, ZIP64 extensions are written where sizes or offsets require them. The archives are
+ * readable by {@link java.util.zip.ZipInputStream} and {@link java.util.zip.ZipFile}.
+ *
+ * <p>
+ * Instances are not thread-safe, all methods are to be called by the same thread.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+final class ParallelZipWriter implements Closeable {
+
+    /** Size of the chunks deflated independently. */
+    static final int CHUNK_SIZE = 1 << 20;
+
+    /** Size of the deflate window, used as dictionary for the next chunk. */
+    private static final int DICT_SIZE = 1 << 15;
+
+    private static final long ZIP64_MAGICVAL = 0xFFFFFFFFL;
+
+    private static final int ZIP64_MAGICCOUNT = 0xFFFF;
+
+    private static final int LOCSIG = 0x04034b50;
+
+    private static final int EXTSIG = 0x08074b50;
+
+    private static final int CENSIG = 0x02014b50;
+
+    private static final int ENDSIG = 0x06054b50;
+
+    private static final int ZIP64_ENDSIG = 0x06064b50;
+
+    private static final int ZIP64_LOCSIG = 0x07064b50;
+
+    private static final int ZIP64_EXTID = 0x0001;
+
+    private static final int STORED = 0;
+
+    private static final int DEFLATED = 8;
+
+    /** General purpose flag: sizes and CRC follow the data in a data descriptor. */
+    private static final int FLAG_DATA_DESCRIPTOR = 0x08;
+
+    /** General purpose flag: names are UTF-8 encoded. */
+    private static final int FLAG_UTF8 = 0x800;
+
+    /** Leading bytes of formats that do not profit from deflation. */
+    private static final byte[][] COMPRESSED_MAGICS = new byte[][]{
+        {0x50, 0x4B, 0x03, 0x04}, // zip (e.g. data.zip of saved tables)
+        {0x50, 0x4B, 0x05, 0x06}, // empty zip
+        {0x1F, (byte)0x8B}, // gzip
+        {(byte)0x82, 'S', 'N', 'A', 'P', 'P', 'Y', 0}, // snappy stream (table buffers)
+        {(byte)0x89, 'P', 'N', 'G'}, // png
+        {(byte)0xFF, (byte)0xD8, (byte)0xFF}, // jpeg
+    };
+
+    private final OutputStream m_out;
+
+    private final ExecutorService m_executor;
+
+    private final int m_level;
+
+    private final int m_maxPendingChunks;
+
+    private final ExecutionMonitor m_exec;
+
+    private final long m_totalSize;
+
+    private final int m_dosTime;
+
+    private final Deque<Step> m_pending = new ArrayDeque<>();
+
+    private final List<Entry> m_entries = new ArrayList<>();
+
+    private final Set<String> m_names = new HashSet<>();
+
+    private final byte[] m_headerBuffer = new byte[64];
+
+    private final byte[] m_copyBuffer = new byte[16384];
+
+    private long m_written;
+
+    private long m_bytesProcessed;
+
+    private boolean m_finished;
+
+    /**
+     * @param out the destination, not closed by this class unless {@link #close()} is called
+     * @param level the deflate level, {@link Deflater#NO_COMPRESSION} stores all entries uncompressed
+     * @param executor the executor deflating chunks, must have at least one thread; not shut down by this class,
+     *            pending chunks are canceled on {@link #close()}
+     * @param parallelism the number of threads of the executor, determines the number of chunks kept in memory
+     * @param exec for progress and cancelation, not null
+     * @param totalSize the total number of bytes to archive, used for progress reporting only
+     */
+    ParallelZipWriter(final OutputStream out, final int level, final ExecutorService executor,
+        final int parallelism, final ExecutionMonitor exec, final long totalSize) {
+        m_out = out;
+        m_level = level;
+        m_executor = executor;
+        m_maxPendingChunks = 4 * Math.max(1, parallelism);
+        m_exec = exec;
+        m_totalSize = totalSize;
+        m_dosTime = toDosTime(LocalDateTime.now());
+    }
+
+    /**
+     * Adds a directory entry.
+     *
+     * @param name the entry name, ending with '/'
+     * @throws ZipException if an entry with the same name was added before
+     * @throws IOException if writing fails
+     * @throws CanceledExecutionException if canceled
+     */
+    void addDirectory(final String name) throws IOException, CanceledExecutionException {
+        checkDuplicate(name);
+        m_names.add(name);
+        final Entry e = new Entry(name, STORED, 0);
+        enqueue(new Step(null) {
+            @Override
+            void write() throws IOException {
+                writeLocalHeader(e);
+            }
+        });
+    }
+
+    /**
+     * Adds a file entry. The content is read asynchronously, the entry is written once all preceding entries are.
+     *
+     * @param file the file to add
+     * @param name the entry name
+     * @return <code>true</code> if the entry was added, <code>false</code> if the file can't be read (no entry is
+     *         added then)
+     * @throws ZipException if an entry with the same name was added before
+     * @throws IOException if writing a previously added entry fails
+     * @throws CanceledExecutionException if canceled
+     */
+    boolean addFile(final File file, final String name) throws IOException, CanceledExecutionException {
+        checkDuplicate(name);
+        final boolean compressed;
+        try {
+            // also probes whether the file is readable at all
+            compressed = isCompressed(file) || m_level == Deflater.NO_COMPRESSION;
+        } catch (IOException ex) {
+            return false;
+        }
+        m_names.add(name);
+        if (compressed) {
+            addStoredFile(file, name);
+        } else {
+            addDeflatedFile(file, name, file.length());
+        }
+        return true;
+    }
+
+    /** Same check (and message) as in {@link java.util.zip.ZipOutputStream#putNextEntry(java.util.zip.ZipEntry)}. */
+    private void checkDuplicate(final String name) throws ZipException {
+        if (m_names.contains(name)) {
+            throw new ZipException("duplicate entry: " + name);
+        }
+    }
+
+    private void addStoredFile(final File file, final String name) throws IOException, CanceledExecutionException {
+        final Entry e = new Entry(name, STORED, 0);
+        // STORED entries need size and crc in the local header, hence the file is read twice; the checksum pass
+        // runs in parallel to the other entries, the copy pass usually hits the OS cache
+        final Future<long[]> crcFuture = m_executor.submit(() -> {
+            CRC32 crc = new CRC32();
+            long size = 0;
+            byte[] buf = new byte[CHUNK_SIZE];
+            try (InputStream in = new FileInputStream(file)) {
+                int read;
+                while ((read = in.read(buf)) >= 0) {
+                    crc.update(buf, 0, read);
+                    size += read;
+                }
+            }
+            return new long[]{crc.getValue(), size};
+        });
+        enqueue(new Step(crcFuture) {
+            @Override
+            void write() throws IOException, CanceledExecutionException {
+                long[] crcAndSize = get(crcFuture);
+                e.m_crc = crcAndSize[0];
+                e.m_size = crcAndSize[1];
+                e.m_csize = crcAndSize[1];
+                writeLocalHeader(e);
+                long remaining = e.m_size;
+                try (InputStream in = new FileInputStream(file)) {
+                    while (remaining > 0) {
+                        int read = in.read(m_copyBuffer, 0, (int)Math.min(m_copyBuffer.length, remaining));
+                        if (read < 0) {
+                            throw new IOException("File \"" + file.getAbsolutePath() + "\" changed while archiving");
+                        }
+                        m_out.write(m_copyBuffer, 0, read);
+                        m_written += read;
+                        remaining -= read;
+                        progress(read, null);
+                    }
+                }
+                progress(0, name);
+            }
+        });
+    }
+
+    private void addDeflatedFile(final File file, final String name, final long length)
+        throws IOException, CanceledExecutionException {
+        final Entry e = new Entry(name, DEFLATED, FLAG_DATA_DESCRIPTOR);
+        final CRC32 crc = new CRC32();
+        final long chunkCount = Math.max(1, (length + CHUNK_SIZE - 1) / CHUNK_SIZE);
+        for (long c = 0; c < chunkCount; c++) {
+            final long offset = c * CHUNK_SIZE;
+            final boolean first = c == 0;
+            final boolean last = c == chunkCount - 1;
+            final Future<Chunk> chunkFuture = m_executor.submit(() -> deflateChunk(file, offset, last));
+            enqueue(new Step(chunkFuture) {
+                @Override
+                void write() throws IOException, CanceledExecutionException {
+                    Chunk chunk = get(chunkFuture);
+                    if (first) {
+                        writeLocalHeader(e);
+                    }
+                    crc.update(chunk.m_data, chunk.m_dataOffset, chunk.m_dataLength);
+                    m_out.write(chunk.m_deflated, 0, chunk.m_deflatedLength);
+                    m_written += chunk.m_deflatedLength;
+                    e.m_size += chunk.m_dataLength;
+                    e.m_csize += chunk.m_deflatedLength;
+                    progress(chunk.m_dataLength, null);
+                    if (last) {
+                        e.m_crc = crc.getValue();
+                        writeDataDescriptor(e);
+                        progress(0, name);
+                    }
+                }
+            });
+        }
+    }
+
+    /** Reads and deflates one chunk, the last chunk of an entry finishes the deflate stream. */
+    private Chunk deflateChunk(final File file, final long offset, final boolean last) throws IOException {
+        final int dictLength = (int)Math.min(DICT_SIZE, offset);
+        final byte[] data = new byte[dictLength + CHUNK_SIZE];
+        int totalLength = 0;
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+            raf.seek(offset - dictLength);
+            int read;
+            while (totalLength < data.length
+                && (read = raf.read(data, totalLength, data.length - totalLength)) >= 0) {
+                totalLength += read;
+            }
+        }
+        if (totalLength < dictLength) {
+            throw new IOException("File \"" + file.getAbsolutePath() + "\" changed while archiving");
+        }
+        final int dataLength = totalLength - dictLength;
+        final Deflater deflater = new Deflater(m_level, true);
+        try {
+            if (dictLength > 0) {
+                deflater.setDictionary(data, 0, dictLength);
+            }
+            deflater.setInput(data, dictLength, dataLength);
+            if (last) {
+                deflater.finish();
+            }
+            byte[] out = new byte[dataLength + (dataLength >> 3) + 64];
+            int outLength = 0;
+            while (true) {
+                if (outLength == out.length) {
+                    out = Arrays.copyOf(out, 2 * out.length);
+                }
+                int space = out.length - outLength;
+                if (last) {
+                    outLength += deflater.deflate(out, outLength, space);
+                    if (deflater.finished()) {
+                        break;
+                    }
+                } else {
+                    // sync flush ends the chunk on a byte boundary so that the chunks can be concatenated
+                    int deflated = deflater.deflate(out, outLength, space, Deflater.SYNC_FLUSH);
+                    outLength += deflated;
+                    if (deflated < space) {
+                        break;
+                    }
+                }
+            }
+            return new Chunk(data, dictLength, dataLength, out, outLength);
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private void enqueue(final Step step) throws IOException, CanceledExecutionException {
+        m_exec.checkCanceled();
+        m_pending.addLast(step);
+        while (m_pending.size() > m_maxPendingChunks) {
+            m_pending.removeFirst().write();
+        }
+    }
+
+    /**
+     * Writes all pending entries and the central directory. Does not close the underlying stream.
+     *
+     * @throws IOException if writing fails
+     * @throws CanceledExecutionException if canceled
+     */
+    void finish() throws IOException, CanceledExecutionException {
+        if (m_finished) {
+            return;
+        }
+        while (!m_pending.isEmpty()) {
+            m_pending.removeFirst().write();
+        }
+        writeCentralDirectory();
+        m_out.flush();
+        m_finished = true;
+    }
+
+    /**
+     * Cancels all pending chunks (if not {@link #finish() finished}) and closes the underlying stream.
+     *
+     * {@inheritDoc}
+     */
+    @Override
+    public void close() throws IOException {
+        for (Step step : m_pending) {
+            step.cancel();
+        }
+        m_pending.clear();
+        m_out.close();
+    }
+
+    private void progress(final long bytes, final String addedEntry) throws CanceledExecutionException {
+        m_exec.checkCanceled();
+        m_bytesProcessed += bytes;
+        if (addedEntry == null) {
+            m_exec.setProgress(m_bytesProcessed / (double)m_totalSize);
+        } else {
+            m_exec.setProgress(m_bytesProcessed / (double)m_totalSize, "Added file " + addedEntry);
+        }
+    }
+
+    /** Format of the local header is described in section 4.3.7 of the zip APPNOTE. */
+    private void writeLocalHeader(final Entry e) throws IOException {
+        e.m_offset = m_written;
+        final boolean zip64 = e.m_method == STORED && e.m_size >= ZIP64_MAGICVAL;
+        int pos = 0;
+        pos = putInt(pos, LOCSIG);
+        pos = putShort(pos, zip64 ? 45 : e.versionNeeded());
+        pos = putShort(pos, e.m_flag);
+        pos = putShort(pos, e.m_method);
+        pos = putInt(pos, m_dosTime);
+        if ((e.m_flag & FLAG_DATA_DESCRIPTOR) != 0) {
+            pos = putInt(pos, 0);
+            pos = putInt(pos, 0);
+            pos = putInt(pos, 0);
+        } else {
+            pos = putInt(pos, (int)e.m_crc);
+            pos = putInt(pos, zip64 ? (int)ZIP64_MAGICVAL : (int)e.m_csize);
+            pos = putInt(pos, zip64 ? (int)ZIP64_MAGICVAL : (int)e.m_size);
+        }
+        pos = putShort(pos, e.m_name.length);
+        pos = putShort(pos, zip64 ? 20 : 0);
+        writeHeader(pos);
+        writeBytes(e.m_name);
+        if (zip64) {
+            pos = putShort(0, ZIP64_EXTID);
+            pos = putShort(pos, 16);
+            pos = putLong(pos, e.m_size);
+            pos = putLong(pos, e.m_csize);
+            writeHeader(pos);
+        }
+        m_entries.add(e);
+    }
+
+    private void writeDataDescriptor(final Entry e) throws IOException {
+        int pos = 0;
+        pos = putInt(pos, EXTSIG);
+        pos = putInt(pos, (int)e.m_crc);
+        if (e.m_size > ZIP64_MAGICVAL || e.m_csize > ZIP64_MAGICVAL) {
+            // same rule as in java.util.zip.ZipInputStream#readEnd, which expects 8 byte sizes only if one of them
+            // exceeds (not equals) the magic value; a size of exactly 0xFFFFFFFF still fits into 4 bytes
+            pos = putLong(pos, e.m_csize);
+            pos = putLong(pos, e.m_size);
+        } else {
+            pos = putInt(pos, (int)e.m_csize);
+            pos = putInt(pos, (int)e.m_size);
+        }
+        writeHeader(pos);
+    }
+
+    private void writeCentralDirectory() throws IOException {
+        final long cenOffset = m_written;
+        for (Entry e : m_entries) {
+            final boolean size64 = e.m_size >= ZIP64_MAGICVAL;
+            final boolean csize64 = e.m_csize >= ZIP64_MAGICVAL;
+            final boolean offset64 = e.m_offset >= ZIP64_MAGICVAL;
+            final int extraLength = (size64 ? 8 : 0) + (csize64 ? 8 : 0) + (offset64 ? 8 : 0);
+            final int version = extraLength > 0 ? 45 : e.versionNeeded();
+            int pos = 0;
+            pos = putInt(pos, CENSIG);
+            pos = putShort(pos, version);
+            pos = putShort(pos, version);
+            pos = putShort(pos, e.m_flag);
+            pos = putShort(pos, e.m_method);
+            pos = putInt(pos, m_dosTime);
+            pos = putInt(pos, (int)e.m_crc);
+            pos = putInt(pos, csize64 ? (int)ZIP64_MAGICVAL : (int)e.m_csize);
+            pos = putInt(pos, size64 ? (int)ZIP64_MAGICVAL : (int)e.m_size);
+            pos = putShort(pos, e.m_name.length);
+            pos = putShort(pos, extraLength > 0 ? extraLength + 4 : 0);
+            pos = putShort(pos, 0); // comment length
+            pos = putShort(pos, 0); // disk number
+            pos = putShort(pos, 0); // internal attributes
+            pos = putInt(pos, 0); // external attributes
+            pos = putInt(pos, offset64 ? (int)ZIP64_MAGICVAL : (int)e.m_offset);
+            writeHeader(pos);
+            writeBytes(e.m_name);
+            if (extraLength > 0) {
+                pos = putShort(0, ZIP64_EXTID);
+                pos = putShort(pos, extraLength);
+                if (size64) {
+                    pos = putLong(pos, e.m_size);
+                }
+                if (csize64) {
+                    pos = putLong(pos, e.m_csize);
+                }
+                if (offset64) {
+                    pos = putLong(pos, e.m_offset);
+                }
+                writeHeader(pos);
+            }
+        }
+        final long cenSize = m_written - cenOffset;
+        final int count = m_entries.size();
+        final boolean zip64 = count >= ZIP64_MAGICCOUNT || cenOffset >= ZIP64_MAGICVAL || cenSize >= ZIP64_MAGICVAL;
+        if (zip64) {
+            final long zip64EndOffset = m_written;
+            int pos = 0;
+            pos = putInt(pos, ZIP64_ENDSIG);
+            pos = putLong(pos, 44); // size of remaining record
+            pos = putShort(pos, 45);
+            pos = putShort(pos, 45);
+            pos = putInt(pos, 0); // number of this disk
+            pos = putInt(pos, 0); // disk with central directory
+            pos = putLong(pos, count);
+            pos = putLong(pos, count);
+            pos = putLong(pos, cenSize);
+            pos = putLong(pos, cenOffset);
+            writeHeader(pos);
+            pos = 0;
+            pos = putInt(pos, ZIP64_LOCSIG);
+            pos = putInt(pos, 0);
+            pos = putLong(pos, zip64EndOffset);
+            pos = putInt(pos, 1); // total number of disks
+            writeHeader(pos);
+        }
+        int pos = 0;
+        pos = putInt(pos, ENDSIG);
+        pos = putShort(pos, 0);
+        pos = putShort(pos, 0);
+        pos = putShort(pos, Math.min(count, ZIP64_MAGICCOUNT));
+        pos = putShort(pos, Math.min(count, ZIP64_MAGICCOUNT));
+        pos = putInt(pos, (int)Math.min(cenSize, ZIP64_MAGICVAL));
+        pos = putInt(pos, (int)Math.min(cenOffset, ZIP64_MAGICVAL));
+        pos = putShort(pos, 0); // comment length
+        writeHeader(pos);
+    }
+
+    private int putShort(final int pos, final int v) {
+        m_headerBuffer[pos] = (byte)v;
+        m_headerBuffer[pos + 1] = (byte)(v >>> 8);
+        return pos + 2;
+    }
+
+    private int putInt(final int pos, final int v) {
+        putShort(pos, v & 0xFFFF);
+        return putShort(pos + 2, v >>> 16);
+    }
+
+    private int putLong(final int pos, final long v) {
+        putInt(pos, (int)v);
+        return putInt(pos + 4, (int)(v >>> 32));
+    }
+
+    private void writeHeader(final int length) throws IOException {
+        m_out.write(m_headerBuffer, 0, length);
+        m_written += length;
+    }
+
+    private void writeBytes(final byte[] bytes) throws IOException {
+        m_out.write(bytes);
+        m_written += bytes.length;
+    }
+
+    /**
+     * @param file the file to test
+     * @return whether the file starts with the magic bytes of a compressed format
+     * @throws IOException if the file can't be read
+     */
+    static boolean isCompressed(final File file) throws IOException {
+        final byte[] head = new byte[8];
+        int length = 0;
+        try (InputStream in = new FileInputStream(file)) {
+            int read;
+            while (length < head.length && (read = in.read(head, length, head.length - length)) >= 0) {
+                length += read;
+            }
+        }
+        outer: for (byte[] magic : COMPRESSED_MAGICS) {
+            if (magic.length > length) {
+                continue;
+            }
+            for (int i = 0; i < magic.length; i++) {
+                if (head[i] != magic[i]) {
+                    continue outer;
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+
+    private static int toDosTime(final LocalDateTime t) {
+        if (t.getYear() < 1980) {
+            return (1 << 21) | (1 << 16);
+        }
+        return (t.getYear() - 1980) << 25 | t.getMonthValue() << 21 | t.getDayOfMonth() << 16 | t.getHour() << 11
+            | t.getMinute() << 5 | t.getSecond() >> 1;
+    }
+
+    private static <T> T get(final Future<T> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while writing zip archive", ex);
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof IOException) {
+                throw (IOException)ex.getCause();
+            }
+            throw new IOException(ex.getCause().getMessage(), ex.getCause());
+        }
+    }
+
+    /** An entry as recorded in the central directory. */
+    private static final class Entry {
+        private final byte[] m_name;
+        private final int m_method;
+        private final int m_flag;
+        private long m_crc;
+        private long m_size;
+        private long m_csize;
+        private long m_offset;
+
+        Entry(final String name, final int method, final int flag) {
+            m_name = name.getBytes(StandardCharsets.UTF_8);
+            m_method = method;
+            m_flag = flag | FLAG_UTF8;
+        }
+
+        int versionNeeded() {
+            return m_method == DEFLATED ? 20 : 10;
+        }
+    }
+
+    /** Deflated chunk along with its raw data (required for the entry's checksum). */
+    private static final class Chunk {
+        private final byte[] m_data;
+        private final int m_dataOffset;
+        private final int m_dataLength;
+        private final byte[] m_deflated;
+        private final int m_deflatedLength;
+
+        Chunk(final byte[] data, final int dataOffset, final int dataLength, final byte[] deflated,
+            final int deflatedLength) {
+            m_data = data;
+            m_dataOffset = dataOffset;
+            m_dataLength = dataLength;
+            m_deflated = deflated;
+            m_deflatedLength = deflatedLength;
+        }
+    }
+
+    /** An element of the output written in order once its (asynchronously computed) content is available. */
+    private abstract static class Step {
+        private final Future<?> m_future;
+
+        Step(final Future<?> future) {
+            m_future = future;
+        }
+
+        abstract void write() throws IOException, CanceledExecutionException;
+
+        void cancel() {
+            if (m_future != null) {
+                m_future.cancel(true);
+            }
+        }
+    }
+}